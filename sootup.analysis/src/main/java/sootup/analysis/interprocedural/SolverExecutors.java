@@ -0,0 +1,47 @@
+package sootup.analysis.interprocedural;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import heros.solver.CountingThreadPoolExecutor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/** Creates the executors of the Jimple IFDS and IDE solvers. */
+public final class SolverExecutors {
+
+  private SolverExecutors() {}
+
+  /**
+   * Creates an executor whose workers are all core threads: the executor of heros has a single core
+   * thread and an unbounded queue, and therefore never starts a second worker. Only problems that
+   * explicitly ask for several threads are solved on such an executor; all other problems keep
+   * running on one thread.
+   */
+  public static CountingThreadPoolExecutor newExecutor(int numThreads) {
+    CountingThreadPoolExecutor executor =
+        new CountingThreadPoolExecutor(
+            numThreads, numThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+}
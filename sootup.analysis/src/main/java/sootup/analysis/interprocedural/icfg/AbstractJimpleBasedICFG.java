@@ -28,12 +28,15 @@ import heros.DontSynchronize;
 import heros.SynchronizedBy;
 import heros.solver.IDESolver;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
 import sootup.core.views.View;
 
 public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<Stmt, SootMethod> {
@@ -45,6 +48,13 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   @DontSynchronize("written by single thread; read afterwards")
   private final Map<Stmt, Body> stmtToOwner = createStmtToOwnerMap();
 
+  /**
+   * The compiled form of the owner mapping, or null if the mapping changed since the last call to
+   * {@link #compile()}.
+   */
+  @DontSynchronize("replaced as a whole; read-only once published")
+  private volatile StmtIndex stmtIndex;
+
   @SynchronizedBy("by use of synchronized LoadingCache class")
   protected LoadingCache<Body, StmtGraph<?>> bodyToStmtGraph =
       IDESolver.DEFAULT_CACHE_BUILDER.build(
@@ -87,19 +97,46 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
     this.enableExceptions = enableExceptions;
   }
 
+  /**
+   * Compiles the statements registered so far into a {@link StmtIndex}: each statement gets a dense
+   * id, and its owner, successors, predecessors and whether it is a start point or an exit are
+   * stored in arrays indexed by that id. Queries are answered from the index until the owner
+   * mapping is changed again. As the index is never modified, concurrent queries of a solver's
+   * worker threads do not contend on the caches of this class.
+   */
+  public synchronized void compile() {
+    stmtIndex = new StmtIndex(stmtToOwner, this::getOrCreateStmtGraph, this::isCallStmt, view);
+  }
+
   public Body getBodyOf(Stmt stmt) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int id = index.idOf(stmt);
+      assert id >= 0 : "Statement " + stmt + " not in Stmt-to-owner mapping";
+      return id < 0 ? null : index.bodies[index.owners[id]];
+    }
     assert stmtToOwner.containsKey(stmt) : "Statement " + stmt + " not in Stmt-to-owner mapping";
     return stmtToOwner.get(stmt);
   }
 
   @Override
   public SootMethod getMethodOf(Stmt stmt) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int id = index.idOf(stmt);
+      return id < 0 ? null : index.methods[index.owners[id]];
+    }
     Body b = getBodyOf(stmt);
     return b == null ? null : view.getMethod(b.getMethodSignature()).orElse(null);
   }
 
   @Override
   public List<Stmt> getSuccsOf(Stmt stmt) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int id = index.idOf(stmt);
+      return id < 0 ? Collections.emptyList() : index.successors[id];
+    }
     Body body = getBodyOf(stmt);
     if (body == null) {
       return Collections.emptyList();
@@ -110,10 +147,24 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public StmtGraph<?> getOrCreateStmtGraph(SootMethod method) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int owner = index.ownerOf(method);
+      if (owner >= 0) {
+        return index.graphs[owner];
+      }
+    }
     return getOrCreateStmtGraph(method.getBody());
   }
 
   public StmtGraph<?> getOrCreateStmtGraph(Body body) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int owner = index.ownerOf(body);
+      if (owner >= 0) {
+        return index.graphs[owner];
+      }
+    }
     return bodyToStmtGraph.getUnchecked(body);
   }
 
@@ -136,6 +187,11 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public boolean isExitStmt(Stmt stmt) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int id = index.idOf(stmt);
+      return id >= 0 && index.exits.get(id);
+    }
     Body body = getBodyOf(stmt);
     StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
     return unitGraph.getTails().contains(stmt);
@@ -143,6 +199,11 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public boolean isStartPoint(Stmt stmt) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int id = index.idOf(stmt);
+      return id >= 0 && index.startPoints.get(id);
+    }
     Body body = getBodyOf(stmt);
     StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
     return unitGraph.getEntrypoints().contains(stmt);
@@ -166,11 +227,25 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public List<Value> getParameterRefs(SootMethod m) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int owner = index.ownerOf(m);
+      if (owner >= 0) {
+        return index.parameterRefsOf[owner];
+      }
+    }
     return methodToParameterRefs.getUnchecked(m);
   }
 
   @Override
   public Collection<Stmt> getStartPointsOf(SootMethod m) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int owner = index.ownerOf(m);
+      if (owner >= 0) {
+        return index.startPointsOf[owner];
+      }
+    }
     if (m.hasBody()) {
       Body body = m.getBody();
       StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
@@ -179,7 +254,15 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
     return Collections.emptySet();
   }
 
+  /** Returns the bodies of the registered statements, i.e. the bodies this ICFG is built on. */
+  protected Collection<Body> getOwnerBodies() {
+    Set<Body> bodies = Collections.newSetFromMap(new IdentityHashMap<>());
+    bodies.addAll(stmtToOwner.values());
+    return bodies;
+  }
+
   public boolean setOwnerStatement(Stmt u, Body b) {
+    stmtIndex = null;
     return stmtToOwner.put(u, b) == null;
   }
 
@@ -190,6 +273,18 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public Set<Stmt> allNonCallStartNodes() {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      Set<Stmt> res = new LinkedHashSet<>();
+      for (int id = index.startPoints.nextClearBit(0);
+          id < index.stmts.length;
+          id = index.startPoints.nextClearBit(id + 1)) {
+        if (!isCallStmt(index.stmts[id])) {
+          res.add(index.stmts[id]);
+        }
+      }
+      return res;
+    }
     Set<Stmt> res = new LinkedHashSet<>(stmtToOwner.keySet());
     res.removeIf(u -> isStartPoint(u) || isCallStmt(u));
     return res;
@@ -197,6 +292,18 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public Set<Stmt> allNonCallEndNodes() {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      Set<Stmt> res = new LinkedHashSet<>();
+      for (int id = index.exits.nextClearBit(0);
+          id < index.stmts.length;
+          id = index.exits.nextClearBit(id + 1)) {
+        if (!isCallStmt(index.stmts[id])) {
+          res.add(index.stmts[id]);
+        }
+      }
+      return res;
+    }
     Set<Stmt> res = new LinkedHashSet<>(stmtToOwner.keySet());
     res.removeIf(u -> isExitStmt(u) || isCallStmt(u));
     return res;
@@ -209,11 +316,19 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public Set<Stmt> getCallsFromWithin(SootMethod m) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int owner = index.ownerOf(m);
+      if (owner >= 0) {
+        return index.callsFromWithin[owner];
+      }
+    }
     return methodToCallsFromWithin.getUnchecked(m);
   }
 
   public void initializeStmtToOwner(SootMethod m) {
     if (m.hasBody()) {
+      stmtIndex = null;
       Body b = m.getBody();
       for (Stmt node : b.getStmtGraph().getNodes()) {
         stmtToOwner.put(node, b);
@@ -224,6 +339,11 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
   @Override
   public List<Stmt> getPredsOf(Stmt u) {
     assert u != null;
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int id = index.idOf(u);
+      return id < 0 ? Collections.emptyList() : index.predecessors[id];
+    }
     Body body = getBodyOf(u);
     if (body == null) {
       return Collections.emptyList();
@@ -234,6 +354,13 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public Collection<Stmt> getEndPointsOf(SootMethod m) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      int owner = index.ownerOf(m);
+      if (owner >= 0) {
+        return index.endPointsOf[owner];
+      }
+    }
     if (m.hasBody()) {
       Body body = m.getBody();
       StmtGraph<?> unitGraph = getOrCreateStmtGraph(body);
@@ -259,6 +386,144 @@ public abstract class AbstractJimpleBasedICFG implements BiDiInterproceduralCFG<
 
   @Override
   public boolean isReachable(Stmt u) {
+    StmtIndex index = stmtIndex;
+    if (index != null) {
+      return index.idOf(u) >= 0;
+    }
     return stmtToOwner.containsKey(u);
   }
+
+  /**
+   * A read-only numbering of all statements of the interprocedural CFG. Statements are numbered
+   * densely in the iteration order of the owner mapping, and their owning bodies are numbered in
+   * the order they are first encountered. All per-statement information is stored in arrays indexed
+   * by these ids, so that queries neither rebuild lists from the statement graphs nor look up
+   * methods in the view.
+   */
+  protected static final class StmtIndex {
+
+    private final Map<Stmt, Integer> stmtIds;
+    private final Map<MethodSignature, Integer> ownerIds;
+
+    final Stmt[] stmts;
+    /** the id of the owning body of each statement */
+    final int[] owners;
+
+    final List<Stmt>[] successors;
+    final List<Stmt>[] predecessors;
+    final BitSet startPoints;
+    final BitSet exits;
+
+    final Body[] bodies;
+    /** the method of each owning body, or null if the view cannot resolve it */
+    final SootMethod[] methods;
+
+    final StmtGraph<?>[] graphs;
+    final List<Value>[] parameterRefsOf;
+    final Set<Stmt>[] callsFromWithin;
+
+    final List<Stmt>[] startPointsOf;
+    final List<Stmt>[] endPointsOf;
+
+    @SuppressWarnings("unchecked")
+    StmtIndex(
+        @Nonnull Map<Stmt, Body> stmtToOwner,
+        @Nonnull Function<Body, StmtGraph<?>> graphOf,
+        @Nonnull Predicate<Stmt> isCallStmt,
+        @Nonnull View view) {
+      int stmtCount = stmtToOwner.size();
+      stmtIds = new HashMap<>(stmtCount * 4 / 3 + 1);
+      stmts = new Stmt[stmtCount];
+      owners = new int[stmtCount];
+      successors = new List[stmtCount];
+      predecessors = new List[stmtCount];
+      startPoints = new BitSet(stmtCount);
+      exits = new BitSet(stmtCount);
+
+      Map<Body, Integer> bodyIds = new IdentityHashMap<>();
+      List<StmtGraph<?>> graphList = new ArrayList<>();
+      for (Map.Entry<Stmt, Body> entry : stmtToOwner.entrySet()) {
+        int id = stmtIds.size();
+        Stmt stmt = entry.getKey();
+        Body body = entry.getValue();
+        Integer owner = bodyIds.get(body);
+        if (owner == null) {
+          owner = bodyIds.size();
+          bodyIds.put(body, owner);
+          graphList.add(graphOf.apply(body));
+        }
+        StmtGraph<?> graph = graphList.get(owner);
+        stmtIds.put(stmt, id);
+        stmts[id] = stmt;
+        owners[id] = owner;
+        successors[id] = Collections.unmodifiableList(new ArrayList<>(graph.successors(stmt)));
+        predecessors[id] = Collections.unmodifiableList(new ArrayList<>(graph.predecessors(stmt)));
+      }
+
+      int bodyCount = bodyIds.size();
+      bodies = new Body[bodyCount];
+      methods = new SootMethod[bodyCount];
+      graphs = graphList.toArray(new StmtGraph<?>[0]);
+      parameterRefsOf = new List[bodyCount];
+      callsFromWithin = new Set[bodyCount];
+      startPointsOf = new List[bodyCount];
+      endPointsOf = new List[bodyCount];
+      ownerIds = new HashMap<>(bodyCount * 4 / 3 + 1);
+      for (Map.Entry<Body, Integer> entry : bodyIds.entrySet()) {
+        int owner = entry.getValue();
+        Body body = entry.getKey();
+        StmtGraph<?> graph = graphs[owner];
+        bodies[owner] = body;
+        methods[owner] = view.getMethod(body.getMethodSignature()).orElse(null);
+        ownerIds.put(body.getMethodSignature(), owner);
+        parameterRefsOf[owner] =
+            Collections.unmodifiableList(new ArrayList<>(body.getParameterLocals()));
+        Set<Stmt> calls = new LinkedHashSet<>();
+        for (Stmt stmt : body.getStmts()) {
+          if (isCallStmt.test(stmt)) {
+            calls.add(stmt);
+          }
+        }
+        callsFromWithin[owner] = calls.isEmpty() ? Collections.emptySet() : calls;
+        startPointsOf[owner] =
+            Collections.unmodifiableList(new ArrayList<>(graph.getEntrypoints()));
+        endPointsOf[owner] = Collections.unmodifiableList(graph.getTails());
+        for (Stmt stmt : startPointsOf[owner]) {
+          markOwned(startPoints, stmt, owner);
+        }
+        for (Stmt stmt : endPointsOf[owner]) {
+          markOwned(exits, stmt, owner);
+        }
+      }
+    }
+
+    private void markOwned(@Nonnull BitSet flags, @Nonnull Stmt stmt, int owner) {
+      int id = idOf(stmt);
+      if (id >= 0 && owners[id] == owner) {
+        flags.set(id);
+      }
+    }
+
+    /** Returns the id of the given statement, or -1 if it is not part of the index. */
+    int idOf(@Nonnull Stmt stmt) {
+      Integer id = stmtIds.get(stmt);
+      return id == null ? -1 : id;
+    }
+
+    /** Returns the id of the body of the given method, or -1 if it owns no indexed statement. */
+    int ownerOf(@Nonnull SootMethod method) {
+      Integer owner = ownerIds.get(method.getSignature());
+      return owner == null ? -1 : owner;
+    }
+
+    /** Returns the id of the given body, or -1 if it owns no indexed statement. */
+    int ownerOf(@Nonnull Body body) {
+      Integer owner = ownerIds.get(body.getMethodSignature());
+      return owner == null || bodies[owner] != body ? -1 : owner;
+    }
+
+    public int size() {
+      return stmts.length;
+    }
+  }
 }
@@ -27,6 +27,7 @@ import java.util.Set;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import sootup.callgraph.CallGraph;
+import sootup.callgraph.CallKind;
 import sootup.core.jimple.common.expr.*;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
@@ -51,6 +52,28 @@ public class CGEdgeUtil {
     }
   }
 
+  /** Returns the edge type of a call of the call graph with the given kind. */
+  public static CallGraphEdgeType findCallGraphEdgeType(CallKind callKind) {
+    switch (callKind) {
+      case VIRTUAL:
+        return CallGraphEdgeType.VIRTUAL;
+      case SPECIAL:
+        return CallGraphEdgeType.SPECIAL;
+      case INTERFACE:
+        return CallGraphEdgeType.INTERFACE;
+      case STATIC:
+        return CallGraphEdgeType.STATIC;
+      case DYNAMIC:
+        return CallGraphEdgeType.DYNAMIC;
+      case CLINIT:
+        return CallGraphEdgeType.CLINIT;
+      case UNKNOWN:
+        return CallGraphEdgeType.INVALID;
+      default:
+        throw new RuntimeException("No such callKind:" + callKind);
+    }
+  }
+
   public static Set<Pair<MethodSignature, CalleeMethodSignature>> getCallEdges(
       View view, CallGraph cg) {
     Set<MethodSignature> methodSigs = cg.getMethodSignatures();
@@ -22,27 +22,28 @@ package sootup.analysis.interprocedural.icfg;
  * #L%
  */
 
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import heros.DontSynchronize;
 import heros.InterproceduralCFG;
-import heros.SynchronizedBy;
 import heros.ThreadSafe;
-import heros.solver.IDESolver;
 import java.util.*;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.callgraph.CallGraph;
 import sootup.callgraph.CallGraphAlgorithm;
+import sootup.callgraph.CallKind;
 import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.types.ClassType;
 import sootup.core.views.View;
 
 /**
@@ -65,74 +66,20 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
   @DontSynchronize("readonly")
   protected final CallGraph cg;
 
-  protected CacheLoader<Stmt, Collection<SootMethod>> loaderUnitToCallees =
-      new CacheLoader<Stmt, Collection<SootMethod>>() {
-        @Nonnull
-        @Override
-        public Collection<SootMethod> load(Stmt stmt) {
-          ArrayList<SootMethod> res = new ArrayList<>();
-          MethodSignature methodSignature = stmt.getInvokeExpr().getMethodSignature();
-          Optional<? extends SootMethod> smOpt = view.getMethod(methodSignature);
-          if (smOpt.isPresent()) {
-            SootMethod sm = smOpt.get();
-            if (sm.hasBody()) {
-              res.add(sm);
-            } else {
-              logger.error(
-                  "Method {} is referenced but has no body!", sm.getSignature(), new Exception());
-            }
-          }
-          res.trimToSize();
-          return res;
-        }
-      };
-
-  @SynchronizedBy("by use of synchronized LoadingCache class")
-  protected final LoadingCache<Stmt, Collection<SootMethod>> stmtToCallees =
-      IDESolver.DEFAULT_CACHE_BUILDER.build(loaderUnitToCallees);
-
-  protected CacheLoader<SootMethod, Collection<Stmt>> loaderMethodToCallers =
-      new CacheLoader<SootMethod, Collection<Stmt>>() {
-        @Nonnull
-        @Override
-        public Collection<Stmt> load(SootMethod method) {
-          ArrayList<Stmt> res = new ArrayList<>();
-          // only retain callers that are explicit call sites or
-          // Thread.start()
-          Set<MethodSignature> callsToMethod = cg.callsTo(method.getSignature());
-          for (MethodSignature methodSignature : callsToMethod) {
-            Stmt stmt = filterEdgeAndGetCallerStmt(methodSignature);
-            if (stmt != null) {
-              res.add(stmt);
-            }
-          }
-          res.trimToSize();
-          return res;
-        }
-
-        @Nullable
-        private Stmt filterEdgeAndGetCallerStmt(@Nonnull MethodSignature methodSignature) {
-          Set<Pair<MethodSignature, CalleeMethodSignature>> callEdges =
-              CGEdgeUtil.getCallEdges(view, cg);
-          for (Pair<MethodSignature, CalleeMethodSignature> callEdge : callEdges) {
-            CalleeMethodSignature callee = callEdge.getValue();
-            if (callee.getMethodSignature().equals(methodSignature)) {
-              CGEdgeUtil.CallGraphEdgeType edgeType = callee.getEdgeType();
-              if (edgeType.isExplicit()
-                  || edgeType.isFake()
-                  || edgeType.isClinit()
-                  || (includeReflectiveCalls && edgeType.isReflection())) {
-                return callee.getSourceStmt();
-              }
-            }
-          }
-          return null;
-        }
-      };
+  /**
+   * The callees of each call site, i.e. all dispatch targets the call graph resolved for it. The
+   * index is built once for the Stmts of the bodies this ICFG is built on, see {@link
+   * #collectCallsPerCallSite()}.
+   */
+  @DontSynchronize("readonly")
+  protected final Map<Stmt, Collection<SootMethod>> stmtToCallees;
 
-  @SynchronizedBy("by use of synchronized LoadingCache class")
-  protected final LoadingCache<SootMethod, Collection<Stmt>> methodToCallers =
-      IDESolver.DEFAULT_CACHE_BUILDER.build(loaderMethodToCallers);
+  /**
+   * The call sites of each method in the call graph. The index is built once for the Stmts of the
+   * bodies this ICFG is built on, see {@link #collectCallsPerCallSite()}.
+   */
+  @DontSynchronize("readonly")
+  protected final Map<MethodSignature, Collection<Stmt>> methodToCallers;
 
   public JimpleBasedInterproceduralCFG(
       View view,
@@ -145,6 +92,10 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
     this.mainMethodSignature = mainMethodSignature;
     cg = initCallGraph();
     initializeStmtToOwner();
+    Map<Stmt, List<CallGraph.Call>> callsPerCallSite = collectCallsPerCallSite();
+    stmtToCallees = buildStmtToCallees(callsPerCallSite);
+    methodToCallers = buildMethodToCallers(callsPerCallSite);
+    compile();
   }
 
   public String buildICFGGraph(CallGraph callGraph) {
@@ -192,6 +143,153 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
     return cga.initialize(Collections.singletonList(mainMethodSignature));
   }
 
+  /**
+   * Collects the calls retained by {@link #isRetainedEdge(CGEdgeUtil.CallGraphEdgeType)} per call
+   * site. The call sites are Stmts of the bodies this ICFG is built on. The call sites recorded by
+   * the call graph are used if they are Stmts of these bodies. Otherwise the call graph was built
+   * on other instances of the bodies, e.g. because the view does not retain bodies, or it did not
+   * record call sites. Then the calls of a method are assigned to each invoke Stmt of its body
+   * whose method has the same sub signature as the called method and whose declaring class is the
+   * class of the called method, a subtype (an overriding method) or a supertype (an inherited
+   * method) of it. This can attribute a callee to several call sites of the same method, but it
+   * never misses one.
+   */
+  protected Map<Stmt, List<CallGraph.Call>> collectCallsPerCallSite() {
+    return getOwnerBodies()
+        .parallelStream()
+        .filter(body -> cg.containsMethod(body.getMethodSignature()))
+        .flatMap(body -> collectCallsOf(body).stream())
+        .collect(Collectors.groupingBy(CallGraph.Call::getCallSite));
+  }
+
+  /** Returns the retained calls of the method of the given body with call sites in the body. */
+  private List<CallGraph.Call> collectCallsOf(@Nonnull Body body) {
+    MethodSignature methodSignature = body.getMethodSignature();
+    List<CallGraph.Call> calls = cg.callEdgesFrom(methodSignature);
+    Stmt recordedCallSite =
+        calls.stream()
+            .map(CallGraph.Call::getCallSite)
+            .filter(Objects::nonNull)
+            .findFirst()
+            .orElse(null);
+    if (recordedCallSite != null && body.getStmtIndex(recordedCallSite) >= 0) {
+      return calls.stream()
+          .filter(
+              call ->
+                  call.getCallSite() != null
+                      && isRetainedEdge(CGEdgeUtil.findCallGraphEdgeType(call.getKind())))
+          .collect(Collectors.toList());
+    }
+
+    Map<MethodSubSignature, Set<MethodSignature>> targetsBySubSignature = new HashMap<>();
+    for (CallGraph.Call call : calls) {
+      MethodSignature target = call.getTargetMethodSignature();
+      targetsBySubSignature
+          .computeIfAbsent(target.getSubSignature(), key -> new LinkedHashSet<>())
+          .add(target);
+    }
+    List<CallGraph.Call> callsOfBody = new ArrayList<>();
+    for (Stmt stmt : body.getStmts()) {
+      if (!stmt.containsInvokeExpr()) {
+        continue;
+      }
+      CallKind kind = CallKind.of(stmt.getInvokeExpr());
+      if (!isRetainedEdge(CGEdgeUtil.findCallGraphEdgeType(kind))) {
+        continue;
+      }
+      MethodSignature invokedMethod = stmt.getInvokeExpr().getMethodSignature();
+      Set<MethodSignature> targets = targetsBySubSignature.get(invokedMethod.getSubSignature());
+      if (targets != null) {
+        for (MethodSignature target : targets) {
+          if (isDispatchCandidate(invokedMethod.getDeclClassType(), target.getDeclClassType())) {
+            callsOfBody.add(new CallGraph.Call(methodSignature, target, stmt, kind));
+          }
+        }
+      }
+    }
+    return callsOfBody;
+  }
+
+  /**
+   * Returns whether a call of a method of <code>declaringType</code> can be dispatched to the
+   * method with the same sub signature in <code>targetType</code>, i.e. whether the types are
+   * related.
+   */
+  private boolean isDispatchCandidate(
+      @Nonnull ClassType declaringType, @Nonnull ClassType targetType) {
+    if (declaringType.equals(targetType)) {
+      return true;
+    }
+    TypeHierarchy typeHierarchy = view.getTypeHierarchy();
+    try {
+      return typeHierarchy.isSubtype(declaringType, targetType)
+          || typeHierarchy.isSubtype(targetType, declaringType);
+    } catch (RuntimeException e) {
+      // a type is not part of the view, so the call can not be ruled out
+      return true;
+    }
+  }
+
+  /**
+   * Builds the index from each call site to the methods called there. The methods are indexed in
+   * parallel. Only callees that have a body are retained.
+   */
+  protected Map<Stmt, Collection<SootMethod>> buildStmtToCallees(
+      @Nonnull Map<Stmt, List<CallGraph.Call>> callsPerCallSite) {
+    Map<MethodSignature, SootMethod> methods =
+        cg.getMethodSignatures()
+            .parallelStream()
+            .map(methodSignature -> view.getMethod(methodSignature))
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .collect(Collectors.toMap(SootMethod::getSignature, sootMethod -> sootMethod));
+
+    return callsPerCallSite
+        .values()
+        .parallelStream()
+        .flatMap(List::stream)
+        .filter(
+            call -> {
+              SootMethod callee = methods.get(call.getTargetMethodSignature());
+              if (callee == null) {
+                return false;
+              }
+              if (!callee.hasBody()) {
+                logger.debug("Method {} is referenced but has no body!", callee.getSignature());
+                return false;
+              }
+              return true;
+            })
+        .collect(
+            Collectors.groupingBy(
+                CallGraph.Call::getCallSite,
+                Collectors.mapping(
+                    call -> methods.get(call.getTargetMethodSignature()),
+                    Collectors.<SootMethod, Collection<SootMethod>>toCollection(ArrayList::new))));
+  }
+
+  /** Builds the reverse index from each method of the call graph to the statements calling it. */
+  protected Map<MethodSignature, Collection<Stmt>> buildMethodToCallers(
+      @Nonnull Map<Stmt, List<CallGraph.Call>> callsPerCallSite) {
+    Map<MethodSignature, Collection<Stmt>> methodToCallers = new HashMap<>();
+    callsPerCallSite.forEach(
+        (callSite, calls) -> {
+          for (CallGraph.Call call : calls) {
+            methodToCallers
+                .computeIfAbsent(call.getTargetMethodSignature(), key -> new ArrayList<>())
+                .add(callSite);
+          }
+        });
+    return methodToCallers;
+  }
+
+  protected boolean isRetainedEdge(@Nonnull CGEdgeUtil.CallGraphEdgeType edgeType) {
+    return edgeType.isExplicit()
+        || edgeType.isFake()
+        || edgeType.isClinit()
+        || (includeReflectiveCalls && edgeType.isReflection());
+  }
+
   protected void initializeStmtToOwner() {
     for (MethodSignature methodSignature : cg.getMethodSignatures()) {
       final Optional<? extends SootMethod> methodOpt = view.getMethod(methodSignature);
@@ -199,14 +297,29 @@ public class JimpleBasedInterproceduralCFG extends AbstractJimpleBasedICFG {
     }
   }
 
+  /**
+   * Returns the callees of a call site of this ICFG. Other Stmts, e.g. of a body that was resolved
+   * again, are resolved by the method signature of their invoke expression.
+   */
   @Override
   public Collection<SootMethod> getCalleesOfCallAt(@Nonnull Stmt u) {
-    return stmtToCallees.getUnchecked(u);
+    Collection<SootMethod> callees = stmtToCallees.get(u);
+    if (callees != null) {
+      return callees;
+    }
+    if (!u.containsInvokeExpr()) {
+      return Collections.emptyList();
+    }
+    Optional<? extends SootMethod> callee = view.getMethod(u.getInvokeExpr().getMethodSignature());
+    if (callee.isPresent() && callee.get().hasBody()) {
+      return Collections.singletonList(callee.get());
+    }
+    return Collections.emptyList();
   }
 
   @Override
   public Collection<Stmt> getCallersOf(@Nonnull SootMethod m) {
-    return methodToCallers.getUnchecked(m);
+    return methodToCallers.getOrDefault(m.getSignature(), Collections.emptyList());
   }
 
   public static Set<Pair<MethodSignature, CalleeMethodSignature>> getCallEdges(
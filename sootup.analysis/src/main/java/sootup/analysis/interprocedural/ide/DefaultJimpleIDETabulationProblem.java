@@ -30,7 +30,24 @@ import sootup.core.model.SootMethod;
 public abstract class DefaultJimpleIDETabulationProblem<
         D, V, I extends InterproceduralCFG<Stmt, SootMethod>>
     extends DefaultIDETabulationProblem<Stmt, D, SootMethod, V, I> {
+  private final int numThreads;
+
+  /** Creates a problem that is solved on a single thread. */
   public DefaultJimpleIDETabulationProblem(I icfg) {
+    this(icfg, 1);
+  }
+
+  /**
+   * @param numThreads the number of threads the solver uses to propagate the problem; values below
+   *     one are treated as one
+   */
+  public DefaultJimpleIDETabulationProblem(I icfg, int numThreads) {
     super(icfg);
+    this.numThreads = Math.max(1, numThreads);
+  }
+
+  @Override
+  public int numThreads() {
+    return numThreads;
   }
 }
@@ -25,6 +25,7 @@ package sootup.analysis.interprocedural.ide;
 import heros.IDETabulationProblem;
 import heros.InterproceduralCFG;
 import heros.solver.IDESolver;
+import sootup.analysis.interprocedural.SolverExecutors;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
 
@@ -33,6 +34,10 @@ public class JimpleIDESolver<D, V, I extends InterproceduralCFG<Stmt, SootMethod
 
   public JimpleIDESolver(IDETabulationProblem<Stmt, D, SootMethod, V, I> problem) {
     super(problem);
+    if (problem instanceof DefaultJimpleIDETabulationProblem && numThreads > 1) {
+      executor.shutdown();
+      executor = SolverExecutors.newExecutor(numThreads);
+    }
   }
 
   @Override
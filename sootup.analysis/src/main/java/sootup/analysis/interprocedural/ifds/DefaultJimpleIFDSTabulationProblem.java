@@ -24,6 +24,8 @@ package sootup.analysis.interprocedural.ifds;
 
 import heros.InterproceduralCFG;
 import heros.template.DefaultIFDSTabulationProblem;
+import javax.annotation.Nullable;
+import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
 
@@ -31,7 +33,37 @@ public abstract class DefaultJimpleIFDSTabulationProblem<
         D, I extends InterproceduralCFG<Stmt, SootMethod>>
     extends DefaultIFDSTabulationProblem<Stmt, D, SootMethod, I> {
 
+  private final int numThreads;
+
+  /** Creates a problem that is solved on a single thread. */
   public DefaultJimpleIFDSTabulationProblem(I icfg) {
+    this(icfg, 1);
+  }
+
+  /**
+   * @param numThreads the number of threads the solver uses to propagate the problem; values below
+   *     one are treated as one
+   */
+  public DefaultJimpleIFDSTabulationProblem(I icfg, int numThreads) {
     super(icfg);
+    this.numThreads = Math.max(1, numThreads);
+  }
+
+  @Override
+  public int numThreads() {
+    return numThreads;
+  }
+
+  /**
+   * Returns the local a fact is about, which lets a sparse {@link JimpleIFDSSolver} move the fact
+   * past statements that neither use nor define this local. The flow functions of such statements
+   * must map the fact to itself. Facts without a local, like the zero value or facts about static
+   * fields, are propagated through every statement.
+   *
+   * @return the local of the fact or null if the fact has to be propagated densely
+   */
+  @Nullable
+  public Local getSparseLocal(D fact) {
+    return null;
   }
 }
@@ -22,11 +22,25 @@ package sootup.analysis.interprocedural.ifds;
  * #L%
  */
 
+import heros.EdgeFunction;
 import heros.IFDSTabulationProblem;
 import heros.InterproceduralCFG;
 import heros.solver.IFDSSolver;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sootup.analysis.interprocedural.SolverExecutors;
+import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
 
@@ -34,8 +48,99 @@ public class JimpleIFDSSolver<D, I extends InterproceduralCFG<Stmt, SootMethod>>
     extends IFDSSolver<Stmt, D, SootMethod, I> {
   private static final Logger logger = LoggerFactory.getLogger(JimpleIFDSSolver.class);
 
+  /** the problem if it is solved sparsely, null otherwise */
+  private final DefaultJimpleIFDSTabulationProblem<D, I> sparseProblem;
+
+  /** the locals each statement uses or defines */
+  private final Map<Stmt, Set<Local>> localsByStmt = new ConcurrentHashMap<>();
+
+  /** the nearest statements relevant for a local, starting at a statement irrelevant for it */
+  private final Map<Stmt, Map<Local, List<Stmt>>> sparseTargets = new ConcurrentHashMap<>();
+
   public JimpleIFDSSolver(IFDSTabulationProblem<Stmt, D, SootMethod, I> problem) {
+    this(problem, false);
+  }
+
+  /**
+   * Creates a solver that optionally propagates facts sparsely. In sparse mode a fact for which
+   * {@link DefaultJimpleIFDSTabulationProblem#getSparseLocal(Object)} returns a local jumps from a
+   * statement directly to the nearest following statements that use or define this local, or that
+   * exit the method. The statements in between are not visited for this fact, so {@link
+   * #ifdsResultsAt(Object)} does not contain it there. The results at the statements the fact is
+   * propagated to are the same as in dense mode.
+   *
+   * @param sparse whether to propagate facts along the uses and definitions of their locals; this
+   *     requires a {@link DefaultJimpleIFDSTabulationProblem}
+   * @throws IllegalArgumentException if sparse propagation is requested for another problem
+   */
+  @SuppressWarnings("unchecked")
+  public JimpleIFDSSolver(IFDSTabulationProblem<Stmt, D, SootMethod, I> problem, boolean sparse) {
     super(problem);
+    if (sparse && !(problem instanceof DefaultJimpleIFDSTabulationProblem)) {
+      throw new IllegalArgumentException(
+          "Sparse propagation requires a DefaultJimpleIFDSTabulationProblem.");
+    }
+    this.sparseProblem = sparse ? (DefaultJimpleIFDSTabulationProblem<D, I>) problem : null;
+    if (problem instanceof DefaultJimpleIFDSTabulationProblem && numThreads > 1) {
+      executor.shutdown();
+      executor = SolverExecutors.newExecutor(numThreads);
+    }
+  }
+
+  @Override
+  protected void propagate(
+      D sourceVal,
+      Stmt target,
+      D targetVal,
+      EdgeFunction<BinaryDomain> f,
+      Stmt relatedCallSite,
+      boolean isUnbalancedReturn) {
+    Local local = sparseProblem == null ? null : sparseProblem.getSparseLocal(targetVal);
+    if (local == null || isRelevant(target, local)) {
+      super.propagate(sourceVal, target, targetVal, f, relatedCallSite, isUnbalancedReturn);
+      return;
+    }
+    for (Stmt sparseTarget :
+        sparseTargets
+            .computeIfAbsent(target, stmt -> new ConcurrentHashMap<>())
+            .computeIfAbsent(local, l -> findSparseTargets(target, l))) {
+      super.propagate(sourceVal, sparseTarget, targetVal, f, relatedCallSite, isUnbalancedReturn);
+    }
+  }
+
+  /** Collects the first statements relevant for the local on every path leaving the statement. */
+  @Nonnull
+  private List<Stmt> findSparseTargets(@Nonnull Stmt start, @Nonnull Local local) {
+    List<Stmt> targets = new ArrayList<>();
+    Set<Stmt> visited = new HashSet<>();
+    Deque<Stmt> worklist = new ArrayDeque<>();
+    visited.add(start);
+    worklist.add(start);
+    while (!worklist.isEmpty()) {
+      for (Stmt succ : icfg.getSuccsOf(worklist.poll())) {
+        if (visited.add(succ)) {
+          if (isRelevant(succ, local)) {
+            targets.add(succ);
+          } else {
+            worklist.add(succ);
+          }
+        }
+      }
+    }
+    return Collections.unmodifiableList(targets);
+  }
+
+  private boolean isRelevant(@Nonnull Stmt stmt, @Nonnull Local local) {
+    return icfg.isExitStmt(stmt)
+        || localsByStmt
+            .computeIfAbsent(
+                stmt,
+                s ->
+                    s.getUsesAndDefs()
+                        .filter(value -> value instanceof Local)
+                        .map(value -> (Local) value)
+                        .collect(Collectors.toSet()))
+            .contains(local);
   }
 
   public void solve(String targetClassName) {
@@ -33,6 +33,10 @@ import sootup.core.jimple.common.stmt.Stmt;
  * An abstract class providing a framework for carrying out dataflow analysis. Subclassing either
  * BackwardFlowAnalysis or ForwardFlowAnalysis and providing implementations for the abstract
  * methods will allow Soot to compute the corresponding flow analysis.
+ *
+ * <p>The fixed point is computed over the basic blocks of the graph: flow sets are only stored at
+ * block boundaries, and the flow sets of the statements within a block are recomputed from the flow
+ * set at its start when they are queried.
  */
 public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
@@ -54,25 +58,43 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
   }
 
   static class Entry<F> {
+    /** the basic block, or null for the super entry */
+    final BasicBlock<?> block;
+
+    /** the statements of the block in analysis direction */
+    final Stmt[] stmts;
+
+    /** the first statement of the block in analysis direction */
     final Stmt data;
+
     int number;
 
     /** This Entry is part of a real scc. */
     boolean isRealStronglyConnected;
 
+    /** The inFlow is not shared with a predecessor, but merged from the predecessors. */
+    boolean isMergeNode;
+
     Entry<F>[] in;
     Entry<F>[] out;
     F inFlow;
     F outFlow;
 
     @SuppressWarnings("unchecked")
-    Entry(Stmt u, Entry<F> pred) {
+    Entry(BasicBlock<?> block, Stmt[] stmts, Entry<F> pred) {
       in = new Entry[] {pred};
-      data = u;
+      this.block = block;
+      this.stmts = stmts;
+      data = stmts == null ? null : stmts[0];
       number = Integer.MIN_VALUE;
       isRealStronglyConnected = false;
     }
 
+    /** the last statement of the block in analysis direction */
+    Stmt last() {
+      return stmts[stmts.length - 1];
+    }
+
     @Override
     public String toString() {
       return data == null ? "" : data.toString();
@@ -81,9 +103,9 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
   static class Orderer {
     /**
-     * Creates a new {@code Entry} graph based on a {@code DirectedGraph}. This includes pseudo
-     * topological order, local access for predecessors and successors, a graph entry-point, a
-     * {@code Numberable} interface and a real strongly connected component marker.
+     * Creates a new {@code Entry} graph of the basic blocks of a {@code StmtGraph}. This includes
+     * pseudo topological order, local access for predecessors and successors, a graph entry-point,
+     * a {@code Numberable} interface and a real strongly connected component marker.
      *
      * @param g
      * @param direction
@@ -94,15 +116,16 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
         @Nonnull StmtGraph<? extends BasicBlock<?>> g,
         @Nonnull AnalysisDirection direction,
         @Nonnull F entryFlow) {
-      final int size = g.getNodes().size();
+      final int size = g.getBlocks().size();
       final int n = size;
 
       Deque<Entry<F>> s = new ArrayDeque<>(n);
       List<Entry<F>> universe = new ArrayList<>(n);
-      Map<Stmt, Entry<F>> visited = new HashMap<>(((n + 1) * 4) / 3);
+      // the entries of the visited blocks by the heads of the blocks
+      Map<Stmt, Entry<F>> visited = new IdentityHashMap<>(((n + 1) * 4) / 3);
 
       // out of universe node
-      Entry<F> superEntry = new Entry<F>(null, null);
+      Entry<F> superEntry = new Entry<F>(null, null, null);
 
       List<Stmt> entries;
       List<Stmt> actualEntries = direction.getEntries(g);
@@ -158,7 +181,11 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
         }
       }
 
-      visitEntry(visited, superEntry, entries);
+      List<BasicBlock<?>> entryBlocks = new ArrayList<>(entries.size());
+      for (Stmt entry : entries) {
+        entryBlocks.add(g.getBlockOf(entry));
+      }
+      visitEntry(visited, superEntry, entryBlocks, direction);
       superEntry.inFlow = entryFlow;
       superEntry.outFlow = entryFlow;
 
@@ -179,7 +206,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
             w.number = s.size();
             s.add(w);
 
-            visitEntry(visited, w, direction.getOut(g, w.data));
+            visitEntry(visited, w, direction.getOut(w.block), direction);
 
             // save old
             si[index] = i;
@@ -209,7 +236,10 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
     @Nonnull
     private static <D, F> Entry<F>[] visitEntry(
-        Map<Stmt, Entry<F>> visited, Entry<F> v, List<Stmt> out) {
+        Map<Stmt, Entry<F>> visited,
+        Entry<F> v,
+        List<? extends BasicBlock<?>> out,
+        AnalysisDirection direction) {
       final int n = out.size();
       @SuppressWarnings("unchecked")
       Entry<F>[] a = new Entry[n];
@@ -217,7 +247,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
       assert (out instanceof RandomAccess);
 
       for (int i = 0; i < n; i++) {
-        a[i] = getEntryOf(visited, out.get(i), v);
+        a[i] = getEntryOf(visited, out.get(i), v, direction);
       }
 
       return v.out = a;
@@ -225,16 +255,17 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
     @Nonnull
     private static <F> Entry<F> getEntryOf(
-        @Nonnull Map<Stmt, Entry<F>> visited, @Nonnull Stmt stmt, @Nonnull Entry<F> v) {
+        @Nonnull Map<Stmt, Entry<F>> visited,
+        @Nonnull BasicBlock<?> block,
+        @Nonnull Entry<F> v,
+        @Nonnull AnalysisDirection direction) {
       // either we reach a new node or a merge node, the latter one is rare
-      // so put and restore should be better that a lookup
+      // so a lookup before creating the entry is ok
+      Entry<F> oldEntry = visited.get(block.getHead());
 
-      // add and restore if required
-      Entry<F> newEntry = new Entry<>(stmt, v);
-      Entry<F> oldEntry = visited.putIfAbsent(stmt, newEntry);
-
-      // no restore required
       if (oldEntry == null) {
+        Entry<F> newEntry = new Entry<>(block, direction.getStmts(block), v);
+        visited.put(block.getHead(), newEntry);
         return newEntry;
       }
 
@@ -294,8 +325,20 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
       @Override
       @Nonnull
-      List<Stmt> getOut(StmtGraph<? extends BasicBlock<?>> g, Stmt s) {
-        return g.predecessors(s);
+      List<? extends BasicBlock<?>> getOut(BasicBlock<?> block) {
+        // the predecessors of a handler block include the blocks covered by its traps
+        return block.getPredecessors();
+      }
+
+      @Override
+      @Nonnull
+      Stmt[] getStmts(BasicBlock<?> block) {
+        List<Stmt> stmts = block.getStmts();
+        Stmt[] res = new Stmt[stmts.size()];
+        for (int i = 0; i < res.length; i++) {
+          res[i] = stmts.get(res.length - 1 - i);
+        }
+        return res;
       }
     },
     FORWARD {
@@ -307,16 +350,30 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
       @Override
       @Nonnull
-      List<Stmt> getOut(StmtGraph<? extends BasicBlock<?>> g, Stmt s) {
-        return g.successors(s);
+      List<? extends BasicBlock<?>> getOut(BasicBlock<?> block) {
+        return block.getSuccessors();
+      }
+
+      @Override
+      @Nonnull
+      Stmt[] getStmts(BasicBlock<?> block) {
+        return block.getStmts().toArray(new Stmt[0]);
       }
     };
 
     @Nonnull
     abstract List<Stmt> getEntries(StmtGraph<? extends BasicBlock<?>> g);
 
+    /**
+     * Returns the blocks following the given block in analysis direction. Forward these are its
+     * unexceptional successors, backward its predecessors including the exceptional ones.
+     */
+    @Nonnull
+    abstract List<? extends BasicBlock<?>> getOut(BasicBlock<?> block);
+
+    /** Returns the statements of the given block in analysis direction. */
     @Nonnull
-    abstract List<Stmt> getOut(StmtGraph<? extends BasicBlock<?>> g, Stmt s);
+    abstract Stmt[] getStmts(BasicBlock<?> block);
   }
 
   /** Maps graph nodes to OUT sets. */
@@ -325,6 +382,9 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
   /** Filtered: Maps graph nodes to OUT sets. */
   @Nonnull protected Map<Stmt, A> filterStmtToAfterFlow;
 
+  /** The entries of the analysed blocks by the heads of the blocks; null before the execution. */
+  private Map<Stmt, Entry<A>> blockEntries;
+
   /** Constructs a flow analysis on the given <code>DirectedGraph</code>. */
   public FlowAnalysis(@Nonnull StmtGraph<? extends BasicBlock<?>> graph) {
     super(graph);
@@ -348,19 +408,64 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
    */
   protected abstract void flowThrough(@Nonnull A in, Stmt d, @Nonnull A out);
 
-  /** Accessor function returning value of OUT set for s. */
+  /**
+   * Accessor function returning value of OUT set for s. Only the flow sets at block boundaries are
+   * stored, the others are recomputed on each call.
+   */
   public A getFlowAfter(@Nonnull Stmt s) {
     A a = stmtToAfterFlow.get(s);
+    if (a == null) {
+      a = flowWithinBlock(s, isForward());
+    }
     return a == null ? newInitialFlow() : a;
   }
 
+  /**
+   * Accessor function returning value of IN set for s. Only the flow sets at block boundaries are
+   * stored, the others are recomputed on each call.
+   */
   @Nonnull
   @Override
   public A getFlowBefore(@Nonnull Stmt s) {
     A a = stmtToBeforeFlow.get(s);
+    if (a == null) {
+      a = flowWithinBlock(s, !isForward());
+    }
     return a == null ? newInitialFlow() : a;
   }
 
+  /**
+   * Recomputes the flow set at a statement from the flow set at the start of its block.
+   *
+   * @param includeStmt whether the flow set after the statement in analysis direction is returned,
+   *     rather than the one before it
+   * @return the flow set, or null if the statement is not part of an analysed block
+   */
+  private A flowWithinBlock(@Nonnull Stmt s, boolean includeStmt) {
+    if (blockEntries == null || !graph.containsNode(s)) {
+      return null;
+    }
+    Entry<A> e = blockEntries.get(graph.getBlockOf(s).getHead());
+    return e == null ? null : flowWithinBlock(e, s, includeStmt);
+  }
+
+  @Nonnull
+  private A flowWithinBlock(@Nonnull Entry<A> e, @Nonnull Stmt s, boolean includeStmt) {
+    A in = e.inFlow;
+    for (Stmt stmt : e.stmts) {
+      if (stmt == s && !includeStmt) {
+        return in;
+      }
+      A out = newInitialFlow();
+      flowThrough(in, stmt, out);
+      if (stmt == s) {
+        return out;
+      }
+      in = out;
+    }
+    throw new IllegalStateException("The statement " + s + " is not part of its block.");
+  }
+
   private void initFlow(
       @Nonnull Iterable<Entry<A>> universe, @Nonnull Map<Stmt, A> in, @Nonnull Map<Stmt, A> out) {
 
@@ -375,8 +480,9 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
 
     for (Entry<A> n : universe) {
       boolean omit = true;
-      if (n.in.length > 1) {
+      if (n.in.length > 1 || !isSharedFlow(n.in[0], n)) {
         n.inFlow = newInitialFlow();
+        n.isMergeNode = true;
 
         // no merge points in loops
         omit = !n.isRealStronglyConnected;
@@ -386,7 +492,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
         assert n.inFlow != null : "topological order is broken";
       }
 
-      if (omit && omissible(n.data)) {
+      if (omit && omissible(n)) {
         // We could recalculate the graph itself but thats more expensive than
         // just falling through such nodes.
         n.outFlow = n.inFlow;
@@ -394,9 +500,9 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
         n.outFlow = newInitialFlow();
       }
 
-      // for legacy api (ms: already a soot comment)
+      // for legacy api (ms: already a soot comment): only the block boundaries are stored
       in.put(n.data, n.inFlow);
-      out.put(n.data, n.outFlow);
+      out.put(n.last(), n.outFlow);
     }
   }
 
@@ -425,14 +531,45 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
     return Flow.OUT;
   }
 
+  private boolean omissible(@Nonnull Entry<A> e) {
+    for (Stmt stmt : e.stmts) {
+      if (!omissible(stmt)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if the flow set of {@code o} flowing into {@code e} is a stored flow set that can
+   * be shared, i.e. it is not the IN set of a statement within a block.
+   */
+  private boolean isSharedFlow(@Nonnull Entry<A> o, @Nonnull Entry<A> e) {
+    return o.stmts == null
+        || o.stmts.length == 1
+        || o.inFlow == o.outFlow
+        || getFlow(o.last(), e.data) == Flow.OUT;
+  }
+
   private A getFlow(@Nonnull Entry<A> o, @Nonnull Entry<A> e) {
-    return (o.inFlow == o.outFlow) ? o.outFlow : getFlow(o.data, e.data).getFlow(o);
+    if (o.inFlow == o.outFlow) {
+      return o.outFlow;
+    }
+    if (o.stmts == null) {
+      // the super entry
+      return o.outFlow;
+    }
+    Flow flow = getFlow(o.last(), e.data);
+    if (flow == Flow.IN && o.stmts.length > 1) {
+      return flowWithinBlock(o, o.last(), false);
+    }
+    return flow.getFlow(o);
   }
 
   private void meetFlows(@Nonnull Entry<A> entry) {
     assert entry.in.length >= 1;
 
-    if (entry.in.length > 1) {
+    if (entry.isMergeNode) {
       boolean copy = true;
       for (Entry<A> o : entry.in) {
         A flow = getFlow(o, entry);
@@ -455,6 +592,10 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
             isForward ? AnalysisDirection.FORWARD : AnalysisDirection.BACKWARD,
             newInitialFlow());
     initFlow(universe, inFlow, outFlow);
+    blockEntries = new IdentityHashMap<>(universe.size() * 2 + 1);
+    for (Entry<A> e : universe) {
+      blockEntries.put(e.block.getHead(), e);
+    }
 
     Queue<Entry<A>> q = UniverseSortedPriorityQueue.of(universe);
 
@@ -486,6 +627,15 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
       return true;
     }
 
+    // flow through all but the last statement of the block
+    A in = d.inFlow;
+    for (int i = 0; i < d.stmts.length - 1; i++) {
+      A out = newInitialFlow();
+      flowThrough(in, d.stmts[i], out);
+      in = out;
+    }
+    Stmt last = d.last();
+
     if (d.isRealStronglyConnected) {
       // A flow node that is influenced by at least one back-reference.
       // It's essential to check if "flowThrough" changes the result.
@@ -495,7 +645,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
       // to fall through. Only nodes with real back-references always
       // need to be checked for changes
       A out = newInitialFlow();
-      flowThrough(d.inFlow, d.data, out);
+      flowThrough(in, last, out);
       if (out.equals(d.outFlow)) {
         return false;
       }
@@ -505,7 +655,7 @@ public abstract class FlowAnalysis<A> extends AbstractFlowAnalysis<A> {
     }
 
     // no back-references, just calculate "flowThrough"
-    flowThrough(d.inFlow, d.data, d.outFlow);
+    flowThrough(in, last, d.outFlow);
     return true;
   }
 
@@ -0,0 +1,533 @@
+package sootup.analysis.intraprocedural;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * A dataflow analysis for gen/kill problems over a finite universe of facts, e.g. live locals or
+ * reaching definitions. The facts are numbered densely and flow sets are bit vectors over these
+ * numbers, so that merging and transferring a flow set are word-wise operations.
+ *
+ * <p>The transfer function of a statement is {@code out = gen ∪ (in \ kill)}. The analysis composes
+ * the transfer functions of all statements of a basic block into a single one and computes the
+ * fixed point over the blocks, visiting them in reverse postorder. The flow sets of the statements
+ * of a block are computed from the flow set of their block when one of them is first queried, and
+ * are cached from then on.
+ *
+ * <p>Exceptions may be thrown before any statement of a block covered by a trap. In a forward
+ * analysis the handler therefore receives the flow sets before all statements of the covered
+ * blocks. In a backward analysis the flow set at the handler is merged into the flow sets before
+ * all of these statements. Subclasses call {@link #execute()} from their constructor.
+ *
+ * @param <T> the type of the facts
+ */
+public abstract class GenKillFlowAnalysis<T> {
+
+  /** The graph being analysed. */
+  @Nonnull protected final StmtGraph<? extends BasicBlock<?>> graph;
+
+  @Nonnull private final List<T> universe;
+  @Nonnull private final Map<T, Integer> factIndices;
+  private final int words;
+
+  /** the blocks in reverse postorder of the analysis direction */
+  private BasicBlock<?>[] blocks;
+  /** the statements of each block, in analysis direction */
+  private Stmt[][] blockStmts;
+  /**
+   * the exceptional predecessors of each block in analysis direction: forward the blocks covered by
+   * a trap of a handler block, backward the handler blocks of a covered block
+   */
+  private int[][] exceptionalPreds;
+  /** the indices of the facts generated and killed by each statement */
+  private Map<Stmt, int[][]> stmtGenKill;
+
+  /** the block of each statement and its position within the block, in analysis direction */
+  private Map<Stmt, int[]> stmtPositions;
+
+  /** the flow set at the start and the end of each block, in analysis direction */
+  private long[][] blockIn;
+
+  private long[][] blockOut;
+
+  /**
+   * the flow sets of a block before each of its statements and at its end, in analysis direction;
+   * null until a statement of the block is queried
+   */
+  private long[][][] stmtFlows;
+
+  /**
+   * @param graph the graph to analyse
+   * @param universe all facts the analysis may compute; their iteration order defines their indices
+   */
+  protected GenKillFlowAnalysis(
+      @Nonnull StmtGraph<? extends BasicBlock<?>> graph, @Nonnull Collection<T> universe) {
+    this.graph = graph;
+    this.universe = Collections.unmodifiableList(new ArrayList<>(universe));
+    this.factIndices = new HashMap<>(universe.size() * 4 / 3 + 1);
+    for (T fact : this.universe) {
+      factIndices.putIfAbsent(fact, factIndices.size());
+    }
+    if (factIndices.size() != this.universe.size()) {
+      throw new IllegalArgumentException("The universe of facts contains duplicates.");
+    }
+    this.words = (factIndices.size() + 63) >>> 6;
+  }
+
+  /** Returns true if this analysis is forwards. */
+  protected abstract boolean isForward();
+
+  /**
+   * Returns true if the flow sets of merging paths are united (a may analysis), false if they are
+   * intersected (a must analysis).
+   */
+  protected abstract boolean isUnion();
+
+  /**
+   * Sets the indices of the facts that the statement generates in {@code gen}, and the indices of
+   * the facts it kills in {@code kill}.
+   */
+  protected abstract void genKill(@Nonnull Stmt stmt, @Nonnull BitSet gen, @Nonnull BitSet kill);
+
+  /**
+   * Returns the flow set at the entries of the graph, i.e. before the starting statement of a
+   * forward analysis and after the exits of a backward analysis.
+   */
+  @Nonnull
+  protected BitSet entryInitialFlow() {
+    return new BitSet();
+  }
+
+  @Nonnull
+  public List<T> getUniverse() {
+    return universe;
+  }
+
+  /** Returns the index of the given fact, or -1 if it is not part of the universe. */
+  public int indexOf(@Nonnull T fact) {
+    Integer index = factIndices.get(fact);
+    return index == null ? -1 : index;
+  }
+
+  /** Returns the facts whose indices are set in the given flow set. */
+  @Nonnull
+  public Set<T> toFacts(@Nonnull BitSet flow) {
+    Set<T> facts = new LinkedHashSet<>();
+    for (int i = flow.nextSetBit(0); i >= 0; i = flow.nextSetBit(i + 1)) {
+      facts.add(universe.get(i));
+    }
+    return facts;
+  }
+
+  /** Returns the flow set that holds before the given statement is executed. */
+  @Nonnull
+  public BitSet getFlowBefore(@Nonnull Stmt stmt) {
+    return BitSet.valueOf(flowAt(stmt, !isForward()));
+  }
+
+  /** Returns the flow set that holds after the given statement is executed. */
+  @Nonnull
+  public BitSet getFlowAfter(@Nonnull Stmt stmt) {
+    return BitSet.valueOf(flowAt(stmt, isForward()));
+  }
+
+  /** Computes the fixed point of the analysis. */
+  protected void execute() {
+    final boolean forward = isForward();
+    final boolean union = isUnion();
+    int[][] preds = numberBlocks(forward);
+    int[][] succs = invert(preds);
+    int[][] exceptionalSuccs = invert(exceptionalPreds);
+
+    int blockCount = blocks.length;
+
+    long[] top = new long[words];
+    if (!union) {
+      Arrays.fill(top, -1L);
+      int unused = words * 64 - universe.size();
+      if (words > 0 && unused > 0) {
+        top[words - 1] = -1L >>> unused;
+      }
+    }
+
+    // compose the transfer functions of the statements of each block; forward, also merge the
+    // composed transfer functions up to each statement, which yield the flow sets at the points a
+    // covered block may throw from
+    long[][] blockGen = new long[blockCount][];
+    long[][] blockKill = new long[blockCount][];
+    long[][] throwMask = new long[blockCount][];
+    stmtGenKill = new IdentityHashMap<>(graph.getNodes().size() * 4 / 3 + 1);
+    stmtPositions = new IdentityHashMap<>(graph.getNodes().size() * 4 / 3 + 1);
+    BitSet gen = new BitSet();
+    BitSet kill = new BitSet();
+    for (int b = 0; b < blockCount; b++) {
+      long[] composedGen = new long[words];
+      long[] composedKill = new long[words];
+      // may: the facts generated up to any point; must: the facts of the in set that hold at all
+      // points
+      long[] mask = union ? new long[words] : top.clone();
+      Stmt[] stmts = blockStmts[b];
+      for (int i = 0; i < stmts.length; i++) {
+        Stmt stmt = stmts[i];
+        gen.clear();
+        kill.clear();
+        genKill(stmt, gen, kill);
+        int[] genIndices = gen.stream().toArray();
+        int[] killIndices = kill.stream().toArray();
+        stmtGenKill.put(stmt, new int[][] {genIndices, killIndices});
+        stmtPositions.put(stmt, new int[] {b, i});
+        if (forward && i > 0) {
+          for (int w = 0; w < words; w++) {
+            if (union) {
+              mask[w] |= composedGen[w];
+            } else {
+              mask[w] &= composedGen[w] | ~composedKill[w];
+            }
+          }
+        }
+        transfer(composedGen, genIndices, killIndices);
+        for (int index : killIndices) {
+          composedKill[index >>> 6] |= 1L << index;
+        }
+      }
+      blockGen[b] = composedGen;
+      blockKill[b] = composedKill;
+      throwMask[b] = mask;
+    }
+
+    BitSet entries = new BitSet(blockCount);
+    Set<Stmt> entryStmts = entryStmts(forward);
+    for (int b = 0; b < blockCount; b++) {
+      if (blockStmts[b].length > 0 && entryStmts.contains(blockStmts[b][0])) {
+        entries.set(b);
+      }
+    }
+
+    // fixed point iteration, always continuing with the first pending block in reverse postorder
+    long[] entryFlow = Arrays.copyOf(entryInitialFlow().toLongArray(), words);
+    blockIn = new long[blockCount][];
+    blockOut = new long[blockCount][];
+    stmtFlows = new long[blockCount][][];
+    // forward: the merged flow sets at the points a block may throw from
+    long[][] throwFlow = new long[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      blockIn[b] = new long[words];
+      blockOut[b] = top.clone();
+      throwFlow[b] = top.clone();
+    }
+    long[] out = new long[words];
+    BitSet pending = new BitSet(blockCount);
+    pending.set(0, blockCount);
+    for (int b = pending.nextSetBit(0); b >= 0; b = pending.nextSetBit(0)) {
+      pending.clear(b);
+
+      long[] in = blockIn[b];
+      boolean first = true;
+      if (entries.get(b)) {
+        System.arraycopy(entryFlow, 0, in, 0, words);
+        first = false;
+      }
+      for (int pred : preds[b]) {
+        first = merge(in, blockOut[pred], first, union);
+      }
+      if (forward) {
+        for (int pred : exceptionalPreds[b]) {
+          first = merge(in, throwFlow[pred], first, union);
+        }
+      }
+      if (first) {
+        // neither an entry nor reachable from one
+        System.arraycopy(top, 0, in, 0, words);
+      }
+
+      long[] composedGen = blockGen[b];
+      long[] composedKill = blockKill[b];
+      for (int w = 0; w < words; w++) {
+        out[w] = composedGen[w] | (in[w] & ~composedKill[w]);
+      }
+      if (!forward) {
+        mergeHandlers(out, b, union);
+      }
+      if (!Arrays.equals(out, blockOut[b])) {
+        long[] tmp = blockOut[b];
+        blockOut[b] = out;
+        out = tmp;
+        for (int succ : succs[b]) {
+          pending.set(succ);
+        }
+        if (!forward) {
+          for (int succ : exceptionalSuccs[b]) {
+            pending.set(succ);
+          }
+        }
+      }
+
+      if (forward && exceptionalSuccs[b].length > 0) {
+        long[] mask = throwMask[b];
+        boolean changed = false;
+        for (int w = 0; w < words; w++) {
+          long flow = union ? in[w] | mask[w] : in[w] & mask[w];
+          changed |= flow != throwFlow[b][w];
+          throwFlow[b][w] = flow;
+        }
+        if (changed) {
+          for (int succ : exceptionalSuccs[b]) {
+            pending.set(succ);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Merges a flow set into the given one.
+   *
+   * @param first whether {@code flow} has not been initialized yet; it is overwritten then
+   * @return false, i.e. the new value of {@code first}
+   */
+  private boolean merge(@Nonnull long[] flow, @Nonnull long[] other, boolean first, boolean union) {
+    if (first) {
+      System.arraycopy(other, 0, flow, 0, words);
+    } else if (union) {
+      for (int w = 0; w < words; w++) {
+        flow[w] |= other[w];
+      }
+    } else {
+      for (int w = 0; w < words; w++) {
+        flow[w] &= other[w];
+      }
+    }
+    return false;
+  }
+
+  /** Merges the flow sets at the handlers of a covered block into the given flow set. */
+  private void mergeHandlers(@Nonnull long[] flow, int block, boolean union) {
+    for (int handler : exceptionalPreds[block]) {
+      merge(flow, blockOut[handler], false, union);
+    }
+  }
+
+  /**
+   * Numbers the blocks in reverse postorder of a depth-first search in analysis direction that
+   * starts at the entries. Blocks unreachable from the entries are appended in the same way. The
+   * search follows both unexceptional and exceptional edges.
+   *
+   * @return the unexceptional predecessors of each block in analysis direction
+   */
+  @Nonnull
+  private int[][] numberBlocks(boolean forward) {
+    List<BasicBlock<?>> allBlocks = new ArrayList<>(graph.getBlocks());
+    int blockCount = allBlocks.size();
+    Map<Stmt, Integer> heads = new IdentityHashMap<>();
+    for (int b = 0; b < blockCount; b++) {
+      heads.put(allBlocks.get(b).getHead(), b);
+    }
+    // the predecessor lists of the blocks include exceptional predecessors, so all edges are
+    // derived from the successors
+    int[][] flowSuccs = new int[blockCount][];
+    int[][] handlers = new int[blockCount][];
+    for (int b = 0; b < blockCount; b++) {
+      BasicBlock<?> block = allBlocks.get(b);
+      flowSuccs[b] = indicesOf(block.getSuccessors(), heads);
+      handlers[b] = indicesOf(new ArrayList<>(block.getExceptionalSuccessors().values()), heads);
+    }
+    int[][] next = forward ? flowSuccs : invert(flowSuccs);
+    int[][] exceptionalNext = forward ? handlers : invert(handlers);
+
+    Set<Stmt> entryStmts = entryStmts(forward);
+    List<Integer> roots = new ArrayList<>();
+    for (int b = 0; b < blockCount; b++) {
+      BasicBlock<?> block = allBlocks.get(b);
+      if (entryStmts.contains(forward ? block.getHead() : block.getTail())) {
+        roots.add(b);
+      }
+    }
+    for (int b = 0; b < blockCount; b++) {
+      roots.add(b);
+    }
+
+    BitSet visited = new BitSet(blockCount);
+    int[] postorder = new int[blockCount];
+    int postorderSize = 0;
+    int[] stack = new int[blockCount];
+    int[] nextChild = new int[blockCount];
+    for (int root : roots) {
+      if (visited.get(root)) {
+        continue;
+      }
+      visited.set(root);
+      int depth = 0;
+      stack[0] = root;
+      nextChild[0] = 0;
+      while (depth >= 0) {
+        int b = stack[depth];
+        int childIndex = nextChild[depth];
+        if (childIndex < next[b].length + exceptionalNext[b].length) {
+          nextChild[depth]++;
+          int child =
+              childIndex < next[b].length
+                  ? next[b][childIndex]
+                  : exceptionalNext[b][childIndex - next[b].length];
+          if (!visited.get(child)) {
+            visited.set(child);
+            depth++;
+            stack[depth] = child;
+            nextChild[depth] = 0;
+          }
+        } else {
+          postorder[postorderSize++] = b;
+          depth--;
+        }
+      }
+    }
+
+    // reverse the postorder
+    int[] rank = new int[blockCount];
+    blocks = new BasicBlock<?>[blockCount];
+    blockStmts = new Stmt[blockCount][];
+    for (int r = 0; r < blockCount; r++) {
+      int b = postorder[blockCount - 1 - r];
+      rank[b] = r;
+      blocks[r] = allBlocks.get(b);
+      List<Stmt> stmts = new ArrayList<>(blocks[r].getStmts());
+      if (!forward) {
+        Collections.reverse(stmts);
+      }
+      blockStmts[r] = stmts.toArray(new Stmt[0]);
+    }
+
+    exceptionalPreds = ranked(invert(exceptionalNext), rank);
+    return ranked(invert(next), rank);
+  }
+
+  /** Returns the indices of the given blocks by their heads. */
+  @Nonnull
+  private static int[] indicesOf(
+      @Nonnull List<? extends BasicBlock<?>> blocks, @Nonnull Map<Stmt, Integer> heads) {
+    int[] indices = new int[blocks.size()];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = heads.get(blocks.get(i).getHead());
+    }
+    return indices;
+  }
+
+  /** Renumbers the edges between the blocks by the ranks of the blocks. */
+  @Nonnull
+  private static int[][] ranked(@Nonnull int[][] edges, @Nonnull int[] rank) {
+    int[][] ranked = new int[edges.length][];
+    for (int b = 0; b < edges.length; b++) {
+      int[] targets = new int[edges[b].length];
+      for (int i = 0; i < targets.length; i++) {
+        targets[i] = rank[edges[b][i]];
+      }
+      ranked[rank[b]] = targets;
+    }
+    return ranked;
+  }
+
+  /** Returns the starting statement of a forward analysis, or the exits of a backward analysis. */
+  @Nonnull
+  private Set<Stmt> entryStmts(boolean forward) {
+    Set<Stmt> entryStmts = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (forward) {
+      // trap handlers are reached along the exceptional edges
+      entryStmts.add(graph.getStartingStmt());
+    } else {
+      entryStmts.addAll(graph.getTails());
+    }
+    return entryStmts;
+  }
+
+  @Nonnull
+  private static int[][] invert(@Nonnull int[][] edges) {
+    int[] counts = new int[edges.length];
+    for (int[] targets : edges) {
+      for (int target : targets) {
+        counts[target]++;
+      }
+    }
+    int[][] inverted = new int[edges.length][];
+    for (int b = 0; b < edges.length; b++) {
+      inverted[b] = new int[counts[b]];
+      counts[b] = 0;
+    }
+    for (int b = 0; b < edges.length; b++) {
+      for (int target : edges[b]) {
+        inverted[target][counts[target]++] = b;
+      }
+    }
+    return inverted;
+  }
+
+  /** Applies the transfer function {@code flow = gen ∪ (flow \ kill)} in place. */
+  private static void transfer(@Nonnull long[] flow, @Nonnull int[] gen, @Nonnull int[] kill) {
+    for (int index : kill) {
+      flow[index >>> 6] &= ~(1L << index);
+    }
+    for (int index : gen) {
+      flow[index >>> 6] |= 1L << index;
+    }
+  }
+
+  /**
+   * Returns the flow set at the given statement. The flow sets of all statements of its block are
+   * computed on the first query and cached.
+   *
+   * @param includeStmt whether the flow set after the transfer function of the statement in
+   *     analysis direction is returned, rather than the one before it
+   */
+  @Nonnull
+  private long[] flowAt(@Nonnull Stmt stmt, boolean includeStmt) {
+    if (blockIn == null) {
+      throw new IllegalStateException("The analysis has not been executed.");
+    }
+    int[] position = stmtPositions.get(stmt);
+    if (position == null) {
+      throw new IllegalArgumentException("The statement " + stmt + " is not part of the graph.");
+    }
+    int b = position[0];
+    long[][] flows = stmtFlows[b];
+    if (flows == null) {
+      Stmt[] stmts = blockStmts[b];
+      flows = new long[stmts.length + 1][];
+      flows[0] = blockIn[b];
+      long[] flow = blockIn[b].clone();
+      for (int i = 0; i < stmts.length; i++) {
+        int[][] genKill = stmtGenKill.get(stmts[i]);
+        transfer(flow, genKill[0], genKill[1]);
+        if (!isForward()) {
+          // the handlers may be reached from the point before the statement
+          mergeHandlers(flow, b, isUnion());
+        }
+        flows[i + 1] = flow.clone();
+      }
+      stmtFlows[b] = flows;
+    }
+    return flows[includeStmt ? position[1] + 1 : position[1]];
+  }
+}
@@ -0,0 +1,196 @@
+package sootup.analysis.interprocedural.icfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.cache.BodyRetentionPolicy;
+import sootup.core.cache.provider.FullCacheProvider;
+import sootup.core.graph.StmtGraph;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.java.bytecode.inputlocation.DefaultRTJarAnalysisInputLocation;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.views.JavaView;
+
+@Tag("Java8")
+public class JimpleBasedInterproceduralCFGTest {
+
+  private List<AnalysisInputLocation> inputLocations;
+  private JavaView view;
+
+  @BeforeEach
+  public void setUp() {
+    inputLocations = new ArrayList<>();
+    inputLocations.add(new DefaultRTJarAnalysisInputLocation());
+    inputLocations.add(new JavaClassPathAnalysisInputLocation("src/test/resources/icfg/binary"));
+    view = new JavaView(inputLocations);
+  }
+
+  private SootMethod method(String className, String methodName) {
+    SootClass sootClass =
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType(className)).get();
+    return sootClass.getMethods().stream()
+        .filter(method -> method.getName().equals(methodName))
+        .findFirst()
+        .get();
+  }
+
+  @Test
+  public void getCallersOf() {
+    SootMethod entryPoint = method("ICFGExample", "entryPoint");
+    SootMethod sink = method("ICFGExample", "sink");
+    SootMethod secondMethod = method("ICFGExample", "secondMethod");
+    SootMethod thirdMethod = method("ICFGExample", "thirdMethod");
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, entryPoint.getSignature(), false, false);
+
+    Collection<Stmt> callersOfSink = icfg.getCallersOf(sink);
+    assertEquals(1, callersOfSink.size());
+    Stmt callOfSink = callersOfSink.iterator().next();
+    assertEquals(entryPoint, icfg.getMethodOf(callOfSink));
+    assertEquals(sink.getSignature(), callOfSink.getInvokeExpr().getMethodSignature());
+    assertTrue(icfg.getCallsFromWithin(entryPoint).contains(callOfSink));
+
+    Collection<Stmt> callersOfThirdMethod = icfg.getCallersOf(thirdMethod);
+    assertEquals(1, callersOfThirdMethod.size());
+    assertEquals(secondMethod, icfg.getMethodOf(callersOfThirdMethod.iterator().next()));
+
+    assertTrue(icfg.getCallersOf(entryPoint).isEmpty());
+  }
+
+  @Test
+  public void getCalleesOfCallAt() {
+    SootMethod entryPoint = method("ICFGExample2", "entryPoint");
+    SootMethod superClassMethod = method("ICFGSuperClass", "m");
+    SootMethod subClassMethod = method("ICFGSubClass", "m");
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, entryPoint.getSignature(), false, false);
+
+    Stmt virtualCall =
+        icfg.getCallsFromWithin(entryPoint).stream()
+            .filter(stmt -> stmt.getInvokeExpr().getMethodSignature().getName().equals("m"))
+            .findFirst()
+            .get();
+    // the callees are all dispatch targets of the call graph
+    assertEquals(
+        new HashSet<>(Arrays.asList(superClassMethod, subClassMethod)),
+        new HashSet<>(icfg.getCalleesOfCallAt(virtualCall)));
+    for (SootMethod callee : icfg.getCalleesOfCallAt(virtualCall)) {
+      assertTrue(icfg.getCallersOf(callee).contains(virtualCall));
+    }
+
+    // implicit calls of static initializers are retained as well
+    for (Stmt stmt : entryPoint.getBody().getStmts()) {
+      if (!stmt.containsInvokeExpr()) {
+        for (SootMethod callee : icfg.getCalleesOfCallAt(stmt)) {
+          assertEquals("<clinit>", callee.getName());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void callsWithoutRetainedBodies() {
+    view = new JavaView(inputLocations, new FullCacheProvider(), BodyRetentionPolicy.RECOMPUTE);
+    SootMethod entryPoint = method("ICFGExample", "entryPoint");
+    SootMethod sink = method("ICFGExample", "sink");
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, entryPoint.getSignature(), false, false);
+
+    Collection<Stmt> callersOfSink = icfg.getCallersOf(sink);
+    assertEquals(1, callersOfSink.size());
+    Stmt callOfSink = callersOfSink.iterator().next();
+    assertEquals(entryPoint, icfg.getMethodOf(callOfSink));
+    assertTrue(icfg.getCalleesOfCallAt(callOfSink).contains(sink));
+
+    SootMethod entryPoint2 = method("ICFGExample2", "entryPoint");
+    JimpleBasedInterproceduralCFG icfg2 =
+        new JimpleBasedInterproceduralCFG(view, entryPoint2.getSignature(), false, false);
+    Stmt virtualCall =
+        icfg2.getCallsFromWithin(entryPoint2).stream()
+            .filter(stmt -> stmt.getInvokeExpr().getMethodSignature().getName().equals("m"))
+            .findFirst()
+            .get();
+    assertEquals(
+        new HashSet<>(Arrays.asList(method("ICFGSuperClass", "m"), method("ICFGSubClass", "m"))),
+        new HashSet<>(icfg2.getCalleesOfCallAt(virtualCall)));
+  }
+
+  @Test
+  public void callsOfUnrelatedClassesWithoutRetainedBodies() {
+    view = new JavaView(inputLocations, new FullCacheProvider(), BodyRetentionPolicy.RECOMPUTE);
+    SootMethod entryPoint = method("ICFGExample3", "entryPoint");
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, entryPoint.getSignature(), false, false);
+
+    // both calls have the same sub signature, but their receivers are unrelated
+    List<Stmt> callsOfFoo =
+        icfg.getCallsFromWithin(entryPoint).stream()
+            .filter(stmt -> stmt.getInvokeExpr().getMethodSignature().getName().equals("foo"))
+            .collect(Collectors.toList());
+    assertEquals(2, callsOfFoo.size());
+    for (Stmt callOfFoo : callsOfFoo) {
+      String receiver =
+          callOfFoo.getInvokeExpr().getMethodSignature().getDeclClassType().getClassName();
+      assertEquals(
+          Collections.singletonList(method(receiver, "foo")),
+          new ArrayList<>(icfg.getCalleesOfCallAt(callOfFoo)));
+    }
+  }
+
+  @Test
+  public void compiledStmtMetadata() {
+    SootMethod entryPoint = method("ICFGExample", "entryPoint");
+    SootMethod secondMethod = method("ICFGExample", "secondMethod");
+    JimpleBasedInterproceduralCFG icfg =
+        new JimpleBasedInterproceduralCFG(view, entryPoint.getSignature(), false, false);
+    assertStmtMetadata(icfg, entryPoint);
+    assertStmtMetadata(icfg, secondMethod);
+
+    // changing the owner mapping falls back to the statement graphs until it is compiled again
+    icfg.initializeStmtToOwner(entryPoint);
+    assertStmtMetadata(icfg, entryPoint);
+    icfg.compile();
+    assertStmtMetadata(icfg, entryPoint);
+  }
+
+  private void assertStmtMetadata(JimpleBasedInterproceduralCFG icfg, SootMethod method) {
+    StmtGraph<?> graph = method.getBody().getStmtGraph();
+    assertEquals(
+        new ArrayList<>(graph.getEntrypoints()), new ArrayList<>(icfg.getStartPointsOf(method)));
+    assertEquals(graph.getTails(), new ArrayList<>(icfg.getEndPointsOf(method)));
+    assertEquals(graph, icfg.getOrCreateStmtGraph(method));
+    assertEquals(
+        new ArrayList<>(method.getBody().getParameterLocals()), icfg.getParameterRefs(method));
+    Set<Stmt> calls = new HashSet<>();
+    for (Stmt stmt : graph.getNodes()) {
+      if (stmt.containsInvokeExpr()) {
+        calls.add(stmt);
+      }
+    }
+    assertEquals(calls, icfg.getCallsFromWithin(method));
+    for (Stmt stmt : graph.getNodes()) {
+      assertTrue(icfg.isReachable(stmt));
+      assertEquals(method, icfg.getMethodOf(stmt));
+      assertEquals(method.getBody(), icfg.getBodyOf(stmt));
+      assertEquals(graph.successors(stmt), icfg.getSuccsOf(stmt));
+      assertEquals(graph.predecessors(stmt), icfg.getPredsOf(stmt));
+      assertEquals(graph.getEntrypoints().contains(stmt), icfg.isStartPoint(stmt));
+      assertEquals(graph.getTails().contains(stmt), icfg.isExitStmt(stmt));
+      assertEquals(
+          !icfg.isStartPoint(stmt) && !icfg.isCallStmt(stmt),
+          icfg.allNonCallStartNodes().contains(stmt));
+      assertEquals(
+          !icfg.isExitStmt(stmt) && !icfg.isCallStmt(stmt),
+          icfg.allNonCallEndNodes().contains(stmt));
+    }
+  }
+}
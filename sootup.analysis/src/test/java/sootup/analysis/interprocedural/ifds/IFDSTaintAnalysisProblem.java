@@ -38,6 +38,7 @@ import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
 import sootup.core.jimple.common.expr.JVirtualInvokeExpr;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
 import sootup.core.jimple.common.ref.JStaticFieldRef;
 import sootup.core.jimple.common.stmt.*;
 import sootup.core.model.SootMethod;
@@ -52,7 +53,12 @@ public class IFDSTaintAnalysisProblem
 
   public IFDSTaintAnalysisProblem(
       InterproceduralCFG<Stmt, SootMethod> icfg, SootMethod entryMethod) {
-    super(icfg);
+    this(icfg, entryMethod, 1);
+  }
+
+  public IFDSTaintAnalysisProblem(
+      InterproceduralCFG<Stmt, SootMethod> icfg, SootMethod entryMethod, int numThreads) {
+    super(icfg, numThreads);
     this.icfg = icfg;
     this.entryMethod = entryMethod;
   }
@@ -95,6 +101,20 @@ public class IFDSTaintAnalysisProblem
     return new Local("<<zero>>", NullType.getInstance());
   }
 
+  @Override
+  public Local getSparseLocal(Value fact) {
+    if (fact == zeroValue()) {
+      return null;
+    }
+    if (fact instanceof Local) {
+      return (Local) fact;
+    }
+    if (fact instanceof JInstanceFieldRef) {
+      return ((JInstanceFieldRef) fact).getBase();
+    }
+    return null;
+  }
+
   FlowFunction<Value> getNormalFlow(Stmt curr, Stmt succ) {
     if (curr instanceof JAssignStmt) {
       final JAssignStmt assign = (JAssignStmt) curr;
@@ -22,16 +22,19 @@ package sootup.analysis.interprocedural.ifds;
  * #L%
  */
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import heros.InterproceduralCFG;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.ref.JInstanceFieldRef;
 import sootup.core.jimple.common.ref.JStaticFieldRef;
 import sootup.core.jimple.common.stmt.Stmt;
@@ -40,15 +43,64 @@ import sootup.core.model.SootMethod;
 @Tag("Java8")
 public class IFDSTaintAnalysisTest extends IFDSTaintTestSetUp {
 
+  /** the number of threads the results of a single thread are compared to */
+  private static final int THREADS = 4;
+
   SootMethod getEntryPointMethod() {
     return entryMethod;
   }
 
-  Set<String> getResultsAtLastStatement(
-      JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis) {
+  /**
+   * Solves the problem of the given class on one and on several threads and sparsely, asserts that
+   * the results at every statement of the entry method match and returns the ones at its last
+   * statement.
+   */
+  Set<String> getResultsAtLastStatement(String targetTestClassName) {
+    List<Set<String>> results = getResults(executeStaticAnalysis(targetTestClassName, 1));
+    assertEquals(results, getResults(executeStaticAnalysis(targetTestClassName, THREADS)));
+    assertSparseResults(targetTestClassName);
+    return results.get(results.size() - 1);
+  }
+
+  /**
+   * Asserts that the sparse results at each statement of the entry method are the dense results
+   * without the facts whose local the statement neither uses nor defines, and that facts are
+   * actually skipped.
+   */
+  void assertSparseResults(String targetTestClassName) {
+    JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> dense =
+        executeStaticAnalysis(targetTestClassName, 1);
+    List<Set<String>> expected = new ArrayList<>();
+    int denseCount = 0;
+    for (Stmt stmt : getEntryPointMethod().getBody().getStmts()) {
+      Set<Value> facts = new HashSet<>();
+      for (Object fact : dense.ifdsResultsAt(stmt)) {
+        denseCount++;
+        Local local = problem.getSparseLocal((Value) fact);
+        if (local == null
+            || problem.interproceduralCFG().isExitStmt(stmt)
+            || stmt.getUsesAndDefs().anyMatch(local::equals)) {
+          facts.add((Value) fact);
+        }
+      }
+      expected.add(getNames(facts));
+    }
+    List<Set<String>> sparse = getResults(executeStaticAnalysis(targetTestClassName, 1, true));
+    assertEquals(expected, sparse);
+    assertTrue(sparse.stream().mapToInt(Set::size).sum() < denseCount);
+  }
+
+  /** Returns the names of the facts that hold at each statement of the entry method. */
+  List<Set<String>> getResults(JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis) {
     SootMethod m = getEntryPointMethod();
-    List<Stmt> stmts = m.getBody().getStmts();
-    Set<?> rawSet = analysis.ifdsResultsAt(stmts.get(stmts.size() - 1));
+    List<Set<String>> results = new ArrayList<>();
+    for (Stmt stmt : m.getBody().getStmts()) {
+      results.add(getNames(analysis.ifdsResultsAt(stmt)));
+    }
+    return results;
+  }
+
+  Set<String> getNames(Set<?> rawSet) {
     Set<String> names = new HashSet<>();
     for (Object fact : rawSet) {
       if (fact instanceof Local) {
@@ -70,9 +122,7 @@ public class IFDSTaintAnalysisTest extends IFDSTaintTestSetUp {
 
   @Test
   public void SimpleTaint() {
-    JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
-        executeStaticAnalysis("SimpleTaint");
-    Set<String> result = getResultsAtLastStatement(analysis);
+    Set<String> result = getResultsAtLastStatement("SimpleTaint");
     assertTrue(result.contains("l1"));
     assertTrue(result.contains("l2"));
     assertTrue(result.contains("SimpleTaint.k"));
@@ -80,35 +130,27 @@ public class IFDSTaintAnalysisTest extends IFDSTaintTestSetUp {
 
   @Test
   public void SimpleTaintSanitized() {
-    JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
-        executeStaticAnalysis("SimpleTaintSanitized");
-    Set<String> result = getResultsAtLastStatement(analysis);
+    Set<String> result = getResultsAtLastStatement("SimpleTaintSanitized");
     assertTrue(result.contains("l1"));
   }
 
   @Test
   public void FunctionTaint() {
-    JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
-        executeStaticAnalysis("FunctionTaint");
-    Set<String> result = getResultsAtLastStatement(analysis);
+    Set<String> result = getResultsAtLastStatement("FunctionTaint");
     assertTrue(result.contains("l1"));
     assertTrue(result.contains("l2"));
   }
 
   @Test
   public void FunctionTaintPropagated() {
-    JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
-        executeStaticAnalysis("FunctionTaintPropagated");
-    Set<String> result = getResultsAtLastStatement(analysis);
+    Set<String> result = getResultsAtLastStatement("FunctionTaintPropagated");
     assertTrue(result.contains("l1"), result + " is missing an element.");
     assertTrue(result.contains("l2"), result + " is missing an element.");
   }
 
   @Test
   public void FunctionTaintSanitized() {
-    JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> analysis =
-        executeStaticAnalysis("FunctionTaintSanitized");
-    Set<String> result = getResultsAtLastStatement(analysis);
+    Set<String> result = getResultsAtLastStatement("FunctionTaintSanitized");
     assertTrue(result.contains("l1"));
     assertFalse(result.contains("l2"));
   }
@@ -48,26 +48,37 @@ public class IFDSTaintTestSetUp {
   protected JavaView view;
   protected MethodSignature entryMethodSignature;
   protected SootMethod entryMethod;
+  protected IFDSTaintAnalysisProblem problem;
 
   private static JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> solved = null;
 
   protected JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> executeStaticAnalysis(
       String targetTestClassName) {
+    return executeStaticAnalysis(targetTestClassName, 1);
+  }
+
+  protected JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> executeStaticAnalysis(
+      String targetTestClassName, int numThreads) {
+    return executeStaticAnalysis(targetTestClassName, numThreads, false);
+  }
+
+  protected JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> executeStaticAnalysis(
+      String targetTestClassName, int numThreads, boolean sparse) {
     setupSoot(targetTestClassName);
-    runAnalysis();
+    runAnalysis(numThreads, sparse);
     if (solved == null) {
       throw new NullPointerException("Something went wrong solving the IFDS problem!");
     }
     return solved;
   }
 
-  private void runAnalysis() {
+  private void runAnalysis(int numThreads, boolean sparse) {
 
     JimpleBasedInterproceduralCFG icfg =
         new JimpleBasedInterproceduralCFG(view, entryMethodSignature, false, false);
-    IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, entryMethod);
+    problem = new IFDSTaintAnalysisProblem(icfg, entryMethod, numThreads);
     JimpleIFDSSolver<?, InterproceduralCFG<Stmt, SootMethod>> solver =
-        new JimpleIFDSSolver(problem);
+        new JimpleIFDSSolver(problem, sparse);
     solver.solve(entryMethod.getDeclaringClassType().getClassName());
     solved = solver;
   }
@@ -0,0 +1,195 @@
+package sootup.analysis.intraprocedural;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.LValue;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.JReturnStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.java.bytecode.inputlocation.DefaultRTJarAnalysisInputLocation;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.views.JavaView;
+
+@Tag("Java8")
+public class FlowAnalysisTest {
+
+  private JavaView view;
+
+  @BeforeEach
+  public void setUp() {
+    view = new JavaView(new DefaultRTJarAnalysisInputLocation());
+  }
+
+  /** The locals that are live at a statement. */
+  private static class LiveLocals extends FlowAnalysis<Set<Local>> {
+
+    LiveLocals(StmtGraph<?> graph) {
+      super(graph);
+      execute();
+    }
+
+    @Override
+    protected boolean isForward() {
+      return false;
+    }
+
+    @Override
+    protected void execute() {
+      execute(stmtToAfterFlow, stmtToBeforeFlow);
+    }
+
+    @Override
+    protected void flowThrough(@Nonnull Set<Local> in, Stmt stmt, @Nonnull Set<Local> out) {
+      out.clear();
+      out.addAll(in);
+      Optional<LValue> def = stmt.getDef();
+      if (def.isPresent() && def.get() instanceof Local) {
+        out.remove(def.get());
+      }
+      stmt.getUses().filter(use -> use instanceof Local).forEach(use -> out.add((Local) use));
+    }
+
+    @Nonnull
+    @Override
+    protected Set<Local> newInitialFlow() {
+      return new HashSet<>();
+    }
+
+    @Override
+    protected void merge(
+        @Nonnull Set<Local> in1, @Nonnull Set<Local> in2, @Nonnull Set<Local> out) {
+      out.clear();
+      out.addAll(in1);
+      out.addAll(in2);
+    }
+
+    @Override
+    protected void copy(@Nonnull Set<Local> source, @Nonnull Set<Local> dest) {
+      dest.clear();
+      dest.addAll(source);
+    }
+  }
+
+  @Test
+  public void liveLocalsWithTraps() {
+    int checkedWithTraps = 0;
+    for (String className :
+        Arrays.asList("java.util.concurrent.ThreadPoolExecutor", "java.util.zip.ZipFile")) {
+      SootClass sootClass =
+          view.getClass(JavaIdentifierFactory.getInstance().getClassType(className)).get();
+      for (SootMethod method : sootClass.getMethods()) {
+        if (!method.hasBody()) {
+          continue;
+        }
+        StmtGraph<?> graph = method.getBody().getStmtGraph();
+        LiveLocals analysis = new LiveLocals(graph);
+
+        // straightforward backward fixed point over the statements and their successors; the
+        // handlers of a trap flow into the last statements of the blocks it covers
+        Map<Stmt, Set<Local>> before = new HashMap<>();
+        Map<Stmt, Set<Local>> after = new HashMap<>();
+        for (Stmt stmt : graph.getNodes()) {
+          before.put(stmt, new HashSet<>());
+          after.put(stmt, new HashSet<>());
+        }
+        for (boolean changed = true; changed; ) {
+          changed = false;
+          for (Stmt stmt : graph.getNodes()) {
+            for (Stmt succ : flowSuccessors(graph, stmt)) {
+              changed |= after.get(stmt).addAll(before.get(succ));
+            }
+            Set<Local> in = new HashSet<>();
+            analysis.flowThrough(after.get(stmt), stmt, in);
+            changed |= before.get(stmt).addAll(in);
+          }
+        }
+
+        Set<Stmt> reached = reachableBackwards(graph);
+        for (Stmt stmt : reached) {
+          assertEquals(before.get(stmt), analysis.getFlowBefore(stmt));
+          assertEquals(after.get(stmt), analysis.getFlowAfter(stmt));
+        }
+        boolean hasTraps =
+            graph.getBlocks().stream().anyMatch(b -> !b.getExceptionalSuccessors().isEmpty());
+        if (hasTraps && reached.size() == graph.getNodes().size()) {
+          checkedWithTraps++;
+        }
+      }
+    }
+    assertTrue(checkedWithTraps > 0);
+  }
+
+  @Test
+  public void liveLocalsInHandler() {
+    JavaView view =
+        new JavaView(
+            new JavaClassPathAnalysisInputLocation("src/test/resources/intraprocedural/binary"));
+    SootClass sootClass =
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("TrapLiveness")).get();
+    StmtGraph<?> graph =
+        sootClass.getMethods().stream()
+            .filter(method -> method.getName().equals("handlerReadsLocal"))
+            .findFirst()
+            .get()
+            .getBody()
+            .getStmtGraph();
+    LiveLocals analysis = new LiveLocals(graph);
+
+    // the handler returns the local that is assigned before the trap
+    Stmt handlerReturn = graph.getTraps().get(0).getHandlerStmt();
+    while (!(handlerReturn instanceof JReturnStmt)) {
+      handlerReturn = graph.successors(handlerReturn).get(0);
+    }
+    Local fallback = (Local) ((JReturnStmt) handlerReturn).getOp();
+    Stmt parseInt =
+        graph.getNodes().stream()
+            .filter(stmt -> stmt.containsInvokeExpr())
+            .filter(stmt -> stmt.getInvokeExpr().getMethodSignature().getName().equals("parseInt"))
+            .findFirst()
+            .get();
+    assertTrue(analysis.getFlowBefore(parseInt).contains(fallback));
+    assertTrue(analysis.getFlowAfter(parseInt).contains(fallback));
+  }
+
+  /**
+   * Returns the successors of a statement in a backward analysis: its unexceptional successors and,
+   * for the last statement of a block, the handlers of the traps covering the block.
+   */
+  private static List<Stmt> flowSuccessors(StmtGraph<?> graph, Stmt stmt) {
+    List<Stmt> successors = new ArrayList<>(graph.successors(stmt));
+    if (graph.getBlockOf(stmt).getTail() == stmt) {
+      successors.addAll(graph.exceptionalSuccessors(stmt).values());
+    }
+    return successors;
+  }
+
+  /** Returns the statements that reach an exit, including along exceptional edges. */
+  private static Set<Stmt> reachableBackwards(StmtGraph<?> graph) {
+    Map<Stmt, List<Stmt>> predecessors = new HashMap<>();
+    for (Stmt stmt : graph.getNodes()) {
+      for (Stmt succ : flowSuccessors(graph, stmt)) {
+        predecessors.computeIfAbsent(succ, key -> new ArrayList<>()).add(stmt);
+      }
+    }
+    Set<Stmt> reached = new HashSet<>(graph.getTails());
+    Deque<Stmt> workList = new ArrayDeque<>(reached);
+    while (!workList.isEmpty()) {
+      for (Stmt pred : predecessors.getOrDefault(workList.poll(), Collections.emptyList())) {
+        if (reached.add(pred)) {
+          workList.add(pred);
+        }
+      }
+    }
+    return reached;
+  }
+}
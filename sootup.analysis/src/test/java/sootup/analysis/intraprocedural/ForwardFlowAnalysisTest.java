@@ -0,0 +1,112 @@
+package sootup.analysis.intraprocedural;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.*;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.LValue;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.java.bytecode.inputlocation.DefaultRTJarAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.views.JavaView;
+
+@Tag("Java8")
+public class ForwardFlowAnalysisTest {
+
+  private JavaView view;
+
+  @BeforeEach
+  public void setUp() {
+    view = new JavaView(new DefaultRTJarAnalysisInputLocation());
+  }
+
+  /** The definitions of locals that reach a statement. */
+  private static class ReachingDefinitions extends ForwardFlowAnalysis<Set<Stmt>> {
+
+    <B extends BasicBlock<B>> ReachingDefinitions(StmtGraph<B> graph) {
+      super(graph);
+      execute();
+    }
+
+    @Override
+    protected void flowThrough(@Nonnull Set<Stmt> in, Stmt stmt, @Nonnull Set<Stmt> out) {
+      out.clear();
+      out.addAll(in);
+      Optional<LValue> def = stmt.getDef();
+      if (def.isPresent() && def.get() instanceof Local) {
+        out.removeIf(other -> other.getDef().get().equals(def.get()));
+        out.add(stmt);
+      }
+    }
+
+    @Nonnull
+    @Override
+    protected Set<Stmt> newInitialFlow() {
+      return new HashSet<>();
+    }
+
+    @Override
+    protected void merge(@Nonnull Set<Stmt> in1, @Nonnull Set<Stmt> in2, @Nonnull Set<Stmt> out) {
+      out.clear();
+      out.addAll(in1);
+      out.addAll(in2);
+    }
+
+    @Override
+    protected void copy(@Nonnull Set<Stmt> source, @Nonnull Set<Stmt> dest) {
+      dest.clear();
+      dest.addAll(source);
+    }
+  }
+
+  @Test
+  public void reachingDefinitions() {
+    int checked = 0;
+    for (String className : Arrays.asList("java.util.ArrayList", "java.util.HashMap")) {
+      SootClass sootClass =
+          view.getClass(JavaIdentifierFactory.getInstance().getClassType(className)).get();
+      for (SootMethod method : sootClass.getMethods()) {
+        if (!method.hasBody()) {
+          continue;
+        }
+        StmtGraph<?> graph = method.getBody().getStmtGraph();
+        ReachingDefinitions analysis = new ReachingDefinitions(graph);
+
+        // straightforward fixed point over the statements and their unexceptional successors
+        Map<Stmt, Set<Stmt>> before = new HashMap<>();
+        Map<Stmt, Set<Stmt>> after = new HashMap<>();
+        for (Stmt stmt : graph.getNodes()) {
+          before.put(stmt, new HashSet<>());
+          after.put(stmt, new HashSet<>());
+        }
+        for (boolean changed = true; changed; ) {
+          changed = false;
+          for (Stmt stmt : graph.getNodes()) {
+            Set<Stmt> out = new HashSet<>();
+            analysis.flowThrough(before.get(stmt), stmt, out);
+            changed |= after.get(stmt).addAll(out);
+            for (Stmt succ : graph.successors(stmt)) {
+              changed |= before.get(succ).addAll(out);
+            }
+          }
+        }
+
+        for (Stmt stmt : graph.getNodes()) {
+          assertEquals(before.get(stmt), analysis.getFlowBefore(stmt));
+          assertEquals(after.get(stmt), analysis.getFlowAfter(stmt));
+          checked++;
+        }
+      }
+    }
+    assertTrue(checked > 0);
+  }
+}
@@ -0,0 +1,264 @@
+package sootup.analysis.intraprocedural;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.JReturnStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.java.bytecode.inputlocation.DefaultRTJarAnalysisInputLocation;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.views.JavaView;
+
+@Tag("Java8")
+public class GenKillFlowAnalysisTest {
+
+  private JavaView view;
+
+  @BeforeEach
+  public void setUp() {
+    view = new JavaView(new DefaultRTJarAnalysisInputLocation());
+  }
+
+  private List<SootMethod> methodsWithBody(String... classNames) {
+    List<SootMethod> methods = new ArrayList<>();
+    for (String className : classNames) {
+      SootClass sootClass =
+          view.getClass(JavaIdentifierFactory.getInstance().getClassType(className)).get();
+      for (SootMethod method : sootClass.getMethods()) {
+        if (method.hasBody()) {
+          methods.add(method);
+        }
+      }
+    }
+    return methods;
+  }
+
+  private static Set<Local> uses(Stmt stmt) {
+    return stmt.getUses()
+        .filter(value -> value instanceof Local)
+        .map(value -> (Local) value)
+        .collect(Collectors.toSet());
+  }
+
+  private static Optional<Local> def(Stmt stmt) {
+    return stmt.getDef().filter(value -> value instanceof Local).map(value -> (Local) value);
+  }
+
+  /** Live locals: a backward may analysis. */
+  private static class LiveLocals extends GenKillFlowAnalysis<Local> {
+
+    LiveLocals(StmtGraph<?> graph, Collection<Local> locals) {
+      super(graph, locals);
+      execute();
+    }
+
+    @Override
+    protected boolean isForward() {
+      return false;
+    }
+
+    @Override
+    protected boolean isUnion() {
+      return true;
+    }
+
+    @Override
+    protected void genKill(Stmt stmt, BitSet gen, BitSet kill) {
+      def(stmt).ifPresent(local -> kill.set(indexOf(local)));
+      uses(stmt).forEach(local -> gen.set(indexOf(local)));
+    }
+  }
+
+  /**
+   * Locals assigned on every path, a forward must analysis, or on some path, a forward may
+   * analysis.
+   */
+  private static class AssignedLocals extends GenKillFlowAnalysis<Local> {
+
+    private final boolean union;
+
+    AssignedLocals(StmtGraph<?> graph, Collection<Local> locals, boolean union) {
+      super(graph, locals);
+      this.union = union;
+      execute();
+    }
+
+    @Override
+    protected boolean isForward() {
+      return true;
+    }
+
+    @Override
+    protected boolean isUnion() {
+      return union;
+    }
+
+    @Override
+    protected void genKill(Stmt stmt, BitSet gen, BitSet kill) {
+      def(stmt).ifPresent(local -> gen.set(indexOf(local)));
+    }
+  }
+
+  @Test
+  public void liveLocals() {
+    int checked = 0;
+    for (SootMethod method : methodsWithBody("java.util.ArrayList", "java.util.HashMap")) {
+      StmtGraph<?> graph = method.getBody().getStmtGraph();
+      LiveLocals analysis = new LiveLocals(graph, method.getBody().getLocals());
+
+      // straightforward fixed point over the statements; the locals live at a handler are live
+      // before every statement its trap covers
+      Map<Stmt, Set<Local>> liveIn = new HashMap<>();
+      Map<Stmt, Set<Local>> liveOut = new HashMap<>();
+      for (Stmt stmt : graph.getNodes()) {
+        liveIn.put(stmt, new HashSet<>());
+        liveOut.put(stmt, new HashSet<>());
+      }
+      for (boolean changed = true; changed; ) {
+        changed = false;
+        for (Stmt stmt : graph.getNodes()) {
+          for (Stmt succ : graph.successors(stmt)) {
+            changed |= liveOut.get(stmt).addAll(liveIn.get(succ));
+          }
+          Set<Local> in = new HashSet<>(liveOut.get(stmt));
+          def(stmt).ifPresent(in::remove);
+          in.addAll(uses(stmt));
+          for (Stmt handler : graph.exceptionalSuccessors(stmt).values()) {
+            in.addAll(liveIn.get(handler));
+          }
+          changed |= liveIn.get(stmt).addAll(in);
+        }
+      }
+
+      for (Stmt stmt : graph.getNodes()) {
+        assertEquals(liveIn.get(stmt), analysis.toFacts(analysis.getFlowBefore(stmt)));
+        assertEquals(liveOut.get(stmt), analysis.toFacts(analysis.getFlowAfter(stmt)));
+        checked++;
+      }
+    }
+    assertTrue(checked > 0);
+  }
+
+  @Test
+  public void liveLocalsInHandler() {
+    JavaView view =
+        new JavaView(
+            new JavaClassPathAnalysisInputLocation("src/test/resources/intraprocedural/binary"));
+    SootMethod method =
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("TrapLiveness")).get()
+            .getMethods().stream()
+            .filter(m -> m.getName().equals("handlerReadsLocal"))
+            .findFirst()
+            .get();
+    StmtGraph<?> graph = method.getBody().getStmtGraph();
+    LiveLocals analysis = new LiveLocals(graph, method.getBody().getLocals());
+
+    // the handler returns the local that is assigned before the trap
+    Stmt handlerReturn = graph.getTraps().get(0).getHandlerStmt();
+    while (!(handlerReturn instanceof JReturnStmt)) {
+      handlerReturn = graph.successors(handlerReturn).get(0);
+    }
+    Local fallback = (Local) ((JReturnStmt) handlerReturn).getOp();
+    for (Stmt stmt : graph.getNodes()) {
+      if (!graph.exceptionalSuccessors(stmt).isEmpty()) {
+        assertTrue(analysis.toFacts(analysis.getFlowBefore(stmt)).contains(fallback));
+      }
+    }
+  }
+
+  @Test
+  public void assignedLocals() {
+    checkAssignedLocals(false);
+  }
+
+  @Test
+  public void possiblyAssignedLocals() {
+    checkAssignedLocals(true);
+  }
+
+  private void checkAssignedLocals(boolean union) {
+    int checked = 0;
+    int checkedHandlers = 0;
+    for (SootMethod method : methodsWithBody("java.util.ArrayList", "java.util.HashMap")) {
+      StmtGraph<?> graph = method.getBody().getStmtGraph();
+      Set<Local> locals = method.getBody().getLocals();
+      AssignedLocals analysis = new AssignedLocals(graph, locals, union);
+
+      // straightforward fixed point over the statements, starting with all locals for a must
+      // analysis; a handler merges the flow sets before all statements its trap covers
+      Set<Local> top = union ? Collections.emptySet() : locals;
+      Stmt start = graph.getStartingStmt();
+      Map<Stmt, Set<Local>> assignedIn = new HashMap<>();
+      Map<Stmt, Set<Local>> assignedOut = new HashMap<>();
+      for (Stmt stmt : graph.getNodes()) {
+        assignedIn.put(stmt, new HashSet<>(top));
+        assignedOut.put(stmt, new HashSet<>(top));
+      }
+      Map<Stmt, List<Stmt>> preds = new HashMap<>();
+      Map<Stmt, List<Stmt>> exceptionalPreds = new HashMap<>();
+      for (Stmt stmt : graph.getNodes()) {
+        for (Stmt succ : graph.successors(stmt)) {
+          preds.computeIfAbsent(succ, key -> new ArrayList<>()).add(stmt);
+        }
+        for (Stmt handler : graph.exceptionalSuccessors(stmt).values()) {
+          exceptionalPreds.computeIfAbsent(handler, key -> new ArrayList<>()).add(stmt);
+        }
+      }
+      for (boolean changed = true; changed; ) {
+        changed = false;
+        for (Stmt stmt : graph.getNodes()) {
+          List<Set<Local>> incoming = new ArrayList<>();
+          for (Stmt pred : preds.getOrDefault(stmt, Collections.emptyList())) {
+            incoming.add(assignedOut.get(pred));
+          }
+          for (Stmt pred : exceptionalPreds.getOrDefault(stmt, Collections.emptyList())) {
+            incoming.add(assignedIn.get(pred));
+          }
+          Set<Local> in;
+          if (stmt == start) {
+            in = new HashSet<>();
+          } else if (incoming.isEmpty()) {
+            in = new HashSet<>(top);
+          } else {
+            in = new HashSet<>(incoming.get(0));
+            for (Set<Local> flow : incoming) {
+              if (union) {
+                in.addAll(flow);
+              } else {
+                in.retainAll(flow);
+              }
+            }
+          }
+          Set<Local> out = new HashSet<>(in);
+          def(stmt).ifPresent(out::add);
+          if (union) {
+            changed |= assignedIn.get(stmt).addAll(in);
+            changed |= assignedOut.get(stmt).addAll(out);
+          } else {
+            changed |= assignedIn.get(stmt).retainAll(in);
+            changed |= assignedOut.get(stmt).retainAll(out);
+          }
+        }
+      }
+
+      for (Stmt stmt : graph.getNodes()) {
+        assertEquals(assignedIn.get(stmt), analysis.toFacts(analysis.getFlowBefore(stmt)));
+        assertEquals(assignedOut.get(stmt), analysis.toFacts(analysis.getFlowAfter(stmt)));
+        checked++;
+      }
+      checkedHandlers += exceptionalPreds.size();
+    }
+    assertTrue(checked > 0);
+    assertTrue(checkedHandlers > 0);
+  }
+}
@@ -0,0 +1,23 @@
+public class ICFGExample3{
+    public ICFGExample3(){
+    }
+
+    public void entryPoint(){
+        ICFGFirstReceiver first = new ICFGFirstReceiver();
+        ICFGSecondReceiver second = new ICFGSecondReceiver();
+        first.foo();
+        second.foo();
+    }
+}
+
+class ICFGFirstReceiver {
+    public void foo() {
+
+    }
+}
+
+class ICFGSecondReceiver {
+    public void foo() {
+
+    }
+}
@@ -0,0 +1,13 @@
+public class TrapLiveness {
+
+    public int handlerReadsLocal(String text) {
+        int fallback = text.length();
+        int value;
+        try {
+            value = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+        return value;
+    }
+}
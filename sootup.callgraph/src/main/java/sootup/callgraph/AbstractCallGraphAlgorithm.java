@@ -23,11 +23,17 @@ package sootup.callgraph;
  */
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sootup.callgraph.CallGraph.Call;
 import sootup.core.IdentifierFactory;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.expr.AbstractInvokeExpr;
@@ -86,6 +92,32 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
     return cg;
   }
 
+  /**
+   * This method starts the construction of the call graph algorithm, which resolves the bodies and
+   * the calls of the reachable methods in parallel on the given executor. The executor is not shut
+   * down afterwards.
+   *
+   * @param view the view contains all needed class files.
+   * @param entryPoints a list of method signatures that will be added to the work list in the call
+   *     graph generation.
+   * @param executor runs the resolution of the methods
+   * @return the complete constructed call graph starting from the entry methods.
+   */
+  @Nonnull
+  final CallGraph constructCompleteCallGraph(
+      View view, List<MethodSignature> entryPoints, @Nonnull ExecutorService executor) {
+    MutableCallGraph cg = initializeCallGraph();
+
+    Deque<MethodSignature> workList = new ArrayDeque<>(entryPoints);
+    Set<MethodSignature> processed = new HashSet<>();
+
+    // implicit edge from entry point to static initializer
+    addImplicitEdgesOfEntryPoints(entryPoints, cg, workList);
+
+    processWorkList(view, workList, processed, cg, executor);
+    return cg;
+  }
+
   /**
    * This method creates the mutable call graph which is used in the call graph algorithm. Overwrite
    * it to change the used mutable call graph
@@ -123,7 +155,7 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
             cg.addMethod(staticInitSig);
           }
           if (!cg.containsCall(methodSignature, staticInitSig)) {
-            cg.addCall(methodSignature, staticInitSig);
+            cg.addCall(new Call(methodSignature, staticInitSig, null, CallKind.CLINIT));
             workList.push(staticInitSig);
           }
         });
@@ -172,25 +204,14 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
       SootMethod currentMethod =
           currentClass.getMethod(currentMethodSignature.getSubSignature()).orElse(null);
 
-      // get all call targets of invocations in the method body
-      Stream<MethodSignature> invocationTargets = resolveAllCallsFromSourceMethod(currentMethod);
+      // get all calls of invocations in the method body
+      Stream<Call> invocationCalls = resolveAllCallsFromSourceMethod(currentMethod);
 
-      // get all call targets of implicit edges in the method body
-      Stream<MethodSignature> implicitTargets =
-          resolveAllImplicitCallsFromSourceMethod(view, currentMethod);
+      // get all calls of implicit edges in the method body
+      Stream<Call> implicitCalls = resolveAllImplicitCallsFromSourceMethod(view, currentMethod);
 
       // save calls in the call graphs
-      Stream.concat(invocationTargets, implicitTargets)
-          .forEach(
-              t -> {
-                if (!cg.containsMethod(t)) {
-                  cg.addMethod(t);
-                }
-                if (!cg.containsCall(currentMethodSignature, t)) {
-                  cg.addCall(currentMethodSignature, t);
-                  workList.push(t);
-                }
-              });
+      Stream.concat(invocationCalls, implicitCalls).forEach(call -> addCall(cg, call, workList));
 
       // set method as processed
       processed.add(currentMethodSignature);
@@ -200,6 +221,185 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
     }
   }
 
+  /**
+   * Processes the <code>workList</code> like {@link #processWorkList(View, Deque, Set,
+   * MutableCallGraph)} but in rounds: all methods that are in the <code>workList</code> at the
+   * beginning of a round are resolved in parallel on the given executor, i.e. their classes and
+   * bodies are loaded and their calls are resolved concurrently. The pre-processing, the
+   * post-processing and all modifications of <code>cg</code> happen on the calling thread in the
+   * order of the <code>workList</code>, so the constructed call graph does not depend on the
+   * scheduling of the tasks.
+   *
+   * <p>{@link #resolveCall(SootMethod, Stmt)} and {@link
+   * #resolveAllImplicitCallsFromSourceMethod(View, SootMethod)} are called concurrently and must
+   * not modify shared state without synchronization.
+   *
+   * @param view it contains the classes.
+   * @param workList it contains all method that have to be processed in the call graph generation.
+   *     This list is filled in the execution with found call targets in the call graph algorithm.
+   * @param processed the list of processed method to only process the method once.
+   * @param cg the call graph object that is filled with the found methods and call edges.
+   * @param executor runs the resolution of the methods
+   * @throws CancellationException if the calling thread was interrupted while waiting for the
+   *     resolution of the methods
+   */
+  final void processWorkList(
+      View view,
+      Deque<MethodSignature> workList,
+      Set<MethodSignature> processed,
+      MutableCallGraph cg,
+      @Nonnull ExecutorService executor) {
+    // the view creates its hierarchy lazily, so create it before it is accessed concurrently
+    view.getTypeHierarchy();
+
+    while (!workList.isEmpty()) {
+      Set<MethodSignature> round = new LinkedHashSet<>();
+      while (!workList.isEmpty()) {
+        MethodSignature methodSignature = workList.pop();
+        if (!processed.contains(methodSignature)) {
+          round.add(methodSignature);
+        }
+      }
+
+      // load the classes and bodies of the methods of this round in parallel
+      List<Future<WorkItem>> loadFutures = new ArrayList<>(round.size());
+      for (MethodSignature methodSignature : round) {
+        loadFutures.add(executor.submit(() -> loadWorkItem(view, methodSignature)));
+      }
+      List<WorkItem> workItems = new ArrayList<>(round.size());
+      for (WorkItem workItem : awaitAll(loadFutures)) {
+        // skip if library class
+        if (workItem != null) {
+          workItems.add(workItem);
+        }
+      }
+
+      for (WorkItem workItem : workItems) {
+        // perform pre-processing if needed
+        preProcessingMethod(view, workItem.signature, workList, cg);
+
+        // process the method
+        if (!cg.containsMethod(workItem.signature)) {
+          cg.addMethod(workItem.signature);
+        }
+      }
+
+      // resolve all calls of the methods of this round in parallel
+      List<Future<List<Call>>> callFutures = new ArrayList<>(workItems.size());
+      for (WorkItem workItem : workItems) {
+        callFutures.add(
+            executor.submit(
+                () ->
+                    Stream.concat(
+                            resolveAllCallsFromSourceMethod(workItem.method),
+                            resolveAllImplicitCallsFromSourceMethod(view, workItem.method))
+                        .collect(Collectors.toList())));
+      }
+      List<List<Call>> calls = awaitAll(callFutures);
+
+      // save calls in the call graph in the order of the work list
+      for (int i = 0; i < workItems.size(); i++) {
+        MethodSignature currentMethodSignature = workItems.get(i).signature;
+        for (Call call : calls.get(i)) {
+          addCall(cg, call, workList);
+        }
+
+        // set method as processed
+        processed.add(currentMethodSignature);
+
+        // perform post-processing if needed
+        postProcessingMethod(view, currentMethodSignature, workList, cg);
+      }
+    }
+  }
+
+  /**
+   * Returns the call site that is recorded for a call caused by the given Stmt. Call sites are only
+   * recorded if the view retains the bodies of its methods. Otherwise the next request for a body
+   * resolves it again, so a recorded Stmt would not identify a call site of that body but only keep
+   * the Stmts of a discarded body alive.
+   *
+   * @return the Stmt or null if no call site is recorded
+   */
+  @Nullable
+  protected Stmt callSiteOf(@Nonnull Stmt stmt) {
+    return view.getBodyRetentionPolicy().retainsBodies() ? stmt : null;
+  }
+
+  /**
+   * Adds the given call and its target method to the call graph. The target is added to the <code>
+   * workList</code> if there was no edge between the source and the target method yet.
+   */
+  private static void addCall(
+      @Nonnull MutableCallGraph cg, @Nonnull Call call, @Nonnull Deque<MethodSignature> workList) {
+    MethodSignature target = call.getTargetMethodSignature();
+    if (!cg.containsMethod(target)) {
+      cg.addMethod(target);
+    }
+    boolean isNewEdge = !cg.containsCall(call.getSourceMethodSignature(), target);
+    cg.addCall(call);
+    if (isNewEdge) {
+      workList.push(target);
+    }
+  }
+
+  /**
+   * Loads the class and the body of the given method.
+   *
+   * @return null if the method is declared in a library class or its class can not be found
+   */
+  private static WorkItem loadWorkItem(View view, MethodSignature methodSignature) {
+    SootClass currentClass = view.getClass(methodSignature.getDeclClassType()).orElse(null);
+    if (currentClass == null || currentClass.isLibraryClass()) {
+      return null;
+    }
+    SootMethod method = currentClass.getMethod(methodSignature.getSubSignature()).orElse(null);
+    if (method != null && method.hasBody()) {
+      method.getBody();
+    }
+    return new WorkItem(methodSignature, method);
+  }
+
+  /**
+   * Waits for all futures in order and collects their results. If one of them fails or the waiting
+   * thread is interrupted, the remaining futures are cancelled.
+   */
+  @Nonnull
+  private static <T> List<T> awaitAll(@Nonnull List<Future<T>> futures) {
+    List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while constructing the call graph.");
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+    return results;
+  }
+
+  /** A method of the work list whose class and body are loaded. */
+  private static class WorkItem {
+    @Nonnull final MethodSignature signature;
+    final SootMethod method;
+
+    private WorkItem(@Nonnull MethodSignature signature, SootMethod method) {
+      this.signature = signature;
+      this.method = method;
+    }
+  }
+
   /**
    * This method resolves all calls from a given source method. resolveCall is called for each
    * invoke statement in the body of the source method that is implemented in the corresponding call
@@ -207,17 +407,23 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    *
    * @param sourceMethod this signature is used to access the statements contained method body of
    *     the specified method
-   * @return a stream containing all resolved callable method signatures by the given source method
+   * @return a stream containing all resolved calls of the given source method
    */
   @Nonnull
-  Stream<MethodSignature> resolveAllCallsFromSourceMethod(SootMethod sourceMethod) {
+  Stream<Call> resolveAllCallsFromSourceMethod(SootMethod sourceMethod) {
     if (sourceMethod == null || !sourceMethod.hasBody()) {
       return Stream.empty();
     }
 
+    MethodSignature sourceMethodSignature = sourceMethod.getSignature();
     return sourceMethod.getBody().getStmts().stream()
         .filter(Stmt::containsInvokeExpr)
-        .flatMap(s -> resolveCall(sourceMethod, s.getInvokeExpr()));
+        .flatMap(
+            s -> {
+              CallKind kind = CallKind.of(s.getInvokeExpr());
+              return resolveCall(sourceMethod, s)
+                  .map(target -> new Call(sourceMethodSignature, target, callSiteOf(s), kind));
+            });
   }
 
   /**
@@ -225,10 +431,10 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    *
    * @param view it contains the class data
    * @param sourceMethod the inspected source method
-   * @return a stream containing all method signatures of targets of implicit calls.
+   * @return a stream containing all implicit calls of the given source method.
    */
   @Nonnull
-  protected Stream<MethodSignature> resolveAllImplicitCallsFromSourceMethod(
+  protected Stream<Call> resolveAllImplicitCallsFromSourceMethod(
       View view, SootMethod sourceMethod) {
     if (sourceMethod == null || !sourceMethod.hasBody()) {
       return Stream.empty();
@@ -243,16 +449,17 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
    *
    * @param view it contains the class data
    * @param sourceMethod the inspected source method
-   * @return a stream containing all method signatures of targets of implicit calls.
+   * @return a stream containing all static initializer calls of the given source method.
    */
   @Nonnull
-  protected Stream<MethodSignature> resolveAllStaticInitializerCallsFromSourceMethod(
+  protected Stream<Call> resolveAllStaticInitializerCallsFromSourceMethod(
       View view, SootMethod sourceMethod) {
     if (sourceMethod == null || !sourceMethod.hasBody()) {
       return Stream.empty();
     }
 
-    Stream.Builder<ClassType> targetsToStaticInitializer = Stream.builder();
+    MethodSignature sourceMethodSignature = sourceMethod.getSignature();
+    Stream.Builder<Call> staticInitializerCalls = Stream.builder();
 
     InstantiateClassValueVisitor instantiateVisitor = new InstantiateClassValueVisitor();
 
@@ -261,6 +468,8 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
         .getStmts()
         .forEach(
             stmt -> {
+              Stream.Builder<ClassType> targetsToStaticInitializer = Stream.builder();
+
               // static field usage
               if (stmt.containsFieldRef() && stmt.getFieldRef() instanceof JStaticFieldRef) {
                 targetsToStaticInitializer.add(
@@ -283,20 +492,30 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
                 targetsToStaticInitializer.add(
                     stmt.getInvokeExpr().getMethodSignature().getDeclClassType());
               }
+
+              targetsToStaticInitializer
+                  .build()
+                  .flatMap(
+                      classType ->
+                          Stream.concat(
+                              Stream.of(classType),
+                              view.getTypeHierarchy().superClassesOf(classType).stream()))
+                  .filter(Objects::nonNull)
+                  .map(classType -> view.getMethod(classType.getStaticInitializer()))
+                  .filter(Optional::isPresent)
+                  .map(Optional::get)
+                  .map(SootClassMember::getSignature)
+                  .forEach(
+                      target ->
+                          staticInitializerCalls.add(
+                              new Call(
+                                  sourceMethodSignature,
+                                  target,
+                                  callSiteOf(stmt),
+                                  CallKind.CLINIT)));
             });
 
-    return targetsToStaticInitializer
-        .build()
-        .flatMap(
-            classType ->
-                Stream.concat(
-                    Stream.of(classType),
-                    view.getTypeHierarchy().superClassesOf(classType).stream()))
-        .filter(Objects::nonNull)
-        .map(classType -> view.getMethod(classType.getStaticInitializer()))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .map(SootClassMember::getSignature);
+    return staticInitializerCalls.build();
   }
 
   /**
@@ -377,8 +596,13 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
                   clazz.getMethod(overriddenMethodSig.getSubSignature()).get().getSignature();
 
               if (updated.containsMethod(overriddenMethodSig)) {
-                for (MethodSignature callingMethodSig : updated.callsTo(overriddenMethodSig)) {
-                  updated.addCall(callingMethodSig, overridingMethodSig);
+                for (Call call : updated.callEdgesTo(overriddenMethodSig)) {
+                  updated.addCall(
+                      new Call(
+                          call.getSourceMethodSignature(),
+                          overridingMethodSig,
+                          call.getCallSite(),
+                          call.getKind()));
                 }
               }
             });
@@ -448,6 +672,21 @@ public abstract class AbstractCallGraphAlgorithm implements CallGraphAlgorithm {
   protected abstract Stream<MethodSignature> resolveCall(
       SootMethod method, AbstractInvokeExpr invokeExpr);
 
+  /**
+   * This method resolves the possible targets of a given invoke statement. By default, it delegates
+   * to {@link #resolveCall(SootMethod, AbstractInvokeExpr)}; algorithms that need the call site
+   * itself override it.
+   *
+   * @param method the method object that contains the given invoke statement in the body.
+   * @param invokeStmt the statement containing the invoke expression which is resolved.
+   * @return a stream of all reachable method signatures defined by the applied call graph
+   *     algorithm.
+   */
+  @Nonnull
+  protected Stream<MethodSignature> resolveCall(SootMethod method, Stmt invokeStmt) {
+    return resolveCall(method, invokeStmt.getInvokeExpr());
+  }
+
   /**
    * Searches for the signature of the method that is the concrete implementation of <code>m</code>.
    * This is done by checking each superclass and the class itself for whether it contains the
@@ -22,13 +22,98 @@ package sootup.callgraph;
  * #L%
  */
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 
 /** The interface of all implemented call graph data structures */
 public interface CallGraph {
 
+  /**
+   * A call edge of the call graph. In contrast to the edges between methods, which are unique per
+   * pair of methods, there is a call for every call site that causes a call between two methods.
+   */
+  final class Call {
+    @Nonnull private final MethodSignature sourceMethodSignature;
+    @Nonnull private final MethodSignature targetMethodSignature;
+    @Nullable private final Stmt callSite;
+    @Nonnull private final CallKind kind;
+
+    /**
+     * @param callSite the Stmt in the body of the source method that causes the call or null if the
+     *     call is not caused by a specific Stmt e.g. the static initializer of an entry point.
+     */
+    public Call(
+        @Nonnull MethodSignature sourceMethodSignature,
+        @Nonnull MethodSignature targetMethodSignature,
+        @Nullable Stmt callSite,
+        @Nonnull CallKind kind) {
+      this.sourceMethodSignature = sourceMethodSignature;
+      this.targetMethodSignature = targetMethodSignature;
+      this.callSite = callSite;
+      this.kind = kind;
+    }
+
+    @Nonnull
+    public MethodSignature getSourceMethodSignature() {
+      return sourceMethodSignature;
+    }
+
+    @Nonnull
+    public MethodSignature getTargetMethodSignature() {
+      return targetMethodSignature;
+    }
+
+    @Nullable
+    public Stmt getCallSite() {
+      return callSite;
+    }
+
+    @Nonnull
+    public CallKind getKind() {
+      return kind;
+    }
+
+    /** Call sites are compared by identity as equal Stmts can occur in different places. */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Call call = (Call) o;
+      return callSite == call.callSite
+          && kind == call.kind
+          && sourceMethodSignature.equals(call.sourceMethodSignature)
+          && targetMethodSignature.equals(call.targetMethodSignature);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+          sourceMethodSignature, targetMethodSignature, System.identityHashCode(callSite), kind);
+    }
+
+    @Override
+    public String toString() {
+      return kind
+          + " "
+          + sourceMethodSignature
+          + " -> "
+          + targetMethodSignature
+          + " at "
+          + callSite;
+    }
+  }
+
   /**
    * This method returns method signatures in the call graph. A method signature is a node in the
    * call graph.
@@ -59,6 +144,54 @@ public interface CallGraph {
   @Nonnull
   Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod);
 
+  /**
+   * This method returns all calls that are caused by the given call site. The lookup does not
+   * depend on the size of the call graph.
+   *
+   * @param callSite a Stmt of the body of a method of the call graph. Stmts are compared by
+   *     identity, i.e. it has to be the Stmt of the body that was used to construct the call graph.
+   * @return the calls that originate at the given Stmt or an empty list if there are none or the
+   *     call graph does not record call sites.
+   */
+  @Nonnull
+  default List<Call> callsAt(@Nonnull Stmt callSite) {
+    return Collections.emptyList();
+  }
+
+  /**
+   * This method returns all calls from the given method including their call sites. It returns a
+   * call for every call site of an outgoing edge of the given node in the call graph.
+   *
+   * <p>Call graphs that do not record call sites return a call without call site and with the kind
+   * {@link CallKind#UNKNOWN} for every outgoing edge.
+   *
+   * @param sourceMethod the method signature of the requested node in the call graph
+   * @return the calls that originate in the given method
+   */
+  @Nonnull
+  default List<Call> callEdgesFrom(@Nonnull MethodSignature sourceMethod) {
+    return callsFrom(sourceMethod).stream()
+        .map(targetMethod -> new Call(sourceMethod, targetMethod, null, CallKind.UNKNOWN))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * This method returns all calls to the given method including their call sites. It returns a call
+   * for every call site of an incoming edge of the given node in the call graph.
+   *
+   * <p>Call graphs that do not record call sites return a call without call site and with the kind
+   * {@link CallKind#UNKNOWN} for every incoming edge.
+   *
+   * @param targetMethod the method signature of the requested node in the call graph
+   * @return the calls that target the given method
+   */
+  @Nonnull
+  default List<Call> callEdgesTo(@Nonnull MethodSignature targetMethod) {
+    return callsTo(targetMethod).stream()
+        .map(sourceMethod -> new Call(sourceMethod, targetMethod, null, CallKind.UNKNOWN))
+        .collect(Collectors.toList());
+  }
+
   /**
    * This method checks if a given method signature is a node in the call graph.
    *
@@ -23,6 +23,7 @@ package sootup.callgraph;
  */
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import javax.annotation.Nonnull;
 import sootup.core.signatures.MethodSignature;
 import sootup.java.core.types.JavaClassType;
@@ -50,6 +51,24 @@ public interface CallGraphAlgorithm {
   @Nonnull
   CallGraph initialize(@Nonnull List<MethodSignature> entryPoints);
 
+  /**
+   * This method initializes and starts the call graph algorithm with given entry points. The bodies
+   * of the reachable methods are resolved and their calls are dispatched in parallel on the given
+   * executor, which is not shut down afterwards. The result is the same as the one of {@link
+   * #initialize(List)}. Implementations that do not support parallel resolution fall back to {@link
+   * #initialize(List)} and ignore the executor.
+   *
+   * @param entryPoints a list of entry points for the call graph algorithm. The algorithm starts at
+   *     these methods and inspects all reachable methods.
+   * @param executor runs the resolution of the reachable methods
+   * @return a generated call graph with every entry point as starting point.
+   */
+  @Nonnull
+  default CallGraph initialize(
+      @Nonnull List<MethodSignature> entryPoints, @Nonnull ExecutorService executor) {
+    return initialize(entryPoints);
+  }
+
   /**
    * Adds a class to the call graph. All methods will be set as entry points in the call graph
    * algorithm. Starts the call graph algorithm. The found edges will be added to the call graph.
@@ -0,0 +1,170 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * Stores the {@link CallGraph.Call}s of a call graph indexed by their call site, their source and
+ * their target method. Plain edges between two methods, i.e. calls without a call site and with the
+ * kind {@link CallKind#UNKNOWN}, are not stored as they carry no information beyond the edge. The
+ * queries by method report them as such calls.
+ */
+class CallIndex {
+
+  @Nonnull private final Map<Stmt, List<CallGraph.Call>> callsAtStmt;
+  @Nonnull private final Map<MethodSignature, List<CallGraph.Call>> callsFrom;
+  @Nonnull private final Map<MethodSignature, List<CallGraph.Call>> callsTo;
+
+  /** the (few) stored calls without a call site e.g. static initializers of entry points */
+  @Nonnull private final Set<CallGraph.Call> callsWithoutCallSite;
+
+  CallIndex() {
+    callsAtStmt = new IdentityHashMap<>();
+    callsFrom = new HashMap<>();
+    callsTo = new HashMap<>();
+    callsWithoutCallSite = new HashSet<>();
+  }
+
+  private CallIndex(@Nonnull CallIndex other) {
+    callsAtStmt = copyOf(other.callsAtStmt, new IdentityHashMap<>(other.callsAtStmt.size()));
+    callsFrom = copyOf(other.callsFrom, new HashMap<>(other.callsFrom.size()));
+    callsTo = copyOf(other.callsTo, new HashMap<>(other.callsTo.size()));
+    callsWithoutCallSite = new HashSet<>(other.callsWithoutCallSite);
+  }
+
+  /** @return false if the call was already contained or is a plain edge which is not stored */
+  boolean add(@Nonnull CallGraph.Call call) {
+    final Stmt callSite = call.getCallSite();
+    if (callSite == null) {
+      if (call.getKind() == CallKind.UNKNOWN || !callsWithoutCallSite.add(call)) {
+        return false;
+      }
+    } else {
+      List<CallGraph.Call> callsAtCallSite = callsAtStmt.get(callSite);
+      if (callsAtCallSite == null) {
+        callsAtCallSite = new ArrayList<>(1);
+        callsAtStmt.put(callSite, callsAtCallSite);
+      } else if (callsAtCallSite.contains(call)) {
+        // only the (few) calls of the call site have to be compared
+        return false;
+      }
+      callsAtCallSite.add(call);
+    }
+    callsFrom.computeIfAbsent(call.getSourceMethodSignature(), key -> new ArrayList<>()).add(call);
+    callsTo.computeIfAbsent(call.getTargetMethodSignature(), key -> new ArrayList<>()).add(call);
+    return true;
+  }
+
+  @Nonnull
+  List<CallGraph.Call> callsAt(@Nonnull Stmt callSite) {
+    return unmodifiable(callsAtStmt.get(callSite));
+  }
+
+  /**
+   * @param targetMethods all methods that are called by the source method
+   * @return the stored calls from the source method and a plain call to each of the target methods
+   *     that no stored call reaches
+   */
+  @Nonnull
+  List<CallGraph.Call> callsFrom(
+      @Nonnull MethodSignature sourceMethod, @Nonnull Collection<MethodSignature> targetMethods) {
+    return withPlainCalls(
+        callsFrom.get(sourceMethod),
+        targetMethods,
+        CallGraph.Call::getTargetMethodSignature,
+        targetMethod -> new CallGraph.Call(sourceMethod, targetMethod, null, CallKind.UNKNOWN));
+  }
+
+  /**
+   * @param sourceMethods all methods that call the target method
+   * @return the stored calls to the target method and a plain call from each of the source methods
+   *     that no stored call comes from
+   */
+  @Nonnull
+  List<CallGraph.Call> callsTo(
+      @Nonnull MethodSignature targetMethod, @Nonnull Collection<MethodSignature> sourceMethods) {
+    return withPlainCalls(
+        callsTo.get(targetMethod),
+        sourceMethods,
+        CallGraph.Call::getSourceMethodSignature,
+        sourceMethod -> new CallGraph.Call(sourceMethod, targetMethod, null, CallKind.UNKNOWN));
+  }
+
+  /**
+   * Completes the stored calls of a method by a plain call for every adjacent method that none of
+   * the stored calls connects to.
+   */
+  @Nonnull
+  private static List<CallGraph.Call> withPlainCalls(
+      List<CallGraph.Call> calls,
+      @Nonnull Collection<MethodSignature> adjacentMethods,
+      @Nonnull Function<CallGraph.Call, MethodSignature> adjacentMethodOfCall,
+      @Nonnull Function<MethodSignature, CallGraph.Call> plainCall) {
+    Set<MethodSignature> connected = new HashSet<>();
+    if (calls != null) {
+      for (CallGraph.Call call : calls) {
+        connected.add(adjacentMethodOfCall.apply(call));
+      }
+      if (connected.size() == adjacentMethods.size()) {
+        return Collections.unmodifiableList(calls);
+      }
+    }
+    List<CallGraph.Call> result = calls == null ? new ArrayList<>() : new ArrayList<>(calls);
+    for (MethodSignature adjacentMethod : adjacentMethods) {
+      if (!connected.contains(adjacentMethod)) {
+        result.add(plainCall.apply(adjacentMethod));
+      }
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  @Nonnull
+  CallIndex copy() {
+    return new CallIndex(this);
+  }
+
+  @Nonnull
+  private static List<CallGraph.Call> unmodifiable(List<CallGraph.Call> calls) {
+    return calls == null ? Collections.emptyList() : Collections.unmodifiableList(calls);
+  }
+
+  @Nonnull
+  private static <K> Map<K, List<CallGraph.Call>> copyOf(
+      @Nonnull Map<K, List<CallGraph.Call>> calls, @Nonnull Map<K, List<CallGraph.Call>> copy) {
+    calls.forEach((key, value) -> copy.put(key, new ArrayList<>(value)));
+    return copy;
+  }
+}
@@ -0,0 +1,74 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.expr.JVirtualInvokeExpr;
+
+/** Describes what caused a {@link CallGraph.Call}. */
+public enum CallKind {
+  /** Due to an explicit virtual invoke. */
+  VIRTUAL,
+  /** Due to an explicit interface invoke. */
+  INTERFACE,
+  /** Due to an explicit special invoke, e.g. of a constructor or a private method. */
+  SPECIAL,
+  /** Due to an explicit static invoke. */
+  STATIC,
+  /** Due to an explicit dynamic invoke. */
+  DYNAMIC,
+  /**
+   * Implicit call of a static initializer, e.g. due to a static field access, an instantiation or a
+   * static invoke.
+   */
+  CLINIT,
+  /** The call was added without information about its cause. */
+  UNKNOWN;
+
+  /** Returns true if the call is due to an explicit invoke expression. */
+  public boolean isExplicit() {
+    return this != CLINIT && this != UNKNOWN;
+  }
+
+  /** Returns the kind of the call that is caused by the given invoke expression. */
+  @Nonnull
+  public static CallKind of(@Nonnull AbstractInvokeExpr invokeExpr) {
+    if (invokeExpr instanceof JVirtualInvokeExpr) {
+      return VIRTUAL;
+    } else if (invokeExpr instanceof JInterfaceInvokeExpr) {
+      return INTERFACE;
+    } else if (invokeExpr instanceof JSpecialInvokeExpr) {
+      return SPECIAL;
+    } else if (invokeExpr instanceof JStaticInvokeExpr) {
+      return STATIC;
+    } else if (invokeExpr instanceof JDynamicInvokeExpr) {
+      return DYNAMIC;
+    }
+    throw new IllegalArgumentException("Unknown invoke expression: " + invokeExpr);
+  }
+}
@@ -23,6 +23,7 @@ package sootup.callgraph;
  */
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import sootup.core.IdentifierFactory;
@@ -65,6 +66,13 @@ public class ClassHierarchyAnalysisAlgorithm extends AbstractCallGraphAlgorithm
     return constructCompleteCallGraph(view, entryPoints);
   }
 
+  @Nonnull
+  @Override
+  public CallGraph initialize(
+      @Nonnull List<MethodSignature> entryPoints, @Nonnull ExecutorService executor) {
+    return constructCompleteCallGraph(view, entryPoints, executor);
+  }
+
   /**
    * In the CHA algorithm, every virtual call is resolved by only using the hierarchy. Every
    * subclass of the class is considered as target if it contains an implementation of the methods
@@ -0,0 +1,433 @@
+package sootup.callgraph;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Preconditions;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.SootClassMemberSignature;
+
+/**
+ * This class implements a mutable call graph with a small memory footprint. Every method is
+ * interned to an int id and the edges are stored as growable int arrays of the ids of the callees
+ * and the callers of every method, i.e. there are no objects per vertex or per edge. By default,
+ * call sites are not recorded. If they are, every {@link CallGraph.Call} which carries a call site
+ * is kept as an object and indexed by its call site, which costs memory per call site instead of
+ * per edge and retains the call site statements (and hence the Bodies that contain them).
+ *
+ * <p>{@link #callsFrom(MethodSignature)}, {@link #callsTo(MethodSignature)} and {@link
+ * #getMethodSignatures()} return unmodifiable views which are backed by the call graph instead of
+ * copies. As calls and methods can only be added, iterating over a view while calls are added to
+ * the call graph is safe; the iteration covers the elements that existed when it started.
+ *
+ * <p>To use it in a call graph algorithm, override {@link
+ * AbstractCallGraphAlgorithm#initializeCallGraph()}.
+ */
+public class CompactCallGraph implements MutableCallGraph {
+
+  private static final int[] NO_CALLS = new int[0];
+
+  @Nonnull private final Map<MethodSignature, Integer> signatureToId;
+  @Nonnull private final List<MethodSignature> methods;
+
+  // indexed by the id of a method
+  @Nonnull private int[][] callees;
+  @Nonnull private int[] calleeCounts;
+  @Nonnull private int[][] callers;
+  @Nonnull private int[] callerCounts;
+
+  @Nonnull private final CallIndex callIndex;
+
+  /** if false, calls are only stored as edges and call sites are not available */
+  private final boolean recordCallSites;
+
+  private int callCount = 0;
+
+  /** The constructor of the compact call graph. it initializes an empty call graph object. */
+  public CompactCallGraph() {
+    this(16);
+  }
+
+  /**
+   * The constructor of the compact call graph. Call sites are not recorded.
+   *
+   * @param expectedMethodCount the number of methods the call graph is sized for initially
+   */
+  public CompactCallGraph(int expectedMethodCount) {
+    this(expectedMethodCount, false);
+  }
+
+  /**
+   * The constructor of the compact call graph.
+   *
+   * @param expectedMethodCount the number of methods the call graph is sized for initially
+   * @param recordCallSites if false, the call sites of added {@link CallGraph.Call}s are dropped,
+   *     so {@link #callsAt(Stmt)} returns no calls and the call edges have no call sites. If true,
+   *     every call with a call site is kept (see the class description for the memory cost).
+   */
+  public CompactCallGraph(int expectedMethodCount, boolean recordCallSites) {
+    this.recordCallSites = recordCallSites;
+    int capacity = Math.max(expectedMethodCount, 1);
+    signatureToId = new HashMap<>(capacity * 4 / 3 + 1);
+    methods = new ArrayList<>(capacity);
+    callees = new int[capacity][];
+    calleeCounts = new int[capacity];
+    callers = new int[capacity][];
+    callerCounts = new int[capacity];
+    callIndex = new CallIndex();
+  }
+
+  private CompactCallGraph(@Nonnull CompactCallGraph other) {
+    signatureToId = new HashMap<>(other.signatureToId);
+    methods = new ArrayList<>(other.methods);
+    int capacity = Math.max(methods.size(), 1);
+    callees = copyOf(other.callees, other.calleeCounts, capacity);
+    calleeCounts = Arrays.copyOf(other.calleeCounts, capacity);
+    callers = copyOf(other.callers, other.callerCounts, capacity);
+    callerCounts = Arrays.copyOf(other.callerCounts, capacity);
+    callCount = other.callCount;
+    callIndex = other.callIndex.copy();
+    recordCallSites = other.recordCallSites;
+  }
+
+  @Override
+  public void addMethod(@Nonnull MethodSignature calledMethod) {
+    if (signatureToId.containsKey(calledMethod)) {
+      return;
+    }
+    int id = methods.size();
+    if (id == callees.length) {
+      int capacity = id + (id >> 1) + 1;
+      callees = Arrays.copyOf(callees, capacity);
+      calleeCounts = Arrays.copyOf(calleeCounts, capacity);
+      callers = Arrays.copyOf(callers, capacity);
+      callerCounts = Arrays.copyOf(callerCounts, capacity);
+    }
+    callees[id] = NO_CALLS;
+    callers[id] = NO_CALLS;
+    signatureToId.put(calledMethod, id);
+    methods.add(calledMethod);
+  }
+
+  /**
+   * Adds a call between two methods that are already part of the call graph. Adding an existing
+   * call again has no effect.
+   */
+  @Override
+  public void addCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    int source = idOf(sourceMethod);
+    int target = idOf(targetMethod);
+    if (!containsCall(source, target)) {
+      callees[source] = append(callees[source], calleeCounts[source]++, target);
+      callers[target] = append(callers[target], callerCounts[target]++, source);
+      callCount++;
+    }
+  }
+
+  @Override
+  public void addCall(@Nonnull Call call) {
+    addCall(call.getSourceMethodSignature(), call.getTargetMethodSignature());
+    if (recordCallSites) {
+      callIndex.add(call);
+    }
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> getMethodSignatures() {
+    return new AbstractSet<MethodSignature>() {
+      @Override
+      public boolean contains(Object o) {
+        return signatureToId.containsKey(o);
+      }
+
+      @Override
+      public int size() {
+        return methods.size();
+      }
+
+      @Nonnull
+      @Override
+      public Iterator<MethodSignature> iterator() {
+        return new MethodIterator(null, methods.size());
+      }
+    };
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsFrom(@Nonnull MethodSignature sourceMethod) {
+    return new CallSet(idOf(sourceMethod), true);
+  }
+
+  @Nonnull
+  @Override
+  public Set<MethodSignature> callsTo(@Nonnull MethodSignature targetMethod) {
+    return new CallSet(idOf(targetMethod), false);
+  }
+
+  @Nonnull
+  @Override
+  public List<Call> callsAt(@Nonnull Stmt callSite) {
+    return callIndex.callsAt(callSite);
+  }
+
+  @Nonnull
+  @Override
+  public List<Call> callEdgesFrom(@Nonnull MethodSignature sourceMethod) {
+    return callIndex.callsFrom(sourceMethod, callsFrom(sourceMethod));
+  }
+
+  @Nonnull
+  @Override
+  public List<Call> callEdgesTo(@Nonnull MethodSignature targetMethod) {
+    return callIndex.callsTo(targetMethod, callsTo(targetMethod));
+  }
+
+  @Override
+  public boolean containsMethod(@Nonnull MethodSignature method) {
+    return signatureToId.containsKey(method);
+  }
+
+  @Override
+  public boolean containsCall(
+      @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
+    Integer source = signatureToId.get(sourceMethod);
+    Integer target = signatureToId.get(targetMethod);
+    if (source == null || target == null) {
+      return false;
+    }
+    return containsCall(source, target);
+  }
+
+  /** Scans the shorter one of the callees of the source and the callers of the target. */
+  private boolean containsCall(int source, int target) {
+    if (calleeCounts[source] <= callerCounts[target]) {
+      return indexOf(callees[source], calleeCounts[source], target) >= 0;
+    }
+    return indexOf(callers[target], callerCounts[target], source) >= 0;
+  }
+
+  @Override
+  public int callCount() {
+    return callCount;
+  }
+
+  /** Shrinks the internal arrays to the current number of methods and calls. */
+  public void trimToSize() {
+    int capacity = Math.max(methods.size(), 1);
+    callees = copyOf(callees, calleeCounts, capacity);
+    calleeCounts = Arrays.copyOf(calleeCounts, capacity);
+    callers = copyOf(callers, callerCounts, capacity);
+    callerCounts = Arrays.copyOf(callerCounts, capacity);
+  }
+
+  @Override
+  public String exportAsDot() {
+    StringBuilder dotFormatBuilder = new StringBuilder();
+    // The calls are sorted by their source method first and then by their target method. Methods
+    // are sorted by className, then the method name and then the parameters.
+    Comparator<MethodSignature> sourceComparator =
+        Comparator.comparing((MethodSignature o) -> o.getDeclClassType().getFullyQualifiedName())
+            .thenComparing(SootClassMemberSignature::getName)
+            .thenComparing(o -> o.getParameterTypes().toString());
+    Comparator<MethodSignature> targetComparator =
+        Comparator.comparing((MethodSignature o) -> o.getDeclClassType().getClassName())
+            .thenComparing(SootClassMemberSignature::getName)
+            .thenComparing(o -> o.getParameterTypes().toString());
+    methods.stream()
+        .sorted(sourceComparator)
+        .forEach(
+            sourceMethod ->
+                callsFrom(sourceMethod).stream()
+                    .sorted(targetComparator)
+                    .forEach(
+                        targetMethod ->
+                            dotFormatBuilder
+                                .append("\t")
+                                .append("\"" + sourceMethod + "\"")
+                                .append(" -> ")
+                                .append("\"" + targetMethod + "\"")
+                                .append(";\n")));
+
+    return "strict digraph ObjectGraph {\n" + dotFormatBuilder + "}";
+  }
+
+  @Nonnull
+  @Override
+  public MutableCallGraph copy() {
+    return new CompactCallGraph(this);
+  }
+
+  /**
+   * This method exports the call graph in a human-readable string. The String lists all nodes in
+   * the call graph. For each node it also lists the outgoing and incoming edges. An outgoing edge
+   * is marked by a "To" and an incoming edge by a "From" The nodes, incoming edges, and outgoing
+   * edges are sorted in order by the classname, method name, parameter list
+   *
+   * @return a string containing all nodes and edges of the call graph.
+   */
+  @Override
+  public String toString() {
+    StringBuilder stringBuilder = new StringBuilder("CompactCallGraph(" + callCount() + ")");
+    if (methods.isEmpty()) {
+      stringBuilder.append(" is empty");
+    } else {
+      stringBuilder.append(":\n");
+      Comparator<MethodSignature> comparator =
+          Comparator.comparing((MethodSignature o) -> o.getDeclClassType().toString())
+              .thenComparing(SootClassMemberSignature::getName)
+              .thenComparing(o -> o.getParameterTypes().toString());
+      methods.stream()
+          .sorted(comparator)
+          .forEach(
+              method -> {
+                stringBuilder.append(method).append(":\n");
+                callsFrom(method).stream()
+                    .sorted(comparator)
+                    .forEach(m -> stringBuilder.append("\tto ").append(m).append("\n"));
+                callsTo(method).stream()
+                    .sorted(comparator)
+                    .forEach(m -> stringBuilder.append("\tfrom ").append(m).append("\n"));
+                stringBuilder.append("\n");
+              });
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * it returns the id of the given method signature in the call graph.
+   *
+   * @param method the method signature searched in the call graph
+   * @return the id of the requested method signature.
+   */
+  private int idOf(@Nonnull MethodSignature method) {
+    Integer id = signatureToId.get(method);
+    Preconditions.checkNotNull(id, "Node for " + method + " has not been added yet");
+    return id;
+  }
+
+  private static int indexOf(@Nonnull int[] array, int size, int value) {
+    for (int i = 0; i < size; i++) {
+      if (array[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Nonnull
+  private static int[] append(@Nonnull int[] array, int size, int value) {
+    if (size == array.length) {
+      array = Arrays.copyOf(array, Math.max(4, size + (size >> 1)));
+    }
+    array[size] = value;
+    return array;
+  }
+
+  /** Copies the arrays of all methods, trimmed to their size, into an array of the capacity. */
+  @Nonnull
+  private int[][] copyOf(@Nonnull int[][] arrays, @Nonnull int[] sizes, int capacity) {
+    int[][] copy = new int[capacity][];
+    for (int i = 0; i < methods.size(); i++) {
+      copy[i] = sizes[i] == 0 ? NO_CALLS : Arrays.copyOf(arrays[i], sizes[i]);
+    }
+    return copy;
+  }
+
+  /** A live view on the callees or the callers of a method. */
+  private class CallSet extends AbstractSet<MethodSignature> {
+    private final int method;
+    private final boolean callees;
+
+    private CallSet(int method, boolean callees) {
+      this.method = method;
+      this.callees = callees;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      Integer other = signatureToId.get(o);
+      if (other == null) {
+        return false;
+      }
+      return callees ? containsCall(method, other) : containsCall(other, method);
+    }
+
+    @Override
+    public int size() {
+      return callees ? calleeCounts[method] : callerCounts[method];
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<MethodSignature> iterator() {
+      return new MethodIterator(this, size());
+    }
+
+    @Nonnull
+    private int[] ids() {
+      return callees ? CompactCallGraph.this.callees[method] : callers[method];
+    }
+  }
+
+  /** Iterates over the first elements of a CallSet or over all methods if there is none. */
+  private class MethodIterator implements Iterator<MethodSignature> {
+    private final CallSet callSet;
+    private final int size;
+    private int index = 0;
+
+    private MethodIterator(CallSet callSet, int size) {
+      this.callSet = callSet;
+      this.size = size;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < size;
+    }
+
+    @Override
+    public MethodSignature next() {
+      if (index >= size) {
+        throw new NoSuchElementException();
+      }
+      // the array is looked up again as it is replaced when it grows
+      int id = callSet == null ? index : callSet.ids()[index];
+      index++;
+      return methods.get(id);
+    }
+  }
+}
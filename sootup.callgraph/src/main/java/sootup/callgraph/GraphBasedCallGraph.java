@@ -25,11 +25,14 @@ package sootup.callgraph;
 import com.google.common.base.Preconditions;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.jgrapht.graph.DefaultDirectedGraph;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.signatures.SootClassMemberSignature;
 
@@ -58,18 +61,28 @@ public class GraphBasedCallGraph implements MutableCallGraph {
 
   @Nonnull private final DefaultDirectedGraph<Vertex, Edge> graph;
   @Nonnull private final Map<MethodSignature, Vertex> signatureToVertex;
+  @Nonnull private final CallIndex callIndex;
 
   /** The constructor of the graph based call graph. it initializes the call graph object. */
   public GraphBasedCallGraph() {
     graph = new DefaultDirectedGraph<>(null, null, false);
     signatureToVertex = new HashMap<>();
+    callIndex = new CallIndex();
   }
 
   public GraphBasedCallGraph(
       @Nonnull DefaultDirectedGraph<Vertex, Edge> graph,
       @Nonnull Map<MethodSignature, Vertex> signatureToVertex) {
+    this(graph, signatureToVertex, new CallIndex());
+  }
+
+  private GraphBasedCallGraph(
+      @Nonnull DefaultDirectedGraph<Vertex, Edge> graph,
+      @Nonnull Map<MethodSignature, Vertex> signatureToVertex,
+      @Nonnull CallIndex callIndex) {
     this.graph = graph;
     this.signatureToVertex = signatureToVertex;
+    this.callIndex = callIndex;
   }
 
   @Override
@@ -86,7 +99,15 @@ public class GraphBasedCallGraph implements MutableCallGraph {
   @Override
   public void addCall(
       @Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod) {
-    addCall(sourceMethod, targetMethod, new Edge());
+    if (!containsCall(sourceMethod, targetMethod)) {
+      addCall(sourceMethod, targetMethod, new Edge());
+    }
+  }
+
+  @Override
+  public void addCall(@Nonnull Call call) {
+    addCall(call.getSourceMethodSignature(), call.getTargetMethodSignature());
+    callIndex.add(call);
   }
 
   protected void addCall(
@@ -106,7 +127,7 @@ public class GraphBasedCallGraph implements MutableCallGraph {
     return graph.outgoingEdgesOf(vertexOf(sourceMethod)).stream()
         .map(graph::getEdgeTarget)
         .map(targetVertex -> targetVertex.methodSignature)
-        .collect(Collectors.toSet());
+        .collect(Collectors.toCollection(LinkedHashSet::new));
   }
 
   @Nonnull
@@ -115,7 +136,25 @@ public class GraphBasedCallGraph implements MutableCallGraph {
     return graph.incomingEdgesOf(vertexOf(targetMethod)).stream()
         .map(graph::getEdgeSource)
         .map(targetVertex -> targetVertex.methodSignature)
-        .collect(Collectors.toSet());
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  @Nonnull
+  @Override
+  public List<Call> callsAt(@Nonnull Stmt callSite) {
+    return callIndex.callsAt(callSite);
+  }
+
+  @Nonnull
+  @Override
+  public List<Call> callEdgesFrom(@Nonnull MethodSignature sourceMethod) {
+    return callIndex.callsFrom(sourceMethod, callsFrom(sourceMethod));
+  }
+
+  @Nonnull
+  @Override
+  public List<Call> callEdgesTo(@Nonnull MethodSignature targetMethod) {
+    return callIndex.callsTo(targetMethod, callsTo(targetMethod));
   }
 
   @Override
@@ -195,7 +234,9 @@ public class GraphBasedCallGraph implements MutableCallGraph {
   @Override
   public MutableCallGraph copy() {
     return new GraphBasedCallGraph(
-        (DefaultDirectedGraph<Vertex, Edge>) graph.clone(), new HashMap<>(signatureToVertex));
+        (DefaultDirectedGraph<Vertex, Edge>) graph.clone(),
+        new HashMap<>(signatureToVertex),
+        callIndex.copy());
   }
 
   /**
@@ -39,10 +39,24 @@ public interface MutableCallGraph extends CallGraph {
   void addMethod(@Nonnull MethodSignature calledMethod);
 
   /**
-   * This method enables to add calls that are edges in the call graph.
+   * This method enables to add calls that are edges in the call graph. The call is recorded without
+   * a call site and with the kind {@link CallKind#UNKNOWN}.
    *
    * @param sourceMethod this parameter defines the source node of the edge in the call graph.
    * @param targetMethod this paramter defines the target node of the edge in the call graph.
    */
   void addCall(@Nonnull MethodSignature sourceMethod, @Nonnull MethodSignature targetMethod);
+
+  /**
+   * This method enables to add calls including their call site. The edge between the source and the
+   * target method is added as well if it is not contained yet. Adding an existing call again has no
+   * effect. Call graphs that do not record call sites only add the edge.
+   *
+   * @param call the call whose source and target method are already nodes in the call graph.
+   */
+  default void addCall(@Nonnull CallGraph.Call call) {
+    if (!containsCall(call.getSourceMethodSignature(), call.getTargetMethodSignature())) {
+      addCall(call.getSourceMethodSignature(), call.getTargetMethodSignature());
+    }
+  }
 }
@@ -23,13 +23,18 @@ package sootup.callgraph;
  */
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.callgraph.CallGraph.Call;
 import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.expr.JNewExpr;
 import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
 import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.MethodModifier;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -46,24 +51,21 @@ import sootup.core.views.View;
  */
 public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
 
+  @Nonnull private Set<ClassType> instantiatedClasses = Collections.emptySet();
+
   /**
-   * This private class is used to save reachable calls. Because every method is only processed
-   * once, ignored calls are saved to include them at a later time if their class is instantiated at
-   * a later time.
+   * Calls to classes that are not instantiated yet. Because every method is only processed once,
+   * ignored calls are saved to include them at a later time if their class is instantiated at a
+   * later time.
    */
-  private static class Call {
-    @Nonnull final MethodSignature source;
-    @Nonnull final MethodSignature target;
-
-    private Call(@Nonnull MethodSignature source, @Nonnull MethodSignature target) {
-      this.source = source;
-      this.target = target;
-    }
-  }
-
-  @Nonnull private Set<ClassType> instantiatedClasses = Collections.emptySet();
   @Nonnull private Map<ClassType, List<Call>> ignoredCalls = Collections.emptyMap();
 
+  /**
+   * Ignored calls of the methods that are currently resolved. Calls are resolved concurrently in
+   * parallel mode, so they are moved to ignoredCalls in the post-processing of their source method.
+   */
+  @Nonnull private Map<MethodSignature, List<Call>> pendingIgnoredCalls = Collections.emptyMap();
+
   /**
    * The constructor of the RTA algorithm.
    *
@@ -85,9 +87,25 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   public CallGraph initialize(@Nonnull List<MethodSignature> entryPoints) {
     instantiatedClasses = new HashSet<>();
     ignoredCalls = new HashMap<>();
+    pendingIgnoredCalls = new ConcurrentHashMap<>();
     CallGraph cg = constructCompleteCallGraph(view, entryPoints);
     instantiatedClasses = Collections.emptySet();
     ignoredCalls = Collections.emptyMap();
+    pendingIgnoredCalls = Collections.emptyMap();
+    return cg;
+  }
+
+  @Nonnull
+  @Override
+  public CallGraph initialize(
+      @Nonnull List<MethodSignature> entryPoints, @Nonnull ExecutorService executor) {
+    instantiatedClasses = new HashSet<>();
+    ignoredCalls = new HashMap<>();
+    pendingIgnoredCalls = new ConcurrentHashMap<>();
+    CallGraph cg = constructCompleteCallGraph(view, entryPoints, executor);
+    instantiatedClasses = Collections.emptySet();
+    ignoredCalls = Collections.emptyMap();
+    pendingIgnoredCalls = Collections.emptyMap();
     return cg;
   }
 
@@ -123,15 +141,31 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * is instantiated and if it contains an implementation of the methods called in the invoke
    * expression.
    *
-   * @param sourceMethod the method object that contains the given invoke expression in the body.
-   * @param invokeExpr it contains the call which is resolved.
+   * @param sourceMethod the method object that contains the given invoke statement in the body.
+   * @param invokeStmt the statement containing the invoke expression which is resolved.
    * @return a stream containing all reachable method signatures after applying the RTA call graph
    *     algorithm
    */
   @Override
   @Nonnull
+  protected Stream<MethodSignature> resolveCall(SootMethod sourceMethod, Stmt invokeStmt) {
+    return resolveCall(sourceMethod, invokeStmt.getInvokeExpr(), invokeStmt);
+  }
+
+  /**
+   * Resolves the call like {@link #resolveCall(SootMethod, Stmt)}, but the calls that are ignored
+   * for now are saved without a call site.
+   */
+  @Override
+  @Nonnull
   protected Stream<MethodSignature> resolveCall(
       SootMethod sourceMethod, AbstractInvokeExpr invokeExpr) {
+    return resolveCall(sourceMethod, invokeExpr, null);
+  }
+
+  @Nonnull
+  private Stream<MethodSignature> resolveCall(
+      SootMethod sourceMethod, AbstractInvokeExpr invokeExpr, @Nullable Stmt invokeStmt) {
     MethodSignature resolveBaseMethodSignature = invokeExpr.getMethodSignature();
     Stream<MethodSignature> result = Stream.of(resolveBaseMethodSignature);
 
@@ -147,10 +181,13 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
       if (instantiatedClasses.contains(resolveBaseMethodSignature.getDeclClassType())) {
         return Stream.concat(
             Stream.of(concreteBaseMethod.getSignature()),
-            resolveAllCallTargets(sourceMethod.getSignature(), resolveBaseMethodSignature));
+            resolveAllCallTargets(
+                sourceMethod.getSignature(), invokeExpr, invokeStmt, resolveBaseMethodSignature));
       } else {
-        saveIgnoredCall(sourceMethod.getSignature(), resolveBaseMethodSignature);
-        return resolveAllCallTargets(sourceMethod.getSignature(), resolveBaseMethodSignature);
+        saveIgnoredCall(
+            sourceMethod.getSignature(), invokeExpr, invokeStmt, resolveBaseMethodSignature);
+        return resolveAllCallTargets(
+            sourceMethod.getSignature(), invokeExpr, invokeStmt, resolveBaseMethodSignature);
       }
     }
   }
@@ -161,13 +198,18 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
    * ignoredCall Hashmap, because the classes can be instantiated at a later time
    *
    * @param source the method which contains call
+   * @param invokeExpr the call
+   * @param invokeStmt the statement which contains the call or null if it is unknown
    * @param resolveBaseMethodSignature the base of the resolving. All subtypes of the declaring
    *     class are analyzed as potential targets
    * @return a stream of all method signatures of instantiated classes that can be resolved as
    *     target from the given base method signature.
    */
   private Stream<MethodSignature> resolveAllCallTargets(
-      MethodSignature source, MethodSignature resolveBaseMethodSignature) {
+      MethodSignature source,
+      AbstractInvokeExpr invokeExpr,
+      @Nullable Stmt invokeStmt,
+      MethodSignature resolveBaseMethodSignature) {
     return view.getTypeHierarchy().subtypesOf(resolveBaseMethodSignature.getDeclClassType())
         .stream()
         .map(
@@ -178,7 +220,7 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
               if (instantiatedClasses.contains(classType)) {
                 return resolveConcreteDispatch(view, method);
               } else {
-                saveIgnoredCall(source, method);
+                saveIgnoredCall(source, invokeExpr, invokeStmt, method);
                 return Optional.<MethodSignature>empty();
               }
             })
@@ -187,21 +229,24 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   }
 
   /**
-   * This method saves an ignored call If this is the first ignored call of the class type in the
-   * target method, an entry for the class type is created in the ignoredCalls Hashmap
+   * This method saves an ignored call. The call is kept with the other ignored calls of its source
+   * method until the source method is post-processed, as only the resolution of the source method
+   * itself accesses them.
    *
    * @param source the source method of the call
+   * @param invokeExpr the call
+   * @param invokeStmt the statement which contains the call or null if it is unknown
    * @param target the target method of the call
    */
-  private void saveIgnoredCall(MethodSignature source, MethodSignature target) {
-    ClassType notInstantiatedClass = target.getDeclClassType();
-    List<Call> calls = ignoredCalls.get(notInstantiatedClass);
-    Call ignoredCall = new Call(source, target);
-    if (calls == null) {
-      calls = new ArrayList<>();
-      ignoredCalls.put(notInstantiatedClass, calls);
-    }
-    calls.add(ignoredCall);
+  private void saveIgnoredCall(
+      MethodSignature source,
+      AbstractInvokeExpr invokeExpr,
+      @Nullable Stmt invokeStmt,
+      MethodSignature target) {
+    Stmt callSite = invokeStmt == null ? null : callSiteOf(invokeStmt);
+    pendingIgnoredCalls
+        .computeIfAbsent(source, key -> new ArrayList<>())
+        .add(new Call(source, target, callSite, CallKind.of(invokeExpr)));
   }
 
   /**
@@ -238,17 +283,23 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
             newEdges.forEach(
                 call -> {
                   MethodSignature concreteTarget =
-                      resolveConcreteDispatch(view, call.target).orElse(null);
+                      resolveConcreteDispatch(view, call.getTargetMethodSignature()).orElse(null);
                   if (concreteTarget == null) {
                     return;
                   }
+                  Call concreteCall =
+                      new Call(
+                          call.getSourceMethodSignature(),
+                          concreteTarget,
+                          call.getCallSite(),
+                          call.getKind());
                   if (cg.containsMethod(concreteTarget)) {
                     // method is already analyzed or is in the work list, simply add the call
-                    cg.addCall(call.source, concreteTarget);
+                    cg.addCall(concreteCall);
                   } else {
                     // new target method found that has to be analyzed
                     cg.addMethod(concreteTarget);
-                    cg.addCall(call.source, concreteTarget);
+                    cg.addCall(concreteCall);
                     workList.push(concreteTarget);
                   }
                 });
@@ -259,7 +310,12 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
   }
 
   /**
-   * Postprocessing is not needed in RTA
+   * Postprocessing of a method in the RTA call graph algorithm
+   *
+   * <p>The calls of the sourceMethod which were ignored because their classes are not instantiated
+   * yet are saved, so they are added as soon as their class is instantiated. If this is the first
+   * ignored call of the class type in the target method, an entry for the class type is created in
+   * the ignoredCalls Hashmap
    *
    * @param view view
    * @param sourceMethod the processed method
@@ -272,6 +328,13 @@ public class RapidTypeAnalysisAlgorithm extends AbstractCallGraphAlgorithm {
       MethodSignature sourceMethod,
       @Nonnull Deque<MethodSignature> workList,
       @Nonnull MutableCallGraph cg) {
-    //    not needed
+    List<Call> calls = pendingIgnoredCalls.remove(sourceMethod);
+    if (calls == null) {
+      return;
+    }
+    for (Call call : calls) {
+      ClassType notInstantiatedClass = call.getTargetMethodSignature().getDeclClassType();
+      ignoredCalls.computeIfAbsent(notInstantiatedClass, key -> new ArrayList<>()).add(call);
+    }
   }
 }
@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.jupiter.api.Test;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.model.SootClass;
@@ -449,6 +451,64 @@ public abstract class CallGraphTestBase<T extends AbstractCallGraphAlgorithm> {
     assertTrue(cg.containsCall(callMethod, targetMethod));
   }
 
+  @Test
+  public void testParallelConstruction() {
+    CallGraph cg = loadCallGraph("VirtualCall", "vc3.Class");
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    CallGraph parallelCg;
+    try {
+      parallelCg = algorithm.initialize(Collections.singletonList(mainMethodSignature), executor);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(cg.getMethodSignatures(), parallelCg.getMethodSignatures());
+    assertEquals(cg.callCount(), parallelCg.callCount());
+    for (MethodSignature method : cg.getMethodSignatures()) {
+      assertEquals(cg.callsFrom(method), parallelCg.callsFrom(method));
+    }
+  }
+
+  @Test
+  public void testCallSites() {
+    CallGraph cg = loadCallGraph("VirtualCall", "vc3.Class");
+
+    MethodSignature callMethod =
+        identifierFactory.getMethodSignature(
+            mainClassSignature,
+            "callOnInterface",
+            "void",
+            Collections.singletonList("vc3.Interface"));
+    MethodSignature targetMethod =
+        identifierFactory.getMethodSignature(
+            identifierFactory.getClassType("vc3.ClassImpl"),
+            "method",
+            "void",
+            Collections.emptyList());
+
+    List<CallGraph.Call> calls = cg.callEdgesFrom(callMethod);
+    CallGraph.Call call =
+        calls.stream()
+            .filter(c -> c.getTargetMethodSignature().equals(targetMethod))
+            .findFirst()
+            .orElse(null);
+    assertNotNull(call);
+    assertEquals(CallKind.INTERFACE, call.getKind());
+    assertNotNull(call.getCallSite());
+    assertTrue(call.getCallSite().containsInvokeExpr());
+    assertTrue(cg.callsAt(call.getCallSite()).contains(call));
+    assertTrue(cg.callEdgesTo(targetMethod).contains(call));
+
+    CallGraph.Call staticCall =
+        cg.callEdgesFrom(mainMethodSignature).stream()
+            .filter(c -> c.getTargetMethodSignature().equals(callMethod))
+            .findFirst()
+            .orElse(null);
+    assertNotNull(staticCall);
+    assertEquals(CallKind.STATIC, staticCall.getKind());
+  }
+
   @Test
   public void testVirtualCall4() {
     CallGraph cg = loadCallGraph("VirtualCall", "vc4.Class");
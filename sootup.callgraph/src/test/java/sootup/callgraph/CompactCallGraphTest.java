@@ -0,0 +1,176 @@
+package sootup.callgraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.core.JavaIdentifierFactory;
+
+@Tag("Java8")
+public class CompactCallGraphTest {
+
+  private final JavaIdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
+
+  private MethodSignature method(String name) {
+    return identifierFactory.getMethodSignature(
+        identifierFactory.getClassType("example.Class"), name, "void", Collections.emptyList());
+  }
+
+  @Test
+  public void testAddMethodsAndCalls() {
+    MethodSignature main = method("main");
+    MethodSignature a = method("a");
+    MethodSignature b = method("b");
+
+    CompactCallGraph cg = new CompactCallGraph();
+    cg.addMethod(main);
+    cg.addMethod(a);
+    cg.addMethod(b);
+    cg.addCall(main, a);
+    cg.addCall(main, b);
+    cg.addCall(a, b);
+    // adding a call twice has no effect
+    cg.addCall(main, a);
+
+    assertEquals(3, cg.callCount());
+    assertEquals(new HashSet<>(Arrays.asList(main, a, b)), cg.getMethodSignatures());
+    assertEquals(new HashSet<>(Arrays.asList(a, b)), cg.callsFrom(main));
+    assertEquals(new HashSet<>(Arrays.asList(main, a)), cg.callsTo(b));
+    assertTrue(cg.callsTo(main).isEmpty());
+    assertTrue(cg.containsCall(a, b));
+    assertFalse(cg.containsCall(b, a));
+    assertFalse(cg.containsCall(main, method("unknown")));
+    assertThrows(NullPointerException.class, () -> cg.callsFrom(method("unknown")));
+  }
+
+  @Test
+  public void testViewsAreBackedByTheCallGraph() {
+    MethodSignature main = method("main");
+    CompactCallGraph cg = new CompactCallGraph(1);
+    cg.addMethod(main);
+    Set<MethodSignature> callees = cg.callsFrom(main);
+    Set<MethodSignature> methods = cg.getMethodSignatures();
+
+    Iterator<MethodSignature> iterator = methods.iterator();
+    for (int i = 0; i < 100; i++) {
+      MethodSignature target = method("m" + i);
+      cg.addMethod(target);
+      cg.addCall(main, target);
+    }
+
+    // an iteration covers the methods that existed when it started
+    assertEquals(main, iterator.next());
+    assertFalse(iterator.hasNext());
+    assertEquals(100, callees.size());
+    assertTrue(callees.contains(method("m42")));
+    assertEquals(101, methods.size());
+    assertThrows(UnsupportedOperationException.class, () -> callees.add(main));
+  }
+
+  @Test
+  public void testCopy() {
+    MethodSignature main = method("main");
+    MethodSignature a = method("a");
+    CompactCallGraph cg = new CompactCallGraph();
+    cg.addMethod(main);
+    cg.addMethod(a);
+    cg.addCall(main, a);
+
+    MutableCallGraph copy = cg.copy();
+    MethodSignature b = method("b");
+    copy.addMethod(b);
+    copy.addCall(a, b);
+
+    assertEquals(1, cg.callCount());
+    assertFalse(cg.containsMethod(b));
+    assertEquals(2, copy.callCount());
+    assertTrue(cg.callsFrom(a).isEmpty());
+    assertTrue(copy.containsCall(main, a));
+  }
+
+  @Test
+  public void testCallSites() {
+    MethodSignature main = method("main");
+    MethodSignature a = method("a");
+    Stmt firstSite = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    Stmt secondSite = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    CallGraph.Call firstCall = new CallGraph.Call(main, a, firstSite, CallKind.VIRTUAL);
+    CallGraph.Call secondCall = new CallGraph.Call(main, a, secondSite, CallKind.STATIC);
+
+    CompactCallGraph cg = new CompactCallGraph(16, true);
+    cg.addMethod(main);
+    cg.addMethod(a);
+    cg.addCall(firstCall);
+    cg.addCall(secondCall);
+    // adding a call twice has no effect
+    cg.addCall(new CallGraph.Call(main, a, firstSite, CallKind.VIRTUAL));
+
+    // both call sites share one edge between the methods
+    assertEquals(1, cg.callCount());
+    assertEquals(Collections.singletonList(firstCall), cg.callsAt(firstSite));
+    assertEquals(Collections.singletonList(secondCall), cg.callsAt(secondSite));
+    assertEquals(Arrays.asList(firstCall, secondCall), cg.callEdgesFrom(main));
+    assertEquals(Arrays.asList(firstCall, secondCall), cg.callEdgesTo(a));
+    assertTrue(cg.callsAt(new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo())).isEmpty());
+
+    MutableCallGraph copy = cg.copy();
+    copy.addCall(main, main);
+    assertEquals(Arrays.asList(firstCall, secondCall), copy.callEdgesFrom(main).subList(0, 2));
+    assertEquals(2, cg.callEdgesFrom(main).size());
+  }
+
+  @Test
+  public void testPlainCalls() {
+    MethodSignature main = method("main");
+    MethodSignature a = method("a");
+    MethodSignature b = method("b");
+    Stmt site = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    CallGraph.Call callWithSite = new CallGraph.Call(main, a, site, CallKind.VIRTUAL);
+
+    CompactCallGraph cg = new CompactCallGraph(16, true);
+    cg.addMethod(main);
+    cg.addMethod(a);
+    cg.addMethod(b);
+    cg.addCall(main, a);
+    cg.addCall(callWithSite);
+    cg.addCall(main, b);
+
+    // edges without call site are reported as calls without call site
+    assertEquals(
+        Arrays.asList(callWithSite, new CallGraph.Call(main, b, null, CallKind.UNKNOWN)),
+        cg.callEdgesFrom(main));
+    assertEquals(Collections.singletonList(callWithSite), cg.callEdgesTo(a));
+    assertEquals(
+        Collections.singletonList(new CallGraph.Call(main, b, null, CallKind.UNKNOWN)),
+        cg.callEdgesTo(b));
+  }
+
+  @Test
+  public void testWithoutCallSites() {
+    MethodSignature main = method("main");
+    MethodSignature a = method("a");
+    Stmt site = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+
+    // call sites are not recorded by default
+    CompactCallGraph cg = new CompactCallGraph();
+    cg.addMethod(main);
+    cg.addMethod(a);
+    cg.addCall(new CallGraph.Call(main, a, site, CallKind.VIRTUAL));
+
+    assertTrue(cg.containsCall(main, a));
+    assertTrue(cg.callsAt(site).isEmpty());
+    assertEquals(
+        Collections.singletonList(new CallGraph.Call(main, a, null, CallKind.UNKNOWN)),
+        cg.callEdgesFrom(main));
+    assertEquals(1, cg.copy().callEdgesTo(a).size());
+  }
+}
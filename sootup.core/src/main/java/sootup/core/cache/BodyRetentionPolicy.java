@@ -0,0 +1,131 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+
+/**
+ * Decides how long the {@link Body} of a {@link SootMethod} is kept in memory after it has been
+ * resolved from its {@link sootup.core.frontend.BodySource}. A body that is no longer retained is
+ * resolved again on the next request. The policy is configured per view and applies to all methods
+ * created for it, while the class metadata stays in the {@link ClassCache}.
+ */
+public interface BodyRetentionPolicy {
+
+  /** Keeps every resolved body as long as its method is reachable. This is the default. */
+  BodyRetentionPolicy STRONG =
+      new BodyRetentionPolicy() {
+        @Nonnull
+        @Override
+        public Supplier<Body> createBodySupplier(@Nonnull Supplier<Body> bodyResolver) {
+          return Suppliers.memoize(bodyResolver::get);
+        }
+
+        @Override
+        public boolean retainsBodies() {
+          return true;
+        }
+      };
+
+  /** Keeps resolved bodies until the garbage collector needs to reclaim memory. */
+  BodyRetentionPolicy SOFT = SoftBodySupplier::new;
+
+  /** Never keeps a body, i.e. resolves it from the body source on each request. */
+  BodyRetentionPolicy RECOMPUTE = bodyResolver -> bodyResolver;
+
+  /**
+   * Keeps at most maximumSize bodies of all methods that use the returned policy and evicts the
+   * least recently used ones. Every call creates a new, independently bounded policy.
+   */
+  @Nonnull
+  static BodyRetentionPolicy leastRecentlyUsed(long maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("Cache size has to be at least 1");
+    }
+    Cache<Supplier<Body>, Body> bodies = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    return bodyResolver -> new LRUBodySupplier(bodies, bodyResolver);
+  }
+
+  /**
+   * Wraps the given resolver of a single method body according to this policy.
+   *
+   * @param bodyResolver resolves the body from scratch on each call
+   * @return the supplier that is queried for the body of the method
+   */
+  @Nonnull
+  Supplier<Body> createBodySupplier(@Nonnull Supplier<Body> bodyResolver);
+
+  /**
+   * Returns whether a resolved body is kept as long as its method is reachable, i.e. whether each
+   * request for the body of a method returns the same instance. Otherwise a body can be resolved
+   * again, which yields new {@link sootup.core.jimple.common.stmt.Stmt}s, so Stmts must not be used
+   * to identify a position in a body across requests.
+   */
+  default boolean retainsBodies() {
+    return false;
+  }
+
+  /**
+   * Returns whether the frontend keeps the code a body is resolved from, e.g. the parsed bytecode
+   * instructions of a method, for as long as the method exists. Otherwise only the raw class file
+   * is kept and the code of a single method is parsed again whenever its body is resolved.
+   */
+  default boolean retainsMethodCode() {
+    return true;
+  }
+
+  /**
+   * Returns a policy that keeps the bodies like this policy, but does not retain the code they are
+   * resolved from. This trades parsing the code on each resolution for a smaller memory footprint
+   * of the classes.
+   *
+   * @see #retainsMethodCode()
+   */
+  @Nonnull
+  default BodyRetentionPolicy discardingMethodCode() {
+    BodyRetentionPolicy bodyRetention = this;
+    return new BodyRetentionPolicy() {
+      @Nonnull
+      @Override
+      public Supplier<Body> createBodySupplier(@Nonnull Supplier<Body> bodyResolver) {
+        return bodyRetention.createBodySupplier(bodyResolver);
+      }
+
+      @Override
+      public boolean retainsBodies() {
+        return bodyRetention.retainsBodies();
+      }
+
+      @Override
+      public boolean retainsMethodCode() {
+        return false;
+      }
+    };
+  }
+}
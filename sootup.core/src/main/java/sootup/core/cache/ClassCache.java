@@ -27,7 +27,10 @@ import javax.annotation.Nonnull;
 import sootup.core.model.SootClass;
 import sootup.core.types.ClassType;
 
-/** Interface for different caching strategies of resolved classes. */
+/**
+ * Interface for different caching strategies of resolved classes. Views may resolve classes
+ * concurrently, so implementations need to be thread-safe.
+ */
 public interface ClassCache {
 
   SootClass getClass(ClassType classType);
@@ -0,0 +1,104 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import java.util.Collection;
+import javax.annotation.Nonnull;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * Thread-safe cache that evicts the (approximately) least recently used classes in constant time
+ * once a maximum number of classes or a maximum total weight is exceeded. The cache is split into
+ * segments that are locked independently, so concurrent lookups rarely contend. Hits, misses and
+ * evictions are recorded and available via {@link #getStats()}.
+ */
+public class ConcurrentLRUCache implements ClassCache {
+
+  /** Weighs a class by its number of methods. */
+  public static final Weigher<ClassType, SootClass> METHOD_COUNT_WEIGHER =
+      (type, sootClass) -> 1 + sootClass.getMethods().size();
+
+  /** Weighs a class by its number of methods that have a body. */
+  public static final Weigher<ClassType, SootClass> BODY_COUNT_WEIGHER =
+      (type, sootClass) ->
+          1 + (int) sootClass.getMethods().stream().filter(method -> method.hasBody()).count();
+
+  @Nonnull private final Cache<ClassType, SootClass> cache;
+
+  /** Creates a cache that holds at most maximumSize classes. */
+  public ConcurrentLRUCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * Creates a cache whose classes weigh at most maximumWeight in total. The weight of a class is
+   * determined once, when it is put into the cache.
+   */
+  public ConcurrentLRUCache(
+      long maximumWeight, @Nonnull Weigher<? super ClassType, ? super SootClass> weigher) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher(weigher)
+            .recordStats()
+            .build();
+  }
+
+  @Override
+  public SootClass getClass(ClassType classType) {
+    return cache.getIfPresent(classType);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<SootClass> getClasses() {
+    return cache.asMap().values();
+  }
+
+  @Override
+  public void putClass(ClassType classType, SootClass sootClass) {
+    cache.asMap().putIfAbsent(classType, sootClass);
+  }
+
+  @Override
+  public boolean hasClass(ClassType classType) {
+    // does not count as an access, i.e. neither affects the eviction order nor the statistics
+    return cache.asMap().containsKey(classType);
+  }
+
+  @Override
+  public int size() {
+    return (int) cache.size();
+  }
+
+  /** Returns a snapshot of the hit, miss and eviction counts of this cache. */
+  @Nonnull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+}
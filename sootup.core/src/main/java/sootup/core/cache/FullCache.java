@@ -23,25 +23,25 @@ package sootup.core.cache;
  */
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import sootup.core.model.SootClass;
 import sootup.core.types.ClassType;
 
-/** Cache that stores any class that has been resolved. */
+/** Cache that stores any class that has been resolved. It is safe for concurrent access. */
 public class FullCache implements ClassCache {
 
-  protected final Map<ClassType, SootClass> cache = new HashMap<>();
+  protected final Map<ClassType, SootClass> cache = new ConcurrentHashMap<>();
 
   @Override
-  public synchronized SootClass getClass(ClassType classType) {
+  public SootClass getClass(ClassType classType) {
     return cache.get(classType);
   }
 
   @Nonnull
   @Override
-  public synchronized Collection<SootClass> getClasses() {
+  public Collection<SootClass> getClasses() {
     return cache.values();
   }
 
@@ -0,0 +1,57 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import sootup.core.model.Body;
+
+/**
+ * Holds the body of a single method in a bounded cache that is shared with other methods, see
+ * {@link BodyRetentionPolicy#leastRecentlyUsed(long)}.
+ */
+class LRUBodySupplier implements Supplier<Body> {
+  @Nonnull private final Cache<Supplier<Body>, Body> bodies;
+  @Nonnull private final Supplier<Body> bodyResolver;
+
+  LRUBodySupplier(@Nonnull Cache<Supplier<Body>, Body> bodies, @Nonnull Supplier<Body> resolver) {
+    this.bodies = bodies;
+    this.bodyResolver = resolver;
+  }
+
+  @Override
+  public Body get() {
+    try {
+      // the supplier itself is the key, as it is unique per method and compared by identity
+      return bodies.get(this, bodyResolver::get);
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -29,52 +29,47 @@ import sootup.core.types.ClassType;
 
 /**
  * Cache that implements a least recently used strategy. If the amount of stored classes exceeds a
- * specified amount, the lest recently used class will be overwritten.
+ * specified amount, the lest recently used class will be overwritten. All operations take constant
+ * time. For a cache with less lock contention, weighted eviction and statistics see {@link
+ * ConcurrentLRUCache}.
  */
 public class LRUCache implements ClassCache {
-  private final int cacheSize;
-  private final Map<ClassType, SootClass> cache = new HashMap<>();
-  private final LinkedList<ClassType> accessOrder = new LinkedList<>();
+  private final Map<ClassType, SootClass> cache;
 
   public LRUCache(int cacheSize) {
-    this.cacheSize = cacheSize;
+    // a LinkedHashMap in access order keeps the least recently used entry at its head
+    this.cache =
+        new LinkedHashMap<ClassType, SootClass>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<ClassType, SootClass> eldest) {
+            return size() > cacheSize;
+          }
+        };
   }
 
   @Override
   public synchronized SootClass getClass(ClassType classType) {
-    SootClass sootClass = cache.get(classType);
-    if (sootClass != null) {
-      accessOrder.remove(classType);
-      accessOrder.addFirst(classType);
-    }
-
-    return sootClass;
+    return cache.get(classType);
   }
 
   @Nonnull
   @Override
   public synchronized Collection<SootClass> getClasses() {
-    return cache.values();
+    return new ArrayList<>(cache.values());
   }
 
   @Override
-  public void putClass(ClassType classType, SootClass sootClass) {
-    if (accessOrder.size() >= cacheSize) {
-      ClassType leastAccessed = accessOrder.removeLast();
-      cache.remove(leastAccessed);
-    }
-
-    accessOrder.addFirst(classType);
+  public synchronized void putClass(ClassType classType, SootClass sootClass) {
     cache.putIfAbsent(classType, sootClass);
   }
 
   @Override
-  public boolean hasClass(ClassType classType) {
+  public synchronized boolean hasClass(ClassType classType) {
     return cache.containsKey(classType);
   }
 
   @Override
-  public int size() {
+  public synchronized int size() {
     return cache.size();
   }
 }
@@ -0,0 +1,51 @@
+package sootup.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.ref.SoftReference;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import sootup.core.model.Body;
+
+/**
+ * Holds the body of a single method via a {@link SoftReference}, see {@link
+ * BodyRetentionPolicy#SOFT}.
+ */
+class SoftBodySupplier implements Supplier<Body> {
+  @Nonnull private final Supplier<Body> bodyResolver;
+  @Nonnull private SoftReference<Body> body = new SoftReference<>(null);
+
+  SoftBodySupplier(@Nonnull Supplier<Body> bodyResolver) {
+    this.bodyResolver = bodyResolver;
+  }
+
+  @Override
+  public synchronized Body get() {
+    Body resolvedBody = body.get();
+    if (resolvedBody == null) {
+      resolvedBody = bodyResolver.get();
+      body = new SoftReference<>(resolvedBody);
+    }
+    return resolvedBody;
+  }
+}
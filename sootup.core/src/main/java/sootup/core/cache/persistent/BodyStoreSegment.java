@@ -0,0 +1,282 @@
+package sootup.core.cache.persistent;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.IdentifierFactory;
+import sootup.core.jimple.serialization.BodyReader;
+import sootup.core.jimple.serialization.BodyWriter;
+import sootup.core.jimple.serialization.JimpleDataInput;
+import sootup.core.jimple.serialization.JimpleDataOutput;
+import sootup.core.model.Body;
+
+/**
+ * One file of a {@link PersistentBodyStore} which holds the Bodies of a single archive lifted with
+ * a single list of BodyInterceptors.
+ *
+ * <p>The file consists of a header followed by records of the form [int length][int
+ * crc32][key][body], where the length and the checksum cover key and body. A record whose checksum
+ * does not match is ignored, so its Body is resolved again. The records that exist when the segment
+ * is opened are read via a memory mapped buffer, records that are appended afterwards are read from
+ * the channel directly. If another process already holds the file lock, the segment is opened
+ * read-only.
+ */
+final class BodyStoreSegment implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(BodyStoreSegment.class);
+
+  private static final int MAGIC = 0x534A4243;
+  private static final int HEADER_SIZE = 8;
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  @Nonnull private final Path file;
+  @Nonnull private final FileChannel channel;
+  @Nullable private final FileLock lock;
+  @Nullable private final MappedByteBuffer mappedRecords;
+  @Nonnull private final IdentifierFactory identifierFactory;
+
+  /** maps the record key to the position of the record, i.e. of its length field */
+  @Nonnull private final Map<String, Long> recordPositions = new ConcurrentHashMap<>();
+
+  private long end;
+
+  private BodyStoreSegment(
+      @Nonnull Path file,
+      @Nonnull FileChannel channel,
+      @Nullable FileLock lock,
+      @Nullable MappedByteBuffer mappedRecords,
+      @Nonnull IdentifierFactory identifierFactory) {
+    this.file = file;
+    this.channel = channel;
+    this.lock = lock;
+    this.mappedRecords = mappedRecords;
+    this.identifierFactory = identifierFactory;
+  }
+
+  @Nonnull
+  static BodyStoreSegment open(
+      @Nonnull Path file, int formatVersion, @Nonnull IdentifierFactory identifierFactory)
+      throws IOException {
+    final FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null;
+    }
+
+    try {
+      long size = channel.size();
+      if (size < HEADER_SIZE || !hasValidHeader(channel, formatVersion)) {
+        if (lock == null) {
+          // not ours to repair
+          size = 0;
+        } else {
+          channel.truncate(0);
+          final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+          header.putInt(MAGIC).putInt(formatVersion);
+          ((Buffer) header).flip();
+          writeFully(channel, header, 0);
+          size = HEADER_SIZE;
+        }
+      }
+
+      final MappedByteBuffer mappedRecords =
+          size > HEADER_SIZE && size <= Integer.MAX_VALUE
+              ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+              : null;
+      final BodyStoreSegment segment =
+          new BodyStoreSegment(file, channel, lock, mappedRecords, identifierFactory);
+      segment.end = segment.indexRecords(size);
+      if (segment.end < size && lock != null) {
+        // drop an incompletely written record
+        channel.truncate(segment.end);
+      }
+      return segment;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static boolean hasValidHeader(@Nonnull FileChannel channel, int formatVersion)
+      throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        return false;
+      }
+    }
+    ((Buffer) header).flip();
+    return header.getInt() == MAGIC && header.getInt() == formatVersion;
+  }
+
+  /** @return the end of the last complete record */
+  private long indexRecords(long size) throws IOException {
+    long position = HEADER_SIZE;
+    while (position + RECORD_HEADER_SIZE <= size) {
+      final int length = read(position, RECORD_HEADER_SIZE).getInt();
+      if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+        break;
+      }
+      final String key;
+      try {
+        key = readRecord(position + RECORD_HEADER_SIZE, length).readUtf();
+      } catch (RuntimeException e) {
+        // a corrupted key, so the length fields can not be trusted anymore either
+        break;
+      }
+      recordPositions.put(key, position);
+      position += RECORD_HEADER_SIZE + length;
+    }
+    return Math.min(position, size);
+  }
+
+  @Nonnull
+  private JimpleDataInput readRecord(long position, int length) throws IOException {
+    return new JimpleDataInput(read(position, length), identifierFactory);
+  }
+
+  private static int checksum(@Nonnull ByteBuffer buffer) {
+    final CRC32 crc = new CRC32();
+    crc.update(buffer.duplicate());
+    return (int) crc.getValue();
+  }
+
+  @Nonnull
+  private ByteBuffer read(long position, int length) throws IOException {
+    if (mappedRecords != null && position + length <= mappedRecords.capacity()) {
+      // casts keep the call sites compatible with Java 8 when compiled by a newer JDK
+      final ByteBuffer buffer = ((ByteBuffer) mappedRecords).duplicate();
+      ((Buffer) buffer).position((int) position);
+      ((Buffer) buffer).limit((int) position + length);
+      return buffer.slice();
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of " + file);
+      }
+    }
+    ((Buffer) buffer).flip();
+    return buffer;
+  }
+
+  private static void writeFully(@Nonnull FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  /** @return the stored Body or null if there is none or it could not be read. */
+  @Nullable
+  Body load(@Nonnull String key) {
+    final Long position = recordPositions.get(key);
+    if (position == null) {
+      return null;
+    }
+    try {
+      final ByteBuffer recordHeader = read(position, RECORD_HEADER_SIZE);
+      final int length = recordHeader.getInt();
+      final int expectedChecksum = recordHeader.getInt();
+      final ByteBuffer payload = read(position + RECORD_HEADER_SIZE, length);
+      if (checksum(payload) != expectedChecksum) {
+        logger.warn("The stored Body of " + key + " in " + file + " is corrupted");
+        return null;
+      }
+      final JimpleDataInput record = new JimpleDataInput(payload, identifierFactory);
+      record.readUtf();
+      return BodyReader.read(record);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Could not read the stored Body of " + key + " from " + file, e);
+      return null;
+    }
+  }
+
+  /** Appends the given Body unless it is already stored or the segment is read-only. */
+  void store(@Nonnull String key, @Nonnull Body body) {
+    if (lock == null || recordPositions.containsKey(key)) {
+      return;
+    }
+    final JimpleDataOutput record = new JimpleDataOutput();
+    record.writeInt(0);
+    record.writeInt(0);
+    record.writeUtf(key);
+    try {
+      BodyWriter.write(body, record);
+    } catch (IllegalArgumentException e) {
+      logger.debug("The Body of " + key + " can not be stored: " + e.getMessage());
+      return;
+    }
+    final byte[] bytes = record.toByteArray();
+    final ByteBuffer payload =
+        ByteBuffer.wrap(bytes, RECORD_HEADER_SIZE, bytes.length - RECORD_HEADER_SIZE);
+    ByteBuffer.wrap(bytes)
+        .putInt(0, bytes.length - RECORD_HEADER_SIZE)
+        .putInt(4, checksum(payload));
+
+    synchronized (this) {
+      if (recordPositions.containsKey(key)) {
+        return;
+      }
+      try {
+        writeFully(channel, ByteBuffer.wrap(bytes), end);
+        recordPositions.put(key, end);
+        end += bytes.length;
+      } catch (IOException e) {
+        logger.warn("Could not store the Body of " + key + " in " + file, e);
+      }
+    }
+  }
+
+  int size() {
+    return recordPositions.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (lock != null && lock.isValid()) {
+      lock.release();
+    }
+    channel.close();
+  }
+}
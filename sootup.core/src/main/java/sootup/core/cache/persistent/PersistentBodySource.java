@@ -0,0 +1,77 @@
+package sootup.core.cache.persistent;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+import sootup.core.frontend.BodySource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.Body;
+import sootup.core.model.MethodModifier;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * Loads the Body from a {@link PersistentBodyStore} and only delegates to the wrapped {@link
+ * BodySource} if the Body is not stored yet, in which case the resolved Body is stored for the next
+ * run. Instances are created via {@link PersistentBodyStore#wrap}.
+ */
+public class PersistentBodySource implements BodySource {
+
+  @Nonnull private final BodySource delegate;
+  @Nonnull private final BodyStoreSegment segment;
+
+  PersistentBodySource(@Nonnull BodySource delegate, @Nonnull BodyStoreSegment segment) {
+    this.delegate = delegate;
+    this.segment = segment;
+  }
+
+  @Nonnull
+  @Override
+  public Body resolveBody(@Nonnull Iterable<MethodModifier> modifiers)
+      throws ResolveException, IOException {
+    final String key = getSignature().toString();
+    final Body storedBody = segment.load(key);
+    if (storedBody != null) {
+      return storedBody;
+    }
+    final Body body = delegate.resolveBody(modifiers);
+    segment.store(key, body);
+    return body;
+  }
+
+  @Override
+  public Object resolveAnnotationsDefaultValue() {
+    return delegate.resolveAnnotationsDefaultValue();
+  }
+
+  @Nonnull
+  @Override
+  public MethodSignature getSignature() {
+    return delegate.getSignature();
+  }
+
+  @Nonnull
+  public BodySource getDelegate() {
+    return delegate;
+  }
+}
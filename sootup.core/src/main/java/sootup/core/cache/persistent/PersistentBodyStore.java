@@ -0,0 +1,265 @@
+package sootup.core.cache.persistent;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.IdentifierFactory;
+import sootup.core.frontend.BodySource;
+import sootup.core.jimple.serialization.SootClassWriter;
+import sootup.core.transform.BodyInterceptor;
+
+/**
+ * An on-disk store for resolved (i.e. already intercepted) Bodies which survives JVM restarts, so
+ * unchanged library code does not have to be lifted again. The Bodies are written in the binary
+ * Jimple format of {@link sootup.core.jimple.serialization.BodyWriter}.
+ *
+ * <p>Bodies are grouped into one file per archive and list of BodyInterceptors. The file name is
+ * derived from the path and the SHA-256 hash of the archive content as well as from the
+ * configuration of the BodyInterceptors (see {@link #describe(BodyInterceptor)}), so changing
+ * either of them results in a new file. Stale files are not removed automatically. Bodies from
+ * sources that are not inside an archive are not stored.
+ */
+public class PersistentBodyStore implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(PersistentBodyStore.class);
+
+  private static final String FILE_EXTENSION = ".bodies";
+
+  @Nonnull private final Path directory;
+  @Nonnull private final IdentifierFactory identifierFactory;
+
+  @Nonnull
+  private final Map<SegmentKey, Supplier<Optional<BodyStoreSegment>>> segments =
+      new ConcurrentHashMap<>();
+
+  public PersistentBodyStore(@Nonnull Path directory, @Nonnull IdentifierFactory identifierFactory)
+      throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.identifierFactory = identifierFactory;
+  }
+
+  @Nonnull
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Wraps the given BodySource so that its Body is loaded from this store if possible and stored
+   * otherwise.
+   *
+   * @param sourcePath the path of the class file which contains the method
+   * @param bodyInterceptors the BodyInterceptors the given BodySource applies
+   * @return the wrapped BodySource or the given one if the class file is not part of an archive
+   */
+  @Nonnull
+  public BodySource wrap(
+      @Nonnull BodySource bodySource,
+      @Nonnull Path sourcePath,
+      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+    if (bodySource instanceof PersistentBodySource) {
+      return bodySource;
+    }
+    final Path archive = getArchivePath(sourcePath);
+    if (archive == null) {
+      return bodySource;
+    }
+    // the archive is hashed outside of the map so that other keys are not blocked meanwhile
+    final Optional<BodyStoreSegment> segment =
+        segments
+            .computeIfAbsent(
+                new SegmentKey(archive, bodyInterceptors),
+                key -> Suppliers.memoize(() -> openSegment(key)))
+            .get();
+    return segment.<BodySource>map(s -> new PersistentBodySource(bodySource, s)).orElse(bodySource);
+  }
+
+  @Nonnull
+  private Optional<BodyStoreSegment> openSegment(@Nonnull SegmentKey key) {
+    try {
+      final Hasher hasher = Hashing.sha256().newHasher();
+      hasher.putString(key.archive.toString(), StandardCharsets.UTF_8);
+      hasher.putBytes(MoreFiles.asByteSource(key.archive).hash(Hashing.sha256()).asBytes());
+      for (String interceptor : key.interceptors) {
+        hasher.putString(interceptor, StandardCharsets.UTF_8).putByte((byte) 0);
+      }
+      final Path file = directory.resolve(hasher.hash() + FILE_EXTENSION);
+      return Optional.of(
+          BodyStoreSegment.open(file, SootClassWriter.FORMAT_VERSION, identifierFactory));
+    } catch (IOException e) {
+      logger.warn("Could not open the persistent Body store for " + key.archive, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Describes the configuration of the given BodyInterceptor for the file name of a segment: its
+   * class name and the values of its instance fields that are primitives, Strings or enums. Fields
+   * holding other BodyInterceptors, e.g. the delegate of a decorating interceptor, are described
+   * recursively. Configuration that is held in any other kind of field (e.g. in a collection) is
+   * not supported and has to be reflected by the class of the interceptor instead.
+   */
+  @Nonnull
+  static String describe(@Nonnull BodyInterceptor interceptor) {
+    final StringBuilder sb = new StringBuilder(interceptor.getClass().getName());
+    final List<Field> fields = new ArrayList<>();
+    for (Class<?> c = interceptor.getClass(); c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+          fields.add(field);
+        }
+      }
+    }
+    // the order of getDeclaredFields() is unspecified but the description has to be stable
+    fields.sort(
+        Comparator.comparing((Field f) -> f.getDeclaringClass().getName())
+            .thenComparing(Field::getName));
+    sb.append('{');
+    for (Field field : fields) {
+      final Object value;
+      try {
+        field.setAccessible(true);
+        value = field.get(interceptor);
+      } catch (IllegalAccessException | RuntimeException e) {
+        continue;
+      }
+      final Class<?> type = field.getType();
+      if (value instanceof BodyInterceptor) {
+        sb.append(field.getName()).append('=').append(describe((BodyInterceptor) value));
+      } else if (type.isPrimitive()
+          || value instanceof Number
+          || value instanceof Boolean
+          || value instanceof Character
+          || value instanceof String
+          || value instanceof Enum) {
+        sb.append(field.getName()).append('=').append(value);
+      } else {
+        continue;
+      }
+      sb.append(';');
+    }
+    return sb.append('}').toString();
+  }
+
+  /**
+   * @return the path of the archive that contains the given path of a zip file system or null if
+   *     the path does not point into an archive.
+   */
+  @Nullable
+  static Path getArchivePath(@Nonnull Path path) {
+    final URI uri = path.toUri();
+    if (!"jar".equals(uri.getScheme())) {
+      return null;
+    }
+    final String archiveUri = uri.getRawSchemeSpecificPart();
+    final int separator = archiveUri.indexOf("!/");
+    if (separator < 0) {
+      return null;
+    }
+    try {
+      return Paths.get(new URI(archiveUri.substring(0, separator))).toAbsolutePath().normalize();
+    } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+      // e.g. a nested archive
+      return null;
+    }
+  }
+
+  /** @return the number of Bodies that are stored for the archives used so far. */
+  public int size() {
+    return segments.values().stream()
+        .mapToInt(s -> s.get().map(BodyStoreSegment::size).orElse(0))
+        .sum();
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOException exception = null;
+    for (Supplier<Optional<BodyStoreSegment>> segmentSupplier : segments.values()) {
+      final Optional<BodyStoreSegment> segment = segmentSupplier.get();
+      if (segment.isPresent()) {
+        try {
+          segment.get().close();
+        } catch (IOException e) {
+          exception = e;
+        }
+      }
+    }
+    segments.clear();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private static final class SegmentKey {
+    @Nonnull private final Path archive;
+    @Nonnull private final String[] interceptors;
+
+    private SegmentKey(@Nonnull Path archive, @Nonnull List<BodyInterceptor> bodyInterceptors) {
+      this.archive = archive;
+      this.interceptors =
+          bodyInterceptors.stream().map(PersistentBodyStore::describe).toArray(String[]::new);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SegmentKey)) {
+        return false;
+      }
+      SegmentKey that = (SegmentKey) o;
+      return archive.equals(that.archive) && Arrays.equals(interceptors, that.interceptors);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * archive.hashCode() + Arrays.hashCode(interceptors);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package sootup.core.cache.provider;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.Weigher;
+import javax.annotation.Nullable;
+import sootup.core.cache.ClassCache;
+import sootup.core.cache.ConcurrentLRUCache;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/** Provides a new {@link ConcurrentLRUCache} object. */
+public class ConcurrentLRUCacheProvider implements ClassCacheProvider {
+  private final long maximum;
+  @Nullable private final Weigher<? super ClassType, ? super SootClass> weigher;
+
+  /**
+   * Create a new ConcurrentLRUCacheProvider that returns a {@link ConcurrentLRUCache} holding at
+   * most the specified number of classes.
+   */
+  public ConcurrentLRUCacheProvider(long maximumSize) {
+    this(maximumSize, null);
+  }
+
+  /**
+   * Create a new ConcurrentLRUCacheProvider that returns a {@link ConcurrentLRUCache} whose classes
+   * weigh at most maximumWeight in total, e.g. using {@link
+   * ConcurrentLRUCache#METHOD_COUNT_WEIGHER}. If weigher is null, maximumWeight is the maximum
+   * number of classes.
+   */
+  public ConcurrentLRUCacheProvider(
+      long maximumWeight, @Nullable Weigher<? super ClassType, ? super SootClass> weigher) {
+    if (maximumWeight < 1) {
+      throw new IllegalArgumentException("Cache size has to be at least 1");
+    }
+    this.maximum = maximumWeight;
+    this.weigher = weigher;
+  }
+
+  @Override
+  public ClassCache createCache() {
+    if (weigher == null) {
+      return new ConcurrentLRUCache(maximum);
+    }
+    return new ConcurrentLRUCache(maximum, weigher);
+  }
+}
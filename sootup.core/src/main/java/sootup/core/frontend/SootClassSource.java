@@ -33,6 +33,7 @@ import sootup.core.model.Position;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootField;
 import sootup.core.model.SootMethod;
+import sootup.core.typehierarchy.ClassHeader;
 import sootup.core.types.ClassType;
 
 /**
@@ -93,6 +94,19 @@ public abstract class SootClassSource extends AbstractClassSource {
   @Nonnull
   public abstract Optional<? extends ClassType> resolveSuperclass();
 
+  /**
+   * Reads from the source to retrieve the information that places the class in a type hierarchy.
+   * Sources that are able to do so without resolving the rest of the class should override this.
+   */
+  @Nonnull
+  public ClassHeader resolveHeader() {
+    return new ClassHeader(
+        classSignature,
+        resolveModifiers().contains(ClassModifier.INTERFACE),
+        resolveSuperclass().orElse(null),
+        resolveInterfaces());
+  }
+
   /**
    * Reads from the source to retrieve its outer class, if this is an inner class. This may be an
    * expensive operation.
@@ -0,0 +1,116 @@
+package sootup.core.graph;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.basic.LValue;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * Maps each {@link Local} of a {@link MutableStmtGraph} to the Stmts that define and the Stmts that
+ * use it. The index is built once and then kept up to date via a {@link
+ * MutableStmtGraph.StmtListener}, so looking up the definitions or uses of a Local does not require
+ * a scan over all Stmts of the graph. Locals are distinguished by {@link Local#equals(Object)},
+ * i.e. by their names.
+ *
+ * @see sootup.core.model.Body.BodyBuilder#getDefUseIndex()
+ */
+public class DefUseIndex implements MutableStmtGraph.StmtListener {
+
+  @Nonnull private final Map<Local, Set<Stmt>> defs = new HashMap<>();
+  @Nonnull private final Map<Local, Set<Stmt>> uses = new HashMap<>();
+
+  /** Indexes the Stmts of the given graph and keeps track of its modifications from now on. */
+  public DefUseIndex(@Nonnull MutableStmtGraph graph) {
+    for (Stmt stmt : graph.getNodes()) {
+      stmtAdded(stmt);
+    }
+    graph.addStmtListener(this);
+  }
+
+  /** Returns the Stmts of the graph that assign the given Local. */
+  @Nonnull
+  public List<Stmt> getDefsOf(@Nonnull Local local) {
+    return new ArrayList<>(defs.getOrDefault(local, Collections.emptySet()));
+  }
+
+  /**
+   * Returns the Stmts of the graph that use the given Local, including the ones that use it on
+   * their left-hand side, e.g. as the base of an array reference.
+   */
+  @Nonnull
+  public List<Stmt> getUsesOf(@Nonnull Local local) {
+    return new ArrayList<>(uses.getOrDefault(local, Collections.emptySet()));
+  }
+
+  @Override
+  public void stmtAdded(@Nonnull Stmt stmt) {
+    for (Local local : definedLocals(stmt)) {
+      defs.computeIfAbsent(local, key -> new LinkedHashSet<>()).add(stmt);
+    }
+    for (Local local : usedLocals(stmt)) {
+      uses.computeIfAbsent(local, key -> new LinkedHashSet<>()).add(stmt);
+    }
+  }
+
+  @Override
+  public void stmtRemoved(@Nonnull Stmt stmt) {
+    for (Local local : definedLocals(stmt)) {
+      removeFrom(defs, local, stmt);
+    }
+    for (Local local : usedLocals(stmt)) {
+      removeFrom(uses, local, stmt);
+    }
+  }
+
+  private static void removeFrom(
+      @Nonnull Map<Local, Set<Stmt>> index, @Nonnull Local local, @Nonnull Stmt stmt) {
+    Set<Stmt> stmts = index.get(local);
+    if (stmts != null && stmts.remove(stmt) && stmts.isEmpty()) {
+      index.remove(local);
+    }
+  }
+
+  @Nonnull
+  private static List<Local> definedLocals(@Nonnull Stmt stmt) {
+    LValue def = stmt.getDef().orElse(null);
+    return def instanceof Local ? Collections.singletonList((Local) def) : Collections.emptyList();
+  }
+
+  @Nonnull
+  private static List<Local> usedLocals(@Nonnull Stmt stmt) {
+    return stmt.getUses()
+        .filter(value -> value instanceof Local)
+        .map(value -> (Local) value)
+        .collect(Collectors.toList());
+  }
+}
@@ -31,21 +31,57 @@ import sootup.core.types.ClassType;
  */
 
 public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
+  /** up to this amount of occupied slots a Stmt is searched linearly instead of via an index */
+  private static final int POSITION_INDEX_THRESHOLD = 8;
+
+  private static final int DEFAULT_CAPACITY = 8;
+
   @Nonnull private final ArrayList<MutableBasicBlock> predecessorBlocks = new ArrayList<>();
   private MutableBasicBlock[] successorBlocks =
       new MutableBasicBlock[1]; // 1 := most probable amount of successors/elements
 
   @Nonnull private final Map<ClassType, MutableBasicBlock> exceptionalSuccessorBlocks;
 
-  @Nonnull private final List<Stmt> stmts;
+  /**
+   * the slots [begin, end) contain the Stmts of this block in order. Stmts removed from the head or
+   * tail just move begin or end. Stmts removed from the middle leave a null slot which is dropped
+   * by the next compaction, so that no removal needs to shift the other Stmts. A compaction happens
+   * only once there are more removed than occupied slots.
+   */
+  @Nonnull private Stmt[] stmts;
+
+  private int begin = 0;
+  private int end;
+  private int removedSlots = 0;
+
+  /**
+   * a Fenwick tree which counts the removed slots of stmts, so that the position of a Stmt and the
+   * Stmt at a position are found in logarithmic time while there are removed slots. null if there
+   * are none.
+   */
+  @Nullable private int[] removedSlotTree = null;
+
+  /** counts the modifications of the Stmts, so that a {@link StmtsView} can detect them. */
+  private int modCount = 0;
+
+  /**
+   * maps each Stmt to its slot in stmts - built on demand for larger blocks and published only once
+   * it is complete.
+   */
+  @Nullable private volatile Map<Stmt, Integer> stmtToSlot = null;
 
   public MutableBasicBlock() {
-    exceptionalSuccessorBlocks = new HashMap<>();
-    stmts = new ArrayList<>();
+    this(new Stmt[DEFAULT_CAPACITY], 0, new HashMap<>());
   }
 
   public MutableBasicBlock(List<Stmt> stmts, Map<ClassType, MutableBasicBlock> exceptionMap) {
+    this(stmts.toArray(new Stmt[0]), stmts.size(), exceptionMap);
+  }
+
+  private MutableBasicBlock(
+      @Nonnull Stmt[] stmts, int stmtCount, Map<ClassType, MutableBasicBlock> exceptionMap) {
     this.stmts = stmts;
+    this.end = stmtCount;
     this.exceptionalSuccessorBlocks = exceptionMap;
   }
 
@@ -62,20 +98,202 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
       throw new IllegalArgumentException(
           "Can't add another Stmt to a Block after a BranchingStmt.");
     }
-    stmts.add(newStmt);
+    if (end == stmts.length) {
+      compact(getStmtCount() + 1);
+    }
+    if (stmtToSlot != null) {
+      stmtToSlot.putIfAbsent(newStmt, end);
+    }
+    stmts[end++] = newStmt;
+    modCount++;
   }
 
   public void removeStmt(@Nonnull Stmt stmt) {
-    final int idx = stmts.indexOf(stmt);
-    stmts.remove(idx);
+    final int slot = getSlot(stmt);
+    if (slot < 0) {
+      throw new IllegalArgumentException("stmt does not exist in this Block!");
+    }
+    stmts[slot] = null;
+    if (stmtToSlot != null) {
+      stmtToSlot.remove(stmt);
+    }
+    modCount++;
+
+    if (slot == begin) {
+      begin++;
+      while (begin < end && stmts[begin] == null) {
+        updateRemovedSlots(begin++, -1);
+      }
+    } else if (slot == end - 1) {
+      end--;
+      while (end > begin && stmts[end - 1] == null) {
+        updateRemovedSlots(--end, -1);
+      }
+    } else {
+      if (removedSlotTree == null) {
+        removedSlotTree = new int[stmts.length + 1];
+      }
+      updateRemovedSlots(slot, 1);
+      if (removedSlots > getStmtCount()) {
+        // keep the occupied slots dense enough
+        compact(0);
+      }
+    }
+
+    if (begin == end) {
+      begin = 0;
+      end = 0;
+    }
+  }
+
+  /** adds delta to the count of removed slots in total and at the given slot. */
+  private void updateRemovedSlots(int slot, int delta) {
+    removedSlots += delta;
+    if (removedSlots == 0) {
+      removedSlotTree = null;
+      return;
+    }
+    final int[] tree = removedSlotTree;
+    for (int i = slot + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  /** @return the number of removed slots in [0, slot) */
+  private int countRemovedSlotsBefore(int slot) {
+    final int[] tree = removedSlotTree;
+    int count = 0;
+    for (int i = slot; i > 0; i -= i & -i) {
+      count += tree[i];
+    }
+    return count;
+  }
+
+  /** @return the slot which holds the Stmt at the given position of {@link #getStmts()} */
+  private int getSlotAt(int index) {
+    if (removedSlots == 0) {
+      return begin + index;
+    }
+    // the slots before begin are not counted as removed, so search the slot that is preceded by
+    // begin + index occupied slots
+    final int[] tree = removedSlotTree;
+    int remaining = begin + index + 1 - countRemovedSlotsBefore(begin);
+    int slot = 0;
+    for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+      final int next = slot + step;
+      if (next < tree.length && step - tree[next] < remaining) {
+        slot = next;
+        remaining -= step - tree[next];
+      }
+    }
+    return slot;
   }
 
   public void replaceStmt(Stmt oldStmt, Stmt newStmt) {
-    final int idx = stmts.indexOf(oldStmt);
-    if (idx < 0) {
+    final int slot = getSlot(oldStmt);
+    if (slot < 0) {
       throw new IllegalArgumentException("oldStmt does not exist in this Block!");
     }
-    stmts.set(idx, newStmt);
+    stmts[slot] = newStmt;
+    if (stmtToSlot != null) {
+      stmtToSlot.remove(oldStmt);
+      stmtToSlot.put(newStmt, slot);
+    }
+  }
+
+  /**
+   * Returns the position of the given Stmt in {@link #getStmts()}.
+   *
+   * @return the index of the Stmt or -1 if it is not contained in this Block
+   */
+  public int getStmtIndex(@Nonnull Stmt stmt) {
+    final int slot = getSlot(stmt);
+    if (slot < 0) {
+      return -1;
+    }
+    if (removedSlots == 0) {
+      return slot - begin;
+    }
+    return slot - begin - (countRemovedSlotsBefore(slot) - countRemovedSlotsBefore(begin));
+  }
+
+  /** @return the slot of the given Stmt in stmts or -1 if it is not contained in this Block */
+  private int getSlot(@Nonnull Stmt stmt) {
+    Map<Stmt, Integer> index = stmtToSlot;
+    if (index == null) {
+      if (end - begin <= POSITION_INDEX_THRESHOLD) {
+        for (int i = begin; i < end; i++) {
+          if (stmts[i] == stmt) {
+            return i;
+          }
+        }
+        return -1;
+      }
+      index = buildSlotIndex();
+    }
+    final Integer slot = index.get(stmt);
+    return slot == null ? -1 : slot;
+  }
+
+  @Nonnull
+  private Map<Stmt, Integer> buildSlotIndex() {
+    final Map<Stmt, Integer> index = new IdentityHashMap<>(end - begin);
+    for (int i = begin; i < end; i++) {
+      if (stmts[i] != null) {
+        index.putIfAbsent(stmts[i], i);
+      }
+    }
+    stmtToSlot = index;
+    return index;
+  }
+
+  /**
+   * drops the slots of removed Stmts and builds the index of a larger block, so that no query
+   * modifies this block until it is modified again.
+   */
+  void compact() {
+    if (removedSlots > 0) {
+      compact(0);
+    }
+    if (stmtToSlot == null && end - begin > POSITION_INDEX_THRESHOLD) {
+      buildSlotIndex();
+    }
+  }
+
+  /**
+   * moves the Stmts to the front of stmts and drops the slots of removed Stmts. grows stmts if it
+   * can not hold minCapacity Stmts.
+   */
+  private void compact(int minCapacity) {
+    final Stmt[] target;
+    if (minCapacity > stmts.length) {
+      target = new Stmt[Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, stmts.length * 3 / 2))];
+    } else if (begin > 0 || removedSlots > 0) {
+      target = stmts;
+    } else {
+      return;
+    }
+
+    final boolean slotsChange = begin > 0 || removedSlots > 0;
+    int count = 0;
+    for (int i = begin; i < end; i++) {
+      final Stmt stmt = stmts[i];
+      if (stmt != null) {
+        target[count++] = stmt;
+      }
+    }
+    if (target == stmts) {
+      Arrays.fill(stmts, count, end, null);
+    }
+    stmts = target;
+    begin = 0;
+    end = count;
+    removedSlots = 0;
+    removedSlotTree = null;
+    if (slotsChange) {
+      // rebuilt on demand
+      stmtToSlot = null;
+    }
   }
 
   protected void updateSuccessorContainer(@Nonnull Stmt newStmt) {
@@ -162,7 +380,7 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
   @Nonnull
   @Override
   public List<MutableBasicBlock> getSuccessors() {
-    if (stmts.isEmpty()) {
+    if (getStmtCount() == 0) {
       return Collections.emptyList();
     }
 
@@ -199,30 +417,29 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
   @Nonnull
   @Override
   public List<Stmt> getStmts() {
-    return Collections.unmodifiableList(stmts);
+    return new StmtsView();
   }
 
   public int getStmtCount() {
-    return stmts.size();
+    return end - begin - removedSlots;
   }
 
   @Nonnull
   @Override
   public Stmt getHead() {
-    if (stmts.isEmpty()) {
+    if (begin == end) {
       throw new IndexOutOfBoundsException("Cant get the head - this Block has no assigned Stmts.");
     }
-    return stmts.get(0);
+    return stmts[begin];
   }
 
   @Nonnull
   @Override
   public Stmt getTail() {
-    int size = stmts.size();
-    if (size < 1) {
+    if (begin == end) {
       throw new IndexOutOfBoundsException("Cant get the tail - this Block has no assigned Stmts.");
     }
-    return stmts.get(size - 1);
+    return stmts[end - 1];
   }
 
   /**
@@ -231,13 +448,13 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
    * blocks.
    */
   public MutableBasicBlock splitBlockUnlinked(@Nonnull Stmt newTail, @Nonnull Stmt newHead) {
-    int splitIdx = stmts.indexOf(newTail); // not cheap.
+    int splitIdx = getStmtIndex(newTail);
     if (splitIdx < 0) {
       throw new IllegalArgumentException(
           "Can not split by that Stmt - it is not contained in this Block.");
     }
     int newHeadsIdx = splitIdx + 1;
-    if (stmts.get(newHeadsIdx) != newHead) {
+    if (newHeadsIdx >= getStmtCount() || stmts[getSlotAt(newHeadsIdx)] != newHead) {
       throw new IllegalArgumentException("Can't split - the given Stmts are not connected.");
     }
     return splitBlockUnlinked(newHeadsIdx);
@@ -246,22 +463,27 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
   /** @param splitIdx should be in [1, stmts.size()-1] */
   protected MutableBasicBlock splitBlockUnlinked(int splitIdx) {
 
-    if (splitIdx < 1 || splitIdx >= stmts.size()) {
+    if (splitIdx < 1 || splitIdx >= getStmtCount()) {
       throw new IndexOutOfBoundsException(
           "splitIdx makes no sense. please copy/create a new block.");
     }
-
-    MutableBasicBlock secondBlock =
-        new MutableBasicBlock(new ArrayList<>(stmts.size() - splitIdx), new LinkedHashMap<>());
-    // copy stmts from current i.e. first block to new i.e. second block
-    for (int i = splitIdx; i < stmts.size(); i++) {
-      secondBlock.addStmt(stmts.get(i));
+    if (removedSlots > 0) {
+      compact(0);
     }
 
-    // remove stmt references from current i.e. first block
-    if (splitIdx < stmts.size()) {
-      stmts.subList(splitIdx, stmts.size()).clear();
+    // move stmts from current i.e. first block to new i.e. second block
+    final int splitSlot = begin + splitIdx;
+    MutableBasicBlock secondBlock =
+        new MutableBasicBlock(
+            Arrays.copyOfRange(stmts, splitSlot, end), end - splitSlot, new LinkedHashMap<>());
+    for (int i = splitSlot; i < end; i++) {
+      if (stmtToSlot != null) {
+        stmtToSlot.remove(stmts[i]);
+      }
+      stmts[i] = null;
     }
+    end = splitSlot;
+    modCount++;
     return secondBlock;
   }
 
@@ -276,7 +498,7 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
   @Nonnull
   public MutableBasicBlock splitBlockLinked(@Nonnull Stmt splitStmt, boolean shouldBeNewHead) {
 
-    int splitIdx = stmts.indexOf(splitStmt);
+    int splitIdx = getStmtIndex(splitStmt);
     if (splitIdx < 0) {
       throw new IllegalArgumentException("splitting Stmt is not contained in this Block.");
     }
@@ -375,6 +597,35 @@ public class MutableBasicBlock implements BasicBlock<MutableBasicBlock> {
     }
     return found;
   }
+
+  /**
+   * unmodifiable view on the Stmts of this block. It fails with a {@link
+   * ConcurrentModificationException} once Stmts are added to or removed from the block.
+   */
+  private class StmtsView extends AbstractList<Stmt> implements RandomAccess {
+    private final int expectedModCount = MutableBasicBlock.this.modCount;
+
+    @Override
+    public Stmt get(int index) {
+      checkForComodification();
+      if (index < 0 || index >= getStmtCount()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getStmtCount());
+      }
+      return stmts[getSlotAt(index)];
+    }
+
+    @Override
+    public int size() {
+      checkForComodification();
+      return getStmtCount();
+    }
+
+    private void checkForComodification() {
+      if (MutableBasicBlock.this.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+  }
 }
 
 /*
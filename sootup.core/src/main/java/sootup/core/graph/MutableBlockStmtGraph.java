@@ -52,7 +52,32 @@ import sootup.core.types.Type;
  * */
 public class MutableBlockStmtGraph extends MutableStmtGraph {
   @Nullable private Stmt startingStmt = null;
-  @Nonnull private final Map<Stmt, MutableBasicBlock> stmtToBlock = new IdentityHashMap<>();
+
+  /**
+   * Maps each Stmt of the graph to its block. Its modifications notify the {@link StmtListener}s
+   * about Stmts that enter or leave the graph, while moving a Stmt to another block does not.
+   */
+  @Nonnull
+  private final Map<Stmt, MutableBasicBlock> stmtToBlock =
+      new IdentityHashMap<Stmt, MutableBasicBlock>() {
+        @Override
+        public MutableBasicBlock put(Stmt stmt, MutableBasicBlock block) {
+          MutableBasicBlock previousBlock = super.put(stmt, block);
+          if (previousBlock == null) {
+            fireStmtAdded(stmt);
+          }
+          return previousBlock;
+        }
+
+        @Override
+        public MutableBasicBlock remove(Object stmt) {
+          MutableBasicBlock previousBlock = super.remove(stmt);
+          if (previousBlock != null) {
+            fireStmtRemoved((Stmt) stmt);
+          }
+          return previousBlock;
+        }
+      };
 
   @Nonnull private final Set<MutableBasicBlock> blocks = new HashSet<>();
 
@@ -445,6 +470,11 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     return blocks;
   }
 
+  @Override
+  public void compact() {
+    blocks.forEach(MutableBasicBlock::compact);
+  }
+
   @Nonnull
   public List<? extends BasicBlock<?>> getBlocksSorted() {
     return StreamSupport.stream(
@@ -464,6 +494,44 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
     addBlockInternal(stmts, trapMap);
   }
 
+  /**
+   * Adds the given Blocks and links them exactly as given i.e. in contrast to putEdge() no Blocks
+   * are merged or split. This restores a StmtGraph from its Block structure e.g. when it is
+   * deserialized.
+   *
+   * @param blocks the (non-empty) Stmt lists of the Blocks
+   * @param trapMaps the exceptional successors of each Block, referenced by the head of the handler
+   *     Block
+   * @param successors the successors of each Block in the order of the successor indices of its
+   *     tail, referenced by the heads of the successor Blocks
+   */
+  public void addBlocks(
+      @Nonnull List<? extends List<Stmt>> blocks,
+      @Nonnull List<? extends Map<ClassType, Stmt>> trapMaps,
+      @Nonnull List<? extends List<Stmt>> successors) {
+    if (blocks.size() != trapMaps.size() || blocks.size() != successors.size()) {
+      throw new IllegalArgumentException(
+          "blocks, trapMaps and successors need to have the same size.");
+    }
+    final List<MutableBasicBlock> addedBlocks = new ArrayList<>(blocks.size());
+    for (int i = 0; i < blocks.size(); i++) {
+      addedBlocks.add(addBlockInternal(blocks.get(i), trapMaps.get(i)));
+    }
+    for (int i = 0; i < blocks.size(); i++) {
+      final MutableBasicBlock block = addedBlocks.get(i);
+      final List<Stmt> blockSuccessors = successors.get(i);
+      for (int j = 0; j < blockSuccessors.size(); j++) {
+        final Stmt successorHead = blockSuccessors.get(j);
+        final MutableBasicBlock successor = stmtToBlock.get(successorHead);
+        if (successor == null || successor.getHead() != successorHead) {
+          throw new IllegalArgumentException(
+              "'" + successorHead + "' is not the head of a Block in this StmtGraph.");
+        }
+        block.linkSuccessor(j, successor);
+      }
+    }
+  }
+
   /**
    * @param stmts List has to be non-empty!
    * @param trapMap
@@ -602,7 +670,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
     final MutableBasicBlock excludedFromOrigBlock;
     final List<Stmt> blockStmts = block.getStmts();
-    int stmtIdx = blockStmts.indexOf(splitStmt);
+    int stmtIdx = block.getStmtIndex(splitStmt);
 
     if (stmtIdx < 0) {
       throw new IllegalArgumentException("splitStmt does not exist in this block!");
@@ -890,7 +958,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       } else {
         // stmt2bRemoved is in the middle of a Block
         if (!keepFlow) {
-          int splitIdx = blockOfRemovedStmt.getStmts().indexOf(stmt);
+          int splitIdx = blockOfRemovedStmt.getStmtIndex(stmt);
           MutableBasicBlock secondBlock = blockOfRemovedStmt.splitBlockUnlinked(splitIdx + 1);
           blocks.add(secondBlock);
           secondBlock.getStmts().forEach(s -> stmtToBlock.put(s, secondBlock));
@@ -1197,7 +1265,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
       // divide block and don't link them
       final List<Stmt> stmtsOfBlock = blockOfFrom.getStmts();
-      int toIdx = stmtsOfBlock.indexOf(from) + 1;
+      int toIdx = blockOfFrom.getStmtIndex(from) + 1;
       // from is not the tail Stmt and the from-Stmt is directly before the to-Stmt
       if (toIdx < stmtsOfBlock.size() && stmtsOfBlock.get(toIdx) == to) {
         MutableBasicBlock newBlock = blockOfFrom.splitBlockUnlinked(from, to);
@@ -1310,10 +1378,9 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       predecessorBlocks.forEach(p -> preds.add(p.getTail()));
       return preds;
     } else {
-      // argh indexOf.. possibly expensive..
       List<Stmt> stmts = block.getStmts();
       // we know: i != 0 as its not the head Stmt
-      final int i = stmts.indexOf(node);
+      final int i = block.getStmtIndex(node);
       // assert (stmts.size() > 0) : "no stmts in " + block + " " + block.hashCode();
       // assert (i > 0) : " stmt not found in " + block;
       return Collections.singletonList(stmts.get(i - 1));
@@ -1389,9 +1456,8 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       successorBlocks.forEach(p -> succs.add(p.getHead()));
       return succs;
     } else {
-      // argh indexOf.. possibly expensive..
       List<Stmt> stmts = block.getStmts();
-      return Collections.singletonList(stmts.get(stmts.indexOf(node) + 1));
+      return Collections.singletonList(stmts.get(block.getStmtIndex(node) + 1));
     }
   }
 
@@ -1460,7 +1526,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
                   successorBlock.getHead() == target);
     } else {
       List<Stmt> stmtsA = blockA.getStmts();
-      return stmtsA.get(stmtsA.indexOf(source) + 1) == target;
+      return stmtsA.get(blockA.getStmtIndex(source) + 1) == target;
     }
   }
 
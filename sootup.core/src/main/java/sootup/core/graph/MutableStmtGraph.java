@@ -35,9 +35,61 @@ import sootup.core.types.ClassType;
  *     MutableBasicBlock
  */
 public abstract class MutableStmtGraph extends StmtGraph<MutableBasicBlock> {
+
+  /**
+   * Is notified about each {@link Stmt} that is added to or removed from a {@link
+   * MutableStmtGraph}, e.g. to keep an index of the Stmts up to date. Replacing a Stmt removes the
+   * old one and adds the new one.
+   */
+  public interface StmtListener {
+    void stmtAdded(@Nonnull Stmt stmt);
+
+    void stmtRemoved(@Nonnull Stmt stmt);
+  }
+
+  @Nonnull private final List<StmtListener> stmtListeners = new ArrayList<>();
+
+  /**
+   * Registers a listener that is notified about each Stmt that is added to or removed from this
+   * graph from now on.
+   */
+  public void addStmtListener(@Nonnull StmtListener listener) {
+    stmtListeners.add(listener);
+  }
+
+  public void removeStmtListener(@Nonnull StmtListener listener) {
+    stmtListeners.remove(listener);
+  }
+
+  @Nonnull
+  public List<StmtListener> getStmtListeners() {
+    return Collections.unmodifiableList(stmtListeners);
+  }
+
+  /** Has to be called by implementations whenever a Stmt has been added to the graph. */
+  protected void fireStmtAdded(@Nonnull Stmt stmt) {
+    for (StmtListener listener : stmtListeners) {
+      listener.stmtAdded(stmt);
+    }
+  }
+
+  /** Has to be called by implementations whenever a Stmt has been removed from the graph. */
+  protected void fireStmtRemoved(@Nonnull Stmt stmt) {
+    for (StmtListener listener : stmtListeners) {
+      listener.stmtRemoved(stmt);
+    }
+  }
+
   @Nonnull
   public abstract StmtGraph<?> unmodifiableStmtGraph();
 
+  /**
+   * Brings the internal state of the graph into its final form after a series of modifications, so
+   * that querying the graph does not change it anymore and the graph can be read concurrently until
+   * it is modified again. Called when a {@link sootup.core.model.Body} is built from the graph.
+   */
+  public void compact() {}
+
   public abstract void setStartingStmt(@Nonnull Stmt firstStmt);
 
   /** inserts a "stmt" into the StmtGraph */
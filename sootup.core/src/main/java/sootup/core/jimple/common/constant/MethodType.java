@@ -55,6 +55,11 @@ public class MethodType implements Constant {
     return methodSig.getType();
   }
 
+  @Nonnull
+  public MethodSubSignature getMethodSubSignature() {
+    return methodSig;
+  }
+
   @Override
   public String toString() {
     return "methodtype: " + methodSig;
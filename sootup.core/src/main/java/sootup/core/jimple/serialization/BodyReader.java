@@ -0,0 +1,481 @@
+package sootup.core.jimple.serialization;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.LValue;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.SimpleStmtPositionInfo;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.BooleanConstant;
+import sootup.core.jimple.common.constant.ClassConstant;
+import sootup.core.jimple.common.constant.DoubleConstant;
+import sootup.core.jimple.common.constant.EnumConstant;
+import sootup.core.jimple.common.constant.FloatConstant;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.constant.LongConstant;
+import sootup.core.jimple.common.constant.MethodHandle;
+import sootup.core.jimple.common.constant.MethodType;
+import sootup.core.jimple.common.constant.NullConstant;
+import sootup.core.jimple.common.constant.StringConstant;
+import sootup.core.jimple.common.expr.AbstractConditionExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JCastExpr;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.expr.JInstanceOfExpr;
+import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
+import sootup.core.jimple.common.expr.JNewArrayExpr;
+import sootup.core.jimple.common.expr.JNewMultiArrayExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.expr.JVirtualInvokeExpr;
+import sootup.core.jimple.common.ref.IdentityRef;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.ref.JParameterRef;
+import sootup.core.jimple.common.ref.JStaticFieldRef;
+import sootup.core.jimple.common.ref.JThisRef;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.jimple.javabytecode.stmt.JSwitchStmt;
+import sootup.core.model.Body;
+import sootup.core.model.FullPosition;
+import sootup.core.model.LinePosition;
+import sootup.core.model.Position;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.Type;
+
+/**
+ * Decodes a {@link Body} that was written by {@link BodyWriter}. The StmtGraph is restored from its
+ * blocks directly, i.e. neither a frontend nor any BodyInterceptor has to run again.
+ */
+public class BodyReader {
+
+  @Nonnull private final JimpleDataInput in;
+  @Nonnull private final List<Local> locals = new ArrayList<>();
+
+  private BodyReader(@Nonnull JimpleDataInput in) {
+    this.in = in;
+  }
+
+  /** Reads the next encoded body from the given input. */
+  @Nonnull
+  public static Body read(@Nonnull JimpleDataInput in) {
+    return new BodyReader(in).readBody();
+  }
+
+  @Nonnull
+  private Body readBody() {
+    final MethodSignature signature = in.readMethodSignature();
+    final Position position = readPosition(in, in.readByte());
+
+    final int localCount = in.readLength();
+    final Set<Local> bodyLocals = new LinkedHashSet<>(localCount);
+    for (int i = 0; i < localCount; i++) {
+      bodyLocals.add(readLocal());
+    }
+
+    final int blockCount = in.readLength();
+    final List<List<Stmt>> blockStmts = new ArrayList<>(blockCount);
+    final int[][] successors = new int[blockCount][];
+    final List<Map<ClassType, Integer>> exceptionalSuccessors = new ArrayList<>(blockCount);
+    for (int i = 0; i < blockCount; i++) {
+      final int stmtCount = in.readLength();
+      if (stmtCount == 0) {
+        throw new IllegalStateException("Malformed empty block in binary Jimple data.");
+      }
+      final List<Stmt> stmts = new ArrayList<>(stmtCount);
+      for (int j = 0; j < stmtCount; j++) {
+        stmts.add(readStmt());
+      }
+      blockStmts.add(stmts);
+
+      final int[] blockSuccessors = new int[in.readLength()];
+      for (int j = 0; j < blockSuccessors.length; j++) {
+        blockSuccessors[j] = readBlockIndex(blockCount);
+      }
+      successors[i] = blockSuccessors;
+
+      final int exceptionalSuccessorCount = in.readLength();
+      final Map<ClassType, Integer> blockExceptionalSuccessors =
+          new HashMap<>(exceptionalSuccessorCount);
+      for (int j = 0; j < exceptionalSuccessorCount; j++) {
+        final ClassType exceptionType = in.readClassType();
+        blockExceptionalSuccessors.put(exceptionType, readBlockIndex(blockCount));
+      }
+      exceptionalSuccessors.add(blockExceptionalSuccessors);
+    }
+    final int startingBlock = in.readVarInt();
+
+    final List<Map<ClassType, Stmt>> trapMaps = new ArrayList<>(blockCount);
+    final List<List<Stmt>> successorHeads = new ArrayList<>(blockCount);
+    for (int i = 0; i < blockCount; i++) {
+      final Map<ClassType, Stmt> trapMap = new HashMap<>();
+      exceptionalSuccessors
+          .get(i)
+          .forEach((type, handler) -> trapMap.put(type, blockStmts.get(handler).get(0)));
+      trapMaps.add(trapMap);
+
+      final List<Stmt> heads = new ArrayList<>(successors[i].length);
+      for (int successor : successors[i]) {
+        heads.add(blockStmts.get(successor).get(0));
+      }
+      successorHeads.add(heads);
+    }
+    final MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.addBlocks(blockStmts, trapMaps, successorHeads);
+    if (startingBlock > 0) {
+      if (startingBlock > blockCount) {
+        throw new IllegalStateException("Malformed starting block in binary Jimple data.");
+      }
+      graph.setStartingStmt(blockStmts.get(startingBlock - 1).get(0));
+    }
+
+    return Body.builder(graph)
+        .setMethodSignature(signature)
+        .setPosition(position)
+        .setLocals(bodyLocals)
+        .build();
+  }
+
+  private int readBlockIndex(int blockCount) {
+    final int index = in.readVarInt();
+    if (index < 0 || index >= blockCount) {
+      throw new IllegalStateException("Malformed block index " + index + " in binary Jimple data.");
+    }
+    return index;
+  }
+
+  @Nonnull
+  private Local readLocal() {
+    final int index = in.readVarInt();
+    if (index < locals.size()) {
+      return locals.get(index);
+    }
+    if (index != locals.size()) {
+      throw new IllegalStateException("Malformed local index " + index + " in binary Jimple data.");
+    }
+    final String name = in.readString();
+    final Local local = Jimple.newLocal(name, in.readType());
+    locals.add(local);
+    return local;
+  }
+
+  @Nonnull
+  static Position readPosition(@Nonnull JimpleDataInput in, int tag) {
+    switch (tag) {
+      case BodyWriter.NO_POSITION:
+        return NoPositionInformation.getInstance();
+      case BodyWriter.LINE_POSITION:
+        return new LinePosition(in.readSignedVarInt());
+      case BodyWriter.FULL_POSITION:
+        final int firstLine = in.readSignedVarInt();
+        final int firstCol = in.readSignedVarInt();
+        final int lastLine = in.readSignedVarInt();
+        final int lastCol = in.readSignedVarInt();
+        return new FullPosition(firstLine, firstCol, lastLine, lastCol);
+      default:
+        throw new IllegalStateException("Unknown position tag " + tag + " in binary Jimple data.");
+    }
+  }
+
+  @Nonnull
+  private StmtPositionInfo readPositionInfo() {
+    final int tag = in.readByte();
+    if (tag == BodyWriter.NO_STMT_POSITION_INFO) {
+      return StmtPositionInfo.getNoStmtPositionInfo();
+    }
+    return new SimpleStmtPositionInfo(readPosition(in, tag));
+  }
+
+  @Nonnull
+  private Stmt readStmt() {
+    final StmtPositionInfo positionInfo = readPositionInfo();
+    final int tag = in.readByte();
+    switch (tag) {
+      case BodyWriter.NOP:
+        return Jimple.newNopStmt(positionInfo);
+      case BodyWriter.BREAKPOINT:
+        return Jimple.newBreakpointStmt(positionInfo);
+      case BodyWriter.GOTO:
+        return Jimple.newGotoStmt(positionInfo);
+      case BodyWriter.RETURN_VOID:
+        return Jimple.newReturnVoidStmt(positionInfo);
+      case BodyWriter.RETURN:
+        return Jimple.newReturnStmt(readImmediate(), positionInfo);
+      case BodyWriter.THROW:
+        return Jimple.newThrowStmt(readImmediate(), positionInfo);
+      case BodyWriter.ENTER_MONITOR:
+        return Jimple.newEnterMonitorStmt(readImmediate(), positionInfo);
+      case BodyWriter.EXIT_MONITOR:
+        return Jimple.newExitMonitorStmt(readImmediate(), positionInfo);
+      case BodyWriter.RET:
+        return Jimple.newRetStmt(readImmediate(), positionInfo);
+      case BodyWriter.IF:
+        return Jimple.newIfStmt(readValue(AbstractConditionExpr.class), positionInfo);
+      case BodyWriter.INVOKE:
+        return Jimple.newInvokeStmt(readValue(AbstractInvokeExpr.class), positionInfo);
+      case BodyWriter.ASSIGN:
+        final LValue leftOp = readValue(LValue.class);
+        return Jimple.newAssignStmt(leftOp, readValue(Value.class), positionInfo);
+      case BodyWriter.IDENTITY:
+        final Local local = readLocal();
+        return Jimple.newIdentityStmt(local, readValue(IdentityRef.class), positionInfo);
+      case BodyWriter.TABLE_SWITCH:
+        {
+          final Immediate key = readImmediate();
+          final int lowIndex = in.readSignedVarInt();
+          final int count = in.readLength();
+          return new JSwitchStmt(key, lowIndex, lowIndex + count - 1, positionInfo);
+        }
+      case BodyWriter.LOOKUP_SWITCH:
+        {
+          final Immediate key = readImmediate();
+          final int count = in.readLength();
+          final List<IntConstant> values = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            values.add(IntConstant.getInstance(in.readSignedVarInt()));
+          }
+          return new JSwitchStmt(key, values, positionInfo);
+        }
+      default:
+        throw new IllegalStateException("Unknown Stmt tag " + tag + " in binary Jimple data.");
+    }
+  }
+
+  @Nonnull
+  private Immediate readImmediate() {
+    return readValue(Immediate.class);
+  }
+
+  @Nonnull
+  private List<Immediate> readImmediates() {
+    final int count = in.readLength();
+    final List<Immediate> immediates = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      immediates.add(readImmediate());
+    }
+    return immediates;
+  }
+
+  @Nonnull
+  private <T> T readValue(@Nonnull Class<T> expectedClass) {
+    final Value value = readValue();
+    if (!expectedClass.isInstance(value)) {
+      throw new IllegalStateException(
+          "Expected a " + expectedClass.getSimpleName() + " but found '" + value + "'.");
+    }
+    return expectedClass.cast(value);
+  }
+
+  @Nonnull
+  private Value readValue() {
+    final int tag = in.readByte();
+    switch (tag) {
+      case BodyWriter.LOCAL:
+        return readLocal();
+      case BodyWriter.BOOLEAN_CONSTANT:
+        return BooleanConstant.getInstance(in.readBoolean());
+      case BodyWriter.INT_CONSTANT:
+        return IntConstant.getInstance(in.readSignedVarInt());
+      case BodyWriter.LONG_CONSTANT:
+        return LongConstant.getInstance(in.readSignedVarLong());
+      case BodyWriter.FLOAT_CONSTANT:
+        return FloatConstant.getInstance(in.readFloat());
+      case BodyWriter.DOUBLE_CONSTANT:
+        return DoubleConstant.getInstance(in.readDouble());
+      case BodyWriter.NULL_CONSTANT:
+        return NullConstant.getInstance();
+      case BodyWriter.STRING_CONSTANT:
+        {
+          final String value = in.readString();
+          return new StringConstant(value, in.readType());
+        }
+      case BodyWriter.ENUM_CONSTANT:
+        {
+          final String value = in.readString();
+          return new EnumConstant(value, in.readClassType());
+        }
+      case BodyWriter.CLASS_CONSTANT:
+        {
+          final String value = in.readString();
+          return new ClassConstant(value, in.readType());
+        }
+      case BodyWriter.METHOD_HANDLE:
+        {
+          final MethodHandle.Kind kind = MethodHandle.Kind.getKind(in.readVarInt());
+          if (MethodHandle.isMethodRef(kind.getValue())) {
+            final MethodSignature method = in.readMethodSignature();
+            return new MethodHandle(method, kind, in.readType());
+          }
+          return new MethodHandle(in.readFieldSignature(), kind, in.readType());
+        }
+      case BodyWriter.METHOD_TYPE:
+        {
+          final String name = in.readString();
+          final Type returnType = in.readType();
+          final List<Type> parameterTypes = in.readTypes();
+          return new MethodType(
+              in.getIdentifierFactory().getMethodSubSignature(name, returnType, parameterTypes),
+              in.readClassType());
+        }
+      case BodyWriter.ADD:
+        return Jimple.newAddExpr(readImmediate(), readImmediate());
+      case BodyWriter.AND:
+        return Jimple.newAndExpr(readImmediate(), readImmediate());
+      case BodyWriter.CMP:
+        return Jimple.newCmpExpr(readImmediate(), readImmediate());
+      case BodyWriter.CMPG:
+        return Jimple.newCmpgExpr(readImmediate(), readImmediate());
+      case BodyWriter.CMPL:
+        return Jimple.newCmplExpr(readImmediate(), readImmediate());
+      case BodyWriter.DIV:
+        return Jimple.newDivExpr(readImmediate(), readImmediate());
+      case BodyWriter.EQ:
+        return Jimple.newEqExpr(readImmediate(), readImmediate());
+      case BodyWriter.NE:
+        return Jimple.newNeExpr(readImmediate(), readImmediate());
+      case BodyWriter.GE:
+        return Jimple.newGeExpr(readImmediate(), readImmediate());
+      case BodyWriter.GT:
+        return Jimple.newGtExpr(readImmediate(), readImmediate());
+      case BodyWriter.LE:
+        return Jimple.newLeExpr(readImmediate(), readImmediate());
+      case BodyWriter.LT:
+        return Jimple.newLtExpr(readImmediate(), readImmediate());
+      case BodyWriter.MUL:
+        return Jimple.newMulExpr(readImmediate(), readImmediate());
+      case BodyWriter.OR:
+        return Jimple.newOrExpr(readImmediate(), readImmediate());
+      case BodyWriter.REM:
+        return Jimple.newRemExpr(readImmediate(), readImmediate());
+      case BodyWriter.SHL:
+        return Jimple.newShlExpr(readImmediate(), readImmediate());
+      case BodyWriter.SHR:
+        return Jimple.newShrExpr(readImmediate(), readImmediate());
+      case BodyWriter.USHR:
+        return Jimple.newUshrExpr(readImmediate(), readImmediate());
+      case BodyWriter.SUB:
+        return Jimple.newSubExpr(readImmediate(), readImmediate());
+      case BodyWriter.XOR:
+        return Jimple.newXorExpr(readImmediate(), readImmediate());
+      case BodyWriter.SPECIAL_INVOKE:
+        {
+          final Local base = readLocal();
+          final MethodSignature method = in.readMethodSignature();
+          return new JSpecialInvokeExpr(base, method, readImmediates());
+        }
+      case BodyWriter.VIRTUAL_INVOKE:
+        {
+          final Local base = readLocal();
+          final MethodSignature method = in.readMethodSignature();
+          return new JVirtualInvokeExpr(base, method, readImmediates());
+        }
+      case BodyWriter.INTERFACE_INVOKE:
+        {
+          final Local base = readLocal();
+          final MethodSignature method = in.readMethodSignature();
+          return new JInterfaceInvokeExpr(base, method, readImmediates());
+        }
+      case BodyWriter.STATIC_INVOKE:
+        {
+          final MethodSignature method = in.readMethodSignature();
+          return new JStaticInvokeExpr(method, readImmediates());
+        }
+      case BodyWriter.DYNAMIC_INVOKE:
+        {
+          final MethodSignature bootstrapMethod = in.readMethodSignature();
+          final List<Immediate> bootstrapArgs = readImmediates();
+          final MethodSignature method = in.readMethodSignature();
+          final int handleTag = in.readVarInt();
+          return new JDynamicInvokeExpr(
+              bootstrapMethod, bootstrapArgs, method, handleTag, readImmediates());
+        }
+      case BodyWriter.CAST:
+        {
+          final Immediate op = readImmediate();
+          return new JCastExpr(op, in.readType());
+        }
+      case BodyWriter.INSTANCE_OF:
+        {
+          final Immediate op = readImmediate();
+          return new JInstanceOfExpr(op, in.readType());
+        }
+      case BodyWriter.NEW_ARRAY:
+        {
+          final Type baseType = in.readType();
+          return new JNewArrayExpr(baseType, readImmediate(), in.getIdentifierFactory());
+        }
+      case BodyWriter.NEW_MULTI_ARRAY:
+        {
+          final Type type = in.readType();
+          if (!(type instanceof ArrayType)) {
+            throw new IllegalStateException("Expected an ArrayType but found '" + type + "'.");
+          }
+          return new JNewMultiArrayExpr((ArrayType) type, readImmediates());
+        }
+      case BodyWriter.NEW:
+        return Jimple.newNewExpr(in.readClassType());
+      case BodyWriter.LENGTH:
+        return Jimple.newLengthExpr(readImmediate());
+      case BodyWriter.NEG:
+        return Jimple.newNegExpr(readImmediate());
+      case BodyWriter.STATIC_FIELD_REF:
+        return new JStaticFieldRef(in.readFieldSignature());
+      case BodyWriter.INSTANCE_FIELD_REF:
+        {
+          final Local base = readLocal();
+          return new JInstanceFieldRef(base, in.readFieldSignature());
+        }
+      case BodyWriter.ARRAY_REF:
+        {
+          final Local base = readLocal();
+          return new JArrayRef(base, readImmediate());
+        }
+      case BodyWriter.PARAMETER_REF:
+        {
+          final Type type = in.readType();
+          return new JParameterRef(type, in.readVarInt());
+        }
+      case BodyWriter.CAUGHT_EXCEPTION_REF:
+        return new JCaughtExceptionRef(in.readType());
+      case BodyWriter.THIS_REF:
+        return new JThisRef(in.readClassType());
+      default:
+        throw new IllegalStateException("Unknown Value tag " + tag + " in binary Jimple data.");
+    }
+  }
+}
@@ -0,0 +1,735 @@
+package sootup.core.jimple.serialization;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.BooleanConstant;
+import sootup.core.jimple.common.constant.ClassConstant;
+import sootup.core.jimple.common.constant.DoubleConstant;
+import sootup.core.jimple.common.constant.EnumConstant;
+import sootup.core.jimple.common.constant.FloatConstant;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.constant.LongConstant;
+import sootup.core.jimple.common.constant.MethodHandle;
+import sootup.core.jimple.common.constant.MethodType;
+import sootup.core.jimple.common.constant.NullConstant;
+import sootup.core.jimple.common.constant.StringConstant;
+import sootup.core.jimple.common.expr.AbstractBinopExpr;
+import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.expr.JAndExpr;
+import sootup.core.jimple.common.expr.JCastExpr;
+import sootup.core.jimple.common.expr.JCmpExpr;
+import sootup.core.jimple.common.expr.JCmpgExpr;
+import sootup.core.jimple.common.expr.JCmplExpr;
+import sootup.core.jimple.common.expr.JDivExpr;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.expr.JEqExpr;
+import sootup.core.jimple.common.expr.JGeExpr;
+import sootup.core.jimple.common.expr.JGtExpr;
+import sootup.core.jimple.common.expr.JInstanceOfExpr;
+import sootup.core.jimple.common.expr.JInterfaceInvokeExpr;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.expr.JLengthExpr;
+import sootup.core.jimple.common.expr.JLtExpr;
+import sootup.core.jimple.common.expr.JMulExpr;
+import sootup.core.jimple.common.expr.JNeExpr;
+import sootup.core.jimple.common.expr.JNegExpr;
+import sootup.core.jimple.common.expr.JNewArrayExpr;
+import sootup.core.jimple.common.expr.JNewExpr;
+import sootup.core.jimple.common.expr.JNewMultiArrayExpr;
+import sootup.core.jimple.common.expr.JOrExpr;
+import sootup.core.jimple.common.expr.JRemExpr;
+import sootup.core.jimple.common.expr.JShlExpr;
+import sootup.core.jimple.common.expr.JShrExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.expr.JSubExpr;
+import sootup.core.jimple.common.expr.JUshrExpr;
+import sootup.core.jimple.common.expr.JVirtualInvokeExpr;
+import sootup.core.jimple.common.expr.JXorExpr;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.ref.JParameterRef;
+import sootup.core.jimple.common.ref.JStaticFieldRef;
+import sootup.core.jimple.common.ref.JThisRef;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.JGotoStmt;
+import sootup.core.jimple.common.stmt.JIdentityStmt;
+import sootup.core.jimple.common.stmt.JIfStmt;
+import sootup.core.jimple.common.stmt.JInvokeStmt;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.JReturnStmt;
+import sootup.core.jimple.common.stmt.JReturnVoidStmt;
+import sootup.core.jimple.common.stmt.JThrowStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.jimple.javabytecode.stmt.JBreakpointStmt;
+import sootup.core.jimple.javabytecode.stmt.JEnterMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JExitMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JRetStmt;
+import sootup.core.jimple.javabytecode.stmt.JSwitchStmt;
+import sootup.core.jimple.visitor.AbstractValueVisitor;
+import sootup.core.jimple.visitor.StmtVisitor;
+import sootup.core.model.Body;
+import sootup.core.model.LinePosition;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+
+/**
+ * Encodes a {@link Body} into the binary Jimple format which is read by {@link BodyReader}.
+ *
+ * <p>The Body is written as its signature, position and locals followed by its blocks in the order
+ * of {@link StmtGraph#getBlocksSorted()}. Every block consists of its Stmts and the indices of its
+ * (exceptional) successor blocks. Operand positions of a {@link
+ * sootup.core.jimple.basic.FullStmtPositionInfo} are not retained.
+ *
+ * <p>Throws an {@link IllegalArgumentException} for Bodies that contain constructs the format does
+ * not support (e.g. {@link sootup.core.jimple.common.expr.JPhiExpr}).
+ */
+public class BodyWriter {
+
+  // Stmt tags
+  static final int NOP = 0;
+  static final int BREAKPOINT = 1;
+  static final int GOTO = 2;
+  static final int RETURN_VOID = 3;
+  static final int RETURN = 4;
+  static final int THROW = 5;
+  static final int ENTER_MONITOR = 6;
+  static final int EXIT_MONITOR = 7;
+  static final int RET = 8;
+  static final int IF = 9;
+  static final int INVOKE = 10;
+  static final int ASSIGN = 11;
+  static final int IDENTITY = 12;
+  static final int TABLE_SWITCH = 13;
+  static final int LOOKUP_SWITCH = 14;
+
+  // Value tags
+  static final int LOCAL = 0;
+  static final int BOOLEAN_CONSTANT = 1;
+  static final int INT_CONSTANT = 2;
+  static final int LONG_CONSTANT = 3;
+  static final int FLOAT_CONSTANT = 4;
+  static final int DOUBLE_CONSTANT = 5;
+  static final int NULL_CONSTANT = 6;
+  static final int STRING_CONSTANT = 7;
+  static final int ENUM_CONSTANT = 8;
+  static final int CLASS_CONSTANT = 9;
+  static final int METHOD_HANDLE = 10;
+  static final int METHOD_TYPE = 11;
+  static final int ADD = 20;
+  static final int AND = 21;
+  static final int CMP = 22;
+  static final int CMPG = 23;
+  static final int CMPL = 24;
+  static final int DIV = 25;
+  static final int EQ = 26;
+  static final int NE = 27;
+  static final int GE = 28;
+  static final int GT = 29;
+  static final int LE = 30;
+  static final int LT = 31;
+  static final int MUL = 32;
+  static final int OR = 33;
+  static final int REM = 34;
+  static final int SHL = 35;
+  static final int SHR = 36;
+  static final int USHR = 37;
+  static final int SUB = 38;
+  static final int XOR = 39;
+  static final int SPECIAL_INVOKE = 40;
+  static final int VIRTUAL_INVOKE = 41;
+  static final int INTERFACE_INVOKE = 42;
+  static final int STATIC_INVOKE = 43;
+  static final int DYNAMIC_INVOKE = 44;
+  static final int CAST = 45;
+  static final int INSTANCE_OF = 46;
+  static final int NEW_ARRAY = 47;
+  static final int NEW_MULTI_ARRAY = 48;
+  static final int NEW = 49;
+  static final int LENGTH = 50;
+  static final int NEG = 51;
+  static final int STATIC_FIELD_REF = 60;
+  static final int INSTANCE_FIELD_REF = 61;
+  static final int ARRAY_REF = 62;
+  static final int PARAMETER_REF = 63;
+  static final int CAUGHT_EXCEPTION_REF = 64;
+  static final int THIS_REF = 65;
+
+  // Position tags
+  static final int NO_POSITION = 0;
+  static final int LINE_POSITION = 1;
+  static final int FULL_POSITION = 2;
+  static final int NO_STMT_POSITION_INFO = 3;
+
+  @Nonnull private final JimpleDataOutput out;
+  @Nonnull private final Map<Local, Integer> localIndices = new IdentityHashMap<>();
+  @Nonnull private final Encoder encoder = new Encoder();
+
+  private BodyWriter(@Nonnull JimpleDataOutput out) {
+    this.out = out;
+  }
+
+  /** Appends the encoded body to the given output. */
+  public static void write(@Nonnull Body body, @Nonnull JimpleDataOutput out) {
+    new BodyWriter(out).writeBody(body);
+  }
+
+  private void writeBody(@Nonnull Body body) {
+    out.writeMethodSignature(body.getMethodSignature());
+    writePosition(out, body.getPosition());
+
+    final Set<Local> locals = body.getLocals();
+    out.writeVarInt(locals.size());
+    for (Local local : locals) {
+      writeLocal(local);
+    }
+
+    final StmtGraph<?> graph = body.getStmtGraph();
+    final List<BasicBlock<?>> blocks = new ArrayList<>(graph.getBlocksSorted());
+    final Map<BasicBlock<?>, Integer> blockIndices = new IdentityHashMap<>();
+    for (BasicBlock<?> block : blocks) {
+      blockIndices.put(block, blockIndices.size());
+    }
+    // unreachable blocks are not necessarily part of the sorted blocks
+    for (BasicBlock<?> block : graph.getBlocks()) {
+      if (!blockIndices.containsKey(block)) {
+        blockIndices.put(block, blockIndices.size());
+        blocks.add(block);
+      }
+    }
+
+    out.writeVarInt(blocks.size());
+    for (BasicBlock<?> block : blocks) {
+      final List<Stmt> stmts = block.getStmts();
+      out.writeVarInt(stmts.size());
+      for (Stmt stmt : stmts) {
+        writePositionInfo(stmt.getPositionInfo());
+        stmt.accept(encoder);
+      }
+
+      final List<? extends BasicBlock<?>> successors = block.getSuccessors();
+      out.writeVarInt(successors.size());
+      for (BasicBlock<?> successor : successors) {
+        out.writeVarInt(blockIndices.get(successor));
+      }
+
+      final Map<? extends ClassType, ? extends BasicBlock<?>> exceptionalSuccessors =
+          block.getExceptionalSuccessors();
+      out.writeVarInt(exceptionalSuccessors.size());
+      for (Map.Entry<? extends ClassType, ? extends BasicBlock<?>> entry :
+          exceptionalSuccessors.entrySet()) {
+        out.writeType(entry.getKey());
+        out.writeVarInt(blockIndices.get(entry.getValue()));
+      }
+    }
+
+    final BasicBlock<?> startingBlock = graph.getStartingStmtBlock();
+    out.writeVarInt(startingBlock == null ? 0 : blockIndices.get(startingBlock) + 1);
+  }
+
+  /** Locals are defined on their first occurrence and referenced by their index afterwards. */
+  private void writeLocal(@Nonnull Local local) {
+    final Integer index = localIndices.get(local);
+    if (index != null) {
+      out.writeVarInt(index);
+      return;
+    }
+    final int newIndex = localIndices.size();
+    localIndices.put(local, newIndex);
+    out.writeVarInt(newIndex);
+    out.writeString(local.getName());
+    out.writeType(local.getType());
+  }
+
+  private void writePositionInfo(@Nonnull StmtPositionInfo positionInfo) {
+    if (positionInfo == StmtPositionInfo.getNoStmtPositionInfo()) {
+      out.writeByte(NO_STMT_POSITION_INFO);
+    } else {
+      writePosition(out, positionInfo.getStmtPosition());
+    }
+  }
+
+  static void writePosition(@Nonnull JimpleDataOutput out, @Nonnull Position position) {
+    if (position == NoPositionInformation.getInstance()) {
+      out.writeByte(NO_POSITION);
+    } else if (position instanceof LinePosition) {
+      out.writeByte(LINE_POSITION);
+      out.writeSignedVarInt(position.getFirstLine());
+    } else {
+      out.writeByte(FULL_POSITION);
+      out.writeSignedVarInt(position.getFirstLine());
+      out.writeSignedVarInt(position.getFirstCol());
+      out.writeSignedVarInt(position.getLastLine());
+      out.writeSignedVarInt(position.getLastCol());
+    }
+  }
+
+  private void writeValue(@Nonnull Value value) {
+    value.accept(encoder);
+  }
+
+  private void writeImmediates(@Nonnull List<? extends Immediate> immediates) {
+    out.writeVarInt(immediates.size());
+    for (Immediate immediate : immediates) {
+      writeValue(immediate);
+    }
+  }
+
+  private void writeBinop(int tag, @Nonnull AbstractBinopExpr expr) {
+    out.writeByte(tag);
+    writeValue(expr.getOp1());
+    writeValue(expr.getOp2());
+  }
+
+  private void writeInvoke(int tag, @Nonnull AbstractInvokeExpr expr) {
+    out.writeByte(tag);
+    if (expr instanceof AbstractInstanceInvokeExpr) {
+      writeLocal(((AbstractInstanceInvokeExpr) expr).getBase());
+    }
+    out.writeMethodSignature(expr.getMethodSignature());
+    writeImmediates(expr.getArgs());
+  }
+
+  private class Encoder extends AbstractValueVisitor<Void> implements StmtVisitor {
+
+    @Override
+    public void caseBreakpointStmt(@Nonnull JBreakpointStmt stmt) {
+      out.writeByte(BREAKPOINT);
+    }
+
+    @Override
+    public void caseInvokeStmt(@Nonnull JInvokeStmt stmt) {
+      out.writeByte(INVOKE);
+      writeValue(stmt.getInvokeExpr());
+    }
+
+    @Override
+    public void caseAssignStmt(@Nonnull JAssignStmt stmt) {
+      out.writeByte(ASSIGN);
+      writeValue(stmt.getLeftOp());
+      writeValue(stmt.getRightOp());
+    }
+
+    @Override
+    public void caseIdentityStmt(@Nonnull JIdentityStmt stmt) {
+      out.writeByte(IDENTITY);
+      writeLocal(stmt.getLeftOp());
+      writeValue(stmt.getRightOp());
+    }
+
+    @Override
+    public void caseEnterMonitorStmt(@Nonnull JEnterMonitorStmt stmt) {
+      out.writeByte(ENTER_MONITOR);
+      writeValue(stmt.getOp());
+    }
+
+    @Override
+    public void caseExitMonitorStmt(@Nonnull JExitMonitorStmt stmt) {
+      out.writeByte(EXIT_MONITOR);
+      writeValue(stmt.getOp());
+    }
+
+    @Override
+    public void caseGotoStmt(@Nonnull JGotoStmt stmt) {
+      out.writeByte(GOTO);
+    }
+
+    @Override
+    public void caseIfStmt(@Nonnull JIfStmt stmt) {
+      out.writeByte(IF);
+      writeValue(stmt.getCondition());
+    }
+
+    @Override
+    public void caseNopStmt(@Nonnull JNopStmt stmt) {
+      out.writeByte(NOP);
+    }
+
+    @Override
+    public void caseRetStmt(@Nonnull JRetStmt stmt) {
+      out.writeByte(RET);
+      writeValue(stmt.getStmtAddress());
+    }
+
+    @Override
+    public void caseReturnStmt(@Nonnull JReturnStmt stmt) {
+      out.writeByte(RETURN);
+      writeValue(stmt.getOp());
+    }
+
+    @Override
+    public void caseReturnVoidStmt(@Nonnull JReturnVoidStmt stmt) {
+      out.writeByte(RETURN_VOID);
+    }
+
+    @Override
+    public void caseSwitchStmt(@Nonnull JSwitchStmt stmt) {
+      final List<IntConstant> values = stmt.getValues();
+      if (stmt.isTableSwitch()) {
+        out.writeByte(TABLE_SWITCH);
+        writeValue(stmt.getKey());
+        out.writeSignedVarInt(values.isEmpty() ? 0 : values.get(0).getValue());
+        out.writeVarInt(values.size());
+      } else {
+        out.writeByte(LOOKUP_SWITCH);
+        writeValue(stmt.getKey());
+        out.writeVarInt(values.size());
+        for (IntConstant value : values) {
+          out.writeSignedVarInt(value.getValue());
+        }
+      }
+    }
+
+    @Override
+    public void caseThrowStmt(@Nonnull JThrowStmt stmt) {
+      out.writeByte(THROW);
+      writeValue(stmt.getOp());
+    }
+
+    @Override
+    public void defaultCaseStmt(@Nonnull Stmt stmt) {
+      throw new IllegalArgumentException("Stmt '" + stmt + "' can not be serialized.");
+    }
+
+    @Override
+    public void caseLocal(@Nonnull Local local) {
+      out.writeByte(LOCAL);
+      writeLocal(local);
+    }
+
+    @Override
+    public void caseBooleanConstant(@Nonnull BooleanConstant constant) {
+      out.writeByte(BOOLEAN_CONSTANT);
+      out.writeBoolean(constant == BooleanConstant.getTrue());
+    }
+
+    @Override
+    public void caseIntConstant(@Nonnull IntConstant constant) {
+      out.writeByte(INT_CONSTANT);
+      out.writeSignedVarInt(constant.getValue());
+    }
+
+    @Override
+    public void caseLongConstant(@Nonnull LongConstant constant) {
+      out.writeByte(LONG_CONSTANT);
+      out.writeSignedVarLong(constant.getValue());
+    }
+
+    @Override
+    public void caseFloatConstant(@Nonnull FloatConstant constant) {
+      out.writeByte(FLOAT_CONSTANT);
+      out.writeFloat(constant.getValue());
+    }
+
+    @Override
+    public void caseDoubleConstant(@Nonnull DoubleConstant constant) {
+      out.writeByte(DOUBLE_CONSTANT);
+      out.writeDouble(constant.getValue());
+    }
+
+    @Override
+    public void caseNullConstant(@Nonnull NullConstant constant) {
+      out.writeByte(NULL_CONSTANT);
+    }
+
+    @Override
+    public void caseStringConstant(@Nonnull StringConstant constant) {
+      out.writeByte(STRING_CONSTANT);
+      out.writeString(constant.getValue());
+      out.writeType(constant.getType());
+    }
+
+    @Override
+    public void caseEnumConstant(@Nonnull EnumConstant constant) {
+      out.writeByte(ENUM_CONSTANT);
+      out.writeString(constant.getValue());
+      out.writeType(constant.getType());
+    }
+
+    @Override
+    public void caseClassConstant(@Nonnull ClassConstant constant) {
+      out.writeByte(CLASS_CONSTANT);
+      out.writeString(constant.getValue());
+      out.writeType(constant.getType());
+    }
+
+    @Override
+    public void caseMethodHandle(@Nonnull MethodHandle handle) {
+      out.writeByte(METHOD_HANDLE);
+      out.writeVarInt(handle.getKind().getValue());
+      if (handle.isMethodRef()) {
+        out.writeMethodSignature((MethodSignature) handle.getReferenceSignature());
+      } else {
+        out.writeFieldSignature((FieldSignature) handle.getReferenceSignature());
+      }
+      out.writeType(handle.getType());
+    }
+
+    @Override
+    public void caseMethodType(@Nonnull MethodType methodType) {
+      out.writeByte(METHOD_TYPE);
+      out.writeString(methodType.getMethodSubSignature().getName());
+      out.writeType(methodType.getReturnType());
+      out.writeTypes(methodType.getParameterTypes());
+      out.writeType(methodType.getType());
+    }
+
+    @Override
+    public void caseAddExpr(@Nonnull JAddExpr expr) {
+      writeBinop(ADD, expr);
+    }
+
+    @Override
+    public void caseAndExpr(@Nonnull JAndExpr expr) {
+      writeBinop(AND, expr);
+    }
+
+    @Override
+    public void caseCmpExpr(@Nonnull JCmpExpr expr) {
+      writeBinop(CMP, expr);
+    }
+
+    @Override
+    public void caseCmpgExpr(@Nonnull JCmpgExpr expr) {
+      writeBinop(CMPG, expr);
+    }
+
+    @Override
+    public void caseCmplExpr(@Nonnull JCmplExpr expr) {
+      writeBinop(CMPL, expr);
+    }
+
+    @Override
+    public void caseDivExpr(@Nonnull JDivExpr expr) {
+      writeBinop(DIV, expr);
+    }
+
+    @Override
+    public void caseEqExpr(@Nonnull JEqExpr expr) {
+      writeBinop(EQ, expr);
+    }
+
+    @Override
+    public void caseNeExpr(@Nonnull JNeExpr expr) {
+      writeBinop(NE, expr);
+    }
+
+    @Override
+    public void caseGeExpr(@Nonnull JGeExpr expr) {
+      writeBinop(GE, expr);
+    }
+
+    @Override
+    public void caseGtExpr(@Nonnull JGtExpr expr) {
+      writeBinop(GT, expr);
+    }
+
+    @Override
+    public void caseLeExpr(@Nonnull JLeExpr expr) {
+      writeBinop(LE, expr);
+    }
+
+    @Override
+    public void caseLtExpr(@Nonnull JLtExpr expr) {
+      writeBinop(LT, expr);
+    }
+
+    @Override
+    public void caseMulExpr(@Nonnull JMulExpr expr) {
+      writeBinop(MUL, expr);
+    }
+
+    @Override
+    public void caseOrExpr(@Nonnull JOrExpr expr) {
+      writeBinop(OR, expr);
+    }
+
+    @Override
+    public void caseRemExpr(@Nonnull JRemExpr expr) {
+      writeBinop(REM, expr);
+    }
+
+    @Override
+    public void caseShlExpr(@Nonnull JShlExpr expr) {
+      writeBinop(SHL, expr);
+    }
+
+    @Override
+    public void caseShrExpr(@Nonnull JShrExpr expr) {
+      writeBinop(SHR, expr);
+    }
+
+    @Override
+    public void caseUshrExpr(@Nonnull JUshrExpr expr) {
+      writeBinop(USHR, expr);
+    }
+
+    @Override
+    public void caseSubExpr(@Nonnull JSubExpr expr) {
+      writeBinop(SUB, expr);
+    }
+
+    @Override
+    public void caseXorExpr(@Nonnull JXorExpr expr) {
+      writeBinop(XOR, expr);
+    }
+
+    @Override
+    public void caseSpecialInvokeExpr(@Nonnull JSpecialInvokeExpr expr) {
+      writeInvoke(SPECIAL_INVOKE, expr);
+    }
+
+    @Override
+    public void caseVirtualInvokeExpr(@Nonnull JVirtualInvokeExpr expr) {
+      writeInvoke(VIRTUAL_INVOKE, expr);
+    }
+
+    @Override
+    public void caseInterfaceInvokeExpr(@Nonnull JInterfaceInvokeExpr expr) {
+      writeInvoke(INTERFACE_INVOKE, expr);
+    }
+
+    @Override
+    public void caseStaticInvokeExpr(@Nonnull JStaticInvokeExpr expr) {
+      writeInvoke(STATIC_INVOKE, expr);
+    }
+
+    @Override
+    public void caseDynamicInvokeExpr(@Nonnull JDynamicInvokeExpr expr) {
+      out.writeByte(DYNAMIC_INVOKE);
+      out.writeMethodSignature(expr.getBootstrapMethodSignature());
+      writeImmediates(expr.getBootstrapArgs());
+      out.writeMethodSignature(expr.getMethodSignature());
+      out.writeVarInt(expr.getHandleTag());
+      writeImmediates(expr.getArgs());
+    }
+
+    @Override
+    public void caseCastExpr(@Nonnull JCastExpr expr) {
+      out.writeByte(CAST);
+      writeValue(expr.getOp());
+      out.writeType(expr.getType());
+    }
+
+    @Override
+    public void caseInstanceOfExpr(@Nonnull JInstanceOfExpr expr) {
+      out.writeByte(INSTANCE_OF);
+      writeValue(expr.getOp());
+      out.writeType(expr.getCheckType());
+    }
+
+    @Override
+    public void caseNewArrayExpr(@Nonnull JNewArrayExpr expr) {
+      out.writeByte(NEW_ARRAY);
+      out.writeType(expr.getBaseType());
+      writeValue(expr.getSize());
+    }
+
+    @Override
+    public void caseNewMultiArrayExpr(@Nonnull JNewMultiArrayExpr expr) {
+      out.writeByte(NEW_MULTI_ARRAY);
+      out.writeType(expr.getBaseType());
+      writeImmediates(expr.getSizes());
+    }
+
+    @Override
+    public void caseNewExpr(@Nonnull JNewExpr expr) {
+      out.writeByte(NEW);
+      out.writeType(expr.getType());
+    }
+
+    @Override
+    public void caseLengthExpr(@Nonnull JLengthExpr expr) {
+      out.writeByte(LENGTH);
+      writeValue(expr.getOp());
+    }
+
+    @Override
+    public void caseNegExpr(@Nonnull JNegExpr expr) {
+      out.writeByte(NEG);
+      writeValue(expr.getOp());
+    }
+
+    @Override
+    public void caseStaticFieldRef(@Nonnull JStaticFieldRef ref) {
+      out.writeByte(STATIC_FIELD_REF);
+      out.writeFieldSignature(ref.getFieldSignature());
+    }
+
+    @Override
+    public void caseInstanceFieldRef(@Nonnull JInstanceFieldRef ref) {
+      out.writeByte(INSTANCE_FIELD_REF);
+      writeLocal(ref.getBase());
+      out.writeFieldSignature(ref.getFieldSignature());
+    }
+
+    @Override
+    public void caseArrayRef(@Nonnull JArrayRef ref) {
+      out.writeByte(ARRAY_REF);
+      writeLocal(ref.getBase());
+      writeValue(ref.getIndex());
+    }
+
+    @Override
+    public void caseParameterRef(@Nonnull JParameterRef ref) {
+      out.writeByte(PARAMETER_REF);
+      out.writeType(ref.getType());
+      out.writeVarInt(ref.getIndex());
+    }
+
+    @Override
+    public void caseCaughtExceptionRef(@Nonnull JCaughtExceptionRef ref) {
+      out.writeByte(CAUGHT_EXCEPTION_REF);
+      out.writeType(ref.getType());
+    }
+
+    @Override
+    public void caseThisRef(@Nonnull JThisRef ref) {
+      out.writeByte(THIS_REF);
+      out.writeType(ref.getType());
+    }
+
+    @Override
+    public void defaultCaseValue(@Nonnull Value value) {
+      throw new IllegalArgumentException("Value '" + value + "' can not be serialized.");
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package sootup.core.jimple.serialization;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import sootup.core.IdentifierFactory;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.NullType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.core.types.VoidType;
+
+/**
+ * Reads data written by a {@link JimpleDataOutput} from a {@link ByteBuffer}, which can be a slice
+ * of a memory mapped file. Types and signatures are created via the given {@link
+ * IdentifierFactory}.
+ */
+public class JimpleDataInput {
+
+  @Nonnull private final ByteBuffer buffer;
+  @Nonnull private final IdentifierFactory identifierFactory;
+
+  @Nonnull private final List<String> stringPool = new ArrayList<>();
+  @Nonnull private final List<Type> typePool = new ArrayList<>();
+  @Nonnull private final List<MethodSignature> methodSignaturePool = new ArrayList<>();
+  @Nonnull private final List<FieldSignature> fieldSignaturePool = new ArrayList<>();
+
+  public JimpleDataInput(@Nonnull ByteBuffer buffer, @Nonnull IdentifierFactory identifierFactory) {
+    this.buffer = buffer;
+    this.identifierFactory = identifierFactory;
+  }
+
+  public JimpleDataInput(@Nonnull byte[] bytes, @Nonnull IdentifierFactory identifierFactory) {
+    this(ByteBuffer.wrap(bytes), identifierFactory);
+  }
+
+  @Nonnull
+  public IdentifierFactory getIdentifierFactory() {
+    return identifierFactory;
+  }
+
+  public boolean hasRemaining() {
+    return buffer.hasRemaining();
+  }
+
+  public int position() {
+    return buffer.position();
+  }
+
+  public int readByte() {
+    try {
+      return buffer.get() & 0xFF;
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("Unexpected end of binary Jimple data.", e);
+    }
+  }
+
+  public boolean readBoolean() {
+    return readByte() != 0;
+  }
+
+  public int readInt() {
+    return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+  }
+
+  public long readLong() {
+    return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+  }
+
+  public int readVarInt() {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      final int b = readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Malformed varint in binary Jimple data.");
+  }
+
+  public int readSignedVarInt() {
+    final int zigzag = readVarInt();
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  }
+
+  public long readSignedVarLong() {
+    long zigzag = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      final long b = readByte();
+      zigzag |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+    }
+    throw new IllegalStateException("Malformed varlong in binary Jimple data.");
+  }
+
+  public float readFloat() {
+    return Float.intBitsToFloat(readInt());
+  }
+
+  public double readDouble() {
+    return Double.longBitsToDouble(readLong());
+  }
+
+  /** Reads a size or count and checks it against the remaining bytes to fail early on bad data. */
+  public int readLength() {
+    final int length = readVarInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalStateException("Malformed length " + length + " in binary Jimple data.");
+    }
+    return length;
+  }
+
+  @Nonnull
+  public String readUtf() {
+    final char[] chars = new char[readLength()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = (char) readVarInt();
+    }
+    return new String(chars);
+  }
+
+  @Nonnull
+  public String readString() {
+    final int index = readPoolIndex(stringPool);
+    if (index < stringPool.size()) {
+      return stringPool.get(index);
+    }
+    stringPool.add(null);
+    final String value = readUtf();
+    stringPool.set(index, value);
+    return value;
+  }
+
+  @Nonnull
+  public Type readType() {
+    final int index = readPoolIndex(typePool);
+    if (index < typePool.size()) {
+      return typePool.get(index);
+    }
+    typePool.add(null);
+    final Type type;
+    final int tag = readByte();
+    switch (tag) {
+      case JimpleDataOutput.TYPE_BOOLEAN:
+        type = PrimitiveType.getBoolean();
+        break;
+      case JimpleDataOutput.TYPE_BYTE:
+        type = PrimitiveType.getByte();
+        break;
+      case JimpleDataOutput.TYPE_CHAR:
+        type = PrimitiveType.getChar();
+        break;
+      case JimpleDataOutput.TYPE_SHORT:
+        type = PrimitiveType.getShort();
+        break;
+      case JimpleDataOutput.TYPE_INT:
+        type = PrimitiveType.getInt();
+        break;
+      case JimpleDataOutput.TYPE_LONG:
+        type = PrimitiveType.getLong();
+        break;
+      case JimpleDataOutput.TYPE_FLOAT:
+        type = PrimitiveType.getFloat();
+        break;
+      case JimpleDataOutput.TYPE_DOUBLE:
+        type = PrimitiveType.getDouble();
+        break;
+      case JimpleDataOutput.TYPE_VOID:
+        type = VoidType.getInstance();
+        break;
+      case JimpleDataOutput.TYPE_NULL:
+        type = NullType.getInstance();
+        break;
+      case JimpleDataOutput.TYPE_UNKNOWN:
+        type = UnknownType.getInstance();
+        break;
+      case JimpleDataOutput.TYPE_CLASS:
+        type = identifierFactory.getClassType(readString());
+        break;
+      case JimpleDataOutput.TYPE_ARRAY:
+        final Type baseType = readType();
+        type = identifierFactory.getArrayType(baseType, readVarInt());
+        break;
+      default:
+        throw new IllegalStateException("Unknown type tag " + tag + " in binary Jimple data.");
+    }
+    typePool.set(index, type);
+    return type;
+  }
+
+  @Nonnull
+  public List<Type> readTypes() {
+    final int count = readLength();
+    final List<Type> types = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      types.add(readType());
+    }
+    return types;
+  }
+
+  @Nonnull
+  public ClassType readClassType() {
+    final Type type = readType();
+    if (!(type instanceof ClassType)) {
+      throw new IllegalStateException("Expected a ClassType but found '" + type + "'.");
+    }
+    return (ClassType) type;
+  }
+
+  @Nonnull
+  public MethodSignature readMethodSignature() {
+    final int index = readPoolIndex(methodSignaturePool);
+    if (index < methodSignaturePool.size()) {
+      return methodSignaturePool.get(index);
+    }
+    methodSignaturePool.add(null);
+    final ClassType declaringClass = readClassType();
+    final String name = readString();
+    final Type returnType = readType();
+    final List<Type> parameterTypes = readTypes();
+    final MethodSignature signature =
+        identifierFactory.getMethodSignature(declaringClass, name, returnType, parameterTypes);
+    methodSignaturePool.set(index, signature);
+    return signature;
+  }
+
+  @Nonnull
+  public FieldSignature readFieldSignature() {
+    final int index = readPoolIndex(fieldSignaturePool);
+    if (index < fieldSignaturePool.size()) {
+      return fieldSignaturePool.get(index);
+    }
+    fieldSignaturePool.add(null);
+    final ClassType declaringClass = readClassType();
+    final String name = readString();
+    final Type type = readType();
+    final FieldSignature signature =
+        identifierFactory.getFieldSignature(name, declaringClass, type);
+    fieldSignaturePool.set(index, signature);
+    return signature;
+  }
+
+  /** @return the pool index; an index equal to the pool size announces a new definition. */
+  private int readPoolIndex(@Nonnull List<?> pool) {
+    final int index = readVarInt();
+    if (index < 0 || index > pool.size() || (index < pool.size() && pool.get(index) == null)) {
+      throw new IllegalStateException(
+          "Malformed constant pool reference " + index + " in binary Jimple data.");
+    }
+    return index;
+  }
+}
@@ -0,0 +1,263 @@
+package sootup.core.jimple.serialization;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.NullType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.core.types.VoidType;
+
+/**
+ * A growable byte buffer for the binary Jimple format. Integers are written as (zigzag) varints and
+ * strings, types and signatures go through constant pools: the first occurrence of an entry writes
+ * its (new) pool index followed by its definition, every further occurrence only writes the index.
+ * Thus the format can be read in a single pass by {@link JimpleDataInput}.
+ */
+public class JimpleDataOutput {
+
+  static final int TYPE_BOOLEAN = 0;
+  static final int TYPE_BYTE = 1;
+  static final int TYPE_CHAR = 2;
+  static final int TYPE_SHORT = 3;
+  static final int TYPE_INT = 4;
+  static final int TYPE_LONG = 5;
+  static final int TYPE_FLOAT = 6;
+  static final int TYPE_DOUBLE = 7;
+  static final int TYPE_VOID = 8;
+  static final int TYPE_NULL = 9;
+  static final int TYPE_UNKNOWN = 10;
+  static final int TYPE_CLASS = 11;
+  static final int TYPE_ARRAY = 12;
+
+  @Nonnull private byte[] buffer;
+  private int size = 0;
+
+  @Nonnull private final Map<String, Integer> stringPool = new HashMap<>();
+  @Nonnull private final Map<Type, Integer> typePool = new HashMap<>();
+  @Nonnull private final Map<MethodSignature, Integer> methodSignaturePool = new HashMap<>();
+  @Nonnull private final Map<FieldSignature, Integer> fieldSignaturePool = new HashMap<>();
+
+  public JimpleDataOutput() {
+    this(256);
+  }
+
+  public JimpleDataOutput(int initialCapacity) {
+    buffer = new byte[Math.max(16, initialCapacity)];
+  }
+
+  private void ensureCapacity(int additionalBytes) {
+    if (size + additionalBytes > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additionalBytes));
+    }
+  }
+
+  public void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) value;
+  }
+
+  public void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  /** Writes a fixed size, big-endian int, e.g. for values that are patched or skipped later. */
+  public void writeInt(int value) {
+    ensureCapacity(4);
+    buffer[size++] = (byte) (value >>> 24);
+    buffer[size++] = (byte) (value >>> 16);
+    buffer[size++] = (byte) (value >>> 8);
+    buffer[size++] = (byte) value;
+  }
+
+  public void writeLong(long value) {
+    writeInt((int) (value >>> 32));
+    writeInt((int) value);
+  }
+
+  /** Writes a non-negative int in 1 to 5 bytes. */
+  public void writeVarInt(int value) {
+    ensureCapacity(5);
+    while ((value & ~0x7F) != 0) {
+      buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[size++] = (byte) value;
+  }
+
+  /** Writes an int using zigzag encoding so that small negative values stay small as well. */
+  public void writeSignedVarInt(int value) {
+    writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  public void writeSignedVarLong(long value) {
+    long zigzag = (value << 1) ^ (value >> 63);
+    ensureCapacity(10);
+    while ((zigzag & ~0x7FL) != 0) {
+      buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+      zigzag >>>= 7;
+    }
+    buffer[size++] = (byte) zigzag;
+  }
+
+  public void writeFloat(float value) {
+    writeInt(Float.floatToRawIntBits(value));
+  }
+
+  public void writeDouble(double value) {
+    writeLong(Double.doubleToRawLongBits(value));
+  }
+
+  /**
+   * Writes a string without pooling it. Chars are written as varints, so unpaired surrogates
+   * survive the roundtrip as well.
+   */
+  public void writeUtf(@Nonnull String value) {
+    final int length = value.length();
+    writeVarInt(length);
+    for (int i = 0; i < length; i++) {
+      writeVarInt(value.charAt(i));
+    }
+  }
+
+  /** Writes a pooled string. */
+  public void writeString(@Nonnull String value) {
+    if (writePoolIndex(stringPool, value)) {
+      writeUtf(value);
+    }
+  }
+
+  public void writeType(@Nonnull Type type) {
+    if (!writePoolIndex(typePool, type)) {
+      return;
+    }
+    if (type == PrimitiveType.getBoolean()) {
+      writeByte(TYPE_BOOLEAN);
+    } else if (type == PrimitiveType.getByte()) {
+      writeByte(TYPE_BYTE);
+    } else if (type == PrimitiveType.getChar()) {
+      writeByte(TYPE_CHAR);
+    } else if (type == PrimitiveType.getShort()) {
+      writeByte(TYPE_SHORT);
+    } else if (type == PrimitiveType.getInt()) {
+      writeByte(TYPE_INT);
+    } else if (type == PrimitiveType.getLong()) {
+      writeByte(TYPE_LONG);
+    } else if (type == PrimitiveType.getFloat()) {
+      writeByte(TYPE_FLOAT);
+    } else if (type == PrimitiveType.getDouble()) {
+      writeByte(TYPE_DOUBLE);
+    } else if (type == VoidType.getInstance()) {
+      writeByte(TYPE_VOID);
+    } else if (type == NullType.getInstance()) {
+      writeByte(TYPE_NULL);
+    } else if (type == UnknownType.getInstance()) {
+      writeByte(TYPE_UNKNOWN);
+    } else if (type instanceof ClassType) {
+      writeByte(TYPE_CLASS);
+      writeString(((ClassType) type).getFullyQualifiedName());
+    } else if (type instanceof ArrayType) {
+      writeByte(TYPE_ARRAY);
+      writeType(((ArrayType) type).getBaseType());
+      writeVarInt(((ArrayType) type).getDimension());
+    } else {
+      throw new IllegalArgumentException("Type '" + type + "' can not be serialized.");
+    }
+  }
+
+  public void writeTypes(@Nonnull List<? extends Type> types) {
+    writeVarInt(types.size());
+    for (Type type : types) {
+      writeType(type);
+    }
+  }
+
+  public void writeMethodSignature(@Nonnull MethodSignature signature) {
+    if (writePoolIndex(methodSignaturePool, signature)) {
+      writeType(signature.getDeclClassType());
+      writeString(signature.getName());
+      writeType(signature.getType());
+      writeTypes(signature.getParameterTypes());
+    }
+  }
+
+  public void writeFieldSignature(@Nonnull FieldSignature signature) {
+    if (writePoolIndex(fieldSignaturePool, signature)) {
+      writeType(signature.getDeclClassType());
+      writeString(signature.getName());
+      writeType(signature.getType());
+    }
+  }
+
+  /**
+   * Writes the pool index of the given entry.
+   *
+   * @return true if the entry is new to the pool, i.e. its definition has to be written next.
+   */
+  private <T> boolean writePoolIndex(@Nonnull Map<T, Integer> pool, @Nonnull T entry) {
+    final Integer index = pool.get(entry);
+    if (index != null) {
+      writeVarInt(index);
+      return false;
+    }
+    // register before writing the definition, as the definition can contain further new entries
+    final int newIndex = pool.size();
+    pool.put(entry, newIndex);
+    writeVarInt(newIndex);
+    return true;
+  }
+
+  /** @return the number of bytes written so far. */
+  public int size() {
+    return size;
+  }
+
+  /** Discards the written bytes and all constant pool entries. */
+  public void reset() {
+    size = 0;
+    stringPool.clear();
+    typePool.clear();
+    methodSignaturePool.clear();
+    fieldSignaturePool.clear();
+  }
+
+  @Nonnull
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, size);
+  }
+
+  public void writeTo(@Nonnull OutputStream out) throws IOException {
+    out.write(buffer, 0, size);
+  }
+}
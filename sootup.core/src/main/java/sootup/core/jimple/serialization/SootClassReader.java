@@ -0,0 +1,198 @@
+package sootup.core.jimple.serialization;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.OverridingBodySource;
+import sootup.core.frontend.OverridingClassSource;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.Body;
+import sootup.core.model.ClassModifier;
+import sootup.core.model.FieldModifier;
+import sootup.core.model.MethodModifier;
+import sootup.core.model.Position;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+
+/**
+ * Decodes classes that were written by {@link SootClassWriter} into {@link OverridingClassSource}s
+ * whose methods already carry their bodies, i.e. no frontend, parser or BodyInterceptor has to run
+ * again.
+ *
+ * <p>Decoded StmtGraphs are {@link sootup.core.graph.MutableBlockStmtGraph}s that are built block
+ * by block from the encoded block table; {@link Body} only exposes them as unmodifiable graphs.
+ */
+public class SootClassReader {
+
+  @Nonnull private final JimpleDataInput in;
+  @Nonnull private final AnalysisInputLocation inputLocation;
+  @Nonnull private final Path sourcePath;
+
+  private SootClassReader(
+      @Nonnull JimpleDataInput in,
+      @Nonnull AnalysisInputLocation inputLocation,
+      @Nonnull Path sourcePath) {
+    this.in = in;
+    this.inputLocation = inputLocation;
+    this.sourcePath = sourcePath;
+  }
+
+  /**
+   * Reads and validates the header of a stream.
+   *
+   * @throws IllegalStateException if the data is not binary Jimple or was written in an
+   *     incompatible format version
+   */
+  public static void readHeader(@Nonnull JimpleDataInput in) {
+    if (in.readInt() != SootClassWriter.MAGIC) {
+      throw new IllegalStateException("The data does not contain binary Jimple.");
+    }
+    final int version = in.readVarInt();
+    if (version != SootClassWriter.FORMAT_VERSION) {
+      throw new IllegalStateException(
+          "Unsupported binary Jimple format version "
+              + version
+              + " (expected "
+              + SootClassWriter.FORMAT_VERSION
+              + ").");
+    }
+  }
+
+  /** Reads the next encoded class from the given input. */
+  @Nonnull
+  public static OverridingClassSource read(
+      @Nonnull JimpleDataInput in,
+      @Nonnull AnalysisInputLocation inputLocation,
+      @Nonnull Path sourcePath) {
+    return new SootClassReader(in, inputLocation, sourcePath).readClass();
+  }
+
+  @Nonnull
+  private OverridingClassSource readClass() {
+    final ClassType classType = in.readClassType();
+    final EnumSet<ClassModifier> modifiers =
+        readModifiers(ClassModifier.class, ClassModifier::getBytecode);
+    final ClassType superClass = readOptionalClassType();
+    final ClassType outerClass = readOptionalClassType();
+    final int interfaceCount = in.readLength();
+    final Set<ClassType> interfaces = new LinkedHashSet<>(interfaceCount);
+    for (int i = 0; i < interfaceCount; i++) {
+      interfaces.add(in.readClassType());
+    }
+    final Position position = readPosition();
+
+    final int fieldCount = in.readLength();
+    final Set<SootField> fields = new LinkedHashSet<>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      final FieldSignature signature = in.readFieldSignature();
+      final EnumSet<FieldModifier> fieldModifiers =
+          readModifiers(FieldModifier.class, FieldModifier::getBytecode);
+      fields.add(new SootField(signature, fieldModifiers, readPosition()));
+    }
+
+    final int methodCount = in.readLength();
+    final Set<SootMethod> methods = new LinkedHashSet<>(methodCount);
+    for (int i = 0; i < methodCount; i++) {
+      methods.add(readMethod());
+    }
+
+    return new OverridingClassSource(
+        methods,
+        fields,
+        modifiers,
+        interfaces,
+        superClass,
+        outerClass,
+        position,
+        sourcePath,
+        classType,
+        inputLocation);
+  }
+
+  @Nonnull
+  private SootMethod readMethod() {
+    final MethodSignature signature = in.readMethodSignature();
+    final EnumSet<MethodModifier> modifiers =
+        readModifiers(MethodModifier.class, MethodModifier::getBytecode);
+    final int exceptionCount = in.readLength();
+    final List<ClassType> exceptions = new ArrayList<>(exceptionCount);
+    for (int i = 0; i < exceptionCount; i++) {
+      exceptions.add(in.readClassType());
+    }
+    final Position position = readPosition();
+
+    final Body body;
+    if (in.readBoolean()) {
+      body = BodyReader.read(in);
+      if (!body.getMethodSignature().equals(signature)) {
+        throw new IllegalStateException(
+            "Body of " + body.getMethodSignature() + " does not belong to " + signature + ".");
+      }
+    } else {
+      // abstract and native methods never hand out their (empty) body
+      body = Body.builder().setMethodSignature(signature).setPosition(position).build();
+    }
+    return new SootMethod(
+        new OverridingBodySource(signature, body), signature, modifiers, exceptions, position);
+  }
+
+  @Nullable
+  private ClassType readOptionalClassType() {
+    return in.readBoolean() ? in.readClassType() : null;
+  }
+
+  @Nonnull
+  private Position readPosition() {
+    return BodyReader.readPosition(in, in.readByte());
+  }
+
+  @Nonnull
+  private <E extends Enum<E>> EnumSet<E> readModifiers(
+      @Nonnull Class<E> modifierClass, @Nonnull ToIntFunction<E> accessFlag) {
+    int mask = in.readVarInt();
+    final EnumSet<E> modifiers = EnumSet.noneOf(modifierClass);
+    for (E constant : modifierClass.getEnumConstants()) {
+      final int flag = accessFlag.applyAsInt(constant);
+      if ((mask & flag) != 0) {
+        modifiers.add(constant);
+        mask &= ~flag;
+      }
+    }
+    if (mask != 0) {
+      throw new IllegalStateException(
+          "Malformed " + modifierClass.getSimpleName() + " set in binary Jimple data.");
+    }
+    return modifiers;
+  }
+}
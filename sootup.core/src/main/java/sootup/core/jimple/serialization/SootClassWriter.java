@@ -0,0 +1,139 @@
+package sootup.core.jimple.serialization;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nonnull;
+import sootup.core.model.ClassModifier;
+import sootup.core.model.FieldModifier;
+import sootup.core.model.MethodModifier;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.types.ClassType;
+
+/**
+ * Encodes {@link SootClass}es into the versioned binary Jimple format which is read by {@link
+ * SootClassReader}.
+ *
+ * <p>A stream starts with a header ({@link #MAGIC} and {@link #FORMAT_VERSION}) that is followed by
+ * any number of classes. Strings, types and signatures are stored once per {@link JimpleDataOutput}
+ * in its constant pools, i.e. classes that are written to the same output share them. Bodies of
+ * concrete methods are resolved and encoded by {@link BodyWriter}. Modifiers are stored as their
+ * JVM access flags, so the encoding does not depend on the declaration order of the modifier enums.
+ *
+ * <p>Only the language independent model of sootup.core is encoded, i.e. language specific
+ * information of subclasses is lost - e.g. the annotations of Java classes and their members.
+ * sootup.java.core's JavaSootClassWriter rejects annotated classes instead of dropping their
+ * annotations.
+ */
+public class SootClassWriter {
+
+  /** "JIMB" */
+  public static final int MAGIC = 0x4A494D42;
+
+  /** Needs to be increased whenever the encoding of classes or bodies changes. */
+  public static final int FORMAT_VERSION = 2;
+
+  @Nonnull private final JimpleDataOutput out;
+
+  private SootClassWriter(@Nonnull JimpleDataOutput out) {
+    this.out = out;
+  }
+
+  /** Writes the header which has to precede the classes of a stream. */
+  public static void writeHeader(@Nonnull JimpleDataOutput out) {
+    out.writeInt(MAGIC);
+    out.writeVarInt(FORMAT_VERSION);
+  }
+
+  /** Appends the encoded class including the bodies of its concrete methods to the given output. */
+  public static void write(@Nonnull SootClass sootClass, @Nonnull JimpleDataOutput out) {
+    new SootClassWriter(out).writeClass(sootClass);
+  }
+
+  /** Encodes a single class into a self-contained byte array including the header. */
+  @Nonnull
+  public static byte[] write(@Nonnull SootClass sootClass) {
+    final JimpleDataOutput out = new JimpleDataOutput();
+    writeHeader(out);
+    write(sootClass, out);
+    return out.toByteArray();
+  }
+
+  private void writeClass(@Nonnull SootClass sootClass) {
+    out.writeType(sootClass.getType());
+    writeModifiers(sootClass.getModifiers(), ClassModifier::getBytecode);
+    writeOptionalType(sootClass.getSuperclass());
+    writeOptionalType(sootClass.getOuterClass());
+    final Set<? extends ClassType> interfaces = sootClass.getInterfaces();
+    out.writeVarInt(interfaces.size());
+    for (ClassType anInterface : interfaces) {
+      out.writeType(anInterface);
+    }
+    BodyWriter.writePosition(out, sootClass.getPosition());
+
+    final Set<? extends SootField> fields = sootClass.getFields();
+    out.writeVarInt(fields.size());
+    for (SootField field : fields) {
+      out.writeFieldSignature(field.getSignature());
+      writeModifiers(field.getModifiers(), FieldModifier::getBytecode);
+      BodyWriter.writePosition(out, field.getPosition());
+    }
+
+    final Set<? extends SootMethod> methods = sootClass.getMethods();
+    out.writeVarInt(methods.size());
+    for (SootMethod method : methods) {
+      writeMethod(method);
+    }
+  }
+
+  private void writeMethod(@Nonnull SootMethod method) {
+    out.writeMethodSignature(method.getSignature());
+    writeModifiers(method.getModifiers(), MethodModifier::getBytecode);
+    out.writeTypes(method.getExceptionSignatures());
+    BodyWriter.writePosition(out, method.getPosition());
+
+    out.writeBoolean(method.hasBody());
+    if (method.hasBody()) {
+      BodyWriter.write(method.getBody(), out);
+    }
+  }
+
+  private void writeOptionalType(@Nonnull Optional<? extends ClassType> type) {
+    out.writeBoolean(type.isPresent());
+    type.ifPresent(out::writeType);
+  }
+
+  /** Modifiers are stored as the combination of their access flags. */
+  private <M> void writeModifiers(
+      @Nonnull Set<? extends M> modifiers, @Nonnull ToIntFunction<M> accessFlag) {
+    int mask = 0;
+    for (M modifier : modifiers) {
+      mask |= accessFlag.applyAsInt(modifier);
+    }
+    out.writeVarInt(mask);
+  }
+}
@@ -22,13 +22,13 @@ package sootup.core.model;
  * #L%
  */
 
-import com.google.common.collect.Lists;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.*;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import sootup.core.graph.DefUseIndex;
 import sootup.core.graph.MutableBlockStmtGraph;
 import sootup.core.graph.MutableStmtGraph;
 import sootup.core.graph.StmtGraph;
@@ -58,6 +58,12 @@ public class Body implements HasPosition {
   /** The MethodSignature associated with this Body. */
   @Nonnull private final MethodSignature methodSignature;
 
+  /** The linearized Stmts of the graph at the time this Body was built. */
+  @Nonnull private final List<Stmt> stmts;
+
+  /** The position of each Stmt in {@link #stmts}, computed on first use. */
+  @Nullable private volatile Map<Stmt, Integer> stmtIndices = null;
+
   /**
    * Creates an body which is not associated to any method.
    *
@@ -67,10 +73,12 @@ public class Body implements HasPosition {
       @Nonnull MethodSignature methodSignature,
       @Nonnull Set<Local> locals,
       @Nonnull StmtGraph<?> stmtGraph,
+      @Nonnull List<Stmt> stmts,
       @Nonnull Position position) {
     this.methodSignature = methodSignature;
     this.locals = Collections.unmodifiableSet(locals);
     this.graph = MutableBlockStmtGraph.createUnmodifiableStmtGraph(stmtGraph);
+    this.stmts = stmts;
     this.position = position;
   }
 
@@ -201,17 +209,38 @@ public class Body implements HasPosition {
    * more detailed information of the underlying CFG - or just parts of it - have a look at
    * getStmtGraph()
    *
+   * <p>The linearization is taken when the Body is built and the same unmodifiable List is returned
+   * on each call, i.e. callers can no longer modify the returned List. Modifications of the {@link
+   * BodyBuilder}'s StmtGraph after {@link BodyBuilder#build()} are not reflected in it.
+   *
    * @return the statements in this Body
    */
   @Nonnull
   public List<Stmt> getStmts() {
-    final ArrayList<Stmt> stmts = new ArrayList<>(graph.getNodes().size());
-    for (Stmt stmt : graph) {
-      stmts.add(stmt);
-    }
     return stmts;
   }
 
+  /**
+   * Returns the position of the given Stmt in {@link #getStmts()}, so the Stmts of this Body are
+   * numbered densely from 0 to getStmts().size() - 1. Analyses can use this number to keep their
+   * information about the Stmts in arrays.
+   *
+   * @return the index of the Stmt or -1 if it is not part of this Body
+   */
+  public int getStmtIndex(@Nonnull Stmt stmt) {
+    Map<Stmt, Integer> stmtIndices = this.stmtIndices;
+    if (stmtIndices == null) {
+      final List<Stmt> stmts = getStmts();
+      stmtIndices = new IdentityHashMap<>(stmts.size());
+      for (int i = 0; i < stmts.size(); i++) {
+        stmtIndices.put(stmts.get(i), i);
+      }
+      this.stmtIndices = stmtIndices;
+    }
+    final Integer index = stmtIndices.get(stmt);
+    return index == null ? -1 : index;
+  }
+
   @Nonnull
   // TODO: [ms] should be an ImmutableStmtGraph!
   public StmtGraph<?> getStmtGraph() {
@@ -291,7 +320,7 @@ public class Body implements HasPosition {
 
   @Nonnull
   public Body withLocals(@Nonnull Set<Local> locals) {
-    return new Body(getMethodSignature(), locals, getStmtGraph(), getPosition());
+    return new Body(getMethodSignature(), locals, getStmtGraph(), stmts, getPosition());
   }
 
   public static BodyBuilder builder() {
@@ -314,6 +343,7 @@ public class Body implements HasPosition {
     @Nullable private Position position = null;
     @Nonnull private final MutableStmtGraph graph;
     @Nullable private MethodSignature methodSig = null;
+    @Nullable private DefUseIndex defUseIndex = null;
 
     BodyBuilder() {
       graph = new MutableBlockStmtGraph();
@@ -359,13 +389,33 @@ public class Body implements HasPosition {
       return this;
     }
 
+    /**
+     * Returns the index of the definitions and uses of the Locals in the StmtGraph of this builder.
+     * It is created on the first call and from then on kept up to date with every modification of
+     * the StmtGraph, so interceptors can share it instead of scanning all Stmts for each Local.
+     */
+    @Nonnull
+    public DefUseIndex getDefUseIndex() {
+      if (defUseIndex == null) {
+        defUseIndex = new DefUseIndex(graph);
+      }
+      return defUseIndex;
+    }
+
+    /**
+     * Replaces each occurrence of the given existing Local in the Stmts with the new Local. The
+     * affected Stmts are looked up in the {@link #getDefUseIndex() def-use index}.
+     */
     public void replaceLocal(@Nonnull Local existingLocal, @Nonnull Local newLocal) {
       if (!locals.contains(existingLocal)) {
         throw new IllegalArgumentException(
             "The given existing Local '" + existingLocal + "' is not in the body!");
       }
 
-      for (Stmt currStmt : Lists.newArrayList(getStmtGraph().getNodes())) {
+      DefUseIndex index = getDefUseIndex();
+      Set<Stmt> affectedStmts = new LinkedHashSet<>(index.getUsesOf(existingLocal));
+      affectedStmts.addAll(index.getDefsOf(existingLocal));
+      for (Stmt currStmt : affectedStmts) {
         final Stmt stmt = currStmt;
         if (currStmt.getUses().anyMatch(v -> v == existingLocal)) {
           currStmt = currStmt.withNewUse(existingLocal, newLocal);
@@ -441,7 +491,17 @@ public class Body implements HasPosition {
         throw new RuntimeException("StmtGraph of " + methodSig + " is invalid.", e);
       }
 
-      return new Body(methodSig, locals, graph, position);
+      // the index is only kept up to date while the builder modifies the graph
+      if (defUseIndex != null) {
+        graph.removeStmtListener(defUseIndex);
+        defUseIndex = null;
+      }
+      // the Body may be queried concurrently
+      graph.compact();
+
+      // snapshot the linearization, as the builder may still modify its graph afterwards
+      return new Body(
+          methodSig, locals, graph, Collections.unmodifiableList(graph.getStmts()), position);
     }
 
     @Nonnull
@@ -0,0 +1,289 @@
+package sootup.core.transform;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import sootup.core.model.Body;
+import sootup.core.util.StringTools;
+import sootup.core.views.View;
+
+/**
+ * Records what each {@link BodyInterceptor} costs. The interceptors returned by {@link
+ * #instrument(List)} measure every application of the wrapped interceptor, i.e. its wall time, the
+ * number of statements before and after it, the bytes allocated by the applying thread and whether
+ * it failed. The measurements are aggregated per {@link View} and interceptor and can be exported
+ * via {@link #toJson(View)}. Instances are thread-safe.
+ *
+ * <pre>{@code
+ * BodyInterceptorMetrics metrics = new BodyInterceptorMetrics();
+ * AnalysisInputLocation location =
+ *     new JavaClassPathAnalysisInputLocation(
+ *         path, SourceType.Application,
+ *         metrics.instrument(BytecodeBodyInterceptors.Default.getBodyInterceptors()));
+ * JavaView view = new JavaView(location);
+ * ... // resolve bodies
+ * System.out.println(metrics.toJson(view));
+ * }</pre>
+ */
+public class BodyInterceptorMetrics {
+
+  @Nonnull
+  private final Cache<View, Map<BodyInterceptor, InterceptorStatistics>> statisticsPerView =
+      CacheBuilder.newBuilder().weakKeys().build();
+
+  /**
+   * The instrumented interceptors in the order of their first instrumentation. An interceptor that
+   * is instrumented again keeps its position.
+   */
+  @Nonnull private final Set<BodyInterceptor> interceptors = new LinkedHashSet<>();
+
+  /**
+   * Wraps each of the given interceptors into one that measures its applications.
+   *
+   * @return the instrumented interceptors in the same order
+   */
+  @Nonnull
+  public List<BodyInterceptor> instrument(
+      @Nonnull List<? extends BodyInterceptor> bodyInterceptors) {
+    List<BodyInterceptor> instrumented = new ArrayList<>(bodyInterceptors.size());
+    for (BodyInterceptor bodyInterceptor : bodyInterceptors) {
+      instrumented.add(instrument(bodyInterceptor));
+    }
+    return instrumented;
+  }
+
+  /** Wraps the given interceptor into one that measures its applications. */
+  @Nonnull
+  public BodyInterceptor instrument(@Nonnull BodyInterceptor bodyInterceptor) {
+    synchronized (interceptors) {
+      interceptors.add(bodyInterceptor);
+    }
+    return new InstrumentedBodyInterceptor(bodyInterceptor);
+  }
+
+  /**
+   * Returns the statistics of the instrumented interceptors that have been applied to bodies of the
+   * given view, in the order of their instrumentation.
+   */
+  @Nonnull
+  public Map<BodyInterceptor, InterceptorStatistics> getStatistics(@Nonnull View view) {
+    Map<BodyInterceptor, InterceptorStatistics> statistics = statisticsPerView.getIfPresent(view);
+    if (statistics == null) {
+      return Collections.emptyMap();
+    }
+    Map<BodyInterceptor, InterceptorStatistics> ordered = new LinkedHashMap<>();
+    synchronized (interceptors) {
+      for (BodyInterceptor bodyInterceptor : interceptors) {
+        InterceptorStatistics interceptorStatistics = statistics.get(bodyInterceptor);
+        if (interceptorStatistics != null) {
+          ordered.put(bodyInterceptor, interceptorStatistics);
+        }
+      }
+    }
+    return ordered;
+  }
+
+  /**
+   * Exports the statistics of the given view as a JSON array with one object per interceptor, e.g.
+   * <code>
+   * [{"index": 0, "interceptor": "...", "applications": 2, "failures": 0, "wallTimeNanos": 1000,
+   * "stmtsBefore": 40, "stmtsAfter": 38, "allocatedBytes": 2048}]</code>. The index is the position
+   * of the interceptor in the order of instrumentation and tells apart several instances of the
+   * same interceptor class. The allocated bytes are -1 if the JVM does not support measuring them.
+   */
+  @Nonnull
+  public String toJson(@Nonnull View view) {
+    Map<BodyInterceptor, InterceptorStatistics> statisticsOfView = getStatistics(view);
+    List<BodyInterceptor> instrumented;
+    synchronized (interceptors) {
+      instrumented = new ArrayList<>(interceptors);
+    }
+    StringBuilder json = new StringBuilder("[");
+    for (int index = 0; index < instrumented.size(); index++) {
+      BodyInterceptor bodyInterceptor = instrumented.get(index);
+      InterceptorStatistics statistics = statisticsOfView.get(bodyInterceptor);
+      if (statistics == null) {
+        continue;
+      }
+      if (json.length() > 1) {
+        json.append(',');
+      }
+      json.append("\n  {\"index\": ").append(index).append(", \"interceptor\": ");
+      appendJsonString(json, bodyInterceptor.getClass().getName());
+      json.append(", \"applications\": ")
+          .append(statistics.getApplications())
+          .append(", \"failures\": ")
+          .append(statistics.getFailures())
+          .append(", \"wallTimeNanos\": ")
+          .append(statistics.getWallTimeNanos())
+          .append(", \"stmtsBefore\": ")
+          .append(statistics.getStmtsBefore())
+          .append(", \"stmtsAfter\": ")
+          .append(statistics.getStmtsAfter())
+          .append(", \"allocatedBytes\": ")
+          .append(statistics.getAllocatedBytes())
+          .append('}');
+    }
+    return json.append(json.length() > 1 ? "\n]" : "]").toString();
+  }
+
+  /** Appends the given string as a quoted JSON string. */
+  private static void appendJsonString(@Nonnull StringBuilder json, @Nonnull String string) {
+    json.append('"');
+    for (int i = 0; i < string.length(); i++) {
+      char ch = string.charAt(i);
+      if (ch == '"' || ch == '\\') {
+        json.append('\\').append(ch);
+      } else if (ch < 32 || ch > 126) {
+        json.append(StringTools.getUnicodeStringFromChar(ch));
+      } else {
+        json.append(ch);
+      }
+    }
+    json.append('"');
+  }
+
+  @Nonnull
+  private InterceptorStatistics getOrCreateStatistics(
+      @Nonnull View view, @Nonnull BodyInterceptor bodyInterceptor) {
+    try {
+      return statisticsPerView
+          .get(view, ConcurrentHashMap::new)
+          .computeIfAbsent(bodyInterceptor, key -> new InterceptorStatistics());
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /** Returns the bytes allocated by the current thread so far or -1 if they are not available. */
+  private static long allocatedBytesOfCurrentThread() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean allocationBean =
+          (com.sun.management.ThreadMXBean) threadMXBean;
+      if (allocationBean.isThreadAllocatedMemorySupported()
+          && allocationBean.isThreadAllocatedMemoryEnabled()) {
+        return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  /** The aggregated measurements of one interceptor in one view. */
+  public static class InterceptorStatistics {
+    @Nonnull private final LongAdder applications = new LongAdder();
+    @Nonnull private final LongAdder failures = new LongAdder();
+    @Nonnull private final LongAdder wallTimeNanos = new LongAdder();
+    @Nonnull private final LongAdder stmtsBefore = new LongAdder();
+    @Nonnull private final LongAdder stmtsAfter = new LongAdder();
+    @Nonnull private final LongAdder allocatedBytes = new LongAdder();
+    private volatile boolean allocatedBytesAvailable = true;
+
+    /** Returns how often the interceptor has been applied, including the failed applications. */
+    public long getApplications() {
+      return applications.sum();
+    }
+
+    /** Returns how often the interceptor has thrown an exception. */
+    public long getFailures() {
+      return failures.sum();
+    }
+
+    /** Returns the total wall time of all applications. */
+    public long getWallTimeNanos() {
+      return wallTimeNanos.sum();
+    }
+
+    /** Returns the total number of statements of the bodies before the interceptor was applied. */
+    public long getStmtsBefore() {
+      return stmtsBefore.sum();
+    }
+
+    /**
+     * Returns the total number of statements of the bodies after the interceptor was applied
+     * successfully.
+     */
+    public long getStmtsAfter() {
+      return stmtsAfter.sum();
+    }
+
+    /**
+     * Returns the total number of bytes that were allocated during all applications or -1 if the
+     * JVM does not support measuring them.
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytesAvailable ? allocatedBytes.sum() : -1;
+    }
+  }
+
+  private class InstrumentedBodyInterceptor implements BodyInterceptor {
+    @Nonnull private final BodyInterceptor delegate;
+
+    InstrumentedBodyInterceptor(@Nonnull BodyInterceptor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View view) {
+      InterceptorStatistics statistics = getOrCreateStatistics(view, delegate);
+      statistics.applications.increment();
+      statistics.stmtsBefore.add(builder.getStmtGraph().getNodes().size());
+      long allocatedBytesBefore = allocatedBytesOfCurrentThread();
+      long startTime = System.nanoTime();
+      try {
+        delegate.interceptBody(builder, view);
+        statistics.stmtsAfter.add(builder.getStmtGraph().getNodes().size());
+      } catch (RuntimeException | Error e) {
+        statistics.failures.increment();
+        throw e;
+      } finally {
+        statistics.wallTimeNanos.add(System.nanoTime() - startTime);
+        long allocatedBytesAfter = allocatedBytesOfCurrentThread();
+        if (allocatedBytesBefore < 0 || allocatedBytesAfter < 0) {
+          statistics.allocatedBytesAvailable = false;
+        } else {
+          statistics.allocatedBytes.add(allocatedBytesAfter - allocatedBytesBefore);
+        }
+      }
+    }
+
+    @Override
+    public String toString() {
+      return delegate.toString();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package sootup.core.typehierarchy;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * The part of a class that determines its position in a type hierarchy, i.e. whether it is an
+ * interface, its superclass and its directly implemented (or, for interfaces, extended) interfaces.
+ * Frontends can usually read it from the header of a class file without building the whole {@link
+ * SootClass}, see {@link sootup.core.views.View#getClassHeaders()}.
+ */
+public final class ClassHeader {
+  @Nonnull private final ClassType type;
+  private final boolean isInterface;
+  @Nullable private final ClassType superclass;
+  @Nonnull private final Set<ClassType> interfaces;
+
+  public ClassHeader(
+      @Nonnull ClassType type,
+      boolean isInterface,
+      @Nullable ClassType superclass,
+      @Nonnull Set<? extends ClassType> interfaces) {
+    this.type = type;
+    this.isInterface = isInterface;
+    this.superclass = superclass;
+    this.interfaces = ImmutableSet.copyOf(interfaces);
+  }
+
+  /** Returns the header of an already built class. */
+  @Nonnull
+  public static ClassHeader of(@Nonnull SootClass sootClass) {
+    return new ClassHeader(
+        sootClass.getType(),
+        sootClass.isInterface(),
+        sootClass.getSuperclass().orElse(null),
+        sootClass.getInterfaces());
+  }
+
+  @Nonnull
+  public ClassType getType() {
+    return type;
+  }
+
+  public boolean isInterface() {
+    return isInterface;
+  }
+
+  @Nonnull
+  public Optional<ClassType> getSuperclass() {
+    return Optional.ofNullable(superclass);
+  }
+
+  @Nonnull
+  public Set<ClassType> getInterfaces() {
+    return interfaces;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ClassHeader)) {
+      return false;
+    }
+    ClassHeader that = (ClassHeader) o;
+    return isInterface == that.isInterface
+        && type.equals(that.type)
+        && Objects.equals(superclass, that.superclass)
+        && interfaces.equals(that.interfaces);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, isInterface, superclass, interfaces);
+  }
+
+  @Override
+  public String toString() {
+    return (isInterface ? "interface " : "class ")
+        + type
+        + (superclass == null ? "" : " extends " + superclass)
+        + (interfaces.isEmpty() ? "" : " implements " + interfaces);
+  }
+}
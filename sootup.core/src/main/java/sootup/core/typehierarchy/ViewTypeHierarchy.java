@@ -21,6 +21,8 @@ package sootup.core.typehierarchy;
  * #L%
  */
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,7 +30,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -42,12 +46,18 @@ import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.EdgeType;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.Vertex;
 import sootup.core.typehierarchy.ViewTypeHierarchy.ScanResult.VertexType;
 import sootup.core.types.ClassType;
+import sootup.core.types.Type;
 import sootup.core.views.View;
 
 /**
  * Full documentation is in the <a
  * href="https://github.com/secure-software-engineering/soot-reloaded/wiki/Type-Hierarchy-Algorithm">wiki</a>.
  *
+ * <p>The transitive closures, i.e. the results of {@link #subtypesOf(ClassType)}, {@link
+ * #implementedInterfacesOf(ClassType)} and {@link #superClassesOf(ClassType)}, are computed lazily
+ * once per type and cached as immutable collections until the hierarchy is modified via {@link
+ * #addType(SootClass)}.
+ *
  * @author Christian Brüggemann
  */
 public class ViewTypeHierarchy implements MutableTypeHierarchy {
@@ -95,12 +105,17 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     if (vertex == null) {
       throw new IllegalArgumentException("Could not find '" + type + "' in hierarchy.");
     }
+    return cached(scanResult.subtypes, vertex, v -> computeSubtypes(scanResult, v));
+  }
 
-    Set<ClassType> subclasses = new HashSet<>();
+  @Nonnull
+  private static Set<ClassType> computeSubtypes(
+      @Nonnull ScanResult scanResult, @Nonnull Vertex vertex) {
+    ImmutableSet.Builder<ClassType> subtypes = ImmutableSet.builder();
     // We now traverse the subgraph of the vertex to find all its subtypes
     visitSubgraph(
-        scanResult.graph, vertex, false, subvertex -> subclasses.add(subvertex.javaClassType));
-    return subclasses;
+        scanResult.graph, vertex, false, subvertex -> subtypes.add(subvertex.javaClassType));
+    return subtypes.build();
   }
 
   @Nonnull
@@ -257,43 +272,118 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
       throw new IllegalArgumentException(
           "Could not find " + type + " in hierarchy for view " + view);
     }
+    return implementedInterfacesOf(scanResult, vertex);
+  }
 
-    switch (vertex.type) {
-      case Class:
-        // We ascend from vertex through its superclasses to java.lang.Object.
-        // For each superclass, we take the interfaces it implements and merge
-        // them together in a Set.
-        List<Vertex> superClasses = superClassesOf(vertex, true);
-        return superClasses.stream()
-            .flatMap(this::directlyImplementedInterfacesOf)
-            .flatMap(this::selfAndImplementedInterfaces)
-            .collect(Collectors.toSet());
-      case Interface:
-        return directlyExtendedInterfacesOf(vertex)
-            .flatMap(this::selfAndImplementedInterfaces)
-            .collect(Collectors.toSet());
-      default:
-        throw new AssertionError("Unexpected vertex type!");
-    }
+  @Nonnull
+  private Set<ClassType> implementedInterfacesOf(
+      @Nonnull ScanResult scanResult, @Nonnull Vertex vertex) {
+    return cached(
+        scanResult.implementedInterfaces,
+        vertex,
+        v -> {
+          // The closures of the direct supertypes are cached as well, so every type of the
+          // hierarchy is traversed only once.
+          ImmutableSet.Builder<ClassType> interfaces = ImmutableSet.builder();
+          switch (v.type) {
+            case Class:
+              directlyImplementedInterfacesOf(v)
+                  .forEach(
+                      directInterface -> {
+                        interfaces.add(directInterface.javaClassType);
+                        interfaces.addAll(implementedInterfacesOf(scanResult, directInterface));
+                      });
+              directSuperClassOf(v)
+                  .forEach(
+                      superClass ->
+                          interfaces.addAll(implementedInterfacesOf(scanResult, superClass)));
+              break;
+            case Interface:
+              directlyExtendedInterfacesOf(v)
+                  .forEach(
+                      directInterface -> {
+                        interfaces.add(directInterface.javaClassType);
+                        interfaces.addAll(implementedInterfacesOf(scanResult, directInterface));
+                      });
+              break;
+            default:
+              throw new AssertionError("Unexpected vertex type!");
+          }
+          return interfaces.build();
+        });
   }
 
   /**
-   * Recursively obtains all interfaces this interface extends, including transitively extended
-   * interfaces.
+   * Returns all superclasses of <code>classType</code> like {@link
+   * TypeHierarchy#superClassesOf(ClassType)}, but uses the cached hierarchy instead of resolving
+   * every superclass in the view.
    */
   @Nonnull
-  private Stream<ClassType> selfAndImplementedInterfaces(Vertex vertex) {
+  @Override
+  public List<ClassType> superClassesOf(@Nonnull ClassType classType) {
     ScanResult scanResult = lazyScanResult.get();
-    Graph<Vertex, Edge> graph = scanResult.graph;
+    Vertex vertex = scanResult.typeToVertex.get(classType);
+    if (vertex == null || vertex.type != VertexType.Class) {
+      // e.g. interfaces have java.lang.Object as superclass, which is not part of the graph
+      return MutableTypeHierarchy.super.superClassesOf(classType);
+    }
+    return superClassesOf(scanResult, vertex);
+  }
 
-    Stream<Vertex> extendedInterfaces =
-        graph.outgoingEdgesOf(vertex).stream()
-            .filter(edge -> edge.type == EdgeType.InterfaceDirectlyExtends)
-            .map(graph::getEdgeTarget);
+  @Nonnull
+  private List<ClassType> superClassesOf(@Nonnull ScanResult scanResult, @Nonnull Vertex vertex) {
+    return cached(
+        scanResult.superClasses,
+        vertex,
+        v ->
+            superClassesOf(v, false).stream()
+                .map(superClass -> superClass.javaClassType)
+                .collect(ImmutableList.toImmutableList()));
+  }
 
-    return Stream.concat(
-        Stream.of(vertex.javaClassType),
-        extendedInterfaces.flatMap(this::selfAndImplementedInterfaces));
+  /**
+   * Answers subtype queries between two {@link ClassType}s with a lookup in the cached supertypes
+   * of <code>potentialSubtype</code>. All other queries are answered like in {@link
+   * TypeHierarchy#isSubtype(Type, Type)}.
+   */
+  @Override
+  public boolean isSubtype(@Nonnull Type supertype, @Nonnull Type potentialSubtype) {
+    if (supertype instanceof ClassType
+        && potentialSubtype instanceof ClassType
+        && !((ClassType) supertype).getFullyQualifiedName().equals("java.lang.Object")) {
+      ScanResult scanResult = lazyScanResult.get();
+      Vertex vertex = scanResult.typeToVertex.get(potentialSubtype);
+      if (vertex != null) {
+        return cached(
+                scanResult.supertypes,
+                vertex,
+                v ->
+                    ImmutableSet.<ClassType>builder()
+                        .addAll(superClassesOf(scanResult, v))
+                        .addAll(implementedInterfacesOf(scanResult, v))
+                        .build())
+            .contains(supertype);
+      }
+    }
+    return MutableTypeHierarchy.super.isSubtype(supertype, potentialSubtype);
+  }
+
+  /**
+   * Returns the cached value of <code>vertex</code> or computes and caches it. In contrast to
+   * {@link Map#computeIfAbsent(Object, Function)} the computation may access the cache itself.
+   */
+  @Nonnull
+  private static <T> T cached(
+      @Nonnull Map<Vertex, T> cache, @Nonnull Vertex vertex, @Nonnull Function<Vertex, T> compute) {
+    T value = cache.get(vertex);
+    if (value == null) {
+      value = compute.apply(vertex);
+      T previous = cache.putIfAbsent(vertex, value);
+      if (previous != null) {
+        value = previous;
+      }
+    }
+    return value;
   }
 
   @Nullable
@@ -353,10 +443,10 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   }
 
   /**
-   * This method scans the view by iterating over its classes and creating a graph vertex for each
-   * one. When a class is encountered that extends another one or implements an interface, the graph
-   * vertex of the extended class or implemented interface is connected to the vertex of the
-   * subtype.
+   * This method scans the view by iterating over the headers of its classes and creating a graph
+   * vertex for each one. When a class is encountered that extends another one or implements an
+   * interface, the graph vertex of the extended class or implemented interface is connected to the
+   * vertex of the subtype.
    *
    * <p>We distinguish between interface and class vertices, as interfaces may have direct
    * implementers as well as other interfaces that extend them.
@@ -367,17 +457,17 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     Map<ClassType, Vertex> typeToVertex = new HashMap<>();
     Graph<Vertex, Edge> graph = new SimpleDirectedGraph<>(null, null, false);
 
-    view.getClasses().forEach(sootClass -> addSootClassToGraph(sootClass, typeToVertex, graph));
+    view.getClassHeaders().forEach(header -> addClassHeaderToGraph(header, typeToVertex, graph));
     return new ScanResult(typeToVertex, graph);
   }
 
-  private static void addSootClassToGraph(
-      SootClass sootClass, Map<ClassType, Vertex> typeToVertex, Graph<Vertex, Edge> graph) {
-    if (sootClass.isInterface()) {
+  private static void addClassHeaderToGraph(
+      ClassHeader header, Map<ClassType, Vertex> typeToVertex, Graph<Vertex, Edge> graph) {
+    if (header.isInterface()) {
       Vertex vertex =
           typeToVertex.computeIfAbsent(
-              sootClass.getType(), type -> createAndAddInterfaceVertex(graph, type));
-      for (ClassType extendedInterface : sootClass.getInterfaces()) {
+              header.getType(), type -> createAndAddInterfaceVertex(graph, type));
+      for (ClassType extendedInterface : header.getInterfaces()) {
         Vertex extendedInterfaceVertex =
             typeToVertex.computeIfAbsent(
                 extendedInterface, type -> createAndAddInterfaceVertex(graph, type));
@@ -386,15 +476,15 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     } else {
       Vertex vertex =
           typeToVertex.computeIfAbsent(
-              sootClass.getType(), type -> createAndAddClassVertex(graph, type));
-      for (ClassType implementedInterface : sootClass.getInterfaces()) {
+              header.getType(), type -> createAndAddClassVertex(graph, type));
+      for (ClassType implementedInterface : header.getInterfaces()) {
         Vertex implementedInterfaceVertex =
             typeToVertex.computeIfAbsent(
                 implementedInterface, type -> createAndAddInterfaceVertex(graph, type));
         graph.addEdge(
             vertex, implementedInterfaceVertex, new Edge(EdgeType.ClassDirectlyImplements));
       }
-      sootClass
+      header
           .getSuperclass()
           .ifPresent(
               superClass -> {
@@ -423,7 +513,8 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
   @Override
   public void addType(@Nonnull SootClass sootClass) {
     ScanResult scanResult = lazyScanResult.get();
-    addSootClassToGraph(sootClass, scanResult.typeToVertex, scanResult.graph);
+    addClassHeaderToGraph(ClassHeader.of(sootClass), scanResult.typeToVertex, scanResult.graph);
+    scanResult.clearClosures();
   }
 
   /** Holds a vertex for each {@link ClassType} encountered during the scan. */
@@ -471,10 +562,27 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
 
     @Nonnull final Graph<Vertex, Edge> graph;
 
+    /*
+     * The lazily computed transitive closures of each vertex. The maps are concurrent, as the
+     * hierarchy is queried by multiple threads e.g. during a parallel call graph construction.
+     */
+    @Nonnull final Map<Vertex, Set<ClassType>> subtypes = new ConcurrentHashMap<>();
+    @Nonnull final Map<Vertex, Set<ClassType>> implementedInterfaces = new ConcurrentHashMap<>();
+    @Nonnull final Map<Vertex, List<ClassType>> superClasses = new ConcurrentHashMap<>();
+    @Nonnull final Map<Vertex, Set<ClassType>> supertypes = new ConcurrentHashMap<>();
+
     private ScanResult(
         @Nonnull Map<ClassType, Vertex> typeToVertex, @Nonnull Graph<Vertex, Edge> graph) {
       this.typeToVertex = typeToVertex;
       this.graph = graph;
     }
+
+    /** Has to be called whenever the graph is modified. */
+    void clearClosures() {
+      subtypes.clear();
+      implementedInterfaces.clear();
+      superClasses.clear();
+      supertypes.clear();
+    }
   }
 }
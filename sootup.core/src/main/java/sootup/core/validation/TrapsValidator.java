@@ -25,7 +25,6 @@ package sootup.core.validation;
 import java.util.ArrayList;
 import java.util.List;
 import sootup.core.jimple.basic.Trap;
-import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
 import sootup.core.views.View;
 
@@ -40,19 +39,18 @@ public class TrapsValidator implements BodyValidator {
   public List<ValidationException> validate(Body body, View view) {
     List<ValidationException> exceptions = new ArrayList<>();
 
-    List<Stmt> stmts = body.getStmts();
     for (Trap t : body.getTraps()) {
-      if (!stmts.contains(t.getBeginStmt()))
+      if (body.getStmtIndex(t.getBeginStmt()) < 0)
         exceptions.add(
             new ValidationException(
                 t.getBeginStmt(), "begin not in chain" + " in " + body.getMethodSignature()));
 
-      if (!stmts.contains(t.getEndStmt()))
+      if (body.getStmtIndex(t.getEndStmt()) < 0)
         exceptions.add(
             new ValidationException(
                 t.getEndStmt(), "end not in chain" + " in " + body.getMethodSignature()));
 
-      if (!stmts.contains(t.getHandlerStmt()))
+      if (body.getStmtIndex(t.getHandlerStmt()) < 0)
         exceptions.add(
             new ValidationException(
                 t.getHandlerStmt(), "handler not in chain" + " in " + body.getMethodSignature()));
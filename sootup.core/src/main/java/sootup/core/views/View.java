@@ -24,13 +24,16 @@ package sootup.core.views;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import sootup.core.IdentifierFactory;
+import sootup.core.cache.BodyRetentionPolicy;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootField;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.ClassHeader;
 import sootup.core.typehierarchy.TypeHierarchy;
 import sootup.core.types.ClassType;
 
@@ -46,6 +49,15 @@ public interface View {
   @Nonnull
   Collection<? extends SootClass> getClasses();
 
+  /**
+   * Returns the headers of all classes in the view, which suffice to build a type hierarchy. Views
+   * should override this if they can read the headers without building the classes.
+   */
+  @Nonnull
+  default Collection<ClassHeader> getClassHeaders() {
+    return getClasses().stream().map(ClassHeader::of).collect(Collectors.toList());
+  }
+
   /**
    * Return a class with given signature.
    *
@@ -65,6 +77,15 @@ public interface View {
   @Nonnull
   IdentifierFactory getIdentifierFactory();
 
+  /**
+   * Returns the {@link BodyRetentionPolicy} that decides how long the bodies of the methods of this
+   * view are kept in memory.
+   */
+  @Nonnull
+  default BodyRetentionPolicy getBodyRetentionPolicy() {
+    return BodyRetentionPolicy.STRONG;
+  }
+
   @Nonnull
   default SootClass getClassOrThrow(@Nonnull ClassType classType) {
     return getClass(classType)
@@ -0,0 +1,87 @@
+package sootup.core.graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JAddExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.model.Body;
+import sootup.core.types.PrimitiveType;
+
+@Tag("Java8")
+public class DefUseIndexTest {
+
+  Local a = new Local("a", PrimitiveType.getInt());
+  Local b = new Local("b", PrimitiveType.getInt());
+
+  // a = 1; b = a + a; return b
+  FallsThroughStmt defA =
+      new JAssignStmt(a, IntConstant.getInstance(1), StmtPositionInfo.getNoStmtPositionInfo());
+  FallsThroughStmt defB =
+      new JAssignStmt(b, new JAddExpr(a, a), StmtPositionInfo.getNoStmtPositionInfo());
+  Stmt returnB = new JReturnStmt(b, StmtPositionInfo.getNoStmtPositionInfo());
+
+  private MutableBlockStmtGraph createGraph() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.addBlock(Arrays.asList(defA, defB, returnB));
+    graph.setStartingStmt(defA);
+    return graph;
+  }
+
+  @Test
+  public void indexesGraph() {
+    DefUseIndex index = new DefUseIndex(createGraph());
+    assertEquals(Collections.singletonList(defA), index.getDefsOf(a));
+    assertEquals(Collections.singletonList(defB), index.getUsesOf(a));
+    assertEquals(Collections.singletonList(defB), index.getDefsOf(b));
+    assertEquals(Collections.singletonList(returnB), index.getUsesOf(b));
+    assertTrue(index.getDefsOf(new Local("c", PrimitiveType.getInt())).isEmpty());
+  }
+
+  @Test
+  public void followsModifications() {
+    MutableBlockStmtGraph graph = createGraph();
+    DefUseIndex index = new DefUseIndex(graph);
+
+    FallsThroughStmt newDefB =
+        new JAssignStmt(b, IntConstant.getInstance(2), StmtPositionInfo.getNoStmtPositionInfo());
+    graph.replaceNode(defB, newDefB);
+    assertTrue(index.getUsesOf(a).isEmpty());
+    assertEquals(Collections.singletonList(newDefB), index.getDefsOf(b));
+
+    FallsThroughStmt useA = new JAssignStmt(b, a, StmtPositionInfo.getNoStmtPositionInfo());
+    graph.insertBefore(returnB, useA);
+    assertEquals(Collections.singletonList(useA), index.getUsesOf(a));
+    assertEquals(Arrays.asList(newDefB, useA), index.getDefsOf(b));
+
+    graph.removeNode(defA);
+    assertTrue(index.getDefsOf(a).isEmpty());
+    graph.removeNode(useA);
+    assertTrue(index.getUsesOf(a).isEmpty());
+    assertEquals(Collections.singletonList(newDefB), index.getDefsOf(b));
+    assertEquals(Collections.singletonList(returnB), index.getUsesOf(b));
+  }
+
+  @Test
+  public void replaceLocal() {
+    Body.BodyBuilder builder = Body.builder(createGraph());
+    builder.setLocals(new LinkedHashSet<>(Arrays.asList(a, b)));
+    Local c = new Local("c", PrimitiveType.getLong());
+    builder.replaceLocal(a, c);
+
+    assertEquals(new LinkedHashSet<>(Arrays.asList(b, c)), builder.getLocals());
+    DefUseIndex index = builder.getDefUseIndex();
+    assertTrue(index.getDefsOf(a).isEmpty());
+    assertTrue(index.getUsesOf(a).isEmpty());
+    assertEquals(1, index.getDefsOf(c).size());
+    assertEquals(1, index.getUsesOf(c).size());
+    for (Stmt stmt : builder.getStmtGraph().getNodes()) {
+      assertTrue(stmt.getUsesAndDefs().noneMatch(value -> value == a));
+    }
+  }
+}
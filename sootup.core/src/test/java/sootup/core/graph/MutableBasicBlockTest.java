@@ -1,8 +1,16 @@
 package sootup.core.graph;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import sootup.core.jimple.basic.StmtPositionInfo;
@@ -149,4 +157,141 @@ public class MutableBasicBlockTest {
           MutableBasicBlock newBlock = block.splitBlockLinked(fourthNop, false);
         });
   }
+
+  @Test
+  public void testRemoveAndReplaceStmt() {
+    MutableBasicBlock block = new MutableBasicBlock();
+    block.addStmt(firstNop);
+    block.addStmt(secondNop);
+    block.addStmt(thirdNop);
+
+    block.removeStmt(secondNop);
+    assertEquals(Arrays.asList(firstNop, thirdNop), block.getStmts());
+    block.replaceStmt(thirdNop, fourthNop);
+    assertEquals(Arrays.asList(firstNop, fourthNop), block.getStmts());
+    assertEquals(1, block.getStmtIndex(fourthNop));
+    assertEquals(-1, block.getStmtIndex(thirdNop));
+
+    assertThrows(IllegalArgumentException.class, () -> block.removeStmt(thirdNop));
+    assertThrows(IllegalArgumentException.class, () -> block.replaceStmt(thirdNop, secondNop));
+  }
+
+  @Test
+  public void testRemoveStmtsOfLargeBlock() {
+    MutableBasicBlock block = new MutableBasicBlock();
+    List<Stmt> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Stmt stmt = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+      block.addStmt(stmt);
+      expected.add(stmt);
+    }
+
+    // head, tail and some stmts in the middle
+    for (Stmt stmt : Arrays.asList(expected.get(0), expected.get(99), expected.get(50))) {
+      block.removeStmt(stmt);
+      expected.remove(stmt);
+    }
+    for (int i = 10; i < 30; i += 2) {
+      block.removeStmt(expected.get(i));
+      expected.remove(i);
+    }
+    block.replaceStmt(expected.get(20), firstNop);
+    expected.set(20, firstNop);
+    block.addStmt(secondNop);
+    expected.add(secondNop);
+
+    assertEquals(expected.size(), block.getStmtCount());
+    assertEquals(expected.get(0), block.getHead());
+    assertEquals(secondNop, block.getTail());
+    assertEquals(expected, block.getStmts());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(i, block.getStmtIndex(expected.get(i)));
+    }
+
+    block.removeStmt(expected.get(40));
+    expected.remove(40);
+    MutableBasicBlock newBlock = block.splitBlockUnlinked(expected.get(59), expected.get(60));
+    assertEquals(expected.subList(0, 60), block.getStmts());
+    assertEquals(expected.subList(60, expected.size()), newBlock.getStmts());
+    assertEquals(-1, block.getStmtIndex(secondNop));
+    assertEquals(newBlock.getStmtCount() - 1, newBlock.getStmtIndex(secondNop));
+  }
+
+  @Test
+  public void testConcurrentReadsOfCompactedBlock() {
+    MutableBasicBlock block = new MutableBasicBlock();
+    List<Stmt> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Stmt stmt = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+      block.addStmt(stmt);
+      expected.add(stmt);
+    }
+    for (int i = 79; i >= 10; i -= 3) {
+      block.removeStmt(expected.get(i));
+      expected.remove(i);
+    }
+
+    // afterwards the block is read without modifying it
+    block.compact();
+    IntStream.range(0, 100_000)
+        .parallel()
+        .forEach(
+            i -> {
+              int index = i % expected.size();
+              assertSame(expected.get(index), block.getStmts().get(index));
+              assertEquals(index, block.getStmtIndex(expected.get(index)));
+            });
+    assertEquals(expected, block.getStmts());
+  }
+
+  @Test
+  public void testQueriesBetweenRemovals() {
+    MutableBasicBlock block = new MutableBasicBlock();
+    List<Stmt> expected = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Stmt stmt = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+      block.addStmt(stmt);
+      expected.add(stmt);
+    }
+
+    // removes Stmts from the middle, the head and the tail and queries the block in between
+    Random random = new Random(42);
+    while (expected.size() > 1) {
+      int removeIdx = random.nextInt(10) == 0 ? 0 : random.nextInt(expected.size());
+      block.removeStmt(expected.remove(removeIdx));
+      if (random.nextInt(10) == 0) {
+        Stmt stmt = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+        block.addStmt(stmt);
+        expected.add(stmt);
+      }
+
+      assertEquals(expected.size(), block.getStmtCount());
+      int queryIdx = random.nextInt(expected.size());
+      assertSame(expected.get(queryIdx), block.getStmts().get(queryIdx));
+      assertEquals(queryIdx, block.getStmtIndex(expected.get(queryIdx)));
+      assertSame(expected.get(0), block.getHead());
+      assertSame(expected.get(expected.size() - 1), block.getTail());
+    }
+    assertEquals(expected, block.getStmts());
+  }
+
+  @Test
+  public void testStmtsViewDetectsModifications() {
+    MutableBasicBlock block = new MutableBasicBlock();
+    block.addStmt(firstNop);
+    block.addStmt(secondNop);
+    block.addStmt(thirdNop);
+
+    List<Stmt> stmts = block.getStmts();
+    block.replaceStmt(thirdNop, fourthNop);
+    assertEquals(Arrays.asList(firstNop, secondNop, fourthNop), stmts);
+
+    Iterator<Stmt> iterator = block.getStmts().iterator();
+    iterator.next();
+    block.removeStmt(secondNop);
+    assertThrows(ConcurrentModificationException.class, iterator::next);
+    assertThrows(ConcurrentModificationException.class, () -> stmts.get(0));
+    assertThrows(ConcurrentModificationException.class, stmts::size);
+    assertEquals(Arrays.asList(firstNop, fourthNop), block.getStmts());
+  }
 }
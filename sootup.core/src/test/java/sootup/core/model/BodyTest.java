@@ -0,0 +1,121 @@
+package sootup.core.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.MutableStmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.expr.JLeExpr;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+
+@Tag("Java8")
+public class BodyTest {
+
+  ClassType classType =
+      new ClassType() {
+        @Override
+        public boolean isBuiltInClass() {
+          return false;
+        }
+
+        @Override
+        public String getFullyQualifiedName() {
+          return "test.A";
+        }
+
+        @Override
+        public String getClassName() {
+          return "A";
+        }
+
+        @Override
+        public PackageName getPackageName() {
+          return new PackageName("test");
+        }
+      };
+
+  Local a = new Local("a", PrimitiveType.getInt());
+
+  // a = 1; if a <= 3 goto label1; a = 2; label1: return a
+  FallsThroughStmt assignOne =
+      new JAssignStmt(a, IntConstant.getInstance(1), StmtPositionInfo.getNoStmtPositionInfo());
+  JIfStmt ifStmt =
+      new JIfStmt(
+          new JLeExpr(a, IntConstant.getInstance(3)), StmtPositionInfo.getNoStmtPositionInfo());
+  FallsThroughStmt assignTwo =
+      new JAssignStmt(a, IntConstant.getInstance(2), StmtPositionInfo.getNoStmtPositionInfo());
+  Stmt returnA = new JReturnStmt(a, StmtPositionInfo.getNoStmtPositionInfo());
+
+  private Body createBody() {
+    return createBodyBuilder().build();
+  }
+
+  private Body.BodyBuilder createBodyBuilder() {
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    graph.setStartingStmt(assignOne);
+    graph.putEdge(assignOne, ifStmt);
+    graph.putEdge(ifStmt, JIfStmt.FALSE_BRANCH_IDX, assignTwo);
+    graph.putEdge(ifStmt, JIfStmt.TRUE_BRANCH_IDX, returnA);
+    graph.putEdge(assignTwo, returnA);
+    return Body.builder(graph)
+        .setMethodSignature(
+            new MethodSignature(classType, "m", Collections.emptyList(), PrimitiveType.getInt()))
+        .setLocals(Collections.singleton(a));
+  }
+
+  @Test
+  public void buildUnregistersDefUseIndex() {
+    Body.BodyBuilder builder = createBodyBuilder();
+    assertEquals(2, builder.getDefUseIndex().getDefsOf(a).size());
+    MutableStmtGraph graph = builder.getStmtGraph();
+    assertEquals(1, graph.getStmtListeners().size());
+
+    builder.build();
+    assertTrue(graph.getStmtListeners().isEmpty());
+  }
+
+  @Test
+  public void getStmts() {
+    Body body = createBody();
+    List<Stmt> stmts = body.getStmts();
+    assertEquals(Arrays.asList(assignOne, ifStmt, assignTwo, returnA), stmts);
+    assertEquals(body.getStmtGraph().getStmts(), stmts);
+    // the linearization is computed only once
+    assertSame(stmts, body.getStmts());
+    assertThrows(UnsupportedOperationException.class, () -> stmts.remove(0));
+  }
+
+  @Test
+  public void getStmtIndex() {
+    Body body = createBody();
+    List<Stmt> stmts = body.getStmts();
+    for (int i = 0; i < stmts.size(); i++) {
+      assertEquals(i, body.getStmtIndex(stmts.get(i)));
+    }
+    assertEquals(-1, body.getStmtIndex(new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo())));
+  }
+
+  @Test
+  public void builderModificationsAfterBuild() {
+    Body.BodyBuilder builder = createBodyBuilder();
+    Body body = builder.build();
+
+    JNopStmt nop = new JNopStmt(StmtPositionInfo.getNoStmtPositionInfo());
+    builder.getStmtGraph().insertBefore(returnA, nop);
+    builder.getStmtGraph().removeNode(assignTwo);
+
+    // the Body keeps the Stmts it was built with
+    assertEquals(Arrays.asList(assignOne, ifStmt, assignTwo, returnA), body.getStmts());
+    assertEquals(2, body.getStmtIndex(assignTwo));
+    assertEquals(-1, body.getStmtIndex(nop));
+  }
+}
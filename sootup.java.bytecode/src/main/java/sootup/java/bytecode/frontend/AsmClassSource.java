@@ -24,34 +24,65 @@ package sootup.java.bytecode.frontend;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.*;
 import sootup.core.IdentifierFactory;
+import sootup.core.cache.BodyRetentionPolicy;
 import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.model.*;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.ClassHeader;
 import sootup.core.types.ClassType;
 import sootup.core.types.Type;
 import sootup.java.core.*;
 import sootup.java.core.types.JavaClassType;
 
-/** A ClassSource that reads from Java bytecode */
+/**
+ * A ClassSource that reads from Java bytecode. The header of the class file, i.e. its access flags,
+ * superclass and interfaces, is read right away while the {@link ClassNode} with the members of the
+ * class is only parsed once they are resolved.
+ */
 class AsmClassSource extends JavaSootClassSource {
 
-  @Nonnull private final ClassNode classNode;
-
+  private final int majorVersion;
+  private final int access;
+  @Nullable private final String superName;
+  @Nonnull private final String[] interfaces;
+  @Nonnull private final Supplier<? extends ClassNode> lazyClassNode;
+  @Nonnull private final BodyRetentionPolicy bodyRetentionPolicy;
+
+  /**
+   * @param majorVersion the major version of the class file
+   * @param access the access flags in the header of the class file
+   * @param lazyClassNode supplies the fully parsed class file. It is called whenever the members of
+   *     the class are resolved, so it should memoize its result. It throws a {@link
+   *     ResolveException} if the class file is malformed.
+   */
   public AsmClassSource(
       AnalysisInputLocation inputLocation,
       Path sourcePath,
       JavaClassType javaClassType,
-      @Nonnull ClassNode classNode) {
+      int majorVersion,
+      int access,
+      @Nullable String superName,
+      @Nonnull String[] interfaces,
+      @Nonnull Supplier<? extends ClassNode> lazyClassNode,
+      @Nonnull BodyRetentionPolicy bodyRetentionPolicy) {
     super(inputLocation, javaClassType, sourcePath);
-    this.classNode = classNode;
+    this.majorVersion = majorVersion;
+    this.access = access;
+    this.superName = superName;
+    this.interfaces = interfaces;
+    this.lazyClassNode = lazyClassNode;
+    this.bodyRetentionPolicy = bodyRetentionPolicy;
   }
 
   private static Set<JavaSootField> resolveFields(
@@ -85,6 +116,7 @@ class AsmClassSource extends JavaSootClassSource {
 
   @Override
   protected Iterable<AnnotationUsage> resolveAnnotations() {
+    ClassNode classNode = lazyClassNode.get();
     List<AnnotationNode> annotationNodes = new ArrayList<>();
 
     annotationNodes.addAll(
@@ -110,7 +142,7 @@ class AsmClassSource extends JavaSootClassSource {
   @Nonnull
   public Collection<JavaSootMethod> resolveMethods() throws ResolveException {
     IdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
-    return classNode.methods.stream()
+    return lazyClassNode.get().methods.stream()
         .map(
             methodSource -> {
               AsmMethodSource asmClassClassSourceContent = (AsmMethodSource) methodSource;
@@ -143,7 +175,8 @@ class AsmClassSource extends JavaSootClassSource {
                   modifiers,
                   exceptions,
                   convertAnnotation(annotations),
-                  NoPositionInformation.getInstance());
+                  NoPositionInformation.getInstance(),
+                  bodyRetentionPolicy);
             })
         .collect(Collectors.toSet());
   }
@@ -152,33 +185,48 @@ class AsmClassSource extends JavaSootClassSource {
   @Nonnull
   public Collection<JavaSootField> resolveFields() throws ResolveException {
     IdentifierFactory identifierFactory = JavaIdentifierFactory.getInstance();
-    return resolveFields(classNode.fields, identifierFactory, classSignature);
+    return resolveFields(lazyClassNode.get().fields, identifierFactory, classSignature);
   }
 
   @Nonnull
   public EnumSet<ClassModifier> resolveModifiers() {
-    return AsmUtil.getClassModifiers(classNode.access);
+    if (majorVersion < Opcodes.V1_5) {
+      // before Java 5, synthetic classes were marked by an attribute instead of an access flag
+      return AsmUtil.getClassModifiers(lazyClassNode.get().access);
+    }
+    return AsmUtil.getClassModifiers(access);
   }
 
   @Nonnull
   public Set<JavaClassType> resolveInterfaces() {
-    return new HashSet<>(AsmUtil.asmIdToSignature(classNode.interfaces));
+    return new HashSet<>(AsmUtil.asmIdToSignature(Arrays.asList(interfaces)));
   }
 
   @Nonnull
   public Optional<JavaClassType> resolveSuperclass() {
-    if (classNode.superName == null) {
+    if (superName == null) {
       return Optional.empty();
     }
-    return Optional.of(AsmUtil.toJimpleClassType(classNode.superName));
+    return Optional.of(AsmUtil.toJimpleClassType(superName));
+  }
+
+  @Nonnull
+  @Override
+  public ClassHeader resolveHeader() {
+    return new ClassHeader(
+        classSignature,
+        (access & Opcodes.ACC_INTERFACE) != 0,
+        resolveSuperclass().orElse(null),
+        resolveInterfaces());
   }
 
   @Nonnull
   public Optional<JavaClassType> resolveOuterClass() {
-    if (classNode.outerClass == null) {
+    String outerClass = lazyClassNode.get().outerClass;
+    if (outerClass == null) {
       return Optional.empty();
     }
-    return Optional.of(AsmUtil.toJimpleClassType(classNode.outerClass));
+    return Optional.of(AsmUtil.toJimpleClassType(outerClass));
   }
 
   @Nonnull
@@ -20,16 +20,20 @@ package sootup.java.bytecode.frontend;
  * <http://www.gnu.org/licenses/lgpl-2.1.html>.
  * #L%
  */
+import com.google.common.base.Suppliers;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.tree.ClassNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sootup.core.frontend.ClassProvider;
+import sootup.core.frontend.ResolveException;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.FileType;
@@ -60,11 +64,12 @@ public class AsmJavaClassProvider implements ClassProvider {
       return Optional.empty();
     }
 
-    SootClassNode classNode = new SootClassNode(analysisInputLocation);
-
-    final String actualClassSignature;
+    final byte[] classBytes;
+    final ClassReader classReader;
     try {
-      actualClassSignature = AsmUtil.initAsmClassSource(sourcePath, classNode);
+      classBytes = Files.readAllBytes(sourcePath);
+      // only parses the constant pool and the header of the class file
+      classReader = new ClassReader(classBytes);
     } catch (IOException exception) {
       logger.warn("ioe: " + sourcePath, exception);
       return Optional.empty();
@@ -72,6 +77,7 @@ public class AsmJavaClassProvider implements ClassProvider {
       logger.warn("iae: " + sourcePath, exception);
       return Optional.empty();
     }
+    final String actualClassSignature = classReader.getClassName();
 
     String requestedName = classType.getPackageName().getName();
     String requestedFQClassName =
@@ -97,13 +103,58 @@ public class AsmJavaClassProvider implements ClassProvider {
       return Optional.empty();
     } else {
       if (klassType instanceof AnnotationType) {
+        final SootClassNode classNode;
+        try {
+          classNode = readClassNode(analysisInputLocation, sourcePath, classBytes);
+        } catch (ResolveException exception) {
+          return Optional.empty();
+        }
         return Optional.of(
             new AsmAnnotationClassSource(analysisInputLocation, sourcePath, klassType, classNode));
       }
 
+      // the rest of the class file is parsed once it is needed, e.g. not at all if only the header
+      // of the class is requested
       return Optional.of(
-          new AsmClassSource(analysisInputLocation, sourcePath, klassType, classNode));
+          new AsmClassSource(
+              analysisInputLocation,
+              sourcePath,
+              klassType,
+              classReader.readUnsignedShort(6),
+              classReader.getAccess(),
+              classReader.getSuperName(),
+              classReader.getInterfaces(),
+              Suppliers.memoize(() -> readClassNode(analysisInputLocation, sourcePath, classBytes)),
+              view.getBodyRetentionPolicy()));
+    }
+  }
+
+  /**
+   * Parses the whole class file.
+   *
+   * @throws ResolveException if the class file is malformed beyond its header
+   */
+  @Nonnull
+  private SootClassNode readClassNode(
+      @Nonnull AnalysisInputLocation analysisInputLocation,
+      @Nonnull Path sourcePath,
+      @Nonnull byte[] classBytes) {
+    final SootClassNode classNode;
+    try {
+      if (view.getBodyRetentionPolicy().retainsMethodCode()) {
+        classNode = new SootClassNode(analysisInputLocation, null);
+        new ClassReader(classBytes).accept(classNode, ClassReader.SKIP_FRAMES);
+      } else {
+        classNode = new SootClassNode(analysisInputLocation, classBytes);
+        new ClassReader(classBytes)
+            .accept(classNode, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+      }
+    } catch (RuntimeException exception) {
+      // ASM fails with e.g. an IllegalArgumentException or an ArrayIndexOutOfBoundsException
+      logger.warn("malformed class file: " + sourcePath, exception);
+      throw new ResolveException("The class file is malformed.", sourcePath, exception);
     }
+    return classNode;
   }
 
   @Override
@@ -116,9 +167,13 @@ public class AsmJavaClassProvider implements ClassProvider {
 
     private final AnalysisInputLocation analysisInputLocation;
 
-    SootClassNode(AnalysisInputLocation analysisInputLocation) {
+    /** The class file if the code of the methods is read on demand, otherwise null. */
+    @Nullable private final byte[] classBytes;
+
+    SootClassNode(AnalysisInputLocation analysisInputLocation, @Nullable byte[] classBytes) {
       super(AsmUtil.SUPPORTED_ASM_OPCODE);
       this.analysisInputLocation = analysisInputLocation;
+      this.classBytes = classBytes;
     }
 
     @Override
@@ -138,7 +193,8 @@ public class AsmJavaClassProvider implements ClassProvider {
               signature,
               exceptions,
               view,
-              analysisInputLocation.getBodyInterceptors());
+              analysisInputLocation.getBodyInterceptors(),
+              classBytes);
       methods.add(mn);
       return mn;
     }
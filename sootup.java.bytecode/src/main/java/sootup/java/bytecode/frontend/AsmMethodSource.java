@@ -35,7 +35,10 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.commons.JSRInlinerAdapter;
 import org.objectweb.asm.tree.*;
 import sootup.core.frontend.BodySource;
@@ -114,6 +117,12 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
   private final JavaIdentifierFactory identifierFactory;
   private final Supplier<MethodSignature> lazyMethodSignature;
 
+  /**
+   * The class file declaring this method if its code is parsed on each resolution of the body and
+   * discarded afterwards, null if the code is kept.
+   */
+  @Nullable private final byte[] classBytes;
+
   AsmMethodSource(
       int access,
       @Nonnull String name,
@@ -121,10 +130,12 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
       @Nonnull String signature,
       @Nonnull String[] exceptions,
       View view,
-      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nullable byte[] classBytes) {
     super(AsmUtil.SUPPORTED_ASM_OPCODE, null, access, name, desc, signature, exceptions);
     this.bodyInterceptors = bodyInterceptors;
     this.view = view;
+    this.classBytes = classBytes;
 
     identifierFactory = (JavaIdentifierFactory) view.getIdentifierFactory();
     lazyMethodSignature =
@@ -153,11 +164,82 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
         : StmtPositionInfo.getNoStmtPositionInfo();
   }
 
+  /**
+   * Converts the bytecode of this method into a new {@link Body}. The conversion state is reset on
+   * each call, so the body can be resolved again, e.g. if its previous instance was not retained.
+   * If the code of the method is not retained, it is parsed from the class file before and
+   * discarded after the conversion.
+   */
   @Override
   @Nonnull
-  public Body resolveBody(@Nonnull Iterable<MethodModifier> modifierIt) {
+  public synchronized Body resolveBody(@Nonnull Iterable<MethodModifier> modifierIt) {
+    if (classBytes == null) {
+      return convertBody();
+    }
+    readCode(classBytes);
+    try {
+      return convertBody();
+    } finally {
+      discardCode();
+    }
+  }
+
+  /** Parses the instructions, trap handlers and local variables of this method. */
+  private void readCode(@Nonnull byte[] classBytes) {
+    String[] exceptionArray = exceptions.toArray(new String[0]);
+    JSRInlinerAdapter code =
+        new JSRInlinerAdapter(null, access, name, desc, signature, exceptionArray);
+    new ClassReader(classBytes)
+        .accept(
+            new ClassVisitor(AsmUtil.SUPPORTED_ASM_OPCODE) {
+              @Override
+              public MethodVisitor visitMethod(
+                  int methodAccess,
+                  String methodName,
+                  String methodDesc,
+                  String methodSignature,
+                  String[] methodExceptions) {
+                return methodName.equals(name) && methodDesc.equals(desc) ? code : null;
+              }
+            },
+            ClassReader.SKIP_FRAMES);
+    instructions = code.instructions;
+    tryCatchBlocks = code.tryCatchBlocks;
+    localVariables = code.localVariables;
+    maxLocals = code.maxLocals;
+    maxStack = code.maxStack;
+  }
+
+  /** Drops the code of this method and the conversion state that references it. */
+  private void discardCode() {
+    instructions = new InsnList();
+    tryCatchBlocks = new ArrayList<>();
+    localVariables = null;
+    maxLocals = 0;
+    maxStack = 0;
+    replacedStmt.clear();
+    startTrapHandler.clear();
+    endTrapHandler.clear();
+    activeTrapHandlers = new HashSet<>();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
+    trapHandler = null;
+  }
+
+  @Nonnull
+  private Body convertBody() {
 
     /* initialize */
+    replacedStmt.clear();
+    startTrapHandler.clear();
+    endTrapHandler.clear();
+    activeTrapHandlers = new HashSet<>();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
+    currentLineNumber = -1;
+    maxLineNumber = 0;
     nextLocal = maxLocals;
     locals =
         new NonIndexOutofBoundsArrayList<>(
@@ -68,6 +68,7 @@ public class Aggregator implements BodyInterceptor {
     MutableStmtGraph graph = builder.getStmtGraph();
     List<Stmt> stmts = builder.getStmts();
     Map<Value, Collection<Stmt>> usesMap = Body.collectUses(stmts);
+    Map<LValue, Collection<Stmt>> defsMap = Body.collectDefs(stmts);
 
     for (Stmt stmt : stmts) {
       if (!(stmt instanceof JAssignStmt)) {
@@ -92,11 +93,12 @@ public class Aggregator implements BodyInterceptor {
           // there are other uses, so it can't be aggregated
           continue;
         }
-        List<AbstractDefinitionStmt> defs = ((Local) val).getDefs(stmts);
+        // like the uses, the definitions are looked up in the Stmts before the aggregation
+        final Collection<Stmt> defs = defsMap.getOrDefault(val, Collections.emptyList());
         if (defs.size() != 1) {
           continue;
         }
-        Stmt relevantDef = defs.get(0);
+        Stmt relevantDef = defs.iterator().next();
         if (!graph.containsNode(relevantDef) || !graph.containsNode(stmt)) {
           continue;
         }
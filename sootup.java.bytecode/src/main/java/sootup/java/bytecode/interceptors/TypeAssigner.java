@@ -21,24 +21,52 @@ package sootup.java.bytecode.interceptors;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.ExecutionException;
 import javax.annotation.Nonnull;
 import sootup.core.model.Body;
 import sootup.core.transform.BodyInterceptor;
+import sootup.core.views.MutableView;
 import sootup.core.views.View;
+import sootup.java.bytecode.interceptors.typeresolving.AugEvalFunction;
+import sootup.java.bytecode.interceptors.typeresolving.BytecodeHierarchy;
 import sootup.java.bytecode.interceptors.typeresolving.TypeResolver;
 import sootup.java.core.views.JavaView;
 
 /**
  * This transformer assigns types to local variables.
  *
+ * <p>The memoized subtyping queries of the {@link BytecodeHierarchy} are shared by all bodies of a
+ * view. They are kept in a {@link BytecodeHierarchy.QueryCache} per view, which refers to types
+ * only, so the cache does not keep a view reachable. Views that can be modified get a fresh cache
+ * for each body, as their type hierarchy may change in between.
+ *
  * @author Zun Wang
  */
 public class TypeAssigner implements BodyInterceptor {
 
+  @Nonnull
+  private final Cache<View, BytecodeHierarchy.QueryCache> queryCaches =
+      CacheBuilder.newBuilder().weakKeys().build();
+
   public TypeAssigner() {}
 
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View view) {
-    new TypeResolver((JavaView) view).resolve(builder);
+    JavaView javaView = (JavaView) view;
+    BytecodeHierarchy.QueryCache queryCache;
+    if (view instanceof MutableView) {
+      queryCache = new BytecodeHierarchy.QueryCache();
+    } else {
+      try {
+        queryCache = queryCaches.get(view, BytecodeHierarchy.QueryCache::new);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+    new TypeResolver(
+            javaView, new BytecodeHierarchy(javaView, queryCache), new AugEvalFunction(javaView))
+        .resolve(builder);
   }
 }
@@ -21,6 +21,8 @@ package sootup.java.bytecode.interceptors.typeresolving;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.*;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -31,16 +33,34 @@ import sootup.core.views.View;
 import sootup.java.bytecode.interceptors.typeresolving.types.BottomType;
 import sootup.java.bytecode.interceptors.typeresolving.types.TopType;
 
-/** @author Zun Wang */
+/**
+ * Answers the subtyping queries of the type resolution. The results of {@link #isAncestor(Type,
+ * Type)} for class types and of {@link #getLeastCommonAncestor(Type, Type)} are memoized in a
+ * {@link QueryCache}, which can be shared by the hierarchies of all bodies of a view whose type
+ * hierarchy does not change anymore. Instances are thread-safe.
+ *
+ * @author Zun Wang
+ */
 public class BytecodeHierarchy {
   private final TypeHierarchy typeHierarchy;
+  private final Map<TypePair, Boolean> canStoreTypes;
+  private final Map<TypePair, Collection<Type>> leastCommonAncestors;
+  private final Map<ClassType, Set<AncestryPath>> ancestryPaths;
   public final ClassType objectClassType;
   public final ClassType throwableClassType;
   private final ClassType serializableClassType;
   private final ClassType cloneableClassType;
 
   public BytecodeHierarchy(View view) {
+    this(view, new QueryCache());
+  }
+
+  /** Creates a hierarchy of the given view that memoizes its queries in the given cache. */
+  public BytecodeHierarchy(@Nonnull View view, @Nonnull QueryCache queryCache) {
     this.typeHierarchy = view.getTypeHierarchy();
+    canStoreTypes = queryCache.canStoreTypes.asMap();
+    leastCommonAncestors = queryCache.leastCommonAncestors.asMap();
+    ancestryPaths = queryCache.ancestryPaths.asMap();
     IdentifierFactory factory = view.getIdentifierFactory();
     objectClassType = factory.getClassType("java.lang.Object");
     throwableClassType = factory.getClassType("java.lang.Throwable");
@@ -115,7 +135,6 @@ public class BytecodeHierarchy {
   }
 
   public Collection<Type> getLeastCommonAncestor(Type a, Type b) {
-    Set<Type> ret = new HashSet<>();
     if (a instanceof TopType || b instanceof TopType) {
       return Collections.singleton(TopType.getInstance());
     }
@@ -131,6 +150,20 @@ public class BytecodeHierarchy {
     if (b == NullType.getInstance()) {
       return Collections.singleton(a);
     }
+    TypePair key = new TypePair(a, b);
+    Collection<Type> lca = leastCommonAncestors.get(key);
+    if (lca == null) {
+      // not computeIfAbsent(): the computation of array types queries the cache itself
+      lca = computeLeastCommonAncestor(a, b);
+      Collection<Type> previous = leastCommonAncestors.putIfAbsent(key, lca);
+      if (previous != null) {
+        lca = previous;
+      }
+    }
+    return lca;
+  }
+
+  private Collection<Type> computeLeastCommonAncestor(Type a, Type b) {
     if (isAncestor(a, b)) {
       return Collections.singleton(a);
     }
@@ -144,6 +177,7 @@ public class BytecodeHierarchy {
       return Collections.singleton(TopType.getInstance());
     }
 
+    Set<Type> ret = new HashSet<>();
     if (a instanceof ArrayType && b instanceof ArrayType) {
       Collection<Type> temp;
       Type et_a = ((ArrayType) a).getElementType();
@@ -177,8 +211,8 @@ public class BytecodeHierarchy {
       }
     } else {
       // if a and b are both ClassType
-      Set<AncestryPath> pathsA = buildAncestryPaths((ClassType) a);
-      Set<AncestryPath> pathsB = buildAncestryPaths((ClassType) b);
+      Set<AncestryPath> pathsA = getAncestryPaths((ClassType) a);
+      Set<AncestryPath> pathsB = getAncestryPaths((ClassType) b);
       // TODO: [ms] implement an algorithm with better wc runtime costs.. e.g.
       // https://www.baeldung.com/cs/tree-lowest-common-ancestor /
       // https://de.wikipedia.org/wiki/Range_Minimum_Query
@@ -209,12 +243,23 @@ public class BytecodeHierarchy {
         ret.add(objectClassType);
       }
     }
-    return ret;
+    return Collections.unmodifiableSet(ret);
   }
 
   private boolean canStoreType(ClassType ancestor, ClassType child) {
-    return ancestor == objectClassType
-        || (typeHierarchy.contains(ancestor) && typeHierarchy.subtypesOf(ancestor).contains(child));
+    if (ancestor == objectClassType) {
+      return true;
+    }
+    return canStoreTypes.computeIfAbsent(
+        new TypePair(ancestor, child),
+        key ->
+            typeHierarchy.contains(ancestor)
+                && typeHierarchy.contains(child)
+                && typeHierarchy.isSubtype(ancestor, child));
+  }
+
+  private Set<AncestryPath> getAncestryPaths(ClassType type) {
+    return ancestryPaths.computeIfAbsent(type, this::buildAncestryPaths);
   }
 
   private Set<AncestryPath> buildAncestryPaths(ClassType type) {
@@ -278,14 +323,70 @@ public class BytecodeHierarchy {
     return lcn;
   }
 
+  /**
+   * The memoized query results of the hierarchies of a single view. They refer to types only, so a
+   * cache does not keep the view reachable. Each kind of query keeps at most {@link #MAXIMUM_SIZE}
+   * results and evicts the least recently used ones beyond that.
+   */
+  public static final class QueryCache {
+    static final int MAXIMUM_SIZE = 1 << 16;
+
+    private final Cache<TypePair, Boolean> canStoreTypes;
+    private final Cache<TypePair, Collection<Type>> leastCommonAncestors;
+    private final Cache<ClassType, Set<AncestryPath>> ancestryPaths;
+
+    public QueryCache() {
+      this(MAXIMUM_SIZE);
+    }
+
+    QueryCache(int maximumSize) {
+      canStoreTypes = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+      leastCommonAncestors = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+      ancestryPaths = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /** Returns the number of memoized query results. */
+    long size() {
+      return canStoreTypes.size() + leastCommonAncestors.size() + ancestryPaths.size();
+    }
+  }
+
   // TODO: [ms] thats a linked list.. please refactor that
   private static class AncestryPath {
-    public AncestryPath next;
-    public ClassType type;
+    public final AncestryPath next;
+    public final ClassType type;
 
     public AncestryPath(@Nonnull ClassType type, @Nullable AncestryPath next) {
       this.type = type;
       this.next = next;
     }
   }
+
+  /** An ordered pair of types, the key of the memoized queries. */
+  private static final class TypePair {
+    @Nonnull private final Type first;
+    @Nonnull private final Type second;
+
+    TypePair(@Nonnull Type first, @Nonnull Type second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof TypePair)) {
+        return false;
+      }
+      TypePair typePair = (TypePair) o;
+      return first.equals(typePair.first) && second.equals(typePair.second);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * first.hashCode() + second.hashCode();
+    }
+  }
 }
@@ -22,8 +22,8 @@ package sootup.java.bytecode.interceptors.typeresolving;
  * #L%
  */
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
@@ -52,9 +52,9 @@ import sootup.core.types.Type;
  * locals into the typing as well.
  */
 public class CastCounter extends TypeChecker {
-  private final Map<Stmt, Set<JAssignStmt>> tempAssignments = new HashMap<>();
-  private final Map<Stmt, Stmt> stmt2NewStmt = new HashMap<>();
-  private final Map<Local, Type> tempLocalTypes = new HashMap<>();
+  private final Map<Stmt, Set<JAssignStmt>> tempAssignments = new LinkedHashMap<>();
+  private final Map<Stmt, Stmt> stmt2NewStmt = new LinkedHashMap<>();
+  private final Map<Local, Type> tempLocalTypes = new LinkedHashMap<>();
 
   private int castCount = 0;
   private int newLocalsCount = 0;
@@ -67,7 +67,8 @@ public class CastCounter extends TypeChecker {
     super(builder, evalFunction, hierarchy);
     setTyping(typing);
 
-    for (Stmt stmt : graph.getNodes()) {
+    // visit the Stmts in their linearized order, so the names of the temp locals are deterministic
+    for (Stmt stmt : graph.getStmts()) {
       stmt.accept(this);
     }
   }
@@ -121,7 +122,7 @@ public class CastCounter extends TypeChecker {
       tempLocalTypes.put(tempLocal, stdType);
 
       JAssignStmt assignStmt = Jimple.newAssignStmt(tempLocal, cast, stmt.getPositionInfo());
-      tempAssignments.computeIfAbsent(stmt, _x -> new HashSet<>()).add(assignStmt);
+      tempAssignments.computeIfAbsent(stmt, _x -> new LinkedHashSet<>()).add(assignStmt);
 
       newStmt = currentStmt.withNewUse(value, tempLocal);
     }
@@ -27,6 +27,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sootup.core.graph.DefUseIndex;
 import sootup.core.graph.MutableStmtGraph;
 import sootup.core.jimple.basic.LValue;
 import sootup.core.jimple.basic.Local;
@@ -107,22 +108,18 @@ public abstract class TypeChecker extends AbstractStmtVisitor<Stmt> {
         // allocation site.
         if (Type.isObjectLikeType(type_base)
             || (Type.isObject(type_base) && type_rhs instanceof PrimitiveType)) {
-          Map<LValue, Collection<Stmt>> defs = Body.collectDefs(graph.getNodes());
-          Collection<Stmt> defStmts = defs.get(base);
           boolean findDef = false;
-          if (defStmts != null) {
-            for (Stmt defStmt : defStmts) {
-              if (defStmt instanceof JAssignStmt) {
-                Value arrExpr = ((JAssignStmt) defStmt).getRightOp();
-                if (arrExpr instanceof JNewArrayExpr) {
-                  arrayType = (ArrayType) arrExpr.getType();
-                  findDef = true;
-                  break;
-                } else if (arrExpr instanceof JNewMultiArrayExpr) {
-                  arrayType = ((JNewMultiArrayExpr) arrExpr).getBaseType();
-                  findDef = true;
-                  break;
-                }
+          for (Stmt defStmt : builder.getDefUseIndex().getDefsOf(base)) {
+            if (defStmt instanceof JAssignStmt) {
+              Value arrExpr = ((JAssignStmt) defStmt).getRightOp();
+              if (arrExpr instanceof JNewArrayExpr) {
+                arrayType = (ArrayType) arrExpr.getType();
+                findDef = true;
+                break;
+              } else if (arrExpr instanceof JNewMultiArrayExpr) {
+                arrayType = ((JNewMultiArrayExpr) arrExpr).getBaseType();
+                findDef = true;
+                break;
               }
             }
           }
@@ -170,7 +167,7 @@ public abstract class TypeChecker extends AbstractStmtVisitor<Stmt> {
         arrayType = (ArrayType) type_base;
       } else {
         if (type_base instanceof NullType || Type.isObjectLikeType(type_base)) {
-          Map<LValue, Collection<Stmt>> defs = Body.collectDefs(graph.getNodes());
+          DefUseIndex defUseIndex = builder.getDefUseIndex();
           Deque<StmtLocalPair> worklist = new ArrayDeque<>();
           Set<StmtLocalPair> visited = new HashSet<>();
           worklist.add(new StmtLocalPair(stmt, base));
@@ -180,8 +177,7 @@ public abstract class TypeChecker extends AbstractStmtVisitor<Stmt> {
             if (!visited.add(pair)) {
               continue;
             }
-            Collection<Stmt> stmts = defs.get(pair.getLocal());
-            for (Stmt s : stmts) {
+            for (Stmt s : defUseIndex.getDefsOf(pair.getLocal())) {
               if (s instanceof JAssignStmt) {
                 Value value = ((JAssignStmt) s).getRightOp();
                 if (value instanceof JNewArrayExpr) {
@@ -53,20 +53,33 @@ public class TypeResolver {
   private final ArrayList<AbstractDefinitionStmt> assignments = new ArrayList<>();
   private final Map<Local, BitSet> depends = new HashMap<>();
   private final JavaView view;
+  private final BytecodeHierarchy hierarchy;
+  private final AugEvalFunction evalFunction;
 
   private final Type objectType;
 
   private static final Logger logger = LoggerFactory.getLogger(TypeResolver.class);
 
   public TypeResolver(@Nonnull JavaView view) {
+    this(view, new BytecodeHierarchy(view), new AugEvalFunction(view));
+  }
+
+  /**
+   * Creates a resolver that uses the given hierarchy and evaluation function, e.g. a hierarchy that
+   * shares its memoized queries with the resolvers of all bodies of the view.
+   */
+  public TypeResolver(
+      @Nonnull JavaView view,
+      @Nonnull BytecodeHierarchy hierarchy,
+      @Nonnull AugEvalFunction evalFunction) {
     this.view = view;
+    this.hierarchy = hierarchy;
+    this.evalFunction = evalFunction;
     objectType = view.getIdentifierFactory().getClassType("java.lang.Object");
   }
 
   public boolean resolve(@Nonnull Body.BodyBuilder builder) {
     init(builder);
-    BytecodeHierarchy hierarchy = new BytecodeHierarchy(view);
-    AugEvalFunction evalFunction = new AugEvalFunction(view);
     final Collection<Local> locals = Lists.newArrayList(builder.getLocals());
     Typing iniTyping = new Typing(locals);
     Collection<Typing> typings =
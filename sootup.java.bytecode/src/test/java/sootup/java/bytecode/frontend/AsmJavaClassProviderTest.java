@@ -0,0 +1,65 @@
+package sootup.java.bytecode.frontend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import categories.TestCategories;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.SourceType;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.views.JavaView;
+
+@Tag(TestCategories.JAVA_8_CATEGORY)
+public class AsmJavaClassProviderTest {
+
+  private static final Path classFile =
+      Paths.get("../shared-test-resources/bugfixes/NestedMethodCall.class");
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void malformedMembers() throws IOException {
+    byte[] classBytes = Files.readAllBytes(classFile);
+    ClassReader classReader = new ClassReader(classBytes);
+    // cut the class file after the access flags, the class, the superclass and the interfaces
+    int headerLength = classReader.header + 8 + 2 * classReader.getInterfaces().length;
+    Files.write(tempDir.resolve(classFile.getFileName()), Arrays.copyOf(classBytes, headerLength));
+
+    JavaView view =
+        new JavaView(
+            new JavaClassPathAnalysisInputLocation(
+                tempDir.toString(), SourceType.Application, Collections.emptyList()));
+    Optional<JavaSootClass> sootClass =
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("NestedMethodCall"));
+    assertTrue(sootClass.isPresent());
+
+    // the header is read right away, the members only on demand
+    assertEquals(
+        AsmUtil.getClassModifiers(classReader.getAccess()), sootClass.get().getModifiers());
+    assertEquals(
+        Optional.of(JavaIdentifierFactory.getInstance().getClassType("java.lang.Object")),
+        sootClass.get().getSuperclass());
+    // SootClass reports a ResolveException of its class source as an IllegalStateException
+    IllegalStateException exception =
+        assertThrows(IllegalStateException.class, () -> sootClass.get().getMethods());
+    assertTrue(exception.getCause() instanceof ResolveException);
+    assertTrue(
+        ((ResolveException) exception.getCause()).getInputUri().endsWith("NestedMethodCall.class"));
+    exception = assertThrows(IllegalStateException.class, () -> sootClass.get().getFields());
+    assertTrue(exception.getCause() instanceof ResolveException);
+  }
+}
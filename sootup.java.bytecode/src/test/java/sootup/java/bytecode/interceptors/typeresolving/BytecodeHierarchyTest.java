@@ -205,4 +205,49 @@ public class BytecodeHierarchyTest {
     expectedSet = ImmutableUtils.immutableSet(object, serializable, cloneable);
     assertEquals(expectedSet, actualSet);
   }
+
+  @Test
+  public void testMemoizedLCA() {
+    // setup view and ViewTypeHierarchy
+    setUp();
+    BytecodeHierarchy.QueryCache queryCache = new BytecodeHierarchy.QueryCache();
+    BytecodeHierarchy sharedHierarchy = new BytecodeHierarchy(view, queryCache);
+    Type[] types = {rootInterface1, class1, class2, class4, double_class1, int_class, class1AArr};
+
+    // query the shared hierarchy concurrently and compare with fresh hierarchies
+    Arrays.stream(types)
+        .parallel()
+        .forEach(
+            a -> {
+              for (Type b : types) {
+                Collection<Type> lca = sharedHierarchy.getLeastCommonAncestor(a, b);
+                assertEquals(new BytecodeHierarchy(view).getLeastCommonAncestor(a, b), lca);
+                assertEquals(
+                    new BytecodeHierarchy(view).isAncestor(a, b), sharedHierarchy.isAncestor(a, b));
+              }
+            });
+    assertTrue(
+        sharedHierarchy.getLeastCommonAncestor(double_class1, int_class)
+            == new BytecodeHierarchy(view, queryCache)
+                .getLeastCommonAncestor(double_class1, int_class));
+  }
+
+  @Test
+  public void testBoundedQueryCache() {
+    // setup view and ViewTypeHierarchy
+    setUp();
+    BytecodeHierarchy.QueryCache queryCache = new BytecodeHierarchy.QueryCache(2);
+    BytecodeHierarchy boundedHierarchy = new BytecodeHierarchy(view, queryCache);
+    Type[] types = {rootInterface1, class1, class2, class4, double_class1, int_class, class1AArr};
+    for (Type a : types) {
+      for (Type b : types) {
+        assertEquals(
+            new BytecodeHierarchy(view).getLeastCommonAncestor(a, b),
+            boundedHierarchy.getLeastCommonAncestor(a, b));
+        assertEquals(
+            new BytecodeHierarchy(view).isAncestor(a, b), boundedHierarchy.isAncestor(a, b));
+      }
+    }
+    assertTrue(queryCache.size() <= 3 * 2);
+  }
 }
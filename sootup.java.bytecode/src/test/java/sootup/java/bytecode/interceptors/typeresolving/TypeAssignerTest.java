@@ -1,8 +1,11 @@
 package sootup.java.bytecode.interceptors.typeresolving;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import categories.TestCategories;
+import java.lang.ref.WeakReference;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -12,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import sootup.core.model.Body;
 import sootup.core.util.Utils;
 import sootup.java.bytecode.interceptors.TypeAssigner;
+import sootup.java.core.views.JavaView;
 
 @Tag(TestCategories.JAVA_8_CATEGORY)
 public class TypeAssignerTest extends TypeAssignerTestSuite {
@@ -23,6 +27,22 @@ public class TypeAssignerTest extends TypeAssignerTestSuite {
     buildView(baseDir, className);
   }
 
+  @Test
+  public void testViewIsNotRetained() {
+    TypeAssigner typeAssigner = new TypeAssigner();
+    typeAssigner.interceptBody(createMethodsBuilder("invokeStmt", "void"), view);
+
+    // the memoized queries of the view must not keep it reachable
+    WeakReference<JavaView> viewRef = new WeakReference<>(view);
+    view = null;
+    clazz = null;
+    for (int i = 0; i < 100 && viewRef.get() != null; i++) {
+      System.gc();
+    }
+    assertNull(viewRef.get());
+    assertNotNull(typeAssigner);
+  }
+
   @Test
   public void testInvokeStmt() {
     final Body.BodyBuilder builder = createMethodsBuilder("invokeStmt", "void");
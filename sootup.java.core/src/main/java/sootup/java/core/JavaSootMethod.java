@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.Optional;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
+import sootup.core.cache.BodyRetentionPolicy;
 import sootup.core.frontend.BodySource;
 import sootup.core.frontend.OverridingBodySource;
 import sootup.core.model.Body;
@@ -47,7 +48,25 @@ public class JavaSootMethod extends SootMethod {
       @Nonnull Iterable<ClassType> thrownExceptions,
       @Nonnull Iterable<AnnotationUsage> annotations,
       @Nonnull Position position) {
-    super(source, methodSignature, modifiers, thrownExceptions, position);
+    this(
+        source,
+        methodSignature,
+        modifiers,
+        thrownExceptions,
+        annotations,
+        position,
+        BodyRetentionPolicy.STRONG);
+  }
+
+  public JavaSootMethod(
+      @Nonnull BodySource source,
+      @Nonnull MethodSignature methodSignature,
+      @Nonnull Iterable<MethodModifier> modifiers,
+      @Nonnull Iterable<ClassType> thrownExceptions,
+      @Nonnull Iterable<AnnotationUsage> annotations,
+      @Nonnull Position position,
+      @Nonnull BodyRetentionPolicy bodyRetentionPolicy) {
+    super(source, methodSignature, modifiers, thrownExceptions, position, bodyRetentionPolicy);
     this.annotations = annotations;
   }
 
@@ -80,8 +99,9 @@ public class JavaSootMethod extends SootMethod {
         getSignature(),
         getModifiers(),
         exceptions,
-        getAnnotations(Optional.empty()),
-        getPosition());
+        annotations,
+        getPosition(),
+        bodyRetentionPolicy);
   }
 
   @Nonnull
@@ -92,8 +112,9 @@ public class JavaSootMethod extends SootMethod {
         getSignature(),
         getModifiers(),
         exceptions,
-        getAnnotations(Optional.empty()),
-        getPosition());
+        annotations,
+        getPosition(),
+        bodyRetentionPolicy);
   }
 
   @Nonnull
@@ -104,8 +125,9 @@ public class JavaSootMethod extends SootMethod {
         getSignature(),
         modifiers,
         getExceptionSignatures(),
-        getAnnotations(Optional.empty()),
-        getPosition());
+        annotations,
+        getPosition(),
+        bodyRetentionPolicy);
   }
 
   @Nonnull
@@ -116,8 +138,9 @@ public class JavaSootMethod extends SootMethod {
         getSignature(),
         getModifiers(),
         thrownExceptions,
-        getAnnotations(Optional.empty()),
-        getPosition());
+        annotations,
+        getPosition(),
+        bodyRetentionPolicy);
   }
 
   @Nonnull
@@ -128,7 +151,8 @@ public class JavaSootMethod extends SootMethod {
         getModifiers(),
         getExceptionSignatures(),
         annotations,
-        getPosition());
+        getPosition(),
+        bodyRetentionPolicy);
   }
 
   @Nonnull
@@ -139,8 +163,9 @@ public class JavaSootMethod extends SootMethod {
         getSignature(),
         getModifiers(),
         exceptions,
-        getAnnotations(Optional.empty()),
-        getPosition());
+        annotations,
+        getPosition(),
+        bodyRetentionPolicy);
   }
 
   @Nonnull
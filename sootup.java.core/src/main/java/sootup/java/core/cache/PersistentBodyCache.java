@@ -0,0 +1,106 @@
+package sootup.java.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import sootup.core.cache.ClassCache;
+import sootup.core.cache.persistent.PersistentBodyStore;
+import sootup.core.frontend.SootClassSource;
+import sootup.core.model.SootClass;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+
+/**
+ * Decorates a {@link ClassCache} so that the methods of the classes put into it resolve their
+ * Bodies via a {@link PersistentBodyStore}. Hence the cache can hold different instances than the
+ * ones that were put into it.
+ */
+public class PersistentBodyCache implements ClassCache {
+
+  @Nonnull private final ClassCache delegate;
+  @Nonnull private final PersistentBodyStore store;
+
+  public PersistentBodyCache(@Nonnull ClassCache delegate, @Nonnull PersistentBodyStore store) {
+    this.delegate = delegate;
+    this.store = store;
+  }
+
+  /** @return the decorated cache, which actually holds the classes */
+  @Nonnull
+  public ClassCache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public SootClass getClass(ClassType classType) {
+    return delegate.getClass(classType);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<SootClass> getClasses() {
+    return delegate.getClasses();
+  }
+
+  @Override
+  public void putClass(ClassType classType, SootClass sootClass) {
+    delegate.putClass(classType, withPersistentBodies(sootClass));
+  }
+
+  @Override
+  public boolean hasClass(ClassType classType) {
+    return delegate.hasClass(classType);
+  }
+
+  @Override
+  public int size() {
+    return delegate.size();
+  }
+
+  @Nonnull
+  private SootClass withPersistentBodies(@Nonnull SootClass sootClass) {
+    // subclasses e.g. JavaAnnotationSootClass would be lost by withMethods()
+    if (sootClass.getClass() != JavaSootClass.class) {
+      return sootClass;
+    }
+    final JavaSootClass javaSootClass = (JavaSootClass) sootClass;
+    final SootClassSource classSource = javaSootClass.getClassSource();
+    final Path sourcePath = classSource.getSourcePath();
+    final List<BodyInterceptor> bodyInterceptors =
+        classSource.getAnalysisInputLocation().getBodyInterceptors();
+    final List<JavaSootMethod> methods =
+        javaSootClass.getMethods().stream()
+            .map(
+                method ->
+                    method.withSource(
+                        store.wrap(method.getBodySource(), sourcePath, bodyInterceptors)))
+            .collect(Collectors.toList());
+    return javaSootClass.withMethods(methods);
+  }
+}
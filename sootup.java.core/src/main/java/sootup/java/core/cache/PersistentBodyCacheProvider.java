@@ -0,0 +1,59 @@
+package sootup.java.core.cache;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.core.cache.ClassCache;
+import sootup.core.cache.persistent.PersistentBodyStore;
+import sootup.core.cache.provider.ClassCacheProvider;
+import sootup.core.cache.provider.FullCacheProvider;
+
+/**
+ * Provides {@link PersistentBodyCache}s, i.e. Bodies of classes from archives are persisted in the
+ * given {@link PersistentBodyStore} and reused by subsequent runs instead of being lifted again.
+ */
+public class PersistentBodyCacheProvider implements ClassCacheProvider {
+
+  @Nonnull private final ClassCacheProvider delegate;
+  @Nonnull private final PersistentBodyStore store;
+
+  public PersistentBodyCacheProvider(@Nonnull PersistentBodyStore store) {
+    this(new FullCacheProvider(), store);
+  }
+
+  public PersistentBodyCacheProvider(
+      @Nonnull ClassCacheProvider delegate, @Nonnull PersistentBodyStore store) {
+    this.delegate = delegate;
+    this.store = store;
+  }
+
+  @Nonnull
+  public PersistentBodyStore getStore() {
+    return store;
+  }
+
+  @Override
+  public ClassCache createCache() {
+    return new PersistentBodyCache(delegate.createCache(), store);
+  }
+}
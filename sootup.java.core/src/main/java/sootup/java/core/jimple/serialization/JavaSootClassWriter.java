@@ -0,0 +1,86 @@
+package sootup.java.core.jimple.serialization;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.serialization.JimpleDataOutput;
+import sootup.core.jimple.serialization.SootClassWriter;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootField;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Encodes {@link JavaSootClass}es via {@link SootClassWriter}. The binary Jimple format has no
+ * representation for annotations, so classes that are annotated or have annotated fields or methods
+ * are rejected instead of silently losing their annotations.
+ */
+public class JavaSootClassWriter {
+
+  private JavaSootClassWriter() {}
+
+  /**
+   * Appends the encoded class including the bodies of its concrete methods to the given output.
+   *
+   * @param view is used to resolve the annotations of the class
+   * @throws IllegalArgumentException if the class or one of its members is annotated
+   */
+  public static void write(
+      @Nonnull JavaSootClass sootClass, @Nonnull JavaView view, @Nonnull JimpleDataOutput out) {
+    checkNotAnnotated(sootClass, view);
+    SootClassWriter.write(sootClass, out);
+  }
+
+  /**
+   * Encodes a single class into a self-contained byte array including the header.
+   *
+   * @param view is used to resolve the annotations of the class
+   * @throws IllegalArgumentException if the class or one of its members is annotated
+   */
+  @Nonnull
+  public static byte[] write(@Nonnull JavaSootClass sootClass, @Nonnull JavaView view) {
+    checkNotAnnotated(sootClass, view);
+    return SootClassWriter.write(sootClass);
+  }
+
+  private static void checkNotAnnotated(@Nonnull JavaSootClass sootClass, @Nonnull JavaView view) {
+    final Optional<JavaView> viewOptional = Optional.of(view);
+    if (sootClass.getAnnotations(viewOptional).iterator().hasNext()) {
+      throw new IllegalArgumentException(
+          sootClass.getType() + " can not be encoded as it is annotated.");
+    }
+    for (JavaSootField field : sootClass.getFields()) {
+      if (field.getAnnotations(viewOptional).iterator().hasNext()) {
+        throw new IllegalArgumentException(
+            sootClass.getType() + " can not be encoded as " + field + " is annotated.");
+      }
+    }
+    for (JavaSootMethod method : sootClass.getMethods()) {
+      if (method.getAnnotations(viewOptional).iterator().hasNext()) {
+        throw new IllegalArgumentException(
+            sootClass.getType() + " can not be encoded as " + method + " is annotated.");
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package sootup.java.core.views;
+
+/*-
+ * #%L
+ * SootUp
+ * %%
+ * Copyright (C) 1997 - 2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import javax.annotation.Nonnull;
+import sootup.java.core.JavaSootClass;
+
+/**
+ * Callback for the bulk resolution of classes via {@link JavaView#getClasses(
+ * java.util.concurrent.ExecutorService, ClassResolutionListener)}. Its methods are called from the
+ * worker threads, so implementations need to be thread-safe.
+ */
+public interface ClassResolutionListener {
+
+  /** Does nothing and never cancels the resolution. */
+  ClassResolutionListener NONE = new ClassResolutionListener() {};
+
+  /**
+   * Called after all class sources have been enumerated and before any class is built.
+   *
+   * @param totalCount the number of class sources that are going to be resolved
+   */
+  default void resolutionStarted(int totalCount) {}
+
+  /**
+   * Called whenever a class has been resolved.
+   *
+   * @param clazz the resolved class
+   * @param resolvedCount the number of classes that are resolved so far, including clazz
+   * @param totalCount the number of class sources that are resolved in total
+   */
+  default void classResolved(@Nonnull JavaSootClass clazz, int resolvedCount, int totalCount) {}
+
+  /**
+   * Polled before each class source is resolved. Returning true stops the resolution of all
+   * remaining classes.
+   */
+  default boolean isCancelled() {
+    return false;
+  }
+}
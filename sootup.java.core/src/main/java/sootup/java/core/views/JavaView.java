@@ -22,29 +22,51 @@ package sootup.java.core.views;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import sootup.core.cache.BodyRetentionPolicy;
 import sootup.core.cache.ClassCache;
 import sootup.core.cache.FullCache;
 import sootup.core.cache.provider.ClassCacheProvider;
 import sootup.core.cache.provider.FullCacheProvider;
 import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.Body;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
+import sootup.core.typehierarchy.ClassHeader;
 import sootup.core.types.ClassType;
 import sootup.core.views.AbstractView;
 import sootup.java.core.*;
+import sootup.java.core.cache.PersistentBodyCache;
 import sootup.java.core.types.AnnotationType;
 
 /**
  * The Class JavaView manages the Java classes of the application being analyzed. This view cannot
  * be altered after its creation.
  *
+ * <p>Classes are resolved concurrently: distinct {@link ClassType}s are built in parallel while
+ * concurrent requests for the same {@link ClassType} wait for a single construction. Hence the
+ * {@link ClassCache} created by the given {@link ClassCacheProvider} has to be thread-safe.
+ *
  * @author Linghui Luo created on 31.07.2018
  * @author Jan Martin Persch
  */
@@ -53,6 +75,12 @@ public class JavaView extends AbstractView {
 
   @Nonnull protected final List<AnalysisInputLocation> inputLocations;
   @Nonnull protected final ClassCache cache;
+  @Nonnull protected final BodyRetentionPolicy bodyRetentionPolicy;
+
+  /** Classes whose construction is currently in progress, used to build each class only once. */
+  @Nonnull
+  private final ConcurrentHashMap<ClassType, CompletableFuture<JavaSootClass>> classesInResolution =
+      new ConcurrentHashMap<>();
 
   protected volatile boolean isFullyResolved = false;
 
@@ -67,23 +95,53 @@ public class JavaView extends AbstractView {
   public JavaView(
       @Nonnull List<AnalysisInputLocation> inputLocations,
       @Nonnull ClassCacheProvider cacheProvider) {
-    this(inputLocations, cacheProvider, JavaIdentifierFactory.getInstance());
+    this(inputLocations, cacheProvider, BodyRetentionPolicy.STRONG);
+  }
+
+  /**
+   * Creates a view whose method bodies are kept in memory according to the given {@link
+   * BodyRetentionPolicy}, independent of the classes kept in the cache.
+   */
+  public JavaView(
+      @Nonnull List<AnalysisInputLocation> inputLocations,
+      @Nonnull ClassCacheProvider cacheProvider,
+      @Nonnull BodyRetentionPolicy bodyRetentionPolicy) {
+    this(inputLocations, cacheProvider, JavaIdentifierFactory.getInstance(), bodyRetentionPolicy);
   }
 
   protected JavaView(
       @Nonnull List<AnalysisInputLocation> inputLocations,
       @Nonnull ClassCacheProvider cacheProvider,
       @Nonnull JavaIdentifierFactory idf) {
+    this(inputLocations, cacheProvider, idf, BodyRetentionPolicy.STRONG);
+  }
+
+  protected JavaView(
+      @Nonnull List<AnalysisInputLocation> inputLocations,
+      @Nonnull ClassCacheProvider cacheProvider,
+      @Nonnull JavaIdentifierFactory idf,
+      @Nonnull BodyRetentionPolicy bodyRetentionPolicy) {
     this.inputLocations = inputLocations;
     this.cache = cacheProvider.createCache();
     this.identifierFactory = idf;
+    this.bodyRetentionPolicy = bodyRetentionPolicy;
+  }
+
+  /**
+   * @return true if the cache retains all classes that were put into it, i.e. if it is (or
+   *     decorates) a {@link FullCache}
+   */
+  private boolean hasFullCache() {
+    final ClassCache classCache =
+        cache instanceof PersistentBodyCache ? ((PersistentBodyCache) cache).getDelegate() : cache;
+    return classCache instanceof FullCache;
   }
 
   /** Resolves all classes that are part of the view and stores them in the cache. */
   @Override
   @Nonnull
-  public synchronized Collection<JavaSootClass> getClasses() {
-    if (isFullyResolved && cache instanceof FullCache) {
+  public Collection<JavaSootClass> getClasses() {
+    if (isFullyResolved && hasFullCache()) {
       return cache.getClasses().stream()
           .map(clazz -> (JavaSootClass) clazz)
           .collect(Collectors.toList());
@@ -102,10 +160,178 @@ public class JavaView extends AbstractView {
     return resolvedClasses;
   }
 
+  /**
+   * Reads the headers of all classes that are part of the view without building the classes, unless
+   * they have all been resolved already. The {@link AnalysisInputLocation}s are scanned in
+   * parallel. If several of them contain the same class, the header of the first one wins just like
+   * for {@link #getClass(ClassType)}.
+   */
+  @Override
+  @Nonnull
+  public Collection<ClassHeader> getClassHeaders() {
+    if (isFullyResolved && hasFullCache()) {
+      return getClasses().stream().map(ClassHeader::of).collect(Collectors.toList());
+    }
+
+    List<List<ClassHeader>> headersPerLocation =
+        inputLocations
+            .parallelStream()
+            .map(
+                location ->
+                    location.getClassSources(this).stream()
+                        .map(SootClassSource::resolveHeader)
+                        .collect(Collectors.toList()))
+            .collect(Collectors.toList());
+    Map<ClassType, ClassHeader> headers = new LinkedHashMap<>();
+    for (List<ClassHeader> locationHeaders : headersPerLocation) {
+      for (ClassHeader header : locationHeaders) {
+        headers.putIfAbsent(header.getType(), header);
+      }
+    }
+    return headers.values();
+  }
+
+  /**
+   * Resolves all classes that are part of the view in parallel and stores them in the cache. The
+   * enumeration of the class sources of each {@link AnalysisInputLocation} and the building of each
+   * class are submitted as separate tasks to the given executor, which is not shut down afterwards.
+   */
+  @Nonnull
+  public Collection<JavaSootClass> getClasses(@Nonnull ExecutorService executor) {
+    return getClasses(executor, ClassResolutionListener.NONE);
+  }
+
+  /**
+   * Resolves all classes that are part of the view in parallel and stores them in the cache. The
+   * enumeration of the class sources of each {@link AnalysisInputLocation} and the building of each
+   * class are submitted as separate tasks to the given executor, which is not shut down afterwards.
+   *
+   * @param listener is notified about the progress and is able to cancel the resolution
+   * @throws CancellationException if the listener cancelled the resolution or the calling thread
+   *     was interrupted while waiting for the results
+   */
+  @Nonnull
+  public Collection<JavaSootClass> getClasses(
+      @Nonnull ExecutorService executor, @Nonnull ClassResolutionListener listener) {
+    if (isFullyResolved && hasFullCache()) {
+      return getClasses();
+    }
+
+    List<Future<Collection<? extends SootClassSource>>> classSourceFutures =
+        inputLocations.stream()
+            .map(
+                location ->
+                    executor.<Collection<? extends SootClassSource>>submit(
+                        () -> location.getClassSources(this)))
+            .collect(Collectors.toList());
+    List<SootClassSource> classSources = new ArrayList<>();
+    awaitAll(classSourceFutures).forEach(classSources::addAll);
+
+    final int totalCount = classSources.size();
+    listener.resolutionStarted(totalCount);
+    AtomicInteger resolvedCount = new AtomicInteger();
+    List<Future<JavaSootClass>> classFutures =
+        classSources.stream()
+            .map(
+                classSource ->
+                    executor.submit(
+                        () -> {
+                          if (listener.isCancelled()) {
+                            throw new CancellationException("Class resolution was cancelled.");
+                          }
+                          JavaSootClass clazz = buildClassFrom(classSource).get();
+                          listener.classResolved(
+                              clazz, resolvedCount.incrementAndGet(), totalCount);
+                          return clazz;
+                        }))
+            .collect(Collectors.toList());
+    List<JavaSootClass> resolvedClasses = awaitAll(classFutures);
+
+    isFullyResolved = true;
+
+    return resolvedClasses;
+  }
+
+  /**
+   * Resolves all classes of the view like {@link #getClasses(ExecutorService)} and then the bodies
+   * of all their methods like {@link #resolveBodies(Collection, ExecutorService, BiConsumer)}.
+   */
+  public void resolveBodies(
+      @Nonnull ExecutorService executor,
+      @Nonnull BiConsumer<? super JavaSootMethod, ? super Body> consumer) {
+    resolveBodies(getClasses(executor), executor, consumer);
+  }
+
+  /**
+   * Resolves the bodies of all methods of the given classes in parallel. Each body is lifted from
+   * its body source and passed through the body interceptors in a separate task on the given
+   * executor, which is not shut down afterwards. The bodies are kept according to the {@link
+   * BodyRetentionPolicy} of the view, i.e. later calls of {@link JavaSootMethod#getBody()} do not
+   * resolve them again unless the policy dropped them in the meantime.
+   *
+   * @param consumer receives each body as soon as it is resolved. It is called from the worker
+   *     threads in no particular order, so it needs to be thread-safe.
+   * @throws CancellationException if the calling thread was interrupted while waiting for the
+   *     bodies
+   */
+  public void resolveBodies(
+      @Nonnull Collection<? extends JavaSootClass> classes,
+      @Nonnull ExecutorService executor,
+      @Nonnull BiConsumer<? super JavaSootMethod, ? super Body> consumer) {
+    // the tasks have no result, so that the futures do not keep the bodies reachable
+    List<Future<?>> bodyFutures =
+        classes.stream()
+            .flatMap(clazz -> clazz.getMethods().stream())
+            .filter(JavaSootMethod::hasBody)
+            .<Future<?>>map(
+                method -> executor.submit(() -> consumer.accept(method, method.getBody())))
+            .collect(Collectors.toList());
+    awaitAll(bodyFutures, result -> {});
+  }
+
+  /**
+   * Waits for all futures in order and collects their results. If one of them fails or the waiting
+   * thread is interrupted, the remaining futures are cancelled.
+   */
+  @Nonnull
+  private static <T> List<T> awaitAll(@Nonnull List<Future<T>> futures) {
+    List<T> results = new ArrayList<>(futures.size());
+    awaitAll(futures, results::add);
+    return results;
+  }
+
+  /**
+   * Waits for all futures in order and passes their results to the given consumer. If one of them
+   * fails or the waiting thread is interrupted, the remaining futures are cancelled.
+   */
+  private static <T> void awaitAll(
+      @Nonnull List<? extends Future<? extends T>> futures,
+      @Nonnull Consumer<? super T> resultConsumer) {
+    try {
+      for (Future<? extends T> future : futures) {
+        resultConsumer.accept(future.get());
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for the resolution.");
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
   /** Resolves the class matching the provided {@link ClassType ClassType}. */
   @Override
   @Nonnull
-  public synchronized Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+  public Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
     JavaSootClass cachedClass = (JavaSootClass) cache.getClass(type);
     if (cachedClass != null) {
       return Optional.of(cachedClass);
@@ -135,6 +361,12 @@ public class JavaView extends AbstractView {
     return identifierFactory;
   }
 
+  @Nonnull
+  @Override
+  public BodyRetentionPolicy getBodyRetentionPolicy() {
+    return bodyRetentionPolicy;
+  }
+
   /** Returns the number of classes that are currently stored in the cache. */
   public int getCachedClassesCount() {
     return cache.size();
@@ -155,17 +387,12 @@ public class JavaView extends AbstractView {
   }
 
   @Nonnull
-  protected synchronized Optional<JavaSootClass> buildClassFrom(AbstractClassSource classSource) {
+  protected Optional<JavaSootClass> buildClassFrom(AbstractClassSource classSource) {
 
     ClassType classType = classSource.getClassType();
-    JavaSootClass theClass;
-    if (cache.hasClass(classType)) {
-      theClass = (JavaSootClass) cache.getClass(classType);
-    } else {
-      theClass =
-          (JavaSootClass)
-              classSource.buildClass(classSource.getAnalysisInputLocation().getSourceType());
-      cache.putClass(classType, theClass);
+    JavaSootClass theClass = (JavaSootClass) cache.getClass(classType);
+    if (theClass == null) {
+      theClass = buildAndCacheClass(classSource);
     }
 
     if (theClass.getType() instanceof AnnotationType) {
@@ -175,4 +402,53 @@ public class JavaView extends AbstractView {
 
     return Optional.of(theClass);
   }
+
+  /**
+   * Builds the class from the given classSource and stores it in the cache. If another thread is
+   * already building the same {@link ClassType}, this waits for and returns its result instead.
+   */
+  @Nonnull
+  private JavaSootClass buildAndCacheClass(@Nonnull AbstractClassSource classSource) {
+    ClassType classType = classSource.getClassType();
+    CompletableFuture<JavaSootClass> ownFuture = new CompletableFuture<>();
+    CompletableFuture<JavaSootClass> runningFuture =
+        classesInResolution.putIfAbsent(classType, ownFuture);
+    if (runningFuture != null) {
+      try {
+        return runningFuture.join();
+      } catch (CompletionException e) {
+        // rethrow what the building thread has thrown, as if it was built on this thread
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw e;
+      }
+    }
+
+    try {
+      // another thread could have finished building the class in the meantime
+      JavaSootClass theClass = (JavaSootClass) cache.getClass(classType);
+      if (theClass == null) {
+        theClass =
+            (JavaSootClass)
+                classSource.buildClass(classSource.getAnalysisInputLocation().getSourceType());
+        cache.putClass(classType, theClass);
+        // the cache may store a decorated instance e.g. a PersistentBodyCache
+        final JavaSootClass cachedClass = (JavaSootClass) cache.getClass(classType);
+        if (cachedClass != null) {
+          theClass = cachedClass;
+        }
+      }
+      ownFuture.complete(theClass);
+      return theClass;
+    } catch (RuntimeException | Error e) {
+      ownFuture.completeExceptionally(e);
+      throw e;
+    } finally {
+      classesInResolution.remove(classType, ownFuture);
+    }
+  }
 }
@@ -0,0 +1,148 @@
+package sootup.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.model.Body;
+import sootup.core.model.SourceType;
+import sootup.core.transform.BodyInterceptor;
+import sootup.core.transform.BodyInterceptorMetrics;
+import sootup.core.transform.BodyInterceptorMetrics.InterceptorStatistics;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.bytecode.interceptors.BytecodeBodyInterceptors;
+import sootup.java.bytecode.interceptors.TypeAssigner;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.views.JavaView;
+
+/** Tests the measurement of {@link BodyInterceptor}s via {@link BodyInterceptorMetrics}. */
+@Tag("Java8")
+public class BodyInterceptorMetricsTest {
+  static final String pathToJar = "../shared-test-resources/java-miniapps/MiniApp.jar";
+
+  @Test
+  public void recordsEachInterceptor() {
+    BodyInterceptorMetrics metrics = new BodyInterceptorMetrics();
+    List<BodyInterceptor> interceptors = BytecodeBodyInterceptors.Default.getBodyInterceptors();
+    JavaView view =
+        new JavaView(
+            new JavaClassPathAnalysisInputLocation(
+                pathToJar, SourceType.Application, metrics.instrument(interceptors)));
+
+    int bodies = 0;
+    for (JavaSootClass clazz : view.getClasses()) {
+      for (JavaSootMethod method : clazz.getMethods()) {
+        if (method.hasBody()) {
+          method.getBody();
+          bodies++;
+        }
+      }
+    }
+    assertTrue(bodies > 0);
+
+    Map<BodyInterceptor, InterceptorStatistics> statistics = metrics.getStatistics(view);
+    assertEquals(interceptors, new ArrayList<>(statistics.keySet()));
+    long stmtsAfterPrevious = -1;
+    for (InterceptorStatistics interceptorStatistics : statistics.values()) {
+      assertEquals(bodies, interceptorStatistics.getApplications());
+      assertEquals(0, interceptorStatistics.getFailures());
+      assertTrue(interceptorStatistics.getWallTimeNanos() > 0);
+      if (stmtsAfterPrevious >= 0) {
+        // each interceptor continues with the result of the previous one
+        assertEquals(stmtsAfterPrevious, interceptorStatistics.getStmtsBefore());
+      }
+      stmtsAfterPrevious = interceptorStatistics.getStmtsAfter();
+    }
+    String json = metrics.toJson(view);
+    assertTrue(json.startsWith("[") && json.endsWith("]"));
+    int typeAssignerIndex = 0;
+    while (!(interceptors.get(typeAssignerIndex) instanceof TypeAssigner)) {
+      typeAssignerIndex++;
+    }
+    assertTrue(
+        json.contains(
+            "\"index\": "
+                + typeAssignerIndex
+                + ", \"interceptor\": \""
+                + TypeAssigner.class.getName()
+                + "\""));
+
+    // statistics are kept per view
+    assertTrue(metrics.getStatistics(new JavaView(Collections.emptyList())).isEmpty());
+  }
+
+  @Test
+  public void countsFailures() {
+    BodyInterceptorMetrics metrics = new BodyInterceptorMetrics();
+    BodyInterceptor failing =
+        (builder, view) -> {
+          throw new IllegalStateException("failing interceptor");
+        };
+    JavaView view =
+        new JavaView(
+            new JavaClassPathAnalysisInputLocation(
+                pathToJar,
+                SourceType.Application,
+                metrics.instrument(Collections.singletonList(failing))));
+
+    JavaSootMethod method =
+        view.getClasses().stream()
+            .flatMap(clazz -> clazz.getMethods().stream())
+            .filter(JavaSootMethod::hasBody)
+            .findFirst()
+            .get();
+    assertThrows(IllegalStateException.class, method::getBody);
+
+    InterceptorStatistics statistics = metrics.getStatistics(view).get(failing);
+    assertEquals(1, statistics.getApplications());
+    assertEquals(1, statistics.getFailures());
+    assertEquals(0, statistics.getStmtsAfter());
+  }
+
+  /** An interceptor that does not change the body. */
+  private static class NoopInterceptor implements BodyInterceptor {
+    @Override
+    public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View view) {}
+  }
+
+  @Test
+  public void distinguishesInterceptorInstances() {
+    BodyInterceptorMetrics metrics = new BodyInterceptorMetrics();
+    BodyInterceptor first = new NoopInterceptor();
+    BodyInterceptor second = new NoopInterceptor();
+    List<BodyInterceptor> instrumented = metrics.instrument(Arrays.asList(first, second, first));
+    JavaView view =
+        new JavaView(
+            new JavaClassPathAnalysisInputLocation(
+                pathToJar, SourceType.Application, instrumented));
+    view.getClasses().stream()
+        .flatMap(clazz -> clazz.getMethods().stream())
+        .filter(JavaSootMethod::hasBody)
+        .findFirst()
+        .get()
+        .getBody();
+
+    // the first interceptor was instrumented twice and is listed once, with both applications
+    Map<BodyInterceptor, InterceptorStatistics> statistics = metrics.getStatistics(view);
+    assertEquals(Arrays.asList(first, second), new ArrayList<>(statistics.keySet()));
+    assertEquals(2, statistics.get(first).getApplications());
+    assertEquals(1, statistics.get(second).getApplications());
+
+    String json = metrics.toJson(view);
+    String name = NoopInterceptor.class.getName();
+    assertTrue(
+        json.contains("\"index\": 0, \"interceptor\": \"" + name + "\", \"applications\": 2"));
+    assertTrue(
+        json.contains("\"index\": 1, \"interceptor\": \"" + name + "\", \"applications\": 1"));
+  }
+}
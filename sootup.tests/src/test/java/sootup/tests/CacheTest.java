@@ -1,20 +1,61 @@
 package sootup.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sootup.core.cache.BodyRetentionPolicy;
+import sootup.core.cache.ConcurrentLRUCache;
+import sootup.core.cache.FullCache;
+import sootup.core.cache.persistent.PersistentBodySource;
+import sootup.core.cache.persistent.PersistentBodyStore;
+import sootup.core.cache.provider.ConcurrentLRUCacheProvider;
 import sootup.core.cache.provider.FullCacheProvider;
 import sootup.core.cache.provider.LRUCacheProvider;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.Body;
+import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.cache.PersistentBodyCacheProvider;
 import sootup.java.core.views.JavaView;
 
 /**
@@ -75,4 +116,322 @@ public class CacheTest {
     newView.getClasses();
     assertEquals(6, newView.getCachedClassesCount());
   }
+
+  /** Test the {@link ConcurrentLRUCache} class */
+  @Test
+  public void concurrentLruCacheTest() {
+    ConcurrentLRUCacheProvider provider = new ConcurrentLRUCacheProvider(1);
+    JavaView view = new JavaView(inputLocations, provider);
+    assertEquals(0, view.getCachedClassesCount());
+
+    ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+    view.getClass(miniAppClassType);
+    assertEquals(1, view.getCachedClassesCount());
+
+    ClassType utilsOperationClassType =
+        view.getIdentifierFactory().getClassType("utils.Operations");
+    view.getClass(utilsOperationClassType);
+    assertEquals(1, view.getCachedClassesCount());
+
+    JavaView newView = new JavaView(inputLocations, new ConcurrentLRUCacheProvider(100));
+    newView.getClasses();
+    assertEquals(6, newView.getCachedClassesCount());
+  }
+
+  /** Test the weighted eviction and statistics of the {@link ConcurrentLRUCache} class */
+  @Test
+  public void weightedConcurrentLruCacheTest() {
+    ConcurrentLRUCache cache =
+        new ConcurrentLRUCache(1000, ConcurrentLRUCache.METHOD_COUNT_WEIGHER);
+    JavaView view = new JavaView(inputLocations, new FullCacheProvider());
+    ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+
+    assertNull(cache.getClass(miniAppClassType));
+    cache.putClass(miniAppClassType, view.getClass(miniAppClassType).get());
+    assertEquals(miniAppClassType, cache.getClass(miniAppClassType).getType());
+    assertEquals(1, cache.getStats().hitCount());
+    assertEquals(1, cache.getStats().missCount());
+
+    ConcurrentLRUCache tinyCache =
+        new ConcurrentLRUCache(1, ConcurrentLRUCache.METHOD_COUNT_WEIGHER);
+    tinyCache.putClass(miniAppClassType, view.getClass(miniAppClassType).get());
+    assertEquals(0, tinyCache.size());
+    assertEquals(1, tinyCache.getStats().evictionCount());
+  }
+
+  /** Test the retention of bodies with different {@link BodyRetentionPolicy}s */
+  @Test
+  public void bodyRetentionPolicyTest() {
+    JavaView strongView =
+        new JavaView(inputLocations, new FullCacheProvider(), BodyRetentionPolicy.STRONG);
+    JavaSootMethod method = getMainMethod(strongView);
+    assertSame(method.getBody(), method.getBody());
+
+    JavaView recomputingView =
+        new JavaView(inputLocations, new FullCacheProvider(), BodyRetentionPolicy.RECOMPUTE);
+    method = getMainMethod(recomputingView);
+    Body body = method.getBody();
+    assertNotSame(body, method.getBody());
+    assertEquals(body.getStmts().size(), method.getBody().getStmts().size());
+
+    JavaView lruView =
+        new JavaView(
+            inputLocations, new FullCacheProvider(), BodyRetentionPolicy.leastRecentlyUsed(1));
+    method = getMainMethod(lruView);
+    body = method.getBody();
+    assertSame(body, method.getBody());
+    lruView.getClasses().stream()
+        .flatMap(clazz -> clazz.getMethods().stream())
+        .filter(otherMethod -> otherMethod.hasBody() && otherMethod != getMainMethod(lruView))
+        .findFirst()
+        .ifPresent(JavaSootMethod::getBody);
+    assertNotSame(body, method.getBody());
+  }
+
+  /** Test that bodies resolved without retaining the method code match the retained ones. */
+  @Test
+  public void discardingMethodCodeTest() {
+    JavaView view = new JavaView(inputLocations, new FullCacheProvider());
+    BodyRetentionPolicy discardingPolicy = BodyRetentionPolicy.RECOMPUTE.discardingMethodCode();
+    assertFalse(discardingPolicy.retainsMethodCode());
+    JavaView discardingView =
+        new JavaView(inputLocations, new FullCacheProvider(), discardingPolicy);
+
+    int methodsWithBody = 0;
+    for (JavaSootClass clazz : view.getClasses()) {
+      JavaSootClass discardingClass = discardingView.getClass(clazz.getType()).get();
+      for (JavaSootMethod method : clazz.getMethods()) {
+        if (!method.hasBody()) {
+          continue;
+        }
+        JavaSootMethod discardingMethod =
+            discardingClass.getMethod(method.getSignature().getSubSignature()).get();
+        // the code is parsed again for each resolution
+        assertEquals(method.getBody().toString(), discardingMethod.getBody().toString());
+        assertEquals(method.getBody().toString(), discardingMethod.getBody().toString());
+        methodsWithBody++;
+      }
+    }
+    assertTrue(methodsWithBody > 0);
+  }
+
+  private static JavaSootMethod getMainMethod(JavaView view) {
+    ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+    return view.getClass(miniAppClassType).get().getMethods().stream()
+        .filter(method -> method.getName().equals("main"))
+        .findFirst()
+        .get();
+  }
+
+  /** Test that concurrent requests for the same class resolve to a single instance. */
+  @Test
+  public void concurrentResolutionTest() throws Exception {
+    JavaView view = new JavaView(inputLocations, new FullCacheProvider());
+    ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<JavaSootClass>> futures =
+          IntStream.range(0, 32)
+              .mapToObj(i -> executor.submit(() -> view.getClass(miniAppClassType).get()))
+              .collect(Collectors.toList());
+      JavaSootClass expected = futures.get(0).get();
+      for (Future<JavaSootClass> future : futures) {
+        assertSame(expected, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, view.getCachedClassesCount());
+  }
+
+  /**
+   * Test that an Error thrown while a class is built reaches a thread that waits for the same class
+   * as is.
+   */
+  @Test
+  public void concurrentResolutionRethrowsErrors() throws Exception {
+    CountDownLatch building = new CountDownLatch(1);
+    CountDownLatch fail = new CountDownLatch(1);
+    JavaView view =
+        new JavaView(
+            inputLocations,
+            () ->
+                new FullCache() {
+                  @Override
+                  public void putClass(ClassType classType, SootClass sootClass) {
+                    building.countDown();
+                    try {
+                      fail.await();
+                    } catch (InterruptedException e) {
+                      Thread.currentThread().interrupt();
+                    }
+                    throw new ResolutionError();
+                  }
+                });
+    ClassType miniAppClassType = view.getIdentifierFactory().getClassType("MiniApp");
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> builder = executor.submit(() -> view.getClass(miniAppClassType));
+      building.await();
+      AtomicReference<Thread> waiter = new AtomicReference<>();
+      Future<?> waiting =
+          executor.submit(
+              () -> {
+                waiter.set(Thread.currentThread());
+                return view.getClass(miniAppClassType);
+              });
+      // wait until the second thread waits for the class the first one is building
+      while (waiter.get() == null
+          || Arrays.stream(waiter.get().getStackTrace())
+              .noneMatch(
+                  frame ->
+                      frame.getClassName().equals(CompletableFuture.class.getName())
+                          && frame.getMethodName().equals("join"))) {
+        Thread.sleep(1);
+      }
+      fail.countDown();
+
+      ExecutionException built = assertThrows(ExecutionException.class, builder::get);
+      ExecutionException waited = assertThrows(ExecutionException.class, waiting::get);
+      assertTrue(built.getCause() instanceof ResolutionError);
+      assertSame(built.getCause(), waited.getCause());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static class ResolutionError extends Error {}
+
+  /** Test that the {@link PersistentBodyCacheProvider} reuses stored Bodies in a new view. */
+  @Test
+  public void persistentBodyCacheTest(@TempDir Path storeDirectory) throws IOException {
+    String storedBody;
+    try (PersistentBodyStore store =
+        new PersistentBodyStore(storeDirectory, JavaIdentifierFactory.getInstance())) {
+      JavaView view = new JavaView(inputLocations, new PersistentBodyCacheProvider(store));
+      JavaSootMethod method = getMainMethod(view);
+      assertTrue(method.getBodySource() instanceof PersistentBodySource);
+      storedBody = method.getBody().toString();
+      assertEquals(1, store.size());
+    }
+
+    try (PersistentBodyStore store =
+        new PersistentBodyStore(storeDirectory, JavaIdentifierFactory.getInstance())) {
+      JavaView view = new JavaView(inputLocations, new PersistentBodyCacheProvider(store));
+      JavaSootMethod method = getMainMethod(view);
+      assertEquals(1, store.size());
+      assertEquals(storedBody, method.getBody().toString());
+      assertEquals(1, store.size());
+    }
+  }
+
+  /** Test that the stored Bodies of an archive are not used anymore once the archive changed. */
+  @Test
+  public void persistentBodyCacheChangedArchiveTest(@TempDir Path tempDirectory)
+      throws IOException {
+    Path jar = Files.copy(pathToJar, tempDirectory.resolve("MiniApp.jar"));
+    Path storeDirectory = tempDirectory.resolve("store");
+    List<AnalysisInputLocation> jarLocations =
+        Collections.singletonList(
+            PathBasedAnalysisInputLocation.create(jar, SourceType.Application));
+    String storedBody;
+    try (PersistentBodyStore store =
+        new PersistentBodyStore(storeDirectory, JavaIdentifierFactory.getInstance())) {
+      JavaView view = new JavaView(jarLocations, new PersistentBodyCacheProvider(store));
+      storedBody = getMainMethod(view).getBody().toString();
+      assertEquals(1, store.size());
+    }
+
+    try (FileSystem zipFileSystem =
+        FileSystems.newFileSystem(URI.create("jar:" + jar.toUri()), Collections.emptyMap())) {
+      Files.write(zipFileSystem.getPath("changed.txt"), new byte[] {1});
+    }
+
+    try (PersistentBodyStore store =
+        new PersistentBodyStore(storeDirectory, JavaIdentifierFactory.getInstance())) {
+      JavaView view = new JavaView(jarLocations, new PersistentBodyCacheProvider(store));
+      JavaSootMethod method = getMainMethod(view);
+      assertEquals(0, store.size());
+      assertEquals(storedBody, method.getBody().toString());
+      assertEquals(1, store.size());
+    }
+    try (Stream<Path> files = Files.list(storeDirectory)) {
+      assertEquals(2, files.count());
+    }
+  }
+
+  /** Test that a truncated segment file is repaired and its Bodies are resolved again. */
+  @Test
+  public void persistentBodyCacheTruncatedSegmentTest(@TempDir Path storeDirectory)
+      throws IOException {
+    assertPersistentBodyCacheRecovers(
+        storeDirectory,
+        segment -> {
+          try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /** Test that a stored Body whose bytes are corrupted is resolved again. */
+  @Test
+  public void persistentBodyCacheCorruptedSegmentTest(@TempDir Path storeDirectory)
+      throws IOException {
+    assertPersistentBodyCacheRecovers(
+        storeDirectory,
+        segment -> {
+          try {
+            // change a string constant of the main method, so the record is still readable
+            byte[] bytes = Files.readAllBytes(segment);
+            int constant = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("Irina");
+            assertTrue(constant > 0);
+            System.arraycopy("Irene".getBytes(StandardCharsets.ISO_8859_1), 0, bytes, constant, 5);
+            Files.write(segment, bytes);
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /** Test that a segment file with an invalid header is discarded. */
+  @Test
+  public void persistentBodyCacheInvalidHeaderTest(@TempDir Path storeDirectory)
+      throws IOException {
+    assertPersistentBodyCacheRecovers(
+        storeDirectory,
+        segment -> {
+          try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0}), 0);
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  private void assertPersistentBodyCacheRecovers(
+      @Nonnull Path storeDirectory, @Nonnull Consumer<Path> corruption) throws IOException {
+    String storedBody;
+    try (PersistentBodyStore store =
+        new PersistentBodyStore(storeDirectory, JavaIdentifierFactory.getInstance())) {
+      JavaView view = new JavaView(inputLocations, new PersistentBodyCacheProvider(store));
+      storedBody = getMainMethod(view).getBody().toString();
+      assertEquals(1, store.size());
+    }
+
+    try (Stream<Path> files = Files.list(storeDirectory)) {
+      files.forEach(corruption);
+    }
+
+    for (int run = 0; run < 2; run++) {
+      try (PersistentBodyStore store =
+          new PersistentBodyStore(storeDirectory, JavaIdentifierFactory.getInstance())) {
+        JavaView view = new JavaView(inputLocations, new PersistentBodyCacheProvider(store));
+        assertEquals(storedBody, getMainMethod(view).getBody().toString());
+      }
+    }
+  }
 }
@@ -0,0 +1,115 @@
+package sootup.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.jimple.serialization.BodyReader;
+import sootup.core.jimple.serialization.BodyWriter;
+import sootup.core.jimple.serialization.JimpleDataInput;
+import sootup.core.jimple.serialization.JimpleDataOutput;
+import sootup.core.jimple.serialization.SootClassReader;
+import sootup.core.jimple.serialization.SootClassWriter;
+import sootup.core.model.Body;
+import sootup.core.model.SootClass;
+import sootup.core.model.SourceType;
+import sootup.core.types.ClassType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.jimple.serialization.JavaSootClassWriter;
+import sootup.java.core.views.JavaView;
+
+/** Tests that classes and bodies survive a roundtrip through the binary Jimple format. */
+@Tag("Java8")
+public class JimpleSerializationTest {
+  static Path pathToJar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  static AnalysisInputLocation inputLocation;
+
+  @BeforeAll
+  public static void setupProject() {
+    inputLocation = PathBasedAnalysisInputLocation.create(pathToJar, SourceType.Application);
+  }
+
+  @Test
+  public void bodyRoundtrip() {
+    JavaView view = new JavaView(Collections.singletonList(inputLocation));
+    for (JavaSootClass sootClass : view.getClasses()) {
+      for (JavaSootMethod method : sootClass.getMethods()) {
+        if (!method.hasBody()) {
+          continue;
+        }
+        Body body = method.getBody();
+        JimpleDataOutput out = new JimpleDataOutput();
+        BodyWriter.write(body, out);
+
+        JimpleDataInput in = new JimpleDataInput(out.toByteArray(), view.getIdentifierFactory());
+        Body readBody = BodyReader.read(in);
+        assertFalse(in.hasRemaining());
+        assertEquals(body.getMethodSignature(), readBody.getMethodSignature());
+        assertEquals(body.toString(), readBody.toString());
+      }
+    }
+  }
+
+  @Test
+  public void classRoundtrip() {
+    JavaView view = new JavaView(Collections.singletonList(inputLocation));
+    List<JavaSootClass> classes = new ArrayList<>(view.getClasses());
+
+    // all classes share the constant pools of a single stream
+    JimpleDataOutput out = new JimpleDataOutput();
+    SootClassWriter.writeHeader(out);
+    for (JavaSootClass sootClass : classes) {
+      JavaSootClassWriter.write(sootClass, view, out);
+    }
+
+    JimpleDataInput in = new JimpleDataInput(out.toByteArray(), view.getIdentifierFactory());
+    SootClassReader.readHeader(in);
+    for (JavaSootClass sootClass : classes) {
+      SootClass readClass =
+          new SootClass(SootClassReader.read(in, inputLocation, pathToJar), SourceType.Application);
+      assertEquals(sootClass.getType(), readClass.getType());
+      assertEquals(sootClass.getModifiers(), readClass.getModifiers());
+      assertEquals(sootClass.getSuperclass(), readClass.getSuperclass());
+      assertEquals(sootClass.getInterfaces(), readClass.getInterfaces());
+      assertEquals(sootClass.getFields().size(), readClass.getFields().size());
+      assertEquals(sootClass.getMethods().size(), readClass.getMethods().size());
+      assertEquals(sootClass.print(), readClass.print());
+    }
+    assertFalse(in.hasRemaining());
+  }
+
+  @Test
+  public void rejectsIncompatibleHeader() {
+    JavaView view = new JavaView(Collections.singletonList(inputLocation));
+    JimpleDataOutput out = new JimpleDataOutput();
+    out.writeInt(SootClassWriter.MAGIC);
+    out.writeVarInt(SootClassWriter.FORMAT_VERSION + 1);
+
+    JimpleDataInput in = new JimpleDataInput(out.toByteArray(), view.getIdentifierFactory());
+    assertThrows(IllegalStateException.class, () -> SootClassReader.readHeader(in));
+  }
+
+  @Test
+  public void rejectsAnnotatedClasses() {
+    JavaView view =
+        new JavaView(
+            Collections.singletonList(
+                PathBasedAnalysisInputLocation.create(
+                    Paths.get("../shared-test-resources/miniTestSuite/java6/binary"),
+                    SourceType.Application)));
+    ClassType classType = view.getIdentifierFactory().getClassType("AnnotationUsage");
+    JavaSootClass sootClass = view.getClass(classType).get();
+    assertThrows(IllegalArgumentException.class, () -> JavaSootClassWriter.write(sootClass, view));
+  }
+}
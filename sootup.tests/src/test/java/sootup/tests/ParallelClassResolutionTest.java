@@ -0,0 +1,157 @@
+package sootup.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import sootup.core.cache.BodyRetentionPolicy;
+import sootup.core.cache.provider.FullCacheProvider;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.model.Body;
+import sootup.core.model.SourceType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import sootup.java.core.views.ClassResolutionListener;
+import sootup.java.core.views.JavaView;
+
+/** Tests the parallel bulk resolution of classes and bodies via a {@link JavaView}. */
+@Tag("Java8")
+public class ParallelClassResolutionTest {
+  static Path pathToJar = Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar");
+  static List<AnalysisInputLocation> inputLocations;
+  static ExecutorService executor;
+
+  @BeforeAll
+  public static void setup() {
+    inputLocations =
+        Collections.singletonList(
+            PathBasedAnalysisInputLocation.create(pathToJar, SourceType.Application));
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterAll
+  public static void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void resolvesAllClasses() {
+    JavaView view = new JavaView(inputLocations);
+    AtomicInteger notifications = new AtomicInteger();
+    AtomicInteger total = new AtomicInteger(-1);
+    Collection<JavaSootClass> classes =
+        view.getClasses(
+            executor,
+            new ClassResolutionListener() {
+              @Override
+              public void resolutionStarted(int totalCount) {
+                total.set(totalCount);
+              }
+
+              @Override
+              public void classResolved(
+                  @Nonnull JavaSootClass clazz, int resolvedCount, int totalCount) {
+                notifications.incrementAndGet();
+              }
+            });
+
+    assertEquals(6, classes.size());
+    assertEquals(6, total.get());
+    assertEquals(6, notifications.get());
+    assertEquals(6, view.getCachedClassesCount());
+    assertEquals(new JavaView(inputLocations).getClasses().size(), classes.size());
+  }
+
+  @Test
+  public void cancelsResolution() {
+    JavaView view = new JavaView(inputLocations);
+    assertThrows(
+        CancellationException.class,
+        () ->
+            view.getClasses(
+                executor,
+                new ClassResolutionListener() {
+                  @Override
+                  public boolean isCancelled() {
+                    return true;
+                  }
+                }));
+    assertEquals(0, view.getCachedClassesCount());
+  }
+
+  @Test
+  public void resolvesAllBodies() {
+    JavaView view = new JavaView(inputLocations);
+    Map<JavaSootMethod, Body> bodies = new ConcurrentHashMap<>();
+    view.resolveBodies(executor, bodies::put);
+
+    int methodsWithBody = 0;
+    for (JavaSootClass clazz : view.getClasses()) {
+      for (JavaSootMethod method : clazz.getMethods()) {
+        if (method.hasBody()) {
+          methodsWithBody++;
+          // the body is retained and not resolved again
+          assertSame(bodies.get(method), method.getBody());
+        }
+      }
+    }
+    assertEquals(methodsWithBody, bodies.size());
+  }
+
+  @Test
+  public void doesNotRetainResolvedBodies() {
+    JavaView view =
+        new JavaView(inputLocations, new FullCacheProvider(), BodyRetentionPolicy.RECOMPUTE);
+    Collection<JavaSootClass> classes = view.getClasses();
+    long methodsWithBody =
+        classes.stream()
+            .flatMap(clazz -> clazz.getMethods().stream())
+            .filter(JavaSootMethod::hasBody)
+            .count();
+    List<WeakReference<Body>> resolvedBodies = new ArrayList<>();
+    AtomicBoolean earlierBodiesCollected = new AtomicBoolean();
+
+    ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+    try {
+      view.resolveBodies(
+          classes,
+          singleThreadExecutor,
+          (method, body) -> {
+            resolvedBodies.add(new WeakReference<>(body));
+            if (resolvedBodies.size() == methodsWithBody) {
+              // the resolution must not hold on to the bodies it already handed out
+              WeakReference<Body> first = resolvedBodies.get(0);
+              for (int i = 0; i < 100 && first.get() != null; i++) {
+                System.gc();
+              }
+              earlierBodiesCollected.set(first.get() == null);
+            }
+          });
+    } finally {
+      singleThreadExecutor.shutdown();
+    }
+    assertEquals(methodsWithBody, resolvedBodies.size());
+    assertTrue(earlierBodiesCollected.get());
+  }
+}
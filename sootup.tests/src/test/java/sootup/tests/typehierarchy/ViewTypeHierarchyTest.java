@@ -19,12 +19,14 @@ import sootup.core.IdentifierFactory;
 import sootup.core.model.ClassModifier;
 import sootup.core.model.SootClass;
 import sootup.core.model.SourceType;
+import sootup.core.typehierarchy.ClassHeader;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 import sootup.core.types.*;
 import sootup.core.util.ImmutableUtils;
 import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
 import sootup.java.core.JavaIdentifierFactory;
 import sootup.java.core.OverridingJavaClassSource;
+import sootup.java.core.types.JavaClassType;
 import sootup.java.core.views.JavaView;
 
 /** @author Kaustubh Kelkar update on 22.04.2020 */
@@ -55,6 +57,23 @@ public class ViewTypeHierarchyTest {
     typeHierarchy = new ViewTypeHierarchy(view);
   }
 
+  @Test
+  public void classHeaders() {
+    JavaView headerView =
+        new JavaView(
+            new JavaClassPathAnalysisInputLocation(
+                "../shared-test-resources/java-miniapps/MiniApp.jar"));
+    Collection<ClassHeader> headers = headerView.getClassHeaders();
+    // the headers are read without building the classes
+    assertEquals(0, headerView.getCachedClassesCount());
+
+    Set<ClassHeader> expectedHeaders =
+        headerView.getClasses().stream().map(ClassHeader::of).collect(Collectors.toSet());
+    assertEquals(expectedHeaders.size(), headers.size());
+    assertEquals(expectedHeaders, new HashSet<>(headers));
+    assertEquals(expectedHeaders, new HashSet<>(headerView.getClassHeaders()));
+  }
+
   @Test
   public void implementersOf() {
     IdentifierFactory factory = view.getIdentifierFactory();
@@ -202,6 +221,47 @@ public class ViewTypeHierarchyTest {
         "Newly added type must be detected as a subtype");
   }
 
+  @Test
+  public void cachedClosures() {
+    JavaIdentifierFactory factory = view.getIdentifierFactory();
+    ClassType abstractDataStructure = factory.getClassType("ds.AbstractDataStrcture");
+    JavaClassType employee = factory.getClassType("ds.Employee");
+
+    Set<ClassType> subclasses = typeHierarchy.subclassesOf(abstractDataStructure);
+    assertSame(subclasses, typeHierarchy.subclassesOf(abstractDataStructure));
+    assertThrows(UnsupportedOperationException.class, () -> subclasses.add(employee));
+    assertSame(typeHierarchy.superClassesOf(employee), typeHierarchy.superClassesOf(employee));
+    assertTrue(typeHierarchy.isSubtype(abstractDataStructure, employee));
+    assertFalse(typeHierarchy.isSubtype(employee, abstractDataStructure));
+    assertFalse(typeHierarchy.isSubtype(employee, employee));
+
+    // adding a type invalidates the closures of its supertypes
+    OverridingJavaClassSource classSource =
+        new OverridingJavaClassSource(
+            analysisInputLocation,
+            null,
+            factory.getClassType("adummytype.Type"),
+            employee,
+            Collections.emptySet(),
+            null,
+            Collections.emptySet(),
+            Collections.emptySet(),
+            null,
+            EnumSet.of(ClassModifier.FINAL),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.emptyList());
+    SootClass sootClass = new SootClass(classSource, SourceType.Application);
+    typeHierarchy.addType(sootClass);
+
+    assertTrue(typeHierarchy.subclassesOf(abstractDataStructure).contains(sootClass.getType()));
+    assertFalse(subclasses.contains(sootClass.getType()));
+    assertTrue(typeHierarchy.isSubtype(abstractDataStructure, sootClass.getType()));
+    assertEquals(
+        immutableList(employee, abstractDataStructure, factory.getClassType("java.lang.Object")),
+        typeHierarchy.superClassesOf(sootClass.getType()));
+  }
+
   @Test
   public void arraySubtyping() {
     IdentifierFactory factory = view.getIdentifierFactory();